@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.concurrent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.xml.sax.SAXException;
+
+import org.apache.tika.config.TimeoutLimits;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.exception.TikaTimeoutException;
+import org.apache.tika.parser.ParseContext;
+
+/**
+ * A fixed-size pool of daemon threads for the parts of one document that a
+ * parser extracts concurrently, e.g. the sheets of a workbook or the entries
+ * of an archive.
+ * <p>
+ * The pool belongs to a single parse: create it on the parsing thread and
+ * close it, which stops any task that is still running, when the parse is
+ * done. Callers bound the number of tasks they have in flight themselves.
+ *
+ * @since Apache Tika 4.0
+ */
+public class ParseWorkerPool implements Closeable {
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final String name;
+
+    private final ExecutorService executorService;
+
+    private final TimeoutLimits timeoutLimits;
+
+    /**
+     * @param name    names the threads and the tasks in error messages, e.g. "xlsx-sheet"
+     * @param threads number of worker threads
+     * @param context the parse context of the document; if it has {@link TimeoutLimits},
+     *                {@link #await(Future)} waits for at most the progress timeout
+     */
+    public ParseWorkerPool(String name, int threads, ParseContext context) {
+        this.name = name;
+        this.timeoutLimits = context.get(TimeoutLimits.class);
+        int poolId = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, name + "-" + poolId + "-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executorService.submit(task);
+    }
+
+    /**
+     * Waits for a task and returns its result. The exception that the task
+     * threw, if any, is rethrown as is.
+     *
+     * @throws IOException if the wait timed out or was interrupted
+     */
+    public <T> T await(Future<T> future) throws IOException, SAXException, TikaException {
+        try {
+            if (timeoutLimits == null) {
+                return future.get();
+            }
+            return future.get(timeoutLimits.getProgressTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IOException(new TikaTimeoutException(
+                    "timed out after " + timeoutLimits.getProgressTimeoutMillis() +
+                            " ms waiting for a " + name + " task"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted waiting for a " + name + " task", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof SAXException) {
+                throw (SAXException) cause;
+            } else if (cause instanceof TikaException) {
+                throw (TikaException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TikaException(name + " task failed", cause);
+        }
+    }
+
+    /**
+     * Stops the worker threads, interrupting any task that is still running.
+     */
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+}
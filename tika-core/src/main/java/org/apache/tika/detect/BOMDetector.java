@@ -17,13 +17,13 @@
 package org.apache.tika.detect;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.io.ByteOrderMark;
-import org.apache.commons.io.IOUtils;
 
 import org.apache.tika.config.TikaComponent;
 import org.apache.tika.io.TikaInputStream;
@@ -73,19 +73,18 @@ public class BOMDetector implements EncodingDetector {
     @Override
     public List<EncodingResult> detect(TikaInputStream tis, Metadata metadata,
                                        ParseContext parseContext) throws IOException {
-        tis.mark(MAX_BYTES);
-        byte[] bytes = new byte[MAX_BYTES];
-        try {
-            int numRead = IOUtils.read(tis, bytes);
-            if (numRead < MIN_BYTES) {
-                return Collections.emptyList();
-            } else if (numRead < MAX_BYTES) {
-                byte[] tmpBytes = new byte[numRead];
-                System.arraycopy(bytes, 0, tmpBytes, 0, numRead);
-                bytes = tmpBytes;
-            }
-        } finally {
-            tis.reset();
+        if (tis == null) {
+            return Collections.emptyList();
+        }
+        return detect(DetectionProbe.get(tis, parseContext, MAX_BYTES), metadata, parseContext);
+    }
+
+    @Override
+    public List<EncodingResult> detect(DetectionProbe probe, Metadata metadata,
+                                       ParseContext parseContext) throws IOException {
+        ByteBuffer bytes = probe.atLeast(MAX_BYTES, parseContext).getBuffer(MAX_BYTES);
+        if (bytes.remaining() < MIN_BYTES) {
+            return Collections.emptyList();
         }
         for (int i = 0; i < BOMS.length; i++) {
             ByteOrderMark bom = BOMS[i];
@@ -97,13 +96,13 @@ public class BOMDetector implements EncodingDetector {
         return Collections.emptyList();
     }
 
-    private boolean startsWith(ByteOrderMark bom, byte[] bytes) {
+    private boolean startsWith(ByteOrderMark bom, ByteBuffer bytes) {
         byte[] bomBytes = bom.getBytes();
-        if (bytes.length < bomBytes.length) {
+        if (bytes.remaining() < bomBytes.length) {
             return false;
         }
         for (int i = 0; i < bomBytes.length; i++) {
-            if (bomBytes[i] != bytes[i]) {
+            if (bomBytes[i] != bytes.get(i)) {
                 return false;
             }
         }
@@ -80,12 +80,15 @@ public class CompositeDetector implements Detector {
         }
         MediaType type = MediaType.OCTET_STREAM;
 
-        //we have to iterate through all detectors because the override detector may
-        //be within a CompositeDetector
-        for (Detector detector : getDetectors()) {
-            MediaType detected = detector.detect(tis, metadata, parseContext);
-            if (registry.isSpecializationOf(detected, type)) {
-                type = detected;
+        //children that read the stream through a DetectionProbe share a single read
+        try (DetectionProbe.Scope scope = DetectionProbe.openScope(parseContext)) {
+            //we have to iterate through all detectors because the override detector may
+            //be within a CompositeDetector
+            for (Detector detector : getDetectors()) {
+                MediaType detected = detector.detect(tis, metadata, parseContext);
+                if (registry.isSpecializationOf(detected, type)) {
+                    type = detected;
+                }
             }
         }
         return type;
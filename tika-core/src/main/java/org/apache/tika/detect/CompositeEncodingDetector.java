@@ -92,24 +92,50 @@ public class CompositeEncodingDetector implements EncodingDetector, Serializable
         return meta;
     }
 
+    /**
+     * Reads the start of the stream once into a {@link DetectionProbe} and
+     * hands it to every child via
+     * {@link EncodingDetector#detect(DetectionProbe, Metadata, ParseContext)}.
+     */
     @Override
     public List<EncodingResult> detect(TikaInputStream tis, Metadata metadata,
                                        ParseContext parseContext) throws IOException {
+        if (tis == null) {
+            return detect((DetectionProbe) null, metadata, parseContext);
+        }
+        try (DetectionProbe.Scope scope = DetectionProbe.openScope(parseContext)) {
+            DetectionProbe probe = DetectionProbe.get(tis, parseContext, DetectionProbe.DEFAULT_LENGTH);
+            return detect(probe, metadata, parseContext);
+        }
+    }
+
+    @Override
+    public List<EncodingResult> detect(DetectionProbe probe, Metadata metadata,
+                                       ParseContext parseContext) throws IOException {
         if (metaDetector != null) {
-            return detectWithMeta(tis, metadata, parseContext);
+            return detectWithMeta(probe, metadata, parseContext);
+        }
+        return detectFirstMatch(probe, metadata, parseContext);
+    }
+
+    private static List<EncodingResult> detect(EncodingDetector detector, DetectionProbe probe,
+                                               Metadata metadata, ParseContext parseContext)
+            throws IOException {
+        if (probe == null) {
+            return detector.detect((TikaInputStream) null, metadata, parseContext);
         }
-        return detectFirstMatch(tis, metadata, parseContext);
+        return detector.detect(probe, metadata, parseContext);
     }
 
     /**
      * Traditional first-match-wins behavior: returns the results from the
      * first detector that produces a non-empty list.
      */
-    private List<EncodingResult> detectFirstMatch(TikaInputStream tis, Metadata metadata,
+    private List<EncodingResult> detectFirstMatch(DetectionProbe probe, Metadata metadata,
                                                   ParseContext parseContext)
             throws IOException {
         for (EncodingDetector detector : getDetectors()) {
-            List<EncodingResult> results = detector.detect(tis, metadata, parseContext);
+            List<EncodingResult> results = detect(detector, probe, metadata, parseContext);
             if (!results.isEmpty()) {
                 Charset detected = results.get(0).getCharset();
                 metadata.set(TikaCoreProperties.DETECTED_ENCODING, detected.name());
@@ -128,13 +154,11 @@ public class CompositeEncodingDetector implements EncodingDetector, Serializable
      * Collect-all mode: run every base detector, populate context,
      * then let the meta detector arbitrate.
      *
-     * <p>The stream is marked once before the base-detector loop.  After all
-     * base detectors have run (potentially consuming the stream), it is reset
-     * to that mark so the meta detector can re-read the raw bytes for
-     * language-based arbitration.  Base detectors are not reset between
-     * themselves — each handles its own mark/reset internally if needed.</p>
+     * <p>All detectors, including the meta detector, see the same probe.
+     * Detectors that still read the stream themselves are expected to
+     * mark/reset it, so it is back at the start of the probe after each.</p>
      */
-    private List<EncodingResult> detectWithMeta(TikaInputStream tis, Metadata metadata,
+    private List<EncodingResult> detectWithMeta(DetectionProbe probe, Metadata metadata,
                                                 ParseContext parseContext)
             throws IOException {
         EncodingDetectorContext context = new EncodingDetectorContext();
@@ -142,16 +166,14 @@ public class CompositeEncodingDetector implements EncodingDetector, Serializable
 
         try {
             for (EncodingDetector detector : baseDetectors) {
-                List<EncodingResult> detected = detector.detect(tis, metadata, parseContext);
+                List<EncodingResult> detected = detect(detector, probe, metadata, parseContext);
                 if (!detected.isEmpty()) {
                     context.addResult(detected, detector.getClass().getSimpleName());
                 }
             }
 
-            // Each base detector handles its own mark/reset, so the stream is
-            // back at the start here. CharSoup handles its own mark/reset too.
             List<EncodingResult> metaResults =
-                    metaDetector.detect(tis, metadata, parseContext);
+                    detect(metaDetector, probe, metadata, parseContext);
 
             List<EncodingResult> finalResults;
             String detectorName;
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.detect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.parser.ParseContext;
+
+/**
+ * A read-only view of the first bytes of a document, read once and shared
+ * by the {@link Detector}s and {@link EncodingDetector}s that look at the
+ * same stream.
+ *
+ * <p>Detectors obtain a probe with {@link #get(TikaInputStream, ParseContext, int)}
+ * instead of marking, reading and resetting the stream themselves.
+ * While a {@link Scope} is open on the {@link ParseContext} (the composite
+ * detectors open one around their children), the first probe that is read is
+ * kept in the context, at least {@link #DEFAULT_LENGTH} bytes long, and is
+ * handed to every later caller for the same stream at the same position.
+ * Outside of a scope, each call reads exactly what was asked for.</p>
+ *
+ * <p>The bytes are exposed as a read-only {@link ByteBuffer}, as a stream or
+ * as copies; callers can't modify what other detectors see.</p>
+ *
+ * @since Apache Tika 4.0
+ */
+public class DetectionProbe {
+
+    /**
+     * Minimum number of bytes read for a shared probe. This covers
+     * {@link org.apache.tika.mime.MimeTypes#getMinLength()} and the default
+     * read limits of the encoding detectors.
+     */
+    public static final int DEFAULT_LENGTH = 64 * 1024;
+
+    private final TikaInputStream stream;
+    private final long position;
+    private final byte[] bytes;
+    private final boolean complete;
+
+    private DetectionProbe(TikaInputStream stream, long position, byte[] bytes, boolean complete) {
+        this.stream = stream;
+        this.position = position;
+        this.bytes = bytes;
+        this.complete = complete;
+    }
+
+    /**
+     * Returns a probe of at least <code>minLength</code> bytes (or all of the stream,
+     * if it is shorter) starting at the current position of the stream. Reuses the
+     * probe in the parse context if it covers the request, otherwise reads the stream,
+     * resetting it before returning.
+     *
+     * @param tis          the document stream, must support mark/reset
+     * @param parseContext the parse context, may be <code>null</code>
+     * @param minLength    the number of bytes the caller needs
+     * @return the probe
+     * @throws IOException if the stream can't be read
+     */
+    public static DetectionProbe get(TikaInputStream tis, ParseContext parseContext, int minLength) throws IOException {
+        if (parseContext == null) {
+            return read(tis, minLength);
+        }
+        DetectionProbe current = parseContext.get(DetectionProbe.class);
+        if (current != null && current.covers(tis, minLength)) {
+            return current;
+        }
+        if (parseContext.get(Scope.class) == null) {
+            return read(tis, minLength);
+        }
+        DetectionProbe probe = read(tis, Math.max(minLength, DEFAULT_LENGTH));
+        parseContext.set(DetectionProbe.class, probe);
+        return probe;
+    }
+
+    /**
+     * Wraps bytes that the caller has already read. The probe is treated as
+     * the complete document and has no backing stream. The array is not copied
+     * and must not be modified afterwards.
+     */
+    public static DetectionProbe of(byte[] bytes) {
+        return new DetectionProbe(null, 0, bytes, true);
+    }
+
+    /**
+     * Opens a scope in which probes are shared via the parse context. If a scope
+     * is already open, the returned scope does nothing on close, so that the
+     * outermost caller owns the probe.
+     *
+     * @param parseContext the parse context, may be <code>null</code>
+     * @return the scope; close it when detection is done
+     */
+    public static Scope openScope(ParseContext parseContext) {
+        if (parseContext == null || parseContext.get(Scope.class) != null) {
+            return Scope.NO_OP;
+        }
+        Scope scope = new Scope(parseContext);
+        parseContext.set(Scope.class, scope);
+        return scope;
+    }
+
+    private static DetectionProbe read(TikaInputStream tis, int length) throws IOException {
+        long position = tis.getPosition();
+        byte[] buffer = new byte[length];
+        int read;
+        tis.mark(length);
+        try {
+            read = IOUtils.read(tis, buffer);
+        } finally {
+            tis.reset();
+        }
+        if (read < length) {
+            return new DetectionProbe(tis, position, Arrays.copyOf(buffer, read), true);
+        }
+        return new DetectionProbe(tis, position, buffer, false);
+    }
+
+    private boolean covers(TikaInputStream tis, int minLength) {
+        return stream == tis && position == tis.getPosition() && (complete || bytes.length >= minLength);
+    }
+
+    /**
+     * Returns this probe if it has at least <code>minLength</code> bytes or holds the whole
+     * document, otherwise reads a longer probe from the backing stream.
+     */
+    public DetectionProbe atLeast(int minLength, ParseContext parseContext) throws IOException {
+        if (complete || bytes.length >= minLength || stream == null) {
+            return this;
+        }
+        return get(stream, parseContext, minLength);
+    }
+
+    /**
+     * @return the number of bytes in the probe
+     */
+    public int getLength() {
+        return bytes.length;
+    }
+
+    /**
+     * @return <code>true</code> if the document ended within the probe,
+     * i.e. the probe holds the whole document
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the stream the probe was read from, positioned at the start of the probe,
+     * or <code>null</code> if the probe was built from bytes
+     */
+    public TikaInputStream getStream() {
+        return stream;
+    }
+
+    /**
+     * @return a read-only buffer over the whole probe, positioned at zero
+     */
+    public ByteBuffer getBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a read-only buffer over the first <code>maxLength</code> bytes
+     * of the probe (or fewer, if the probe is shorter)
+     */
+    public ByteBuffer getBuffer(int maxLength) {
+        return ByteBuffer.wrap(bytes, 0, Math.min(maxLength, bytes.length)).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a new stream over the first <code>maxLength</code> bytes of the probe
+     * (or fewer, if the probe is shorter); the bytes are not copied
+     */
+    public InputStream newInputStream(int maxLength) throws IOException {
+        return UnsynchronizedByteArrayInputStream.builder()
+                .setByteArray(bytes)
+                .setOffset(0)
+                .setLength(Math.min(maxLength, bytes.length))
+                .get();
+    }
+
+    /**
+     * @return a copy of the first <code>maxLength</code> bytes of the probe
+     * (or fewer, if the probe is shorter)
+     */
+    public byte[] copyOf(int maxLength) {
+        return Arrays.copyOf(bytes, Math.min(maxLength, bytes.length));
+    }
+
+    /**
+     * Marks a {@link ParseContext} as sharing probes. Closing the scope removes
+     * the shared probe from the context.
+     */
+    public static class Scope implements AutoCloseable {
+
+        private static final Scope NO_OP = new Scope(null);
+
+        private final ParseContext parseContext;
+
+        private Scope(ParseContext parseContext) {
+            this.parseContext = parseContext;
+        }
+
+        @Override
+        public void close() {
+            if (parseContext != null) {
+                parseContext.set(DetectionProbe.class, null);
+                parseContext.set(Scope.class, null);
+            }
+        }
+    }
+}
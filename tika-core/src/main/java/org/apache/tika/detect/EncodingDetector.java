@@ -69,4 +69,34 @@ public interface EncodingDetector extends Serializable, SelfConfiguring {
      */
     List<EncodingResult> detect(TikaInputStream tis, Metadata metadata,
                                 ParseContext parseContext) throws IOException;
+
+    /**
+     * Detects the character encoding from a {@link DetectionProbe} of the
+     * start of the document, so that several detectors can share one read of
+     * the stream.
+     *
+     * <p>The default implementation falls back to
+     * {@link #detect(TikaInputStream, Metadata, ParseContext)} on the probe's
+     * backing stream. Detectors that only need a prefix of the document
+     * should override this and read from the probe instead; if the probe is
+     * shorter than they need, {@link DetectionProbe#atLeast(int, ParseContext)}
+     * returns a longer one.</p>
+     *
+     * @param probe        probe of the start of the document
+     * @param metadata     input metadata for the document
+     * @param parseContext the parse context
+     * @return ranked list of encoding results, empty if unknown; never {@code null}
+     * @throws IOException if the document input stream could not be read
+     * @since Apache Tika 4.0
+     */
+    default List<EncodingResult> detect(DetectionProbe probe, Metadata metadata,
+                                        ParseContext parseContext) throws IOException {
+        TikaInputStream tis = probe.getStream();
+        if (tis == null) {
+            try (TikaInputStream bytes = TikaInputStream.get(probe.copyOf(probe.getLength()))) {
+                return detect(bytes, metadata, parseContext);
+            }
+        }
+        return detect(tis, metadata, parseContext);
+    }
 }
@@ -22,8 +22,8 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -94,6 +94,16 @@ public class MagicDetector implements Detector {
      * starts at this offset.
      */
     private final int offsetRangeEnd;
+    /**
+     * Compiled form of the {@link #pattern} for regular expressions,
+     * created on first use.
+     */
+    private transient volatile Pattern compiledPattern;
+    /**
+     * For non-regex patterns, the byte values (0-255) that can start a match.
+     * Used to skip ahead quickly when scanning an offset range.
+     */
+    private final boolean[] firstBytes;
 
     /**
      * Creates a detector for input documents that have the exact given byte
@@ -185,6 +195,15 @@ public class MagicDetector implements Detector {
 
         this.offsetRangeBegin = offsetRangeBegin;
         this.offsetRangeEnd = offsetRangeEnd;
+
+        if (!isRegex && this.length > 0) {
+            this.firstBytes = new boolean[256];
+            for (int b = 0; b < 256; b++) {
+                this.firstBytes[b] = byteMatches((byte) b, 0);
+            }
+        } else {
+            this.firstBytes = null;
+        }
     }
 
     public static MagicDetector parse(MediaType mediaType, String type, String offset, String value,
@@ -347,55 +366,82 @@ public class MagicDetector implements Detector {
             return MediaType.OCTET_STREAM;
         }
 
-        tis.mark(offsetRangeEnd + length);
-        try {
-            int offset = 0;
-
-            // Skip bytes at the beginning, using skip() or read()
-            while (offset < offsetRangeBegin) {
-                long n = tis.skip(offsetRangeBegin - offset);
-                if (n > 0) {
-                    offset += n;
-                } else if (tis.read() != -1) {
-                    offset += 1;
-                } else {
-                    return MediaType.OCTET_STREAM;
-                }
-            }
+        DetectionProbe probe = DetectionProbe.get(tis, parseContext, offsetRangeEnd + length);
+        ByteBuffer bytes = probe.getBuffer(offsetRangeEnd + length);
+        int available = bytes.remaining();
+        if (available < offsetRangeBegin) {
+            return MediaType.OCTET_STREAM;
+        }
 
-            // Fill in the comparison window
-            byte[] buffer = new byte[length + (offsetRangeEnd - offsetRangeBegin)];
-            int n = tis.read(buffer);
-            if (n > 0) {
-                offset += n;
-            }
-            while (n != -1 && offset < offsetRangeEnd + length) {
-                int bufferOffset = offset - offsetRangeBegin;
-                n = tis.read(buffer, bufferOffset, buffer.length - bufferOffset);
-                // increment offset - in case not all read (see testDetectStreamReadProblems)
-                if (n > 0) {
-                    offset += n;
-                }
-            }
+        // For non-regex, verify we have enough data
+        if (!isRegex && available < offsetRangeBegin + length) {
+            return MediaType.OCTET_STREAM;
+        }
 
-            // For non-regex, verify we have enough data
-            if (!isRegex && offset < offsetRangeBegin + length) {
-                return MediaType.OCTET_STREAM;
-            }
+        // The comparison window runs from offsetRangeBegin to offsetRangeEnd + length;
+        // any part of it past the end of the stream reads as zeros
+        if (matchesBuffer(bytes, offsetRangeBegin, offsetRangeEnd, offsetRangeEnd + length)) {
+            return type;
+        }
 
-            // Buffer starts at offsetRangeBegin, so search from 0 to (offsetRangeEnd - offsetRangeBegin)
-            if (matchesBuffer(buffer, 0, offsetRangeEnd - offsetRangeBegin)) {
-                return type;
+        return MediaType.OCTET_STREAM;
+    }
+
+    public int getLength() {
+        return this.patternLength;
+    }
+
+    /**
+     * Returns the set of values (0-255) that the byte at the given offset
+     * of the document can take if this detector is to match, or
+     * <code>null</code> if this detector places no constraint on that byte.
+     * Regular expressions and magics with an offset range never constrain
+     * a single byte.
+     * <p>
+     * This is used to build a dispatch index over many magics, so that
+     * only the candidates compatible with the actual data get evaluated.
+     *
+     * @param offset offset within the document
+     * @return possible byte values, or <code>null</code> if unconstrained
+     */
+    public BitSet getPossibleBytesAt(int offset) {
+        if (isRegex || offsetRangeBegin != offsetRangeEnd || offset < offsetRangeBegin ||
+                offset >= offsetRangeBegin + length) {
+            return null;
+        }
+        int j = offset - offsetRangeBegin;
+        BitSet possible = new BitSet(256);
+        for (int b = 0; b < 256; b++) {
+            if (byteMatches((byte) b, j)) {
+                possible.set(b);
             }
+        }
+        return possible;
+    }
 
-            return MediaType.OCTET_STREAM;
-        } finally {
-            tis.reset();
+    /**
+     * Whether the given input byte matches position <code>j</code> of
+     * a non-regex pattern.
+     */
+    private boolean byteMatches(byte b, int j) {
+        int masked = (b & mask[j]);
+        if (this.isStringIgnoreCase) {
+            masked = Character.toLowerCase(masked);
         }
+        return masked == pattern[j];
     }
 
-    public int getLength() {
-        return this.patternLength;
+    private Pattern getCompiledPattern() {
+        Pattern p = compiledPattern;
+        if (p == null) {
+            int flags = 0;
+            if (this.isStringIgnoreCase) {
+                flags = Pattern.CASE_INSENSITIVE;
+            }
+            p = Pattern.compile(new String(this.pattern, UTF_8), flags);
+            compiledPattern = p;
+        }
+        return p;
     }
 
     /**
@@ -410,26 +456,45 @@ public class MagicDetector implements Detector {
         if (data == null) {
             return false;
         }
+        return matches(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Checks if the bytes from the buffer's position to its limit match this
+     * magic pattern. The bytes are read in place, e.g. from a read-only
+     * {@link DetectionProbe#getBuffer(int)}, and the buffer's position is not
+     * changed.
+     *
+     * @param data the bytes to check
+     * @return true if the data matches this magic pattern, false otherwise
+     * @since Apache Tika 4.0
+     */
+    public boolean matches(ByteBuffer data) {
+        if (data == null) {
+            return false;
+        }
+        ByteBuffer bytes = data.slice();
+        int dataLength = bytes.remaining();
 
         // For non-regex, we need at least patternLength bytes starting at offsetRangeBegin.
         // For regex, we can match with less data since the pattern may be shorter than the buffer.
         if (!isRegex) {
             int requiredLength = offsetRangeBegin + length;
-            if (data.length < requiredLength) {
+            if (dataLength < requiredLength) {
                 return false;
             }
             // For non-regex, we need enough data after the start position for the pattern
-            int maxOffset = Math.min(offsetRangeEnd, data.length - length);
-            return matchesBuffer(data, offsetRangeBegin, maxOffset);
+            int maxOffset = Math.min(offsetRangeEnd, dataLength - length);
+            return matchesBuffer(bytes, offsetRangeBegin, maxOffset, dataLength);
         } else {
             // For regex, just need data to reach offsetRangeBegin
-            if (data.length <= offsetRangeBegin) {
+            if (dataLength <= offsetRangeBegin) {
                 return false;
             }
-            // For regex, try all positions up to min(offsetRangeEnd, data.length - 1)
+            // For regex, try all positions up to min(offsetRangeEnd, dataLength - 1)
             // The regex pattern can match even at the last byte position
-            int maxOffset = Math.min(offsetRangeEnd, data.length - 1);
-            return matchesBuffer(data, offsetRangeBegin, maxOffset);
+            int maxOffset = Math.min(offsetRangeEnd, dataLength - 1);
+            return matchesBuffer(bytes, offsetRangeBegin, maxOffset, dataLength);
         }
     }
 
@@ -437,26 +502,22 @@ public class MagicDetector implements Detector {
      * Core matching logic that checks if the pattern matches anywhere in the buffer
      * within the specified offset range.
      *
-     * @param buffer the byte array to search in
+     * @param buffer the bytes to search in, indexed from zero
      * @param startOffset the first position in the buffer to start matching (inclusive)
      * @param endOffset the last position in the buffer to start matching (inclusive)
+     * @param windowEnd end of the bytes to compare (exclusive); positions between
+     *                  the buffer's limit and windowEnd read as zeros
      * @return true if a match is found, false otherwise
      */
-    private boolean matchesBuffer(byte[] buffer, int startOffset, int endOffset) {
+    private boolean matchesBuffer(ByteBuffer buffer, int startOffset, int endOffset, int windowEnd) {
         if (this.isRegex) {
-            int flags = 0;
-            if (this.isStringIgnoreCase) {
-                flags = Pattern.CASE_INSENSITIVE;
-            }
-
-            Pattern p = Pattern.compile(new String(this.pattern, UTF_8), flags);
+            Pattern p = getCompiledPattern();
 
-            int bufferLen = Math.min(buffer.length - startOffset, length + (endOffset - startOffset));
+            int bufferLen = Math.min(windowEnd - startOffset, length + (endOffset - startOffset));
             if (bufferLen <= 0) {
                 return false;
             }
-            ByteBuffer bb = ByteBuffer.wrap(buffer, startOffset, bufferLen);
-            CharBuffer result = ISO_8859_1.decode(bb);
+            CharSequence result = new Latin1CharSequence(buffer, startOffset, bufferLen);
             Matcher m = p.matcher(result);
 
             // Loop until we've covered the entire offset range
@@ -473,17 +534,15 @@ public class MagicDetector implements Detector {
         } else {
             // Loop until we've covered the entire offset range
             for (int i = startOffset; i <= endOffset; i++) {
-                if (i + length > buffer.length) {
+                if (i + length > windowEnd) {
                     break;
                 }
+                if (firstBytes != null && !firstBytes[byteAt(buffer, i) & 0xFF]) {
+                    continue;
+                }
                 boolean match = true;
-                int masked;
-                for (int j = 0; match && j < length; j++) {
-                    masked = (buffer[i + j] & mask[j]);
-                    if (this.isStringIgnoreCase) {
-                        masked = Character.toLowerCase(masked);
-                    }
-                    match = (masked == pattern[j]);
+                for (int j = 1; match && j < length; j++) {
+                    match = byteMatches(byteAt(buffer, i + j), j);
                 }
                 if (match) {
                     return true;
@@ -494,6 +553,60 @@ public class MagicDetector implements Detector {
         return false;
     }
 
+    private static byte byteAt(ByteBuffer buffer, int index) {
+        return index < buffer.limit() ? buffer.get(index) : 0;
+    }
+
+    /**
+     * Read-only ISO_8859_1 view of a byte buffer. Each byte maps to exactly
+     * one char, so the regex can run over the bytes without decoding them
+     * into a fresh buffer for every magic. Positions past the buffer's limit
+     * read as zeros.
+     */
+    private static final class Latin1CharSequence implements CharSequence {
+
+        private final ByteBuffer bytes;
+        private final int offset;
+        private final int length;
+
+        Latin1CharSequence(ByteBuffer bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+            }
+            return (char) (byteAt(bytes, offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException(
+                        "start " + start + ", end " + end + ", length " + length);
+            }
+            return new Latin1CharSequence(bytes, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            byte[] copy = new byte[length];
+            for (int i = 0; i < length; i++) {
+                copy[i] = byteAt(bytes, offset + i);
+            }
+            return new String(copy, ISO_8859_1);
+        }
+    }
+
     /**
      * Returns a string representation of the Detection Rule.
      * Should sort nicely by type and details, as we sometimes
@@ -17,6 +17,7 @@
 package org.apache.tika.detect;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.apache.tika.io.TikaInputStream;
@@ -130,14 +131,34 @@ public class TextDetector implements Detector {
                 m = tis.read(buffer, 0, Math.min(bytesToTest - n, buffer.length));
             }
 
-            if (stats.isMostlyAscii() || stats.looksLikeUTF8()) {
-                return MediaType.TEXT_PLAIN;
-            } else {
-                return MediaType.OCTET_STREAM;
-            }
+            return detect(stats);
         } finally {
             tis.reset();
         }
     }
 
+    /**
+     * Determines whether the document is text or not from its first bytes,
+     * which are already in memory: those between the buffer's position and
+     * its limit. The buffer's position is not changed.
+     *
+     * @param data the first bytes of the document
+     * @return "text/plain" if the bytes suggest a text document,
+     * "application/octet-stream" otherwise
+     * @since Apache Tika 4.0
+     */
+    public MediaType detect(ByteBuffer data) {
+        TextStatistics stats = new TextStatistics();
+        stats.addData(data.slice(data.position(), Math.min(data.remaining(), bytesToTest)));
+        return detect(stats);
+    }
+
+    private MediaType detect(TextStatistics stats) {
+        if (stats.isMostlyAscii() || stats.looksLikeUTF8()) {
+            return MediaType.TEXT_PLAIN;
+        } else {
+            return MediaType.OCTET_STREAM;
+        }
+    }
+
 }
@@ -16,6 +16,8 @@
  */
 package org.apache.tika.detect;
 
+import java.nio.ByteBuffer;
+
 /**
  * Utility class for computing a histogram of the bytes seen in a stream.
  *
@@ -34,6 +36,19 @@ public class TextStatistics {
         }
     }
 
+    /**
+     * Adds the bytes between the buffer's position and its limit. The
+     * buffer's position is not changed.
+     *
+     * @since Apache Tika 4.0
+     */
+    public void addData(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            counts[buffer.get(i) & 0xff]++;
+            total++;
+        }
+    }
+
     /**
      * Checks whether at least one byte was seen and that the bytes that
      * were seen were mostly plain text (i.e. < 2% control, > 90% ASCII range).
@@ -18,11 +18,10 @@ package org.apache.tika.detect;
 
 import java.io.CharConversionException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 import javax.xml.namespace.QName;
 
 import org.apache.commons.io.input.CloseShieldInputStream;
-import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
@@ -40,18 +39,30 @@ public class XmlRootExtractor {
     private static final ParseContext EMPTY_CONTEXT = new ParseContext();
 
     public QName extractRootElement(byte[] data) {
+        return extractRootElement(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Extracts the root element from the bytes between the buffer's position
+     * and its limit. The bytes are read in place and the buffer's position is
+     * not changed.
+     *
+     * @since Apache Tika 4.0
+     */
+    public QName extractRootElement(ByteBuffer data) {
+        ByteBuffer bytes = data.slice();
         // this loop should be very rare
         while (true) {
             try {
-                return extractRootElement(new UnsynchronizedByteArrayInputStream(data), true);
+                return extractRootElement(new ByteBufferInputStream(bytes.duplicate()), true);
             } catch (MalformedCharException e) {
                 // see TIKA-3596, try to handle truncated/bad encoded XML files
-                int newLen = data.length / 2;
+                int newLen = bytes.remaining() / 2;
                 if (newLen % 2 == 1) {
                     newLen--;
                 }
                 if (newLen > 0) {
-                    data = Arrays.copyOf(data, newLen);
+                    bytes = bytes.slice(0, newLen);
                 } else {
                     break;
                 }
@@ -104,4 +115,39 @@ public class XmlRootExtractor {
 
     }
 
+
+    /**
+     * Reads a buffer from its position to its limit, moving its position.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
 }
@@ -17,12 +17,22 @@
 package org.apache.tika.digest;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.ParseContext;
 
 
+/**
+ * Runs several digesters over the same stream.
+ * <p>
+ * The {@link InputStreamDigester}s that do not override
+ * {@link #digest(TikaInputStream, Metadata, ParseContext)} are computed together in a single pass over
+ * the stream, so configuring several algorithms does not read the stream once per
+ * algorithm. Any other digesters are run one after another.
+ */
 public class CompositeDigester implements Digester {
 
     private final Digester[] digesters;
@@ -31,10 +41,35 @@ public class CompositeDigester implements Digester {
         this.digesters = digesters;
     }
 
+    Digester[] getDigesters() {
+        return digesters;
+    }
+
     @Override
     public void digest(TikaInputStream tis, Metadata m, ParseContext parseContext) throws IOException {
+        List<InputStreamDigester> streamDigesters = new ArrayList<>();
         for (Digester digester : digesters) {
-            digester.digest(tis, m, parseContext);
+            if (MultiDigest.isPlain(digester, InputStreamDigester.class)) {
+                streamDigesters.add((InputStreamDigester) digester);
+            } else {
+                digester.digest(tis, m, parseContext);
+            }
+        }
+        if (streamDigesters.isEmpty()) {
+            return;
+        }
+        if (streamDigesters.size() == 1) {
+            streamDigesters.get(0).digest(tis, m, parseContext);
+            return;
+        }
+        MultiDigest multiDigest = new MultiDigest(streamDigesters);
+        tis.enableRewind();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = tis.read(buffer)) != -1) {
+            multiDigest.update(buffer, 0, read);
         }
+        multiDigest.finish(m);
+        tis.rewind();
     }
 }
@@ -16,6 +16,7 @@
  */
 package org.apache.tika.digest;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
@@ -42,6 +43,11 @@ import org.apache.tika.parser.ParseContext;
  *   }
  * }
  * </pre>
+ * <p>
+ * If the factory's {@link DigesterFactory#isDigestWhileParsing()} is true, a stream
+ * that is not backed by a file is digested as the parser reads it (see
+ * {@link #maybeTee(TikaInputStream, Metadata, ParseContext)}) instead of being
+ * read, cached and rewound before parsing.
  */
 public class DigestHelper {
 
@@ -61,10 +67,68 @@ public class DigestHelper {
     public static void maybeDigest(TikaInputStream tis,
                                    Metadata metadata,
                                    ParseContext context) throws IOException {
+        Digester digester = getDigester(metadata, context);
+        if (digester == null) {
+            return;
+        }
+
+        // Handle embedded stream translation if needed (e.g., for OLE2 objects in TikaInputStream's open container)
+        if (EMBEDDED_STREAM_TRANSLATOR.shouldTranslate(tis, metadata)) {
+            try (TemporaryResources tmp = new TemporaryResources()) {
+                Path tmpBytes = tmp.createTempFile();
+                try (OutputStream os = Files.newOutputStream(tmpBytes)) {
+                    EMBEDDED_STREAM_TRANSLATOR.translate(tis, metadata, os);
+                }
+                try (TikaInputStream translated = TikaInputStream.get(tmpBytes)) {
+                    digester.digest(translated, metadata, context);
+                }
+            }
+        } else {
+            digester.digest(tis, metadata, context);
+        }
+    }
+
+    /**
+     * If the configured DigesterFactory asks to digest while parsing, and digesting
+     * up front would require caching the stream so that it could be rewound,
+     * returns a {@link Tee} whose stream should be parsed in place of tis. The bytes
+     * are digested as the parser reads them, and {@link Tee#finish(boolean)} digests
+     * whatever the parser did not read and stores the digests.
+     * <p>
+     * The digests are therefore only in the metadata once the parse is done: unlike
+     * with {@link #maybeDigest(TikaInputStream, Metadata, ParseContext)}, they are not
+     * in the metadata that the parser writes into the XHTML head, nor in what a
+     * handler sees while the parse is running.
+     *
+     * @return the tee or null if the stream should be digested with
+     * {@link #maybeDigest(TikaInputStream, Metadata, ParseContext)} instead
+     */
+    public static Tee maybeTee(TikaInputStream tis, Metadata metadata, ParseContext context) {
+        DigesterFactory digesterFactory = context.get(DigesterFactory.class);
+        if (digesterFactory == null || !digesterFactory.isDigestWhileParsing()) {
+            return null;
+        }
+        if (tis.hasFile() || tis.getOpenContainer() != null || tis.getPosition() != 0) {
+            return null;
+        }
+        Digester digester = getDigester(metadata, context);
+        if (digester == null) {
+            return null;
+        }
+        MultiDigest multiDigest = MultiDigest.of(digester);
+        if (multiDigest == null) {
+            return null;
+        }
+        DigestingInputStream digesting = new DigestingInputStream(tis, multiDigest);
+        return new Tee(TikaInputStream.get(digesting, new TemporaryResources(), metadata),
+                digesting, multiDigest, metadata);
+    }
+
+    private static Digester getDigester(Metadata metadata, ParseContext context) {
         DigesterFactory digesterFactory = context.get(DigesterFactory.class);
 
         if (digesterFactory == null) {
-            return;
+            return null;
         }
 
         // Get skip setting from factory or ParseContext marker
@@ -74,25 +138,58 @@ public class DigestHelper {
         if (skipContainer) {
             Integer depth = metadata.getInt(TikaCoreProperties.EMBEDDED_DEPTH);
             if (depth == null || depth == 0) {
-                return;
+                return null;
             }
         }
+        return digesterFactory.build();
+    }
 
-        Digester digester = digesterFactory.build();
+    /**
+     * Digests a stream while it is being parsed.
+     */
+    public static class Tee implements Closeable {
 
-        // Handle embedded stream translation if needed (e.g., for OLE2 objects in TikaInputStream's open container)
-        if (EMBEDDED_STREAM_TRANSLATOR.shouldTranslate(tis, metadata)) {
-            try (TemporaryResources tmp = new TemporaryResources()) {
-                Path tmpBytes = tmp.createTempFile();
-                try (OutputStream os = Files.newOutputStream(tmpBytes)) {
-                    EMBEDDED_STREAM_TRANSLATOR.translate(tis, metadata, os);
-                }
-                try (TikaInputStream translated = TikaInputStream.get(tmpBytes)) {
-                    digester.digest(translated, metadata, context);
+        private final TikaInputStream stream;
+        private final DigestingInputStream digesting;
+        private final MultiDigest multiDigest;
+        private final Metadata metadata;
+
+        private Tee(TikaInputStream stream, DigestingInputStream digesting,
+                    MultiDigest multiDigest, Metadata metadata) {
+            this.stream = stream;
+            this.digesting = digesting;
+            this.multiDigest = multiDigest;
+            this.metadata = metadata;
+        }
+
+        /**
+         * @return the stream to parse in place of the original stream
+         */
+        public TikaInputStream getStream() {
+            return stream;
+        }
+
+        /**
+         * Digests the bytes that the parser did not read, stores the digests in the
+         * metadata and closes the stream returned by {@link #getStream()}.
+         *
+         * @param parseSucceeded if false, the rest of the stream is not read, no
+         *                       digests are stored, and the stream is only closed
+         */
+        public void finish(boolean parseSucceeded) throws IOException {
+            try {
+                if (parseSucceeded) {
+                    digesting.drain();
+                    multiDigest.finish(metadata);
                 }
+            } finally {
+                close();
             }
-        } else {
-            digester.digest(tis, metadata, context);
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.close();
         }
     }
 }
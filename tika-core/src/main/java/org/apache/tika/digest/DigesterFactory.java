@@ -64,4 +64,18 @@ public interface DigesterFactory {
     default boolean isSkipContainerDocumentDigest() {
         return false;
     }
+
+    /**
+     * Returns whether to digest a stream while the parser reads it rather than
+     * reading the whole stream before parsing. This avoids caching and rewinding
+     * streams that are not backed by a file. It only applies to digesters
+     * made of {@link InputStreamDigester}s.
+     * <p>
+     * Default implementation returns false (digest before parsing).
+     *
+     * @return true if streams should be digested while parsing
+     */
+    default boolean isDigestWhileParsing() {
+        return false;
+    }
 }
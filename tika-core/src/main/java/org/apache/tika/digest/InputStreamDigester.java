@@ -56,7 +56,7 @@ public class InputStreamDigester implements Digester {
         }
     }
 
-    private MessageDigest newMessageDigest() {
+    MessageDigest newMessageDigest() {
         try {
             Provider provider = getProvider();
             if (provider == null) {
@@ -106,10 +106,18 @@ public class InputStreamDigester implements Digester {
             total += read;
         }
 
-        setContentLength(total, metadata);
-        metadata.set(metadataKey, encoder.encode(messageDigest.digest()));
+        finish(messageDigest, total, metadata);
 
         tis.rewind();
     }
 
+    /**
+     * Stores the digest of the {@code total} bytes that were fed to the
+     * messageDigest.
+     */
+    void finish(MessageDigest messageDigest, long total, Metadata metadata) {
+        setContentLength(total, metadata);
+        metadata.set(metadataKey, encoder.encode(messageDigest.digest()));
+    }
+
 }
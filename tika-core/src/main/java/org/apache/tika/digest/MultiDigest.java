@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.digest;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+
+/**
+ * Feeds each buffer to the MessageDigests of several {@link InputStreamDigester}s
+ * so that all of the algorithms are computed in one pass over the bytes.
+ */
+class MultiDigest {
+
+    private final List<InputStreamDigester> digesters;
+    private final MessageDigest[] messageDigests;
+    private long total = 0;
+
+    MultiDigest(List<InputStreamDigester> digesters) {
+        this.digesters = digesters;
+        this.messageDigests = new MessageDigest[digesters.size()];
+        for (int i = 0; i < messageDigests.length; i++) {
+            messageDigests[i] = digesters.get(i).newMessageDigest();
+        }
+    }
+
+    /**
+     * @return a MultiDigest for the digester, or null if the digester (or one of
+     * its children) is not an {@link InputStreamDigester}, or overrides
+     * {@link Digester#digest(TikaInputStream, Metadata, ParseContext)}, and must
+     * read the stream itself
+     */
+    static MultiDigest of(Digester digester) {
+        List<InputStreamDigester> digesters = new ArrayList<>();
+        if (!collect(digester, digesters)) {
+            return null;
+        }
+        return new MultiDigest(digesters);
+    }
+
+    private static boolean collect(Digester digester, List<InputStreamDigester> digesters) {
+        if (isPlain(digester, InputStreamDigester.class)) {
+            digesters.add((InputStreamDigester) digester);
+            return true;
+        }
+        if (isPlain(digester, CompositeDigester.class)) {
+            for (Digester child : ((CompositeDigester) digester).getDigesters()) {
+                if (!collect(child, digesters)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the digester is a baseClass whose digest() is baseClass's own.
+     * Subclasses may still customize e.g. the provider of the MessageDigest.
+     */
+    static boolean isPlain(Digester digester, Class<? extends Digester> baseClass) {
+        if (!baseClass.isInstance(digester)) {
+            return false;
+        }
+        try {
+            return digester.getClass().getMethod("digest", TikaInputStream.class,
+                    Metadata.class, ParseContext.class).getDeclaringClass() == baseClass;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    void update(byte[] bytes, int offset, int length) {
+        for (MessageDigest messageDigest : messageDigests) {
+            messageDigest.update(bytes, offset, length);
+        }
+        total += length;
+    }
+
+    void finish(Metadata metadata) {
+        for (int i = 0; i < messageDigests.length; i++) {
+            digesters.get(i).finish(messageDigests[i], total, metadata);
+        }
+    }
+}
@@ -104,16 +104,7 @@ public class ParsingEmbeddedDocumentExtractor implements EmbeddedDocumentExtract
      */
     protected boolean checkEmbeddedLimits(ParseRecord parseRecord) {
         // Count limit is a hard stop - once we've hit max, no more embedded parsing
-        if (parseRecord.isEmbeddedCountLimitReached()) {
-            return false;
-        }
-        int maxCount = parseRecord.getMaxEmbeddedCount();
-        if (maxCount >= 0 && parseRecord.getEmbeddedCount() >= maxCount) {
-            parseRecord.setEmbeddedCountLimitReached(true);
-            if (parseRecord.isThrowOnMaxCount()) {
-                throw new EmbeddedLimitReachedException(
-                        EmbeddedLimitReachedException.LimitType.MAX_COUNT, maxCount);
-            }
+        if (!parseRecord.checkEmbeddedCountLimit()) {
             return false;
         }
 
@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.extractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import org.apache.tika.config.OutputLimits;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.ParseRecord;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.RecursiveParserWrapper;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.RecordingContentHandler;
+import org.apache.tika.sax.XHTMLContentHandler;
+
+/**
+ * An embedded document that is parsed on a worker thread into a recording, and
+ * handed to the embedded document extractor later, on the parsing thread, as if
+ * it had been parsed there.
+ * <p>
+ * Parsers that extract the embedded documents of a container concurrently, e.g. the
+ * entries of an archive, create one of these per document on the parsing thread,
+ * {@link #parse(InputStream)} it on a {@link org.apache.tika.concurrent.ParseWorkerPool},
+ * and {@link #replay(ContentHandler, Metadata, ParseContext)} the documents in
+ * document order.
+ * <p>
+ * The worker parses the document with the parser of the container's context and a
+ * fork of its {@link ParseRecord}. Under the {@link RecursiveParserWrapper}, the
+ * document and the documents embedded in it are recorded for the wrapper's handler,
+ * see {@link RecursiveParserWrapper#recordEmbedded}. Either way, the documents embedded
+ * in it are counted against the embedded count limit when they are replayed.
+ * The documents embedded in it are parsed on the same worker, one after the other.
+ * <p>
+ * This is not thread-safe: parse it on one thread, and replay it once the parse is done.
+ *
+ * @since Apache Tika 4.0
+ */
+public class RecordedEmbeddedDocument {
+
+    private final Metadata metadata;
+
+    private final ParseRecord parseRecord;
+
+    private final RecordingContentHandler content;
+
+    private final RecursiveParserWrapper.EmbeddedRecording embedded;
+
+    private final ParseContext workerContext;
+
+    private Exception exception;
+
+    /**
+     * Whether the embedded documents of a container can be recorded on worker threads.
+     * They can't if the extractor isn't a plain {@link ParsingEmbeddedDocumentExtractor},
+     * if the parser is neither an {@link AutoDetectParser} nor the
+     * {@link RecursiveParserWrapper}'s, if the container is itself being recorded on a
+     * worker, or if the embedded count limit is set to throw.
+     *
+     * @param extractor the container's embedded document extractor
+     * @param context   the container's parse context
+     */
+    public static boolean canRecord(EmbeddedDocumentExtractor extractor, ParseContext context) {
+        if (extractor.getClass() != ParsingEmbeddedDocumentExtractor.class) {
+            return false;
+        }
+        if (!(context.get(Parser.class) instanceof AutoDetectParser) &&
+                !RecursiveParserWrapper.isRecursiveParse(context)) {
+            return false;
+        }
+        if (context.get(Worker.class) != null) {
+            //containers in a document that is already parsed on a worker
+            return false;
+        }
+        //the limit is applied when the documents are replayed; where an exception
+        //would surface depends on the nesting of the documents that are parsed
+        ParseRecord record = context.get(ParseRecord.class);
+        return record == null || record.getMaxEmbeddedCount() < 0 ||
+                !record.isThrowOnMaxCount();
+    }
+
+    /**
+     * @param metadata   the metadata that will be handed to the extractor with the
+     *                   document; the worker gets a copy
+     * @param context    the container's parse context
+     * @param writeLimit maximum number of characters to record, e.g. what is left of the
+     *                   write limit in {@link OutputLimits}, or -1
+     * @param budget     memory budget shared with the container's other recorded
+     *                   documents, or null
+     */
+    public RecordedEmbeddedDocument(Metadata metadata, ParseContext context, int writeLimit,
+                                    RecordingContentHandler.MemoryBudget budget) {
+        this.metadata = copy(metadata, new Metadata());
+        ParseRecord containerRecord = context.get(ParseRecord.class);
+        this.parseRecord = containerRecord == null ? null : containerRecord.fork();
+        this.content = new RecordingContentHandler(writeLimit,
+                OutputLimits.get(context).isThrowOnWriteLimit(), budget);
+
+        workerContext = new ParseContext();
+        workerContext.copyFrom(context);
+        workerContext.set(ParseRecord.class, parseRecord);
+        workerContext.set(Worker.class, Worker.INSTANCE);
+        //the wrapper's handler gets the document and its embedded documents, not the content
+        embedded = RecursiveParserWrapper.isRecursiveParse(context) ?
+                RecursiveParserWrapper.recordEmbedded(context, workerContext, budget) : null;
+        workerContext.set(EmbeddedDocumentExtractor.class,
+                new WorkerEmbeddedDocumentExtractor(workerContext, this));
+    }
+
+    /**
+     * Parses the document into the recording, and closes the stream. Call this on the
+     * worker. What the parse throws is rethrown by
+     * {@link #replay(ContentHandler, Metadata, ParseContext)}.
+     *
+     * @return this
+     * @throws TikaException if the parse's temporary files can't be deleted
+     */
+    public RecordedEmbeddedDocument parse(InputStream stream) throws TikaException {
+        Parser parser = workerContext.get(Parser.class);
+        TemporaryResources tmp = new TemporaryResources();
+        try (InputStream is = stream) {
+            TikaInputStream tis = TikaInputStream.get(is, tmp, metadata);
+            //the extractor only writes the body of the document
+            parser.parse(tis, new BodyContentHandler(content), metadata, workerContext);
+        } catch (IOException | SAXException | TikaException | RuntimeException e) {
+            exception = e;
+        } finally {
+            tmp.dispose();
+        }
+        return this;
+    }
+
+    /**
+     * @return whether the recording went over the memory budget; if so, it is
+     * incomplete and the document has to be parsed again on the parsing thread
+     */
+    public boolean isBudgetExceeded() {
+        return content.isBudgetExceeded() || (embedded != null && embedded.isBudgetExceeded());
+    }
+
+    /**
+     * Drops what was recorded and gives its memory back to the budget.
+     */
+    public void clear() {
+        content.clear();
+        if (embedded != null) {
+            embedded.clear();
+        }
+    }
+
+    /**
+     * @return the number of characters that were recorded
+     */
+    public int getWriteCount() {
+        return content.getWriteCount();
+    }
+
+    /**
+     * Hands the document to a {@link ParsingEmbeddedDocumentExtractor} on the parsing
+     * thread, with a parser that writes what was recorded and rethrows what the
+     * worker's parse threw. If the recorder stopped at its write limit, the handler
+     * reaches its own limit here.
+     *
+     * @param handler  the container's handler
+     * @param metadata the metadata of the document, as handed to the constructor
+     * @param context  the container's parse context
+     */
+    public void replay(ContentHandler handler, Metadata metadata, ParseContext context)
+            throws IOException, SAXException {
+        ParseContext replayContext = new ParseContext();
+        replayContext.copyFrom(context);
+        replayContext.set(Parser.class, new ReplayingParser(this));
+        EmbeddedDocumentExtractor replayExtractor =
+                new ParsingEmbeddedDocumentExtractor(replayContext);
+        try (TikaInputStream tis = TikaInputStream.get(new byte[0])) {
+            replayExtractor.parseEmbedded(tis, handler, metadata, new ParseContext(), true);
+        }
+    }
+
+    private static Metadata copy(Metadata from, Metadata to) {
+        for (String name : from.names()) {
+            for (String value : from.getValues(name)) {
+                to.add(name, value);
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Marks the context of a document that is parsed on a worker, so that the
+     * containers in it are parsed on that worker, one document after the other.
+     */
+    private static class Worker {
+        private static final Worker INSTANCE = new Worker();
+    }
+
+    /**
+     * Marks the documents embedded in a recorded document in the worker's recording,
+     * so that they are counted against the embedded count limit in document order
+     * when the document is replayed.
+     */
+    private static class WorkerEmbeddedDocumentExtractor extends ParsingEmbeddedDocumentExtractor {
+
+        private final RecordedEmbeddedDocument recorded;
+
+        WorkerEmbeddedDocumentExtractor(ParseContext context, RecordedEmbeddedDocument recorded) {
+            super(context);
+            this.recorded = recorded;
+        }
+
+        @Override
+        public void parseEmbedded(TikaInputStream tis, ContentHandler handler, Metadata metadata,
+                                  ParseContext parseContext, boolean outputHtml)
+                throws SAXException, IOException {
+            ParseRecord record = context.get(ParseRecord.class);
+            if (record != null && !checkEmbeddedLimits(record)) {
+                return;
+            }
+            if (recorded.embedded != null) {
+                recorded.embedded.startEmbedded();
+            } else {
+                recorded.content.startEmbedded();
+            }
+            super.parseEmbedded(tis, handler, metadata, parseContext, outputHtml);
+            if (recorded.embedded != null) {
+                recorded.embedded.endEmbedded();
+            } else {
+                recorded.content.endEmbedded();
+            }
+        }
+    }
+
+    /**
+     * Stands in for the parser when a recorded document is handed to the embedded
+     * document extractor: it writes what the worker recorded, and rethrows what the
+     * worker's parse threw.
+     */
+    private static class ReplayingParser implements Parser {
+
+        private final RecordedEmbeddedDocument recorded;
+
+        ReplayingParser(RecordedEmbeddedDocument recorded) {
+            this.recorded = recorded;
+        }
+
+        @Override
+        public Set<MediaType> getSupportedTypes(ParseContext context) {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public void parse(TikaInputStream tis, ContentHandler handler, Metadata metadata,
+                          ParseContext context) throws IOException, SAXException, TikaException {
+            ParseRecord record = context.get(ParseRecord.class);
+            if (record != null && recorded.parseRecord != null) {
+                record.addAll(recorded.parseRecord);
+            }
+            if (recorded.embedded != null) {
+                recorded.embedded.replay(metadata, context);
+            } else {
+                for (String name : metadata.names()) {
+                    metadata.remove(name);
+                }
+                copy(recorded.metadata, metadata);
+
+                //the extractor's BodyContentHandler only passes on what is inside the
+                //body, and only the body was recorded
+                handler.startElement(XHTMLContentHandler.XHTML, "html", "html",
+                        new AttributesImpl());
+                handler.startElement(XHTMLContentHandler.XHTML, "body", "body",
+                        new AttributesImpl());
+                recorded.content.replay(handler, record);
+                handler.endElement(XHTMLContentHandler.XHTML, "body", "body");
+                handler.endElement(XHTMLContentHandler.XHTML, "html", "html");
+            }
+
+            Exception e = recorded.exception;
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            } else if (e instanceof SAXException) {
+                throw (SAXException) e;
+            } else if (e instanceof TikaException) {
+                throw (TikaException) e;
+            } else if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+        }
+    }
+}
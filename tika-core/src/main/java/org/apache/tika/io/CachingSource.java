@@ -42,6 +42,7 @@ class CachingSource extends InputStream implements TikaInputSource {
 
     private final TemporaryResources tmp;
     private final Metadata metadata;
+    private final InputStream source;
     private long length;
 
     // Passthrough mode: just a BufferedInputStream
@@ -60,6 +61,7 @@ class CachingSource extends InputStream implements TikaInputSource {
         this.tmp = tmp;
         this.length = length;
         this.metadata = metadata;
+        this.source = source;
         // Start in passthrough mode
         this.passthroughStream = source instanceof BufferedInputStream
                 ? (BufferedInputStream) source
@@ -228,6 +230,16 @@ class CachingSource extends InputStream implements TikaInputSource {
 
     @Override
     public Path getPath(String suffix) throws IOException {
+        if (spilledPath == null && source instanceof FileBackedStream) {
+            // The source is already being written to a file; wait for it rather than spilling
+            long currentPosition = cachingStream != null ? cachingStream.getPosition() : passthroughPosition;
+            Path completedPath = ((FileBackedStream) source).getCompletedPath();
+            if (cachingStream != null) {
+                cachingStream.closeCacheOnly();
+            }
+            switchToFile(completedPath, currentPosition);
+            return spilledPath;
+        }
         if (spilledPath == null) {
             // If still in passthrough mode, enable caching first
             if (cachingStream == null) {
@@ -248,28 +260,34 @@ class CachingSource extends InputStream implements TikaInputSource {
             // Close only the cache, not the source stream (for archive support)
             cachingStream.closeCacheOnly();
 
-            // Open file stream at current position
-            fileStream = new BufferedInputStream(Files.newInputStream(spilledPath));
-            if (currentPosition > 0) {
-                IOUtils.skipFully(fileStream, currentPosition);
-            }
-            filePosition = currentPosition;
+            switchToFile(spilledPath, currentPosition);
+        }
+        return spilledPath;
+    }
 
-            // Update length from file size
-            long fileSize = Files.size(spilledPath);
-            if (length == -1 || fileSize > 0) {
-                length = fileSize;
-            }
+    private void switchToFile(Path path, long currentPosition) throws IOException {
+        spilledPath = path;
 
-            // Update metadata if not already set
-            if (metadata != null &&
-                    StringUtils.isBlank(metadata.get(Metadata.CONTENT_LENGTH))) {
-                metadata.set(Metadata.CONTENT_LENGTH, Long.toString(length));
-            }
+        // Open file stream at current position
+        fileStream = new BufferedInputStream(Files.newInputStream(spilledPath));
+        if (currentPosition > 0) {
+            IOUtils.skipFully(fileStream, currentPosition);
+        }
+        filePosition = currentPosition;
 
-            cachingStream = null;
+        // Update length from file size
+        long fileSize = Files.size(spilledPath);
+        if (length == -1 || fileSize > 0) {
+            length = fileSize;
         }
-        return spilledPath;
+
+        // Update metadata if not already set
+        if (metadata != null &&
+                StringUtils.isBlank(metadata.get(Metadata.CONTENT_LENGTH))) {
+            metadata.set(Metadata.CONTENT_LENGTH, Long.toString(length));
+        }
+
+        cachingStream = null;
     }
 
     @Override
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Implemented by InputStreams that read a file while it is still being written,
+ * e.g. a fetcher that downloads parts of an object concurrently and lets
+ * parsing start on the first part.
+ * <p>
+ * When such a stream is wrapped in a {@link TikaInputStream} and a component asks
+ * for {@link TikaInputStream#getPath()}, the TikaInputStream waits for the file to
+ * be completed and switches to it instead of spooling the stream to another
+ * temp file.
+ */
+public interface FileBackedStream {
+
+    /**
+     * Blocks until the whole content has been written to the file.
+     *
+     * @return the completed file
+     * @throws IOException if writing the file failed
+     */
+    Path getCompletedPath() throws IOException;
+}
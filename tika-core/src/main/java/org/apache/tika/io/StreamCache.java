@@ -21,18 +21,28 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Package-private cache that stores bytes in memory up to a threshold,
  * then spills to a temporary file. Supports reading from any offset.
+ * <p>
+ * Once spilled, reads go through a single long-lived {@link FileChannel}
+ * using positional reads, so random access does not pay for an
+ * open/seek/close per call. Single-byte reads are served from a small
+ * read window that slides over the spill file. Because the file is
+ * append-only, bytes in the window never go stale.
  */
 class StreamCache implements Closeable {
 
     private static final int DEFAULT_MEMORY_THRESHOLD = 1024 * 1024; // 1MB
 
+    private static final int READ_WINDOW_SIZE = 8192;
+
     private final int memoryThreshold;
     private final TemporaryResources tmp;
 
@@ -44,6 +54,13 @@ class StreamCache implements Closeable {
     private Path spillFile;
     private OutputStream spillOutputStream;
     private long totalSize;
+    // Number of bytes known to have been flushed to the spill file
+    private long flushedSize;
+
+    // Read side of the spill file (opened lazily on first read after spill)
+    private FileChannel readChannel;
+    private ByteBuffer readWindow;
+    private long readWindowStart = -1;
 
     private boolean closed;
 
@@ -146,13 +163,12 @@ class StreamCache implements Closeable {
 
         if (memoryBuffer != null) {
             return memoryBuffer[(int) position] & 0xFF;
-        } else {
-            flushSpillStream();
-            try (RandomAccessFile raf = new RandomAccessFile(spillFile.toFile(), "r")) {
-                raf.seek(position);
-                return raf.read();
-            }
         }
+        if (readWindowStart < 0 || position < readWindowStart ||
+                position >= readWindowStart + readWindow.limit()) {
+            fillReadWindow(position);
+        }
+        return readWindow.get((int) (position - readWindowStart)) & 0xFF;
     }
 
     /**
@@ -168,13 +184,61 @@ class StreamCache implements Closeable {
         if (memoryBuffer != null) {
             System.arraycopy(memoryBuffer, (int) position, b, off, available);
             return available;
-        } else {
-            flushSpillStream();
-            try (RandomAccessFile raf = new RandomAccessFile(spillFile.toFile(), "r")) {
-                raf.seek(position);
-                return raf.read(b, off, available);
+        }
+        // Serve from the read window if it covers the start of the request
+        if (readWindowStart >= 0 && position >= readWindowStart &&
+                position < readWindowStart + readWindow.limit()) {
+            int windowOffset = (int) (position - readWindowStart);
+            int n = Math.min(available, readWindow.limit() - windowOffset);
+            readWindow.get(windowOffset, b, off, n);
+            return n;
+        }
+        return readFully(ByteBuffer.wrap(b, off, available), position);
+    }
+
+    /**
+     * Reposition the read window so that it starts at the given position.
+     */
+    private void fillReadWindow(long position) throws IOException {
+        if (readWindow == null) {
+            readWindow = ByteBuffer.allocate(READ_WINDOW_SIZE);
+        }
+        readWindow.clear();
+        readWindow.limit((int) Math.min(READ_WINDOW_SIZE, totalSize - position));
+        readWindowStart = -1;
+        readFully(readWindow, position);
+        readWindowStart = position;
+    }
+
+    /**
+     * Positional read from the spill file until the buffer is full.
+     * The caller guarantees that the requested range lies within {@link #totalSize}.
+     */
+    private int readFully(ByteBuffer dst, long position) throws IOException {
+        FileChannel channel = getReadChannel(position + dst.remaining());
+        int total = 0;
+        while (dst.hasRemaining()) {
+            int n = channel.read(dst, position + total);
+            if (n < 0) {
+                throw new IOException("Unexpected end of spill file at " + (position + total) +
+                        ", expected " + totalSize + " bytes");
             }
+            total += n;
         }
+        return total;
+    }
+
+    private FileChannel getReadChannel(long requiredSize) throws IOException {
+        if (closed) {
+            throw new IOException("StreamCache is closed");
+        }
+        if (requiredSize > flushedSize) {
+            flushSpillStream();
+        }
+        if (readChannel == null) {
+            readChannel = FileChannel.open(spillFile, StandardOpenOption.READ);
+        }
+        return readChannel;
     }
 
     /**
@@ -187,6 +251,7 @@ class StreamCache implements Closeable {
     private void flushSpillStream() throws IOException {
         if (spillOutputStream != null) {
             spillOutputStream.flush();
+            flushedSize = totalSize;
         }
     }
 
@@ -237,10 +302,19 @@ class StreamCache implements Closeable {
         }
         closed = true;
         memoryBuffer = null;
+        readWindow = null;
+        readWindowStart = -1;
 
-        if (spillOutputStream != null) {
-            spillOutputStream.close();
-            spillOutputStream = null;
+        try {
+            if (spillOutputStream != null) {
+                spillOutputStream.close();
+                spillOutputStream = null;
+            }
+        } finally {
+            if (readChannel != null) {
+                readChannel.close();
+                readChannel = null;
+            }
         }
         // spillFile cleanup is handled by TemporaryResources
     }
@@ -50,9 +50,15 @@ public abstract class LanguageDetector {
 
     private static final ServiceLoader DEFAULT_SERVICE_LOADER = new ServiceLoader();
 
-    //if a user calls detect on a huge string, break it into this size
-    //and add sequentially until hasEnoughText() is true
-    private static final int BUFFER_LENGTH = 4096;
+    /**
+     * {@link #addText(CharSequence)} adds a text of at least this many chars
+     * in pieces of this size, until {@link #hasEnoughText()} is true.
+     * Subclasses that need to know how much of a text that call would add
+     * can rely on this.
+     *
+     * @since Apache Tika 4.0
+     */
+    protected static final int BUFFER_LENGTH = 4096;
 
     // True if text is expected to be a mix of languages, and thus higher-resolution
     // detection must be done to avoid under-sampling the text.
@@ -16,7 +16,9 @@
  */
 package org.apache.tika.mime;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.BitSet;
 
 class AndClause implements Clause {
 
@@ -26,7 +28,7 @@ class AndClause implements Clause {
         this.clauses = clauses;
     }
 
-    public boolean eval(byte[] data) {
+    public boolean eval(ByteBuffer data) {
         for (Clause clause : clauses) {
             if (!clause.eval(data)) {
                 return false;
@@ -43,6 +45,23 @@ class AndClause implements Clause {
         return size;
     }
 
+    @Override
+    public BitSet getPossibleBytesAt(int offset) {
+        // All clauses must match, so any constraint applies
+        BitSet possible = null;
+        for (Clause clause : clauses) {
+            BitSet bytes = clause.getPossibleBytesAt(offset);
+            if (bytes != null) {
+                if (possible == null) {
+                    possible = bytes;
+                } else {
+                    possible.and(bytes);
+                }
+            }
+        }
+        return possible;
+    }
+
     public String toString() {
         return "and" + Arrays.toString(clauses);
     }
@@ -17,16 +17,26 @@
 package org.apache.tika.mime;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
 
 /**
  * Defines a clause to be evaluated.
  */
 interface Clause extends Serializable {
 
+    /**
+     * Evaluates this clause with the specified chunk of data, from the
+     * buffer's position to its limit. The buffer's position is not changed.
+     */
+    boolean eval(ByteBuffer data);
+
     /**
      * Evaluates this clause with the specified chunk of data.
      */
-    boolean eval(byte[] data);
+    default boolean eval(byte[] data) {
+        return eval(ByteBuffer.wrap(data));
+    }
 
     /**
      * Returns the size of this clause. The size of a clause is the number of
@@ -34,4 +44,14 @@ interface Clause extends Serializable {
      */
     int size();
 
+    /**
+     * Returns the set of values (0-255) that the byte at the given offset
+     * must take for this clause to possibly match, or <code>null</code> if
+     * the clause places no constraint on that byte. Must never exclude a
+     * value for which {@link #eval(byte[])} could return true.
+     */
+    default BitSet getPossibleBytesAt(int offset) {
+        return null;
+    }
+
 }
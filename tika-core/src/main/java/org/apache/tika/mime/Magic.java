@@ -16,6 +16,9 @@
  */
 package org.apache.tika.mime;
 
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
 /**
  * Defines a magic for a MimeType. A magic is made of one or several
  * MagicClause.
@@ -45,7 +48,7 @@ class Magic implements Clause, Comparable<Magic> {
         return priority;
     }
 
-    public boolean eval(byte[] data) {
+    public boolean eval(ByteBuffer data) {
         return clause.eval(data);
     }
 
@@ -53,6 +56,11 @@ class Magic implements Clause, Comparable<Magic> {
         return clause.size();
     }
 
+    @Override
+    public BitSet getPossibleBytesAt(int offset) {
+        return clause.getPossibleBytesAt(offset);
+    }
+
     public String toString() {
         return string;
     }
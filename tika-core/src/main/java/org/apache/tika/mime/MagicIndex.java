@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.mime;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Precompiled dispatch table over a sorted list of {@link Magic}s.
+ * <p>
+ * For every possible value of the first byte of a document, the index
+ * keeps the (still sorted) list of magics that could match a document
+ * starting with that byte. Magics that don't constrain the first byte,
+ * such as regular expressions or matches at other offsets, are present in
+ * every list. Evaluating only the candidates for the actual first byte
+ * therefore gives exactly the same matches as evaluating every magic.
+ */
+class MagicIndex {
+
+    private static final Magic[] EMPTY = new Magic[0];
+
+    private final Magic[][] byFirstByte = new Magic[256][];
+
+    private final Magic[] htmlMagics;
+
+    MagicIndex(List<Magic> magics, MimeType htmlType) {
+        List<List<Magic>> lists = new ArrayList<>(256);
+        for (int b = 0; b < 256; b++) {
+            lists.add(new ArrayList<>());
+        }
+        List<Magic> html = new ArrayList<>();
+        for (Magic magic : magics) {
+            BitSet possible = magic.getPossibleBytesAt(0);
+            for (int b = 0; b < 256; b++) {
+                if (possible == null || possible.get(b)) {
+                    lists.get(b).add(magic);
+                }
+            }
+            if (magic.getType().equals(htmlType)) {
+                html.add(magic);
+            }
+        }
+        for (int b = 0; b < 256; b++) {
+            byFirstByte[b] = lists.get(b).toArray(EMPTY);
+        }
+        htmlMagics = html.toArray(EMPTY);
+    }
+
+    /**
+     * Returns the magics, in priority order, that could match the given
+     * non-empty data.
+     */
+    Magic[] getCandidates(byte[] data) {
+        return byFirstByte[data[0] & 0xFF];
+    }
+
+    /**
+     * Returns the magics, in priority order, that could match the given
+     * non-empty data, which starts at the buffer's position.
+     */
+    Magic[] getCandidates(ByteBuffer data) {
+        return byFirstByte[data.get(data.position()) & 0xFF];
+    }
+
+    /**
+     * Returns the magics of the text/html type, in priority order.
+     */
+    Magic[] getHtmlMagics() {
+        return htmlMagics;
+    }
+
+}
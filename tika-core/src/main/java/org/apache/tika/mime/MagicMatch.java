@@ -16,6 +16,9 @@
  */
 package org.apache.tika.mime;
 
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
 import org.apache.tika.detect.MagicDetector;
 
 /**
@@ -50,7 +53,7 @@ class MagicMatch implements Clause {
         return detector;
     }
 
-    public boolean eval(byte[] data) {
+    public boolean eval(ByteBuffer data) {
         return getDetector().matches(data);
     }
 
@@ -58,6 +61,11 @@ class MagicMatch implements Clause {
         return getDetector().getLength();
     }
 
+    @Override
+    public BitSet getPossibleBytesAt(int offset) {
+        return getDetector().getPossibleBytesAt(offset);
+    }
+
     public String toString() {
         return mediaType.toString() + " " + type + " " + offset + " " + value + " " + mask;
     }
@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,11 +59,37 @@ public final class MediaType implements Comparable<MediaType>, Serializable {
                     VALID_CHARS + "\\s*");
 
     /**
-     * Set of basic types with normalized "type/subtype" names.
-     * Used to optimize type lookup and to avoid having too many
-     * {@link MediaType} instances in memory.
+     * Interned parameterless types, keyed by their canonical "type/subtype"
+     * string. Entries are never evicted, so that detection and dispatch code
+     * share one instance per type and {@link #equals(Object)} is usually a
+     * reference check. Bounded by {@link #MAX_INTERNED_TYPES}.
      */
-    private static final Map<String, MediaType> SIMPLE_TYPES = new HashMap<>();
+    private static final Map<String, MediaType> SIMPLE_TYPES = new ConcurrentHashMap<>();
+
+    /**
+     * Interned types with parameters, keyed by their canonical string.
+     * Parameters such as multipart boundaries are often unique, so this
+     * map is cleared rather than frozen when it fills up.
+     */
+    private static final Map<String, MediaType> PARAMETERIZED_TYPES = new ConcurrentHashMap<>();
+
+    /**
+     * Results of {@link #parse(String)} keyed by the raw input string, for
+     * inputs that are not already canonical (e.g. "text/html;charset=UTF-8"
+     * or "Text/HTML"). Cleared when it fills up.
+     */
+    private static final Map<String, MediaType> PARSED = new ConcurrentHashMap<>();
+
+    private static final int MAX_INTERNED_TYPES = 10000;
+
+    private static final int MAX_PARAMETERIZED_TYPES = 1000;
+
+    private static final int MAX_PARSED = 10000;
+
+    /**
+     * Longer input strings are parsed but not cached.
+     */
+    private static final int MAX_PARSED_LENGTH = 256;
 
     public static final MediaType OCTET_STREAM = parse("application/octet-stream");
 
@@ -248,25 +275,96 @@ public final class MediaType implements Comparable<MediaType>, Serializable {
             return null;
         }
 
-        // Optimization for the common cases
-        synchronized (SIMPLE_TYPES) {
-            MediaType type = SIMPLE_TYPES.get(string);
-            if (type == null) {
-                int slash = string.indexOf('/');
-                if (slash == -1) {
-                    return null;
-                } else if (SIMPLE_TYPES.size() < 10000 &&
-                        isSimpleName(string.substring(0, slash)) &&
-                        isSimpleName(string.substring(slash + 1))) {
-                    type = new MediaType(string, slash);
-                    SIMPLE_TYPES.put(string, type);
-                }
+        // Optimization for the common cases. Strings already in canonical
+        // form, such as the "text/html; charset=UTF-8" that Tika writes
+        // itself, are keys of the intern tables; other forms are in PARSED
+        MediaType type = SIMPLE_TYPES.get(string);
+        if (type == null) {
+            type = PARAMETERIZED_TYPES.get(string);
+        }
+        if (type == null) {
+            type = PARSED.get(string);
+        }
+        if (type != null) {
+            return type;
+        }
+
+        type = parseUncached(string);
+        if (type == null) {
+            return null;
+        }
+        type = intern(type);
+        if (string.length() <= MAX_PARSED_LENGTH && !string.equals(type.string)) {
+            if (PARSED.size() >= MAX_PARSED) {
+                PARSED.clear();
             }
-            if (type != null) {
+            PARSED.put(string, type);
+        }
+        return type;
+    }
+
+    /**
+     * Returns the shared instance equal to the given type, registering
+     * the given type as that instance if there is none yet (and the intern
+     * tables have room).
+     *
+     * @param type media type
+     * @return canonical instance equal to <code>type</code>
+     */
+    static MediaType intern(MediaType type) {
+        if (!type.hasParameters()) {
+            MediaType existing = SIMPLE_TYPES.get(type.string);
+            if (existing != null) {
+                return existing;
+            }
+            if (SIMPLE_TYPES.size() >= MAX_INTERNED_TYPES) {
                 return type;
             }
+            existing = SIMPLE_TYPES.putIfAbsent(type.string, type);
+            return existing != null ? existing : type;
+        }
+        MediaType existing = PARAMETERIZED_TYPES.get(type.string);
+        if (existing != null) {
+            return existing;
+        }
+        if (PARAMETERIZED_TYPES.size() >= MAX_PARAMETERIZED_TYPES) {
+            PARAMETERIZED_TYPES.clear();
+        }
+        existing = PARAMETERIZED_TYPES.putIfAbsent(type.string, type);
+        return existing != null ? existing : type;
+    }
+
+    /**
+     * Parses without consulting or updating the caches. The common
+     * "type/subtype(; parameter=...)*" form is split by hand; anything
+     * else (e.g. "charset=xxx; type/subtype", or unusual characters in
+     * the type tokens) goes through the regular expressions.
+     */
+    static MediaType parseUncached(String string) {
+        int slash = string.indexOf('/');
+        if (slash == -1) {
+            return null;
+        }
+        int semicolon = string.indexOf(';');
+        if (semicolon == -1) {
+            if (isSimpleName(string.substring(0, slash)) &&
+                    isSimpleName(string.substring(slash + 1))) {
+                return new MediaType(string, slash);
+            }
+            semicolon = string.length();
         }
+        if (semicolon > slash) {
+            String type = stripWhitespace(string.substring(0, slash));
+            String subtype = stripWhitespace(string.substring(slash + 1, semicolon));
+            if (isToken(type) && isToken(subtype)) {
+                return new MediaType(type, subtype,
+                        parseParameters(string.substring(semicolon)));
+            }
+        }
+        return parseWithPatterns(string);
+    }
 
+    static MediaType parseWithPatterns(String string) {
         Matcher matcher;
         matcher = TYPE_PATTERN.matcher(string);
         if (matcher.matches()) {
@@ -282,6 +380,40 @@ public final class MediaType implements Comparable<MediaType>, Serializable {
         return null;
     }
 
+    /**
+     * Strips the characters matched by <code>\s</code> in
+     * {@link #TYPE_PATTERN} from both ends.
+     */
+    private static String stripWhitespace(String s) {
+        int start = 0;
+        int end = s.length();
+        while (start < end && isPatternWhitespace(s.charAt(start))) {
+            start++;
+        }
+        while (end > start && isPatternWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        return s.substring(start, end);
+    }
+
+    private static boolean isPatternWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Conservative RFC 2045 token check: printable ASCII other than
+     * tspecials. Tokens this rejects are left to the regular expressions.
+     */
+    private static boolean isToken(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c <= ' ' || c >= 0x7f || "()<>@,;:\\\"/[]?=".indexOf(c) != -1) {
+                return false;
+            }
+        }
+        return name.length() > 0;
+    }
+
     private static boolean isSimpleName(String name) {
         for (int i = 0; i < name.length(); i++) {
             char c = name.charAt(i);
@@ -413,7 +545,9 @@ public final class MediaType implements Comparable<MediaType>, Serializable {
     }
 
     public boolean equals(Object object) {
-        if (object instanceof MediaType) {
+        if (object == this) {
+            return true;
+        } else if (object instanceof MediaType) {
             MediaType that = (MediaType) object;
             return string.equals(that.string);
         } else {
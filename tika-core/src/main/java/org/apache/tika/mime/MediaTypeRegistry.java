@@ -115,11 +115,15 @@ public class MediaTypeRegistry implements Serializable {
         if (type == null) {
             return null;
         }
-        MediaType canonical = registry.get(type.getBaseType());
+        MediaType base = type.getBaseType();
+        MediaType canonical = registry.get(base);
         if (canonical == null) {
             return type;
         } else if (type.hasParameters()) {
-            return new MediaType(canonical, type.getParameters());
+            if (canonical.equals(base)) {
+                return type;
+            }
+            return MediaType.intern(new MediaType(canonical, type.getParameters()));
         } else {
             return canonical;
         }
@@ -24,16 +24,19 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.namespace.QName;
 
 import org.apache.tika.Tika;
 import org.apache.tika.config.TikaComponent;
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.detect.TextDetector;
 import org.apache.tika.detect.XmlRootExtractor;
@@ -78,6 +81,10 @@ public final class MimeTypes implements Detector, Serializable {
     private static final Map<ClassLoader, MimeTypes> CLASSLOADER_SPECIFIC_DEFAULT_TYPES =
             new HashMap<>();
     private static MimeTypes DEFAULT_TYPES = null;
+    /**
+     * Maximum number of resource names remembered by {@link #getMimeType(String)}.
+     */
+    private static final int MAX_CACHED_NAMES = 10_000;
     /**
      * Root type, application/octet-stream.
      */
@@ -107,10 +114,20 @@ public final class MimeTypes implements Detector, Serializable {
      * The patterns matcher
      */
     private final Patterns patterns = new Patterns(registry);
+    /**
+     * Bounded cache of resource names already resolved against {@link #patterns}.
+     * Cleared whenever a pattern is added or the cache grows too large.
+     */
+    private transient volatile Map<String, MimeType> nameCache;
     /**
      * Sorted list of all registered magics
      */
     private final List<Magic> magics = new ArrayList<>();
+    /**
+     * First-byte dispatch index over {@link #magics}, rebuilt lazily
+     * whenever the magics change
+     */
+    private transient volatile MagicIndex magicIndex;
     /**
      * Sorted list of all registered rootXML
      */
@@ -181,16 +198,37 @@ public final class MimeTypes implements Detector, Serializable {
      */
     @Deprecated
     public MimeType getMimeType(String name) {
-        MimeType type = patterns.matches(name);
+        Map<String, MimeType> cache = getNameCache();
+        MimeType type = cache.get(name);
         if (type != null) {
             return type;
         }
-        type = patterns.matches(name.toLowerCase(Locale.ENGLISH));
-        if (type != null) {
-            return type;
-        } else {
-            return rootMimeType;
+        type = patterns.matches(name);
+        if (type == null) {
+            type = patterns.matches(name.toLowerCase(Locale.ENGLISH));
+        }
+        if (type == null) {
+            type = rootMimeType;
+        }
+        if (cache.size() >= MAX_CACHED_NAMES) {
+            cache.clear();
         }
+        cache.put(name, type);
+        return type;
+    }
+
+    private Map<String, MimeType> getNameCache() {
+        Map<String, MimeType> cache = nameCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = nameCache;
+                if (cache == null) {
+                    cache = new ConcurrentHashMap<>();
+                    nameCache = cache;
+                }
+            }
+        }
+        return cache;
     }
 
     /**
@@ -226,15 +264,31 @@ public final class MimeTypes implements Detector, Serializable {
     List<MimeType> getMimeType(byte[] data) {
         if (data == null) {
             throw new IllegalArgumentException("Data is missing");
-        } else if (data.length == 0) {
+        }
+        return getMimeType(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Same as {@link #getMimeType(byte[])}, for the bytes between the buffer's
+     * position and its limit. The bytes are matched in place, so a read-only
+     * buffer over a {@link DetectionProbe} can be passed without copying it.
+     *
+     * @param data first few bytes of a document stream
+     * @return matching MIME type
+     */
+    List<MimeType> getMimeType(ByteBuffer data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data is missing");
+        } else if (!data.hasRemaining()) {
             // See https://issues.apache.org/jira/browse/TIKA-483
             return rootMimeTypeL;
         }
 
         // Then, check for magic bytes
+        MagicIndex index = getMagicIndex();
         List<MimeType> result = new ArrayList<>(1);
         int currentPriority = -1;
-        for (Magic magic : magics) {
+        for (Magic magic : index.getCandidates(data)) {
             if (currentPriority > 0 && currentPriority > magic.getPriority()) {
                 break;
             }
@@ -268,10 +322,7 @@ public final class MimeTypes implements Detector, Serializable {
                         // So, if we got here, we might have a HTML file that's
                         //  invalid XML. So, try our HTML magics explicitly (TIKA-2419)
                         boolean isHTML = false;
-                        for (Magic magic : magics) {
-                            if (!magic.getType().equals(htmlMimeType)) {
-                                continue;
-                            }
+                        for (Magic magic : index.getHtmlMagics()) {
                             if (magic.eval(data)) {
                                 isHTML = true;
                                 break;
@@ -294,48 +345,25 @@ public final class MimeTypes implements Detector, Serializable {
         // Finally, assume plain text if no control bytes are found
         try {
             TextDetector detector = new TextDetector(getMinLength());
-            try (TikaInputStream tis = TikaInputStream.get(data)) {
-                MimeType type = forName(detector.detect(tis, new Metadata(), new ParseContext()).toString());
-                return Collections.singletonList(type);
-            }
+            MimeType type = forName(detector.detect(data).toString());
+            return Collections.singletonList(type);
         } catch (Exception e) {
             return rootMimeTypeL;
         }
     }
 
-    /**
-     * Reads the first {@link #getMinLength()} bytes from the given stream.
-     * If the stream is shorter, then the entire content of the stream is
-     * returned.
-     * <p>
-     * The given stream is never {@link InputStream#close() closed},
-     * {@link InputStream#mark(int) marked}, or
-     * {@link InputStream#reset() reset} by this method.
-     *
-     * @param stream stream to be read
-     * @return first {@link #getMinLength()} (or fewer) bytes of the stream
-     * @throws IOException if the stream can not be read
-     */
-    byte[] readMagicHeader(InputStream stream) throws IOException {
-        if (stream == null) {
-            throw new IllegalArgumentException("InputStream is missing");
-        }
-
-        byte[] bytes = new byte[getMinLength()];
-        int totalRead = 0;
-
-        int lastRead = stream.read(bytes);
-        while (lastRead != -1) {
-            totalRead += lastRead;
-            if (totalRead == bytes.length) {
-                return bytes;
+    private MagicIndex getMagicIndex() {
+        MagicIndex index = magicIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = magicIndex;
+                if (index == null) {
+                    index = new MagicIndex(magics, htmlMimeType);
+                    magicIndex = index;
+                }
             }
-            lastRead = stream.read(bytes, totalRead, bytes.length - totalRead);
         }
-
-        byte[] shorter = new byte[totalRead];
-        System.arraycopy(bytes, 0, shorter, 0, totalRead);
-        return shorter;
+        return index;
     }
 
     /**
@@ -450,6 +478,7 @@ public final class MimeTypes implements Detector, Serializable {
     public void addPattern(MimeType type, String pattern, boolean isRegex)
             throws MimeTypeException {
         patterns.add(pattern, isRegex, type);
+        nameCache = null;
     }
 
     public MediaTypeRegistry getMediaTypeRegistry() {
@@ -481,6 +510,7 @@ public final class MimeTypes implements Detector, Serializable {
         // Update the magics index...
         if (type.hasMagic()) {
             magics.addAll(type.getMagics());
+            magicIndex = null;
         }
 
         // Update the xml (xmlRoot) index...
@@ -502,6 +532,7 @@ public final class MimeTypes implements Detector, Serializable {
         }
         Collections.sort(magics);
         Collections.sort(xmls);
+        magicIndex = new MagicIndex(magics, htmlMimeType);
     }
 
     /**
@@ -524,13 +555,8 @@ public final class MimeTypes implements Detector, Serializable {
 
         // Get type based on magic prefix
         if (tis != null) {
-            tis.mark(getMinLength());
-            try {
-                byte[] prefix = readMagicHeader(tis);
-                possibleTypes = getMimeType(prefix);
-            } finally {
-                tis.reset();
-            }
+            DetectionProbe probe = DetectionProbe.get(tis, parseContext, getMinLength());
+            possibleTypes = getMimeType(probe.getBuffer(getMinLength()));
         }
 
         // Get type based on resourceName hint (if available)
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -389,7 +390,7 @@ public class MimeTypesReader extends DefaultHandler implements MimeTypesReaderMe
         }
 
         @Override
-        public boolean eval(byte[] data) {
+        public boolean eval(ByteBuffer data) {
             throw new IllegalStateException(
                     "This should never be used " + "on this placeholder class");
         }
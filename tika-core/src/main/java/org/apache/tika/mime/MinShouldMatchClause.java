@@ -16,6 +16,8 @@
  */
 package org.apache.tika.mime;
 
+import java.nio.ByteBuffer;
+import java.util.BitSet;
 import java.util.List;
 
 class MinShouldMatchClause implements Clause {
@@ -49,7 +51,7 @@ class MinShouldMatchClause implements Clause {
         this.clauses = clauses;
     }
 
-    public boolean eval(byte[] data) {
+    public boolean eval(ByteBuffer data) {
         int matches = 0;
         for (Clause clause : clauses) {
             if (clause.eval(data)) {
@@ -69,6 +71,20 @@ class MinShouldMatchClause implements Clause {
         return size;
     }
 
+    @Override
+    public BitSet getPossibleBytesAt(int offset) {
+        // At least one clause must match, so only constrained if every clause is
+        BitSet possible = new BitSet(256);
+        for (Clause clause : clauses) {
+            BitSet bytes = clause.getPossibleBytesAt(offset);
+            if (bytes == null) {
+                return null;
+            }
+            possible.or(bytes);
+        }
+        return possible;
+    }
+
     public String toString() {
         return "minShouldMatch (min: " + min + ") " + clauses;
     }
@@ -17,11 +17,13 @@
 package org.apache.tika.mime;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 /**
  * Defines a MimeType pattern.
@@ -49,8 +51,11 @@ class Patterns implements Serializable {
      */
     private final SortedMap<String, MimeType> globs =
             new TreeMap<>(new LengthComparator());
-    private int minExtensionLength = Integer.MAX_VALUE;
-    private int maxExtensionLength = 0;
+    /**
+     * Compiled lookup structures over the extensions and globs, built
+     * lazily and discarded whenever a pattern is added.
+     */
+    private transient volatile CompiledPatterns compiled;
 
     public Patterns(MediaTypeRegistry registry) {
         this.registry = registry;
@@ -101,9 +106,7 @@ class Patterns implements Serializable {
         MimeType previous = extensions.get(extension);
         if (previous == null || registry.isSpecializationOf(previous.getType(), type.getType())) {
             extensions.put(extension, type);
-            int length = extension.length();
-            minExtensionLength = Math.min(minExtensionLength, length);
-            maxExtensionLength = Math.max(maxExtensionLength, length);
+            compiled = null;
         } else if (previous == type ||
                 registry.isSpecializationOf(type.getType(), previous.getType())) {
             // do nothing
@@ -116,6 +119,7 @@ class Patterns implements Serializable {
         MimeType previous = globs.get(glob);
         if (previous == null || registry.isSpecializationOf(previous.getType(), type.getType())) {
             globs.put(glob, type);
+            compiled = null;
         } else if (previous == type ||
                 registry.isSpecializationOf(type.getType(), previous.getType())) {
             // do nothing
@@ -144,29 +148,43 @@ class Patterns implements Serializable {
         }
 
         // First, try exact match of the provided resource name
-        if (names.containsKey(name)) {
-            return names.get(name);
+        MimeType type = names.get(name);
+        if (type != null) {
+            return type;
         }
 
+        CompiledPatterns compiled = getCompiled();
+
         // Then try "extension" (*.xxx) matching
-        int maxLength = Math.min(maxExtensionLength, name.length());
-        for (int n = maxLength; n >= minExtensionLength; n--) {
-            String extension = name.substring(name.length() - n);
-            if (extensions.containsKey(extension)) {
-                return extensions.get(extension);
-            }
+        type = compiled.extensions.longestSuffixMatch(name);
+        if (type != null) {
+            return type;
         }
 
         // And finally, try complex regexp matching
-        for (Map.Entry<String, MimeType> entry : globs.entrySet()) {
-            if (name.matches(entry.getKey())) {
-                return entry.getValue();
+        for (int i = 0; i < compiled.globPatterns.length; i++) {
+            if (compiled.globPatterns[i].matcher(name).matches()) {
+                return compiled.globTypes[i];
             }
         }
 
         return null;
     }
 
+    private CompiledPatterns getCompiled() {
+        CompiledPatterns c = compiled;
+        if (c == null) {
+            synchronized (this) {
+                c = compiled;
+                if (c == null) {
+                    c = new CompiledPatterns(extensions, globs);
+                    compiled = c;
+                }
+            }
+        }
+        return c;
+    }
+
     private String compile(String glob) {
         StringBuilder pattern = new StringBuilder();
         pattern.append("\\A");
@@ -187,6 +205,102 @@ class Patterns implements Serializable {
         return pattern.toString();
     }
 
+    /**
+     * Immutable snapshot of the extension and glob patterns, ready for
+     * matching: the extensions in a suffix trie and the globs as
+     * precompiled regular expressions in length order.
+     */
+    private static final class CompiledPatterns {
+
+        private final SuffixTrie extensions = new SuffixTrie();
+
+        private final Pattern[] globPatterns;
+
+        private final MimeType[] globTypes;
+
+        CompiledPatterns(Map<String, MimeType> extensions, SortedMap<String, MimeType> globs) {
+            for (Map.Entry<String, MimeType> entry : extensions.entrySet()) {
+                this.extensions.put(entry.getKey(), entry.getValue());
+            }
+            globPatterns = new Pattern[globs.size()];
+            globTypes = new MimeType[globs.size()];
+            int i = 0;
+            for (Map.Entry<String, MimeType> entry : globs.entrySet()) {
+                globPatterns[i] = Pattern.compile(entry.getKey());
+                globTypes[i] = entry.getValue();
+                i++;
+            }
+        }
+
+    }
+
+    /**
+     * Trie over reversed extensions, so that the longest extension of a
+     * name is found in a single walk back from its last character, without
+     * creating any substrings.
+     */
+    private static final class SuffixTrie {
+
+        private static final char[] NO_KEYS = new char[0];
+
+        private static final SuffixTrie[] NO_CHILDREN = new SuffixTrie[0];
+
+        // Sorted, for binary search
+        private char[] keys = NO_KEYS;
+
+        private SuffixTrie[] children = NO_CHILDREN;
+
+        private MimeType type;
+
+        void put(String extension, MimeType type) {
+            SuffixTrie node = this;
+            for (int i = extension.length() - 1; i >= 0; i--) {
+                node = node.getOrAddChild(extension.charAt(i));
+            }
+            node.type = type;
+        }
+
+        MimeType longestSuffixMatch(String name) {
+            MimeType match = type;
+            SuffixTrie node = this;
+            for (int i = name.length() - 1; i >= 0; i--) {
+                int index = Arrays.binarySearch(node.keys, name.charAt(i));
+                if (index < 0) {
+                    break;
+                }
+                node = node.children[index];
+                if (node.type != null) {
+                    match = node.type;
+                }
+            }
+            return match;
+        }
+
+        private SuffixTrie getOrAddChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insert = -index - 1;
+            SuffixTrie child = new SuffixTrie();
+
+            char[] newKeys = new char[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insert);
+            newKeys[insert] = c;
+            System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+
+            SuffixTrie[] newChildren = new SuffixTrie[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            newChildren[insert] = child;
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+    }
+
     private static final class LengthComparator implements Comparator<String>, Serializable {
 
         /**
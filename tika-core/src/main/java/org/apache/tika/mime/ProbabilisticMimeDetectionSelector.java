@@ -22,6 +22,7 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
@@ -129,14 +130,8 @@ public class ProbabilisticMimeDetectionSelector implements Detector {
 
         // Get type based on magic prefix
         if (tis != null) {
-            tis.mark(mimeTypes.getMinLength());
-            try {
-                byte[] prefix = mimeTypes.readMagicHeader(tis);
-                //defensive copy
-                possibleTypes.addAll(mimeTypes.getMimeType(prefix));
-            } finally {
-                tis.reset();
-            }
+            DetectionProbe probe = DetectionProbe.get(tis, parseContext, mimeTypes.getMinLength());
+            possibleTypes.addAll(mimeTypes.getMimeType(probe.getBuffer(mimeTypes.getMinLength())));
         }
 
         MimeType extHint = null;
@@ -146,10 +146,26 @@ public class AutoDetectParser extends CompositeParser {
 
     public void parse(TikaInputStream tis, ContentHandler handler, Metadata metadata,
                       ParseContext context) throws IOException, SAXException, TikaException {
-        // Compute digests before type detection if configured
+        // Compute digests before type detection if configured, or while parsing
+        // if that avoids caching the stream for a rewind.
         // DigesterFactory is retrieved from ParseContext (configured via parse-context)
-        DigestHelper.maybeDigest(tis, metadata, context);
+        DigestHelper.Tee digestTee = DigestHelper.maybeTee(tis, metadata, context);
+        if (digestTee == null) {
+            DigestHelper.maybeDigest(tis, metadata, context);
+            detectAndParse(tis, handler, metadata, context);
+            return;
+        }
+        boolean parsed = false;
+        try {
+            detectAndParse(digestTee.getStream(), handler, metadata, context);
+            parsed = true;
+        } finally {
+            digestTee.finish(parsed);
+        }
+    }
 
+    private void detectAndParse(TikaInputStream tis, ContentHandler handler, Metadata metadata,
+                                ParseContext context) throws IOException, SAXException, TikaException {
         // Signal to detectors that parsing will follow - allows them to prepare
         // (e.g., salvage corrupted ZIP files for parser reuse)
         context.set(ParsingIntent.class, ParsingIntent.WILL_PARSE);
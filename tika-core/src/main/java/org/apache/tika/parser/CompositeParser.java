@@ -53,6 +53,22 @@ public class CompositeParser implements Parser {
      */
     private static final long serialVersionUID = 2192845797749627824L;
 
+    /**
+     * Whether a subclass overrides {@link #getParsers(ParseContext)}, in which
+     * case lookups go through that method instead of the dispatch table.
+     */
+    private static final ClassValue<Boolean> OVERRIDES_GET_PARSERS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getParsers", ParseContext.class)
+                        .getDeclaringClass() != CompositeParser.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     /**
      * Media type registry.
      */
@@ -68,6 +84,12 @@ public class CompositeParser implements Parser {
      */
     private Parser fallback = new EmptyParser();
 
+    /**
+     * Cached type-to-parser table, rebuilt by {@link #getDispatchTable}
+     * when the component parsers or their supported types change.
+     */
+    private transient volatile DispatchTable dispatchTable;
+
     public CompositeParser(MediaTypeRegistry registry, List<Parser> parsers,
                            Collection<Class<? extends Parser>> excludeParsers) {
         if (excludeParsers == null || excludeParsers.isEmpty()) {
@@ -100,13 +122,41 @@ public class CompositeParser implements Parser {
     }
 
     public Map<MediaType, Parser> getParsers(ParseContext context) {
-        Map<MediaType, Parser> map = new HashMap<>();
-        for (Parser parser : parsers) {
-            for (MediaType type : parser.getSupportedTypes(context)) {
-                map.put(registry.normalize(type), parser);
-            }
+        return new HashMap<>(getDispatchTable(context).parsersByType);
+    }
+
+    /**
+     * Returns the parsers that take part in media type dispatch, in
+     * ascending order of precedence: when two parsers declare the same
+     * type, the later one wins.
+     * <p>
+     * Subclasses that add parsers at runtime (e.g. dynamically loaded
+     * services) override this rather than {@link #getParsers(ParseContext)}
+     * so that the cached dispatch table stays in use.
+     *
+     * @return component parsers, lowest precedence first
+     * @since Apache Tika 4.0
+     */
+    protected List<Parser> getDispatchParsers() {
+        return parsers;
+    }
+
+    /**
+     * Returns the dispatch table for the given context, rebuilding it only
+     * if the dispatch parsers, their supported types for this context or
+     * the media type registry have changed since it was built. Most parsers
+     * return the same supported types set on every call, so validation is
+     * normally an identity check per parser.
+     */
+    private DispatchTable getDispatchTable(ParseContext context) {
+        List<Parser> current = getDispatchParsers();
+        DispatchTable table = dispatchTable;
+        if (table != null && table.isValid(registry, current, context)) {
+            return table;
         }
-        return map;
+        table = new DispatchTable(registry, current, context);
+        dispatchTable = table;
+        return table;
     }
 
     private boolean isExcluded(Collection<Class<? extends Parser>> excludeParsers,
@@ -243,7 +293,6 @@ public class CompositeParser implements Parser {
     }
 
     protected Parser getParser(Metadata metadata, ParseContext context) {
-        Map<MediaType, Parser> map = getParsers(context);
         //check for parser override first
         String contentTypeString = metadata.get(TikaCoreProperties.CONTENT_TYPE_PARSER_OVERRIDE);
         if (contentTypeString == null) {
@@ -254,12 +303,23 @@ public class CompositeParser implements Parser {
             // We always work on the normalised, canonical form
             type = registry.normalize(type);
         }
+        Map<MediaType, Parser> map;
+        if (OVERRIDES_GET_PARSERS.get(getClass())) {
+            // a subclass supplies its own map; honour it on every call
+            map = getParsers(context);
+        } else {
+            map = getDispatchTable(context).resolved;
+        }
         while (type != null) {
             // Try finding a parser for the type
             Parser parser = map.get(type);
             if (parser != null) {
                 return parser;
             }
+            if (map.containsKey(type)) {
+                // known type whose supertype chain has no parser
+                break;
+            }
 
             // Failing that, try for the parent of the type
             type = registry.getSupertype(type);
@@ -268,7 +328,10 @@ public class CompositeParser implements Parser {
     }
 
     public Set<MediaType> getSupportedTypes(ParseContext context) {
-        return getParsers(context).keySet();
+        if (OVERRIDES_GET_PARSERS.get(getClass())) {
+            return getParsers(context).keySet();
+        }
+        return getDispatchTable(context).parsersByType.keySet();
     }
 
     /**
@@ -350,4 +413,70 @@ public class CompositeParser implements Parser {
             }
         }
     }
+
+    /**
+     * Immutable media type dispatch table.
+     * <p>
+     * {@code parsersByType} is the normalised type-to-parser map that
+     * {@link #getParsers(ParseContext)} used to rebuild on every call.
+     * {@code resolved} extends it with every type in the registry mapped to
+     * the parser found by walking its supertype chain, or to {@code null} if
+     * no parser handles any of its supertypes, so a lookup of a known type
+     * is a single hash probe. Unknown types (e.g. with parameters) still
+     * walk the supertype chain until they reach a known type.
+     */
+    private static final class DispatchTable {
+
+        private final MediaTypeRegistry registry;
+        private final Parser[] parsers;
+        private final Set<MediaType>[] supportedTypes;
+        private final Map<MediaType, Parser> parsersByType;
+        private final Map<MediaType, Parser> resolved;
+
+        @SuppressWarnings("unchecked")
+        DispatchTable(MediaTypeRegistry registry, List<Parser> parsers, ParseContext context) {
+            this.registry = registry;
+            this.parsers = parsers.toArray(new Parser[0]);
+            this.supportedTypes = new Set[this.parsers.length];
+            Map<MediaType, Parser> byType = new HashMap<>();
+            for (int i = 0; i < this.parsers.length; i++) {
+                supportedTypes[i] = this.parsers[i].getSupportedTypes(context);
+                for (MediaType type : supportedTypes[i]) {
+                    byType.put(registry.normalize(type), this.parsers[i]);
+                }
+            }
+            Map<MediaType, Parser> flat = new HashMap<>(byType);
+            for (MediaType type : registry.getTypes()) {
+                if (flat.containsKey(type)) {
+                    continue;
+                }
+                Parser parser = null;
+                MediaType ancestor = registry.getSupertype(type);
+                while (ancestor != null && parser == null) {
+                    parser = byType.get(ancestor);
+                    ancestor = registry.getSupertype(ancestor);
+                }
+                flat.put(type, parser);
+            }
+            this.parsersByType = Collections.unmodifiableMap(byType);
+            this.resolved = Collections.unmodifiableMap(flat);
+        }
+
+        boolean isValid(MediaTypeRegistry currentRegistry, List<Parser> currentParsers,
+                        ParseContext context) {
+            if (registry != currentRegistry || parsers.length != currentParsers.size()) {
+                return false;
+            }
+            for (int i = 0; i < parsers.length; i++) {
+                if (parsers[i] != currentParsers.get(i)) {
+                    return false;
+                }
+                Set<MediaType> types = parsers[i].getSupportedTypes(context);
+                if (types != supportedTypes[i] && !types.equals(supportedTypes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
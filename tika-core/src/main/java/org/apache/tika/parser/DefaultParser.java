@@ -20,13 +20,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.tika.config.ServiceLoader;
 import org.apache.tika.config.TikaComponent;
 import org.apache.tika.detect.DefaultEncodingDetector;
 import org.apache.tika.detect.EncodingDetector;
-import org.apache.tika.mime.MediaType;
 import org.apache.tika.mime.MediaTypeRegistry;
 import org.apache.tika.renderer.CompositeRenderer;
 import org.apache.tika.renderer.Renderer;
@@ -157,22 +155,18 @@ public class DefaultParser extends CompositeParser {
     }
 
     @Override
-    public Map<MediaType, Parser> getParsers(ParseContext context) {
-        Map<MediaType, Parser> map = super.getParsers(context);
-
+    protected List<Parser> getDispatchParsers() {
+        List<Parser> parsers = super.getDispatchParsers();
         if (loader != null) {
             // Add dynamic parser service (they always override static ones)
-            MediaTypeRegistry registry = getMediaTypeRegistry();
-            List<Parser> parsers = loader.loadDynamicServiceProviders(Parser.class);
-            Collections.reverse(parsers); // best parser last
-            for (Parser parser : parsers) {
-                for (MediaType type : parser.getSupportedTypes(context)) {
-                    map.put(registry.normalize(type), parser);
-                }
+            List<Parser> dynamic = loader.loadDynamicServiceProviders(Parser.class);
+            if (!dynamic.isEmpty()) {
+                Collections.reverse(dynamic); // best parser last
+                parsers = new ArrayList<>(parsers);
+                parsers.addAll(dynamic);
             }
         }
-
-        return map;
+        return parsers;
     }
 
     @Override
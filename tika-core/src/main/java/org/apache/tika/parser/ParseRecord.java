@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.tika.config.EmbeddedLimits;
+import org.apache.tika.exception.EmbeddedLimitReachedException;
 import org.apache.tika.metadata.Metadata;
 
 /**
@@ -84,6 +85,54 @@ public class ParseRecord {
         return record;
     }
 
+    /**
+     * Creates a record for parsing an embedded document of the current document
+     * on another thread, e.g. an entry of an archive.  The new record is at the
+     * same depth and has the same embedded limits as this one, and nothing has
+     * been recorded in it yet.  Once that parse is done, add what was recorded
+     * to this record with {@link #addAll(ParseRecord)}.
+     *
+     * @return a new record
+     * @since Apache Tika 4.0
+     */
+    public ParseRecord fork() {
+        ParseRecord record = new ParseRecord();
+        record.depth = depth;
+        record.maxEmbeddedDepth = maxEmbeddedDepth;
+        record.maxEmbeddedCount = maxEmbeddedCount;
+        record.throwOnMaxDepth = throwOnMaxDepth;
+        record.throwOnMaxCount = throwOnMaxCount;
+        return record;
+    }
+
+    /**
+     * Adds what was recorded in a record from {@link #fork()} to this record.
+     * <p>
+     * The embedded documents that were counted in the forked record are not added
+     * to this record's count: the caller counts them as it writes them out, with
+     * {@link #checkEmbeddedCountLimit()}, so that the limit applies across forks.
+     *
+     * @param forked a record that was forked from this one
+     * @since Apache Tika 4.0
+     */
+    public void addAll(ParseRecord forked) {
+        for (String parser : forked.parsers) {
+            addParserClass(parser);
+        }
+        for (Exception e : forked.exceptions) {
+            addException(e);
+        }
+        for (String warning : forked.warnings) {
+            addWarning(warning);
+        }
+        for (Metadata m : forked.metadataList) {
+            addMetadata(m);
+        }
+        writeLimitReached |= forked.writeLimitReached;
+        embeddedDepthLimitReached |= forked.embeddedDepthLimitReached;
+        embeddedCountLimitReached |= forked.embeddedCountLimitReached;
+    }
+
     void beforeParse() {
         depth++;
     }
@@ -181,6 +230,31 @@ public class ParseRecord {
         this.embeddedCountLimitReached = embeddedCountLimitReached;
     }
 
+    /**
+     * Checks the embedded count limit before another embedded document is parsed.
+     * Once the limit has been reached, this sets {@link #isEmbeddedCountLimitReached()},
+     * and throws if {@link #isThrowOnMaxCount()}.
+     *
+     * @return whether another embedded document may be parsed
+     * @throws EmbeddedLimitReachedException if the limit has been reached and
+     *                                       throwing is configured
+     * @since Apache Tika 4.0
+     */
+    public boolean checkEmbeddedCountLimit() {
+        if (embeddedCountLimitReached) {
+            return false;
+        }
+        if (maxEmbeddedCount >= 0 && embeddedCount >= maxEmbeddedCount) {
+            embeddedCountLimitReached = true;
+            if (throwOnMaxCount) {
+                throw new EmbeddedLimitReachedException(
+                        EmbeddedLimitReachedException.LimitType.MAX_COUNT, maxEmbeddedCount);
+            }
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Increments the embedded document count. Should be called when an embedded
      * document is about to be parsed.
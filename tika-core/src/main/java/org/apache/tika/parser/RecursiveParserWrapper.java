@@ -17,12 +17,19 @@
 package org.apache.tika.parser;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import org.apache.tika.exception.CorruptedFileException;
 import org.apache.tika.exception.EncryptedDocumentException;
@@ -38,6 +45,7 @@ import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.sax.AbstractRecursiveParserWrapperHandler;
 import org.apache.tika.sax.ContentHandlerFactory;
+import org.apache.tika.sax.RecordingContentHandler;
 import org.apache.tika.sax.RecursiveParserWrapperHandler;
 import org.apache.tika.sax.SecureContentHandler;
 import org.apache.tika.sax.WriteLimiter;
@@ -206,6 +214,55 @@ public class RecursiveParserWrapper extends ParserDecorator {
     }
 
 
+    /**
+     * Whether the given context is that of a document that is being parsed by a
+     * RecursiveParserWrapper, so that its embedded documents can be parsed on another
+     * thread with {@link #recordEmbedded(ParseContext, ParseContext,
+     * RecordingContentHandler.MemoryBudget)}.
+     *
+     * @param context the context of the document
+     * @return whether the document is being parsed by a RecursiveParserWrapper
+     * @since Apache Tika 4.0
+     */
+    public static boolean isRecursiveParse(ParseContext context) {
+        return context.get(Parser.class) instanceof EmbeddedParserDecorator;
+    }
+
+    /**
+     * Prepares a context for parsing an embedded document of the current document on
+     * another thread, e.g. an entry of an archive. The {@link Parser} in the worker's
+     * context records the embedded document and the documents embedded in it, instead
+     * of handing them to the {@link AbstractRecursiveParserWrapperHandler}. Once the
+     * worker is done, replay the recording on the parsing thread with
+     * {@link EmbeddedRecording#replay(Metadata, ParseContext)} at the point where the
+     * document would have been parsed.
+     * <p>
+     * For the embedded count limit to be applied in document order, the worker's
+     * embedded document extractor should mark the documents that it parses with
+     * {@link EmbeddedRecording#startEmbedded()} and {@link EmbeddedRecording#endEmbedded()}.
+     * The recorders share the given memory budget; a recording that went over it is
+     * incomplete, see {@link EmbeddedRecording#isBudgetExceeded()}.
+     *
+     * @param context       the context of the document that is being parsed
+     * @param workerContext a copy of that context for the worker; its parser is replaced
+     * @param budget        memory budget for the recorded content, or null
+     * @return the recording that the worker's parse fills
+     * @throws IllegalArgumentException if the context is not that of a document that is
+     *                                  being parsed by a RecursiveParserWrapper
+     * @since Apache Tika 4.0
+     */
+    public static EmbeddedRecording recordEmbedded(ParseContext context,
+                                                   ParseContext workerContext,
+                                                   RecordingContentHandler.MemoryBudget budget) {
+        if (!isRecursiveParse(context)) {
+            throw new IllegalArgumentException(
+                    "The context is not that of a RecursiveParserWrapper parse");
+        }
+        EmbeddedParserDecorator parent = (EmbeddedParserDecorator) context.get(Parser.class);
+        return parent.record(context.get(RecursivelySecureContentHandler.class), workerContext,
+                budget);
+    }
+
     private class EmbeddedParserDecorator extends StatefulParser {
 
         private static final long serialVersionUID = 207648200464263337L;
@@ -226,6 +283,33 @@ public class RecursiveParserWrapper extends ParserDecorator {
             this.parserState = parseState;
         }
 
+        private EmbeddedRecording record(RecursivelySecureContentHandler secureHandler,
+                                         ParseContext workerContext,
+                                         RecordingContentHandler.MemoryBudget budget) {
+            //no document can write more than what is left of the write limit
+            int writeLimit = -1;
+            SecureHandlerCounter counter = secureHandler.handlerCounter;
+            if (counter.totalWriteLimit > -1) {
+                writeLimit = Math.max(0, counter.totalWriteLimit - counter.totalChars);
+            }
+            DocumentRecorder recorder = new DocumentRecorder(
+                    parserState.recursiveParserWrapperHandler.getContentHandlerFactory(),
+                    writeLimit, budget);
+            ParserState workerState = new ParserState(recorder);
+            recorder.unknownCount = workerState.unknownCount;
+            workerContext.set(Parser.class,
+                    new EmbeddedParserDecorator(getWrappedParser(), location, embeddedIdPath,
+                            workerState));
+            //the write limit is applied when the recording is replayed. The worker can't
+            //write to the handler of the current document, so content that an embedded
+            //document inlines into it is dropped
+            workerContext.set(RecursivelySecureContentHandler.class,
+                    new StreamlessSecureContentHandler(new DefaultHandler(),
+                            new SecureHandlerCounter(-1),
+                            secureHandler.throwOnWriteLimitReached, workerContext));
+            return new EmbeddedRecording(this, recorder);
+        }
+
         @Override
         public void parse(TikaInputStream tis, ContentHandler ignore, Metadata metadata,
                           ParseContext context) throws IOException, SAXException, TikaException {
@@ -316,6 +400,271 @@ public class RecursiveParserWrapper extends ParserDecorator {
         }
     }
 
+    /**
+     * The embedded documents that a worker parsed with the parser from
+     * {@link #recordEmbedded(ParseContext, ParseContext, RecordingContentHandler.MemoryBudget)}.
+     * <p>
+     * This is not thread-safe. Replay it once the worker is done with it.
+     *
+     * @since Apache Tika 4.0
+     */
+    public static class EmbeddedRecording {
+
+        private final EmbeddedParserDecorator parent;
+
+        private final DocumentRecorder recorder;
+
+        //set while the recording is replayed
+        private AbstractRecursiveParserWrapperHandler handler;
+        private RecursivelySecureContentHandler secureHandler;
+        private ParseRecord parseRecord;
+        private ParseContext context;
+        //recorded id -> id in the parse
+        private final Map<String, String> ids = new HashMap<>();
+
+        private EmbeddedRecording(EmbeddedParserDecorator parent, DocumentRecorder recorder) {
+            this.parent = parent;
+            this.recorder = recorder;
+            recorder.recording = this;
+        }
+
+        /**
+         * Marks the start of an embedded document in the content of the document that
+         * the worker is parsing, see {@link RecordingContentHandler#startEmbedded()}.
+         * Call this on the worker, from the embedded document extractor.
+         *
+         * @throws SAXException if the mark does not fit in the memory budget
+         */
+        public void startEmbedded() throws SAXException {
+            if (!recorder.open.isEmpty()) {
+                recorder.open.peek().content.startEmbedded();
+            }
+        }
+
+        /**
+         * Marks the end of an embedded document, see {@link #startEmbedded()}.
+         *
+         * @throws SAXException if the mark does not fit in the memory budget
+         */
+        public void endEmbedded() throws SAXException {
+            if (!recorder.open.isEmpty()) {
+                recorder.open.peek().content.endEmbedded();
+            }
+        }
+
+        /**
+         * @return whether recording stopped because the memory budget was exhausted,
+         * in which case the document has to be parsed again on the parsing thread
+         */
+        public boolean isBudgetExceeded() {
+            for (RecordingContentHandler content : recorder.contents) {
+                if (content.isBudgetExceeded()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Drops the recorded content and gives its memory back to the budget.
+         */
+        public void clear() {
+            for (RecordingContentHandler content : recorder.contents) {
+                content.clear();
+            }
+        }
+
+        /**
+         * Hands the recorded documents to the {@link AbstractRecursiveParserWrapperHandler}
+         * of the parse as if they had been parsed on this thread: in the order in which
+         * they were parsed, numbered in the parse's sequence, and with their content
+         * counting towards the parse's write limit.
+         * <p>
+         * The recorded document has been counted by the embedded document extractor that
+         * is replaying it. The documents that were marked in its content are counted
+         * against the embedded count limit in the context's {@link ParseRecord} where they
+         * were marked, and the ones over the limit are dropped.
+         *
+         * @param metadata the metadata of the recorded document on the parsing thread.
+         *                 What was recorded replaces what is in it.
+         * @param context  the context of the document that is being parsed
+         * @throws SAXException if the write limit is reached and throwing is configured,
+         *                      or if the handler throws
+         */
+        public void replay(Metadata metadata, ParseContext context) throws SAXException {
+            RecordedDocument top = recorder.top;
+            if (top == null) {
+                return;
+            }
+            for (String name : metadata.names()) {
+                metadata.remove(name);
+            }
+            for (String name : top.metadata.names()) {
+                for (String value : top.metadata.getValues(name)) {
+                    metadata.add(name, value);
+                }
+            }
+            handler = parent.parserState.recursiveParserWrapperHandler;
+            secureHandler = context.get(RecursivelySecureContentHandler.class);
+            parseRecord = context.get(ParseRecord.class);
+            this.context = context;
+            try {
+                replay(top, metadata);
+            } finally {
+                handler = null;
+                secureHandler = null;
+                parseRecord = null;
+                this.context = null;
+                ids.clear();
+            }
+        }
+
+        /**
+         * Same as the parse of the document by the decorator: the documents embedded
+         * in it are replayed from its content, at the point where they were parsed.
+         */
+        private void replay(RecordedDocument document, Metadata metadata) throws SAXException {
+            renumber(document, metadata);
+            ContentHandler localHandler = handler.createHandler();
+            handler.startEmbeddedDocument(localHandler, metadata);
+            try {
+                document.content.replay(new StreamlessSecureContentHandler(localHandler,
+                        secureHandler.handlerCounter, secureHandler.throwOnWriteLimitReached,
+                        context), parseRecord);
+            } catch (SAXException e) {
+                if (WriteLimitReachedException.isWriteLimitReached(e)) {
+                    metadata.add(TikaCoreProperties.WRITE_LIMIT_REACHED, "true");
+                }
+                throw e;
+            } finally {
+                handler.endEmbeddedDocument(localHandler, metadata);
+            }
+        }
+
+        /**
+         * The worker numbered the documents, and the unnamed ones, from 1, under the
+         * id path and the resource path of the parent document. This numbers them in
+         * the parse's sequence, as they would have been numbered on the parsing thread.
+         */
+        private void renumber(RecordedDocument document, Metadata metadata) {
+            ParserState state = parent.parserState;
+            String recordedPath = metadata.get(TikaCoreProperties.EMBEDDED_RESOURCE_PATH);
+            String name = recordedPath.substring(recordedPath.lastIndexOf('/') + 1);
+            if (document.unknownCount > 0) {
+                //keep the extension, if any
+                String recordedName = EmbeddedDocumentUtil.generateResourceName(
+                        EmbeddedDocumentUtil.EmbeddedResourcePrefix.EMBEDDED,
+                        document.unknownCount, null);
+                name = EmbeddedDocumentUtil.generateResourceName(
+                        EmbeddedDocumentUtil.EmbeddedResourcePrefix.EMBEDDED,
+                        state.unknownCount.incrementAndGet(), null) +
+                        name.substring(recordedName.length());
+            }
+            document.path = (document.parent == null ?
+                    parent.location : document.parent.path + "/") + name;
+            metadata.set(TikaCoreProperties.EMBEDDED_RESOURCE_PATH, document.path);
+
+            String id = Integer.toString(++state.embeddedCount);
+            ids.put(metadata.get(TikaCoreProperties.EMBEDDED_ID), id);
+            metadata.set(TikaCoreProperties.EMBEDDED_ID, state.embeddedCount);
+            String parentIdPath = parent.embeddedIdPath.equals("/") ? "" : parent.embeddedIdPath;
+            String recordedIdPath = metadata.get(TikaCoreProperties.EMBEDDED_ID_PATH);
+            StringBuilder idPath = new StringBuilder(parentIdPath);
+            for (String recordedId :
+                    recordedIdPath.substring(parentIdPath.length() + 1).split("/")) {
+                idPath.append('/').append(ids.get(recordedId));
+            }
+            metadata.set(TikaCoreProperties.EMBEDDED_ID_PATH, idPath.toString());
+        }
+    }
+
+    private static class RecordedDocument {
+        private final RecordedDocument parent;
+        private final Metadata metadata;
+        private final RecordingContentHandler content;
+        //the number in the document's generated name, or 0 if it has a name
+        private final int unknownCount;
+        //the resource path, once the document has been replayed
+        private String path;
+
+        private RecordedDocument(RecordedDocument parent, Metadata metadata,
+                                 RecordingContentHandler content, int unknownCount) {
+            this.parent = parent;
+            this.metadata = metadata;
+            this.content = content;
+            this.unknownCount = unknownCount;
+        }
+    }
+
+    /**
+     * Stands in for the parse's handler on a worker: gives each embedded document a
+     * recorder for its content, and records each document in the content of the one
+     * it is embedded in, at the point where it is parsed.
+     */
+    private static class DocumentRecorder extends AbstractRecursiveParserWrapperHandler {
+
+        private final List<RecordingContentHandler> contents = new ArrayList<>();
+
+        private final Deque<RecordedDocument> open = new ArrayDeque<>();
+
+        private final int writeLimit;
+
+        private final RecordingContentHandler.MemoryBudget budget;
+
+        //the worker's counter for the names of unnamed documents
+        private AtomicInteger unknownCount;
+
+        private int lastUnknownCount = 0;
+
+        private RecordedDocument top;
+
+        private EmbeddedRecording recording;
+
+        private DocumentRecorder(ContentHandlerFactory contentHandlerFactory, int writeLimit,
+                                 RecordingContentHandler.MemoryBudget budget) {
+            super(contentHandlerFactory);
+            this.writeLimit = writeLimit;
+            this.budget = budget;
+        }
+
+        @Override
+        public ContentHandler createHandler() {
+            //the characters over the limit are dropped rather than thrown,
+            //the parse's own limit is reached when they are replayed
+            RecordingContentHandler content =
+                    new RecordingContentHandler(writeLimit, false, budget);
+            contents.add(content);
+            return content;
+        }
+
+        @Override
+        public void startEmbeddedDocument(ContentHandler contentHandler, Metadata metadata)
+                throws SAXException {
+            super.startEmbeddedDocument(contentHandler, metadata);
+            //the decorator has just named the document
+            int generated = 0;
+            if (unknownCount.get() > lastUnknownCount) {
+                generated = unknownCount.get();
+                lastUnknownCount = generated;
+            }
+            RecordedDocument document = new RecordedDocument(open.peek(), metadata,
+                    (RecordingContentHandler) contentHandler, generated);
+            if (open.isEmpty()) {
+                top = document;
+            } else {
+                open.peek().content.addEvent(h -> recording.replay(document, metadata), 0);
+            }
+            open.push(document);
+        }
+
+        @Override
+        public void endEmbeddedDocument(ContentHandler contentHandler, Metadata metadata)
+                throws SAXException {
+            super.endEmbeddedDocument(contentHandler, metadata);
+            open.pop();
+        }
+    }
+
     static class SecureHandlerCounter {
         private final int totalWriteLimit;
         private boolean writeLimitReached = false;
@@ -435,4 +784,23 @@ public class RecursiveParserWrapper extends ParserDecorator {
             }
         }
     }
+
+    /**
+     * Applies the parse's write limit where the document's stream is not at hand:
+     * on a worker, and when a recording is replayed. The zip bomb checks need the
+     * stream, and are made where the document is parsed.
+     */
+    private static class StreamlessSecureContentHandler extends RecursivelySecureContentHandler {
+
+        private StreamlessSecureContentHandler(ContentHandler handler,
+                                               SecureHandlerCounter handlerCounter,
+                                               boolean throwOnWriteLimitReached,
+                                               ParseContext parseContext) {
+            super(handler, null, handlerCounter, throwOnWriteLimitReached, parseContext);
+        }
+
+        @Override
+        protected void advance(int length) {
+        }
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.ocr.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Default {@link OcrResultCache} with an in-memory LRU tier and an optional
+ * on-disk tier.
+ * <p>
+ * The in-memory tier holds at most <code>maxEntries</code> results. The on-disk
+ * tier stores one UTF-8 file per key under the configured directory
+ * (<code>directory/ab/abcdef...</code>), so results survive restarts and can be
+ * shared by several processes. Files are written to a temporary file and moved
+ * into place, so readers never see a partial result. Nothing is evicted from
+ * the on-disk tier; delete the directory when the OCR engine or its language
+ * data change.
+ *
+ * @since Apache Tika 4.0
+ */
+public class DefaultOcrResultCache implements OcrResultCache {
+
+    private static final Pattern VALID_KEY = Pattern.compile("[0-9a-zA-Z_-]{3,128}");
+
+    private final Map<String, String> memory;
+    private final Path directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxEntries maximum number of results kept in memory
+     */
+    public DefaultOcrResultCache(int maxEntries) {
+        this.memory = new LruMap(maxEntries);
+        this.directory = null;
+    }
+
+    /**
+     * @param maxEntries maximum number of results kept in memory, may be 0 to
+     *                   only use the on-disk tier
+     * @param directory  directory for the on-disk tier, or <code>null</code> for none
+     * @throws IOException if the directory could not be created
+     */
+    public DefaultOcrResultCache(int maxEntries, Path directory) throws IOException {
+        this.memory = new LruMap(maxEntries);
+        this.directory = directory;
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    @Override
+    public String get(String key) throws IOException {
+        checkKey(key);
+        String result;
+        synchronized (memory) {
+            result = memory.get(key);
+        }
+        if (result == null && directory != null) {
+            try {
+                result = Files.readString(getFile(key), UTF_8);
+            } catch (NoSuchFileException e) {
+                //miss
+            }
+            if (result != null) {
+                synchronized (memory) {
+                    memory.put(key, result);
+                }
+            }
+        }
+        if (result == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return result;
+    }
+
+    @Override
+    public void put(String key, String result) throws IOException {
+        checkKey(key);
+        synchronized (memory) {
+            memory.put(key, result);
+        }
+        if (directory != null) {
+            Path file = getFile(key);
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                Files.writeString(tmp, result, UTF_8);
+                try {
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of results currently held in memory
+     */
+    public int getMemorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    private Path getFile(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static void checkKey(String key) {
+        //keys become file names in the on-disk tier
+        if (key == null || !VALID_KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid cache key: " + key);
+        }
+    }
+
+    private static class LruMap extends LinkedHashMap<String, String> {
+
+        private final int maxEntries;
+
+        LruMap(int maxEntries) {
+            super(16, 0.75f, true);
+            if (maxEntries < 0) {
+                throw new IllegalArgumentException("maxEntries must be >= 0: " + maxEntries);
+            }
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.ocr.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Cache of OCR results keyed by the content of the image and the OCR settings
+ * that affect the output. Images that recur across a corpus (logos, signature
+ * images, scanned cover pages) then only have to be OCR'd once.
+ * <p>
+ * OCR parsers look for an implementation on the {@link org.apache.tika.parser.ParseContext}
+ * before falling back to the one they built from their own configuration, so a
+ * custom implementation can be plugged in per parse.
+ * <p>
+ * Implementations must be thread safe.
+ *
+ * @since Apache Tika 4.0
+ */
+public interface OcrResultCache {
+
+    /**
+     * @param key a key built by {@link #buildKey(Path, String)}
+     * @return the cached OCR output, or <code>null</code> if there is none
+     * @throws IOException if a persistent tier could not be read
+     */
+    String get(String key) throws IOException;
+
+    /**
+     * Stores the raw OCR output for the given key.
+     *
+     * @param key    a key built by {@link #buildKey(Path, String)}
+     * @param result the raw OCR output
+     * @throws IOException if a persistent tier could not be written
+     */
+    void put(String key, String result) throws IOException;
+
+    /**
+     * @return the number of lookups that found a result
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of lookups that did not find a result
+     */
+    long getMissCount();
+
+    /**
+     * Builds a content-addressed key: the lower-case hex SHA-256 of the SHA-256 of the
+     * image bytes followed by the settings string. Callers must include every setting that
+     * changes the OCR output (engine, language, page segmentation mode,
+     * preprocessing, ...) in <code>settings</code>.
+     *
+     * @param image    the image that is going to be OCR'd
+     * @param settings a description of the OCR settings
+     * @return a 64 character hex key
+     * @throws IOException if the image could not be read
+     */
+    static String buildKey(Path image, String settings) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 must be supported", e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream is = Files.newInputStream(image)) {
+            for (int n = is.read(buffer); n != -1; n = is.read(buffer)) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        //the image digest has a fixed length, so it can't run into the settings
+        byte[] imageDigest = digest.digest();
+        digest.update(imageDigest);
+        digest.update(settings.getBytes(UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
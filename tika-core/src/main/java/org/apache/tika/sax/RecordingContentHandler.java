@@ -0,0 +1,355 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.sax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.parser.ParseRecord;
+
+/**
+ * Records SAX events so that they can be replayed later, possibly on another
+ * thread, into the real content handler.
+ * <p>
+ * Parsers that extract parts of a document concurrently record each part on a
+ * worker thread and replay the parts in document order on the parsing thread.
+ * <p>
+ * The write limit is applied while recording, with the same semantics as in
+ * {@link WriteOutContentHandler}: once more than {@code writeLimit} characters
+ * have been recorded, either a {@link WriteLimitReachedException} is thrown or
+ * any further characters are dropped. Give the recorder what is left of the
+ * write limit of the real handler, and the real handler will reach its own
+ * limit during the replay, exactly as if the part had been written to it
+ * directly.
+ * <p>
+ * Recorders of the same document can share a {@link MemoryBudget}. A recorder
+ * that would go over the budget stops the parse with a {@link SAXException}
+ * and reports {@link #isBudgetExceeded()}; what it recorded is then incomplete
+ * and the part has to be extracted again on the parsing thread.
+ * <p>
+ * Embedded documents that are parsed while recording can be marked with
+ * {@link #startEmbedded()} and {@link #endEmbedded()}. They are then counted
+ * against the embedded count limit when they are replayed, in document order,
+ * rather than on the worker, see {@link #replay(ContentHandler, ParseRecord)}.
+ * <p>
+ * This is not thread-safe. It must be written by one thread at a time, and
+ * replayed once the writer is done with it.
+ *
+ * @since Apache Tika 4.0
+ */
+public class RecordingContentHandler extends DefaultHandler {
+
+    /**
+     * An event to replay. Callers can record their own events with
+     * {@link #addEvent(Event, long)}.
+     */
+    @FunctionalInterface
+    public interface Event {
+        void replay(ContentHandler handler) throws SAXException;
+    }
+
+    /**
+     * Rough size of an event, not counting the data that it holds
+     */
+    private static final long EVENT_BYTES = 32;
+
+    private static final Event START_EMBEDDED = handler -> {
+    };
+
+    private static final Event END_EMBEDDED = handler -> {
+    };
+
+    private final List<Event> events = new ArrayList<>();
+
+    private final int writeLimit;
+
+    private final boolean throwOnWriteLimitReached;
+
+    private final MemoryBudget budget;
+
+    private int writeCount = 0;
+
+    private boolean writeLimitReached = false;
+
+    private boolean budgetExceeded = false;
+
+    private long reservedBytes = 0;
+
+    /**
+     * Creates a recorder without a write limit or memory budget.
+     */
+    public RecordingContentHandler() {
+        this(-1, true, null);
+    }
+
+    /**
+     * @param writeLimit               maximum number of characters to record, or -1
+     * @param throwOnWriteLimitReached whether to throw a {@link WriteLimitReachedException}
+     *                                 once the limit is reached, or to drop the characters
+     *                                 that follow
+     * @param budget                   memory budget shared with other recorders, or null
+     */
+    public RecordingContentHandler(int writeLimit, boolean throwOnWriteLimitReached,
+                                   MemoryBudget budget) {
+        this.writeLimit = writeLimit;
+        this.throwOnWriteLimitReached = throwOnWriteLimitReached;
+        this.budget = budget;
+    }
+
+    /**
+     * Writes the recorded events into the given handler. Any exception thrown
+     * by the handler, e.g. when its write limit has been reached, stops the replay.
+     */
+    public void replay(ContentHandler handler) throws SAXException {
+        replay(handler, null);
+    }
+
+    /**
+     * Writes the recorded events into the given handler, and counts the marked
+     * embedded documents in the given record. The documents over the record's
+     * embedded count limit are dropped, along with everything recorded for them.
+     *
+     * @param handler     the handler to write to
+     * @param parseRecord the record of the document that is being parsed, or null
+     *                    to write all the events
+     * @throws SAXException if the handler throws
+     * @throws org.apache.tika.exception.EmbeddedLimitReachedException if the embedded
+     *         count limit is reached and throwing is configured
+     */
+    public void replay(ContentHandler handler, ParseRecord parseRecord) throws SAXException {
+        //depth of the dropped document that is being skipped
+        int skipped = 0;
+        for (Event event : events) {
+            if (event == START_EMBEDDED) {
+                if (skipped > 0) {
+                    skipped++;
+                } else if (parseRecord != null) {
+                    if (parseRecord.checkEmbeddedCountLimit()) {
+                        parseRecord.incrementEmbeddedCount();
+                    } else {
+                        skipped++;
+                    }
+                }
+            } else if (event == END_EMBEDDED) {
+                if (skipped > 0) {
+                    skipped--;
+                }
+            } else if (skipped == 0) {
+                event.replay(handler);
+            }
+        }
+    }
+
+    /**
+     * Marks the start of an embedded document in the recording, before whatever
+     * is written for it, see {@link #replay(ContentHandler, ParseRecord)}.
+     *
+     * @throws SAXException if the mark does not fit in the memory budget
+     */
+    public void startEmbedded() throws SAXException {
+        addEvent(START_EMBEDDED, 0);
+    }
+
+    /**
+     * Marks the end of an embedded document, after whatever was written for it.
+     *
+     * @throws SAXException if the mark does not fit in the memory budget
+     */
+    public void endEmbedded() throws SAXException {
+        addEvent(END_EMBEDDED, 0);
+    }
+
+    /**
+     * Records an event of the caller's own.
+     *
+     * @param event the event
+     * @param bytes how much memory the event holds on to, for the budget
+     * @throws SAXException if the event does not fit in the memory budget
+     */
+    public void addEvent(Event event, long bytes) throws SAXException {
+        if (budget != null) {
+            if (budgetExceeded || !budget.tryReserve(bytes + EVENT_BYTES)) {
+                budgetExceeded = true;
+                throw new SAXException("Recorded content exceeds the memory budget of " +
+                        budget.getMaxBytes() + " bytes");
+            }
+            reservedBytes += bytes + EVENT_BYTES;
+        }
+        events.add(event);
+    }
+
+    /**
+     * @return whether more than the write limit has been recorded
+     */
+    public boolean isWriteLimitReached() {
+        return writeLimitReached;
+    }
+
+    /**
+     * @return whether recording stopped because the memory budget was exhausted,
+     * in which case the recorded events are incomplete
+     */
+    public boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    /**
+     * @return the number of characters recorded, as counted for the write limit
+     */
+    public int getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * Drops the recorded events and gives their memory back to the budget.
+     */
+    public void clear() {
+        events.clear();
+        if (budget != null) {
+            budget.release(reservedBytes);
+        }
+        reservedBytes = 0;
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        addEvent(ContentHandler::startDocument, 0);
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        addEvent(ContentHandler::endDocument, 0);
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) throws SAXException {
+        addEvent(h -> h.startPrefixMapping(prefix, uri), 0);
+    }
+
+    @Override
+    public void endPrefixMapping(String prefix) throws SAXException {
+        addEvent(h -> h.endPrefixMapping(prefix), 0);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException {
+        Attributes copy = new AttributesImpl(attributes);
+        long bytes = 0;
+        for (int i = 0; i < attributes.getLength(); i++) {
+            bytes += 2L * (attributes.getQName(i).length() + attributes.getValue(i).length());
+        }
+        addEvent(h -> h.startElement(uri, localName, qName, copy), bytes);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        addEvent(h -> h.endElement(uri, localName, qName), 0);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (writeLimitReached) {
+            return;
+        }
+        char[] copy = Arrays.copyOfRange(ch, start, start + length);
+        addEvent(h -> h.characters(copy, 0, copy.length), 2L * length);
+        countWrite(length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        if (writeLimitReached) {
+            return;
+        }
+        char[] copy = Arrays.copyOfRange(ch, start, start + length);
+        addEvent(h -> h.ignorableWhitespace(copy, 0, copy.length), 2L * length);
+        countWrite(length);
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) throws SAXException {
+        addEvent(h -> h.processingInstruction(target, data), 0);
+    }
+
+    @Override
+    public void skippedEntity(String name) throws SAXException {
+        addEvent(h -> h.skippedEntity(name), 0);
+    }
+
+    /**
+     * The characters that cross the limit are kept in full, so that the real
+     * handler is sure to reach its own limit during the replay.
+     */
+    private void countWrite(int length) throws WriteLimitReachedException {
+        writeCount += length;
+        if (writeLimit > -1 && writeCount > writeLimit) {
+            writeLimitReached = true;
+            if (throwOnWriteLimitReached) {
+                throw new WriteLimitReachedException(writeLimit);
+            }
+        }
+    }
+
+    /**
+     * Caps the memory held by the recorders of a document that are in flight
+     * at the same time. This is thread-safe.
+     */
+    public static class MemoryBudget {
+
+        private final long maxBytes;
+
+        private final AtomicLong usedBytes = new AtomicLong();
+
+        public MemoryBudget(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public long getUsedBytes() {
+            return usedBytes.get();
+        }
+
+        boolean tryReserve(long bytes) {
+            while (true) {
+                long used = usedBytes.get();
+                if (used + bytes > maxBytes) {
+                    return false;
+                }
+                if (usedBytes.compareAndSet(used, used + bytes)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(long bytes) {
+            usedBytes.addAndGet(-bytes);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.io.IOUtils;
+
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MimeTypes;
+import org.apache.tika.parser.ParseContext;
+
+/**
+ * Reports magic-based {@link MimeTypes} detections per second over a
+ * mixed corpus. Unlike {@link TypeDetectionBenchmark}, which times
+ * {@link Tika#detect(InputStream)} per file, this runs the whole corpus
+ * round-robin so that the result reflects a realistic mix of types.
+ */
+public class MimeDetectionBenchmark {
+
+    private static final MimeTypes MIME_TYPES = MimeTypes.getDefaultMimeTypes();
+
+    public static void main(String[] args) throws Exception {
+        List<byte[]> corpus = new ArrayList<>();
+        if (args.length > 0) {
+            for (String arg : args) {
+                load(new File(arg), corpus);
+            }
+        } else {
+            load(new File("src/test/resources/org/apache/tika/mime"), corpus);
+            load(new File("../tika-parsers/src/test/resources/test-documents"), corpus);
+        }
+        if (corpus.isEmpty()) {
+            System.err.println("No documents found");
+            return;
+        }
+        int rounds = Math.max(1, 200_000 / corpus.size());
+        System.out.println("Corpus: " + corpus.size() + " documents");
+        // warm up
+        run(corpus, rounds);
+        long start = System.nanoTime();
+        long detections = run(corpus, rounds);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%,.0f detections/sec (%d detections in %dms)%n",
+                detections / (elapsed / 1_000_000_000d), detections, elapsed / 1_000_000);
+    }
+
+    private static long run(List<byte[]> corpus, int rounds) throws Exception {
+        long detections = 0;
+        for (int i = 0; i < rounds; i++) {
+            for (byte[] content : corpus) {
+                try (TikaInputStream tis = TikaInputStream.get(content)) {
+                    MIME_TYPES.detect(tis, new Metadata(), new ParseContext());
+                }
+                detections++;
+            }
+        }
+        return detections;
+    }
+
+    private static void load(File file, List<byte[]> corpus) throws Exception {
+        if (file.isHidden()) {
+            // ignore
+        } else if (file.isFile()) {
+            try (InputStream input = new FileInputStream(file)) {
+                byte[] content = IOUtils.toByteArray(input, Math.min(file.length(),
+                        MIME_TYPES.getMinLength()));
+                if (content.length > 0) {
+                    corpus.add(content);
+                }
+            }
+        } else if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    load(child, corpus);
+                }
+            }
+        }
+    }
+}
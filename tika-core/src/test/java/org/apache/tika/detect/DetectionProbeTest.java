@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.detect;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.ByteOrderMark;
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.ParseContext;
+
+public class DetectionProbeTest {
+
+    private static final byte[] BYTES = "<html><body>Hello, world</body></html>".getBytes(UTF_8);
+
+    @Test
+    public void testSharedWithinScope() throws Exception {
+        ParseContext context = new ParseContext();
+        try (TikaInputStream tis = TikaInputStream.get(BYTES)) {
+            try (DetectionProbe.Scope scope = DetectionProbe.openScope(context)) {
+                DetectionProbe probe = DetectionProbe.get(tis, context, 4);
+                assertEquals(BYTES.length, probe.getLength());
+                assertTrue(probe.isComplete());
+                assertSame(probe, DetectionProbe.get(tis, context, 1024));
+                //nested scopes don't own the probe
+                try (DetectionProbe.Scope nested = DetectionProbe.openScope(context)) {
+                    assertSame(probe, DetectionProbe.get(tis, context, 8));
+                }
+                assertSame(probe, context.get(DetectionProbe.class));
+                assertEquals(0, tis.getPosition());
+
+                //a probe is only reused at the same stream position
+                tis.read();
+                DetectionProbe moved = DetectionProbe.get(tis, context, 8);
+                assertNotSame(probe, moved);
+                assertEquals(BYTES[1], moved.getBuffer().get(0));
+            }
+            assertNull(context.get(DetectionProbe.class));
+            assertNull(context.get(DetectionProbe.Scope.class));
+        }
+    }
+
+    @Test
+    public void testNotSharedWithoutScope() throws Exception {
+        ParseContext context = new ParseContext();
+        try (TikaInputStream tis = TikaInputStream.get(BYTES)) {
+            DetectionProbe probe = DetectionProbe.get(tis, context, 4);
+            assertEquals(4, probe.getLength());
+            assertFalse(probe.isComplete());
+            assertNull(context.get(DetectionProbe.class));
+
+            DetectionProbe longer = probe.atLeast(10, context);
+            assertNotSame(probe, longer);
+            assertEquals(10, longer.getLength());
+            assertSame(longer, longer.atLeast(10, context));
+            assertEquals(0, tis.getPosition());
+        }
+    }
+
+    @Test
+    public void testViewsAreReadOnly() throws Exception {
+        DetectionProbe probe = DetectionProbe.of(BYTES.clone());
+        ByteBuffer buffer = probe.getBuffer(6);
+        assertEquals(6, buffer.remaining());
+        assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, (byte) 'x'));
+
+        byte[] copy = probe.copyOf(6);
+        copy[0] = 'x';
+        assertEquals("<html>", new String(probe.copyOf(6), UTF_8));
+        assertEquals("<html>", new String(probe.newInputStream(6).readAllBytes(), UTF_8));
+    }
+
+    @Test
+    public void testCompositeEncodingDetectorSharesProbe() throws Exception {
+        List<DetectionProbe> seen = new ArrayList<>();
+        EncodingDetector recording = new EncodingDetector() {
+            @Override
+            public List<EncodingResult> detect(TikaInputStream tis, Metadata metadata, ParseContext parseContext) {
+                throw new AssertionError("the composite should pass the probe");
+            }
+
+            @Override
+            public List<EncodingResult> detect(DetectionProbe probe, Metadata metadata, ParseContext parseContext) {
+                seen.add(probe);
+                return List.of();
+            }
+        };
+        CompositeEncodingDetector detector = new CompositeEncodingDetector(List.of(recording, new BOMDetector(), recording));
+
+        byte[] bytes = new byte[BYTES.length + 3];
+        System.arraycopy(ByteOrderMark.UTF_8.getBytes(), 0, bytes, 0, 3);
+        System.arraycopy(BYTES, 0, bytes, 3, BYTES.length);
+        ParseContext context = new ParseContext();
+        try (TikaInputStream tis = TikaInputStream.get(bytes)) {
+            List<EncodingResult> results = detector.detect(tis, new Metadata(), context);
+            assertEquals(Charset.forName("UTF-8"), results.get(0).getCharset());
+            assertEquals(1, seen.size());
+
+            seen.clear();
+            new CompositeEncodingDetector(List.of(recording, recording)).detect(tis, new Metadata(), context);
+            assertEquals(2, seen.size());
+            assertSame(seen.get(0), seen.get(1));
+            assertEquals(bytes.length, seen.get(0).getLength());
+            assertEquals(0, tis.getPosition());
+        }
+        assertNull(context.get(DetectionProbe.class));
+    }
+
+    @Test
+    public void testCompositeDetectorSharesProbe() throws Exception {
+        List<DetectionProbe> seen = new ArrayList<>();
+        Detector recording = (tis, metadata, parseContext) -> {
+            seen.add(DetectionProbe.get(tis, parseContext, 16));
+            return MediaType.OCTET_STREAM;
+        };
+        Detector magic = new MagicDetector(MediaType.TEXT_HTML, "<body>".getBytes(UTF_8), null, 0, 64);
+        CompositeDetector detector = new CompositeDetector(recording, magic, recording);
+        try (TikaInputStream tis = TikaInputStream.get(BYTES)) {
+            assertEquals(MediaType.TEXT_HTML, detector.detect(tis, new Metadata(), new ParseContext()));
+        }
+        assertEquals(2, seen.size());
+        assertSame(seen.get(0), seen.get(1));
+    }
+}
@@ -20,11 +20,14 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.charset.StandardCharsets.UTF_16BE;
 import static java.nio.charset.StandardCharsets.UTF_16LE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
@@ -47,6 +50,25 @@ public class MagicDetectorTest extends TikaTest {
         assertEquals(MediaType.OCTET_STREAM, detector.detect(null, new Metadata(), new ParseContext()));
     }
 
+    @Test
+    public void testMatchesReadOnlyBuffer() throws Exception {
+        MediaType html = new MediaType("text", "html");
+        MagicDetector detector = new MagicDetector(html, "<html".getBytes(US_ASCII), null, 0, 8);
+        MagicDetector regex = new MagicDetector(html, "<ht[m]l".getBytes(US_ASCII), null,
+                true, 0, 8);
+
+        // the magic is looked for from the buffer's position, which is left alone
+        ByteBuffer buffer = ByteBuffer.wrap("xx  <html>".getBytes(US_ASCII)).asReadOnlyBuffer();
+        buffer.position(2);
+        assertTrue(detector.matches(buffer));
+        assertTrue(regex.matches(buffer));
+        assertEquals(2, buffer.position());
+
+        ByteBuffer limited = ByteBuffer.wrap("  <html>".getBytes(US_ASCII), 0, 5).asReadOnlyBuffer();
+        assertFalse(detector.matches(limited));
+        assertFalse(regex.matches(limited));
+    }
+
     @Test
     public void testDetectSimple() throws Exception {
         MediaType html = new MediaType("text", "html");
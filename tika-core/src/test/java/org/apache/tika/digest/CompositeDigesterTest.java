@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.digest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+
+public class CompositeDigesterTest {
+
+    private static final Encoder HEX = bytes -> HexFormat.of().formatHex(bytes);
+
+    @TempDir
+    Path tmpDir;
+
+    @Test
+    public void testSinglePass() throws Exception {
+        byte[] bytes = randomBytes(100_000);
+        Metadata metadata = new Metadata();
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(bytes))) {
+            newDigester().digest(tis, metadata, new ParseContext());
+            //the stream must have been rewound for the parse
+            assertArrayEquals(bytes, tis.readAllBytes());
+        }
+        assertDigests(bytes, metadata);
+    }
+
+    @Test
+    public void testTee() throws Exception {
+        byte[] bytes = randomBytes(100_000);
+        Metadata metadata = new Metadata();
+        ParseContext context = new ParseContext();
+        context.set(DigesterFactory.class, new TeeDigesterFactory());
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(bytes))) {
+            DigestHelper.Tee tee = DigestHelper.maybeTee(tis, metadata, context);
+            assertNotNull(tee);
+            //the "parser" reads only part of the stream; the rest is digested by finish()
+            byte[] buffer = new byte[1000];
+            tee.getStream().read(buffer);
+            tee.getStream().skip(5000);
+            tee.finish(true);
+        }
+        assertDigests(bytes, metadata);
+    }
+
+    @Test
+    public void testTeeSkipsFiles() throws Exception {
+        Path path = tmpDir.resolve("file.bin");
+        Files.write(path, randomBytes(1000));
+        ParseContext context = new ParseContext();
+        context.set(DigesterFactory.class, new TeeDigesterFactory());
+        try (TikaInputStream tis = TikaInputStream.get(path)) {
+            assertNull(DigestHelper.maybeTee(tis, new Metadata(), context));
+        }
+    }
+
+    @Test
+    public void testTeeWithAutoDetectParser() throws Exception {
+        byte[] bytes = randomBytes(50_000);
+        Metadata metadata = new Metadata();
+        ParseContext context = new ParseContext();
+        context.set(DigesterFactory.class, new TeeDigesterFactory());
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(bytes))) {
+            new AutoDetectParser().parse(tis, new DefaultHandler(), metadata, context);
+        }
+        assertDigests(bytes, metadata);
+    }
+
+    @Test
+    public void testTeeDigestsOnlyAfterParse() throws Exception {
+        byte[] bytes = randomBytes(50_000);
+        Metadata metadata = new Metadata();
+        ParseContext context = new ParseContext();
+        context.set(DigesterFactory.class, new TeeDigesterFactory());
+        DigestSpyParser parser = new DigestSpyParser();
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(bytes))) {
+            new AutoDetectParser(parser).parse(tis, new DefaultHandler(), metadata, context);
+        }
+        assertTrue(parser.parsed);
+        //the digests are not available while parsing, e.g. for the XHTML head...
+        assertNull(parser.md5WhileParsing);
+        //...but they are once the parse is done
+        assertDigests(bytes, metadata);
+    }
+
+    @Test
+    public void testTeeFailedParseSkipsDrain() throws Exception {
+        byte[] bytes = randomBytes(100_000);
+        Metadata metadata = new Metadata();
+        ParseContext context = new ParseContext();
+        context.set(DigesterFactory.class, new TeeDigesterFactory());
+        ByteArrayInputStream underlying = new ByteArrayInputStream(bytes);
+        try (TikaInputStream tis = TikaInputStream.get(underlying)) {
+            DigestHelper.Tee tee = DigestHelper.maybeTee(tis, metadata, context);
+            assertNotNull(tee);
+            tee.getStream().read(new byte[1000]);
+            tee.finish(false);
+        }
+        assertTrue(underlying.available() > 0);
+        assertNull(metadata.get("X-TIKA:digest:MD5"));
+        assertNull(metadata.get("X-TIKA:digest:SHA256"));
+    }
+
+    @Test
+    public void testTeeSkipsOverriddenDigest() throws Exception {
+        ParseContext context = new ParseContext();
+        context.set(DigesterFactory.class, new TeeDigesterFactory() {
+            @Override
+            public Digester build() {
+                return new InputStreamDigester("MD5", "X-TIKA:digest:MD5", HEX) {
+                    @Override
+                    public void digest(TikaInputStream tis, Metadata metadata,
+                                       ParseContext parseContext) {
+                        metadata.set("X-TIKA:digest:MD5", "custom");
+                    }
+                };
+            }
+        });
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(randomBytes(100)))) {
+            //the subclass must see the stream itself
+            assertNull(DigestHelper.maybeTee(tis, new Metadata(), context));
+        }
+    }
+
+    private static Digester newDigester() {
+        return new CompositeDigester(
+                new InputStreamDigester("MD5", "X-TIKA:digest:MD5", HEX),
+                new InputStreamDigester("SHA-256", "X-TIKA:digest:SHA256", HEX));
+    }
+
+    private static void assertDigests(byte[] bytes, Metadata metadata) throws Exception {
+        assertEquals(HEX.encode(MessageDigest.getInstance("MD5").digest(bytes)),
+                metadata.get("X-TIKA:digest:MD5"));
+        assertEquals(HEX.encode(MessageDigest.getInstance("SHA-256").digest(bytes)),
+                metadata.get("X-TIKA:digest:SHA256"));
+        assertEquals(Integer.toString(bytes.length), metadata.get(Metadata.CONTENT_LENGTH));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static class DigestSpyParser implements Parser {
+        private boolean parsed = false;
+        private String md5WhileParsing;
+
+        @Override
+        public Set<MediaType> getSupportedTypes(ParseContext context) {
+            return Set.of(MediaType.OCTET_STREAM);
+        }
+
+        @Override
+        public void parse(TikaInputStream tis, ContentHandler handler, Metadata metadata,
+                          ParseContext context) throws IOException {
+            parsed = true;
+            md5WhileParsing = metadata.get("X-TIKA:digest:MD5");
+            tis.read(new byte[100]);
+        }
+    }
+
+    private static class TeeDigesterFactory implements DigesterFactory {
+        @Override
+        public Digester build() {
+            return newDigester();
+        }
+
+        @Override
+        public boolean isDigestWhileParsing() {
+            return true;
+        }
+    }
+}
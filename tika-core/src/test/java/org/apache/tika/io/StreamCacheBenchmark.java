@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.io;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares random-access throughput of {@link StreamCache} in memory,
+ * spilled to a file, and the legacy spilled read path which opened a
+ * {@link RandomAccessFile} for every read.
+ * <p>
+ * Usage: StreamCacheBenchmark [sizeInMB] [reads]
+ */
+public class StreamCacheBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        byte[] data = new byte[sizeMb * 1024 * 1024];
+        new Random(42).nextBytes(data);
+
+        try (TemporaryResources tmp = new TemporaryResources();
+                StreamCache inMemory = new StreamCache(tmp, Integer.MAX_VALUE - 8);
+                StreamCache spilled = new StreamCache(tmp)) {
+            inMemory.append(data, 0, data.length);
+            spilled.append(data, 0, data.length);
+            Path spillFile = spilled.toFile();
+
+            for (int round = 0; round < 2; round++) {
+                String label = round == 0 ? "warmup" : "measured";
+                System.out.println("--- " + label + " ---");
+                report("in-memory", reads, benchmark(inMemory, data.length, reads));
+                report("spilled", reads, benchmark(spilled, data.length, reads));
+                // the legacy path is orders of magnitude slower; keep the sample small
+                int legacyReads = Math.max(1, reads / 100);
+                report("spilled (legacy)", legacyReads, benchmarkLegacy(spillFile, data.length, legacyReads));
+            }
+        }
+    }
+
+    /**
+     * Mostly-local access pattern, like a container parser walking records,
+     * with occasional jumps elsewhere in the file.
+     */
+    private static long benchmark(StreamCache cache, int size, int reads) throws IOException {
+        Random random = new Random(1);
+        long pos = 0;
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            pos = nextPosition(random, pos, size);
+            checksum += cache.readAt(pos);
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole(checksum);
+        return elapsed;
+    }
+
+    private static long benchmarkLegacy(Path file, int size, int reads) throws IOException {
+        Random random = new Random(1);
+        long pos = 0;
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            pos = nextPosition(random, pos, size);
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+                raf.seek(pos);
+                checksum += raf.read();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole(checksum);
+        return elapsed;
+    }
+
+    private static long nextPosition(Random random, long pos, int size) {
+        if (random.nextInt(1000) == 0) {
+            return random.nextInt(size);
+        }
+        return (pos + 1) % size;
+    }
+
+    private static void report(String label, int reads, long nanos) {
+        System.out.printf(Locale.ROOT, "%-18s %,14.0f reads/sec%n", label,
+                reads / (nanos / 1_000_000_000d));
+    }
+
+    private static void blackhole(long checksum) {
+        if (checksum == 42) {
+            System.out.println();
+        }
+    }
+}
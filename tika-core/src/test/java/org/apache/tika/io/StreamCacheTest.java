@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class StreamCacheTest {
+
+    @Test
+    public void testInMemoryRandomAccess() throws IOException {
+        byte[] data = randomBytes(1000);
+        try (TemporaryResources tmp = new TemporaryResources();
+                StreamCache cache = new StreamCache(tmp, 4096)) {
+            cache.append(data, 0, data.length);
+            assertFalse(cache.isFileBacked());
+            assertRandomAccess(cache, data);
+        }
+    }
+
+    @Test
+    public void testSpilledRandomAccess() throws IOException {
+        byte[] data = randomBytes(100_000);
+        try (TemporaryResources tmp = new TemporaryResources();
+                StreamCache cache = new StreamCache(tmp, 1024)) {
+            cache.append(data, 0, data.length);
+            assertTrue(cache.isFileBacked());
+            assertRandomAccess(cache, data);
+        }
+    }
+
+    @Test
+    public void testReadWhileAppending() throws IOException {
+        byte[] data = randomBytes(50_000);
+        try (TemporaryResources tmp = new TemporaryResources();
+                StreamCache cache = new StreamCache(tmp, 1024)) {
+            int written = 0;
+            while (written < data.length) {
+                int len = Math.min(777, data.length - written);
+                cache.append(data, written, len);
+                written += len;
+                // reads interleaved with appends must see the freshly appended bytes
+                for (int i = Math.max(0, written - 1000); i < written; i++) {
+                    assertEquals(data[i] & 0xFF, cache.readAt(i), "offset " + i);
+                }
+                assertEquals(-1, cache.readAt(written));
+            }
+            assertRandomAccess(cache, data);
+        }
+    }
+
+    @Test
+    public void testReadAfterClose() throws IOException {
+        byte[] data = randomBytes(10_000);
+        try (TemporaryResources tmp = new TemporaryResources()) {
+            StreamCache cache = new StreamCache(tmp, 1024);
+            cache.append(data, 0, data.length);
+            assertEquals(data[5000] & 0xFF, cache.readAt(5000));
+            cache.close();
+            assertThrows(IOException.class, () -> cache.readAt(0, new byte[10], 0, 10));
+        }
+    }
+
+    private static void assertRandomAccess(StreamCache cache, byte[] data) throws IOException {
+        Random random = new Random(42);
+        assertEquals(data.length, cache.size());
+        for (int i = 0; i < 10_000; i++) {
+            int pos = random.nextInt(data.length);
+            assertEquals(data[pos] & 0xFF, cache.readAt(pos), "offset " + pos);
+        }
+        byte[] buf = new byte[5000];
+        for (int i = 0; i < 1000; i++) {
+            int pos = random.nextInt(data.length);
+            int len = 1 + random.nextInt(buf.length);
+            int n = cache.readAt(pos, buf, 0, len);
+            assertTrue(n > 0 && n <= len, "read length " + n);
+            byte[] expected = new byte[n];
+            System.arraycopy(data, pos, expected, 0, n);
+            byte[] actual = new byte[n];
+            System.arraycopy(buf, 0, actual, 0, n);
+            assertArrayEquals(expected, actual, "offset " + pos);
+        }
+        // sequential reads through the stream view must reproduce the data exactly
+        byte[] copy = cache.getInputStreamFrom(0).readAllBytes();
+        assertArrayEquals(data, copy);
+        assertEquals(-1, cache.readAt(data.length));
+        assertEquals(-1, cache.readAt(-1));
+    }
+
+    private static byte[] randomBytes(int len) {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+        return data;
+    }
+}
@@ -234,6 +234,38 @@ public class TikaInputStreamTest {
         }
     }
 
+    @Test
+    public void testFileBackedStreamHandsOverFile() throws IOException {
+        Path file = createTempFile("Hello, World!");
+        class CompletedFileStream extends ByteArrayInputStream implements FileBackedStream {
+            CompletedFileStream() throws IOException {
+                super(Files.readAllBytes(file));
+            }
+
+            @Override
+            public Path getCompletedPath() {
+                return file;
+            }
+        }
+        try (TikaInputStream tis = TikaInputStream.get(new CompletedFileStream())) {
+            byte[] buf = new byte[5];
+            tis.read(buf);
+            assertEquals("Hello", str(buf));
+
+            //no spill to another temp file, even though rewind wasn't enabled
+            assertEquals(file, tis.getPath());
+            assertEquals(5, tis.getPosition());
+            buf = new byte[2];
+            tis.read(buf);
+            assertEquals(", ", str(buf));
+
+            tis.rewind();
+            buf = new byte[5];
+            tis.read(buf);
+            assertEquals("Hello", str(buf));
+        }
+    }
+
     @Test
     public void testFileBackedMarkReset() throws IOException {
         Path tempFile = createTempFile("ABCDEFGHIJ");
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.mime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class MagicIndexTest {
+
+    private static MimeTypes MIME_TYPES;
+
+    private static List<Magic> MAGICS;
+
+    @BeforeAll
+    public static void setUp() {
+        MIME_TYPES = MimeTypes.getDefaultMimeTypes();
+        Set<Magic> magics = new HashSet<>();
+        for (MimeType type : getAllTypes()) {
+            magics.addAll(type.getMagics());
+        }
+        MAGICS = new ArrayList<>(magics);
+    }
+
+    @Test
+    public void testMostMagicsAreIndexed() {
+        int constrained = 0;
+        for (Magic magic : MAGICS) {
+            if (magic.getPossibleBytesAt(0) != null) {
+                constrained++;
+            }
+        }
+        // Sanity check that the index actually narrows down the candidates
+        assertTrue(constrained > MAGICS.size() / 2,
+                "only " + constrained + " of " + MAGICS.size() + " magics are indexed");
+    }
+
+    @Test
+    public void testCandidatesIncludeAllMatches() throws Exception {
+        MagicIndex index = new MagicIndex(MAGICS, new MimeType(MediaType.TEXT_HTML));
+        List<byte[]> corpus = loadCorpus();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            byte[] data = new byte[1 + random.nextInt(1024)];
+            random.nextBytes(data);
+            corpus.add(data);
+        }
+        for (byte[] data : corpus) {
+            assertCandidates(index, data);
+            // Same content behind every possible first byte
+            for (int b = 0; b < 256; b++) {
+                byte[] shifted = Arrays.copyOf(data, data.length);
+                shifted[0] = (byte) b;
+                assertCandidates(index, shifted);
+            }
+        }
+    }
+
+    @Test
+    public void testMaskedAndCaseInsensitiveConstraints() {
+        MediaType type = MediaType.application("x-test");
+        BitSet masked = new MagicMatch(type, "string", "0", "\\x10", "0xF0")
+                .getPossibleBytesAt(0);
+        assertEquals(16, masked.cardinality());
+        assertTrue(masked.get(0x1F));
+        BitSet ignoreCase = new MagicMatch(type, "stringignorecase", "0", "abc", null)
+                .getPossibleBytesAt(0);
+        assertTrue(ignoreCase.get('a'));
+        assertTrue(ignoreCase.get('A'));
+        assertEquals(null, new MagicMatch(type, "string", "0:10", "abc", null)
+                .getPossibleBytesAt(0));
+        assertEquals(null, new MagicMatch(type, "regex", "0", "abc", null)
+                .getPossibleBytesAt(0));
+    }
+
+    private static void assertCandidates(MagicIndex index, byte[] data) {
+        Set<Magic> candidates = new HashSet<>(Arrays.asList(index.getCandidates(data)));
+        for (Magic magic : MAGICS) {
+            if (magic.eval(data)) {
+                assertTrue(candidates.contains(magic), "missing candidate " + magic);
+            }
+        }
+    }
+
+    private static List<MimeType> getAllTypes() {
+        List<MimeType> types = new ArrayList<>();
+        for (MediaType type : MIME_TYPES.getMediaTypeRegistry().getTypes()) {
+            try {
+                types.add(MIME_TYPES.forName(type.toString()));
+            } catch (MimeTypeException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return types;
+    }
+
+    private static List<byte[]> loadCorpus() throws Exception {
+        List<byte[]> corpus = new ArrayList<>();
+        URL dir = MagicIndexTest.class.getResource("test.html");
+        Path parent = Paths.get(dir.toURI()).getParent();
+        try (Stream<Path> files = Files.list(parent)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.isRegularFile(file)) {
+                    try (InputStream is = Files.newInputStream(file)) {
+                        byte[] bytes = is.readNBytes(MIME_TYPES.getMinLength());
+                        if (bytes.length > 0) {
+                            corpus.add(bytes);
+                        }
+                    }
+                }
+            }
+        }
+        return corpus;
+    }
+}
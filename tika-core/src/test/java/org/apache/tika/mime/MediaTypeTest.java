@@ -19,6 +19,8 @@ package org.apache.tika.mime;
 import static java.util.Collections.singletonMap;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.HashMap;
@@ -186,4 +188,45 @@ public class MediaTypeTest {
                 MediaType.parse("text/html;; charset=\"UTF-8").toString());
     }
 
+    @Test
+    public void testParseReturnsSharedInstances() {
+        assertSame(MediaType.TEXT_PLAIN, MediaType.parse("text/plain"));
+        assertSame(MediaType.TEXT_PLAIN, MediaType.parse(" Text/Plain "));
+
+        MediaType html = MediaType.parse("text/html; charset=UTF-8");
+        assertSame(html, MediaType.parse("Text/HTML;charset=UTF-8"));
+        assertSame(html, MediaType.parse("text/html;; charset=\"UTF-8\""));
+        assertSame(MediaType.TEXT_HTML, html.getBaseType());
+        assertSame(html, MediaType.parse(html.toString()));
+
+        MediaTypeRegistry registry = MediaTypeRegistry.getDefaultRegistry();
+        assertSame(registry.normalize(MediaType.parse("image/x-ms-bmp; foo=bar")),
+                registry.normalize(MediaType.parse("image/x-ms-bmp;foo=bar")));
+    }
+
+    @Test
+    public void testHandwrittenParserMatchesPatterns() {
+        String[] inputs = {
+                "text/plain", "TEXT/PLAIN", " text / plain ", "text/plain;",
+                "text/html; charset=UTF-8", "text/html;charset=utf-8 ",
+                "text/html;; charset=\"UTF-8", "text/html; charset='UTF-8'; q=0.9",
+                "multipart/form-data; boundary=----abc/def==", "application/vnd.ms-excel",
+                "application/x-tika-ooxml; a=b; c", "image/svg+xml\t", "\ntext/plain\r\n",
+                "charset=utf-8; text/html", "CHARSET=utf-8;text/html", "text", "/plain",
+                "text/", "text/plain/extra", "te xt/plain", "text/pl(ain", "tëxt/plain",
+                "text/plain; charset=\u00e9", "\u0001text/plain", "text/plain\u0001",
+                "a/b; =c", ";text/plain", "text/plain;charset=\"utf-8\";format=flowed"
+        };
+        for (String input : inputs) {
+            MediaType expected = MediaType.parseWithPatterns(input);
+            MediaType actual = MediaType.parseUncached(input);
+            if (expected == null) {
+                assertNull(actual, input);
+            } else {
+                assertNotNull(actual, input);
+                assertEquals(expected.toString(), actual.toString(), input);
+                assertEquals(expected.getParameters(), actual.getParameters(), input);
+            }
+        }
+    }
 }
@@ -97,4 +97,53 @@ public class PatternsTest {
         assertTrue(extensions.contains(".jpeg"));
     }
 
+    @Test
+    public void testLongestExtensionWins() throws MimeTypeException {
+        MimeType gz = types.forName("application/gzip");
+        MimeType tgz = types.forName("application/x-gtar");
+        patterns.add("*.gz", gz);
+        patterns.add("*.tar.gz", tgz);
+
+        assertEquals(tgz, patterns.matches("data.tar.gz"));
+        assertEquals(gz, patterns.matches("data.gz"));
+        assertEquals(gz, patterns.matches("data.star.gz.gz"));
+        assertEquals(null, patterns.matches("gz"));
+
+        // Patterns added after a lookup must be picked up
+        MimeType bgz = types.forName("application/x-bgzip");
+        patterns.add("*.b.gz", bgz);
+        assertEquals(bgz, patterns.matches("data.b.gz"));
+    }
+
+    @Test
+    public void testGlobsAndNames() throws MimeTypeException {
+        MimeType makefile = types.forName("text/x-makefile");
+        MimeType readme = types.forName("text/x-readme");
+        patterns.add("Makefile", makefile);
+        patterns.add("README*", readme);
+        patterns.add("?eadme.?", readme);
+
+        assertEquals(makefile, patterns.matches("Makefile"));
+        assertEquals(readme, patterns.matches("README.txt"));
+        assertEquals(readme, patterns.matches("readme.1"));
+        assertEquals(null, patterns.matches("readme.10"));
+    }
+
+    @Test
+    public void testNameCache() throws MimeTypeException {
+        MimeType pdf = fullTypes.forName("application/pdf");
+        assertEquals(pdf, fullTypes.getMimeType("doc.pdf"));
+        assertEquals(pdf, fullTypes.getMimeType("DOC.PDF"));
+        assertEquals(pdf, fullTypes.getMimeType("DOC.PDF"));
+        assertEquals(MimeTypes.OCTET_STREAM,
+                fullTypes.getMimeType("no-known-extension.zzzzzz").toString());
+
+        // Adding a pattern invalidates previously resolved names
+        MimeTypes custom = new MimeTypes();
+        MimeType zzz = custom.forName("application/x-zzz");
+        assertEquals(MimeTypes.OCTET_STREAM, custom.getMimeType("file.zzz").toString());
+        custom.addPattern(zzz, "*.zzz");
+        assertEquals(zzz, custom.getMimeType("file.zzz"));
+    }
+
 }
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.mime.MediaTypeRegistry;
+
+/**
+ * Measures {@link CompositeParser#getParser(Metadata, ParseContext)} lookups
+ * per second through the cached dispatch table, against the previous
+ * behaviour of rebuilding the type map and walking the supertype chain on
+ * every call.
+ *
+ * <p>Not a JUnit test; run manually. The composite mirrors
+ * {@link AutoDetectParser} wrapping {@link DefaultParser}: an outer
+ * composite around an inner one holding {@code --parsers} component
+ * parsers that share every other type in the default registry.
+ *
+ * <pre>
+ *   mvn -pl tika-core exec:java \
+ *       -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=org.apache.tika.parser.CompositeParserDispatchBenchmark \
+ *       -Dexec.args="[--parsers 150] [--seconds 2]"
+ * </pre>
+ */
+public class CompositeParserDispatchBenchmark {
+
+    public static void main(String[] args) {
+        int numParsers = 150;
+        double seconds = 2;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--parsers":
+                    numParsers = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        MediaTypeRegistry registry = MediaTypeRegistry.getDefaultRegistry();
+        List<MediaType> types = new ArrayList<>(registry.getTypes());
+        List<Set<MediaType>> claimed = new ArrayList<>();
+        for (int p = 0; p < numParsers; p++) {
+            claimed.add(new HashSet<>());
+        }
+        for (int t = 0; t < types.size(); t += 2) {
+            claimed.get((t / 2) % numParsers).add(types.get(t));
+        }
+        List<Parser> parsers = new ArrayList<>();
+        for (Set<MediaType> set : claimed) {
+            parsers.add(new FixedTypesParser(set));
+        }
+        CompositeParser inner = new CompositeParser(registry, parsers);
+        CompositeParser outer = new CompositeParser(registry, inner);
+
+        // every registered type, plus a parameterised and an unknown variant
+        List<Metadata> inputs = new ArrayList<>();
+        for (MediaType type : types) {
+            inputs.add(metadata(type.toString()));
+        }
+        inputs.add(metadata("text/plain; charset=UTF-8"));
+        inputs.add(metadata("application/x-not-registered+xml"));
+
+        System.out.printf(Locale.US, "%d component parsers, %d registered types, %d inputs%n",
+                numParsers, types.size(), inputs.size());
+
+        ParseContext context = new ParseContext();
+        for (Metadata m : inputs) {
+            if (outer.getParser(m, context) != rebuildAndWalk(registry, outer, m, context)) {
+                throw new IllegalStateException("Dispatch mismatch for "
+                        + m.get(Metadata.CONTENT_TYPE));
+            }
+        }
+
+        // warm up both paths before timing either
+        run(inputs, m -> rebuildAndWalk(registry, outer, m, context), seconds / 2);
+        run(inputs, m -> outer.getParser(m, context), seconds / 2);
+
+        double rebuild = run(inputs, m -> rebuildAndWalk(registry, outer, m, context), seconds);
+        double cached = run(inputs, m -> outer.getParser(m, context), seconds);
+        System.out.printf(Locale.US, "  rebuild + walk: %,14.0f lookups/s%n", rebuild);
+        System.out.printf(Locale.US, "  dispatch table: %,14.0f lookups/s  (%.1fx)%n",
+                cached, cached / rebuild);
+    }
+
+    private interface Lookup {
+        Parser get(Metadata metadata);
+    }
+
+    private static double run(List<Metadata> inputs, Lookup lookup, double seconds) {
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        long start = System.nanoTime();
+        long count = 0;
+        int sink = 0;
+        while (System.nanoTime() < deadline) {
+            for (Metadata m : inputs) {
+                sink += System.identityHashCode(lookup.get(m));
+            }
+            count += inputs.size();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        if (sink == 42) {
+            System.out.println("(unlikely checksum)");
+        }
+        return count / elapsed;
+    }
+
+    /**
+     * The lookup as it was done before the dispatch table: build the
+     * normalised type map of each composite level, then walk supertypes.
+     */
+    private static Parser rebuildAndWalk(MediaTypeRegistry registry, CompositeParser composite,
+                                         Metadata metadata, ParseContext context) {
+        Map<MediaType, Parser> map = rebuild(registry, composite.getAllComponentParsers(), context);
+        MediaType type = registry.normalize(MediaType.parse(metadata.get(Metadata.CONTENT_TYPE)));
+        while (type != null) {
+            Parser parser = map.get(type);
+            if (parser != null) {
+                return parser;
+            }
+            type = registry.getSupertype(type);
+        }
+        return composite.getFallback();
+    }
+
+    private static Map<MediaType, Parser> rebuild(MediaTypeRegistry registry, List<Parser> parsers,
+                                                  ParseContext context) {
+        Map<MediaType, Parser> map = new HashMap<>();
+        for (Parser parser : parsers) {
+            Set<MediaType> supported = parser instanceof CompositeParser
+                    ? rebuild(registry, ((CompositeParser) parser).getAllComponentParsers(),
+                            context).keySet()
+                    : parser.getSupportedTypes(context);
+            for (MediaType type : supported) {
+                map.put(registry.normalize(type), parser);
+            }
+        }
+        return map;
+    }
+
+    private static Metadata metadata(String contentType) {
+        Metadata metadata = new Metadata();
+        metadata.set(Metadata.CONTENT_TYPE, contentType);
+        return metadata;
+    }
+
+    @SuppressWarnings("serial")
+    private static class FixedTypesParser extends EmptyParser {
+        private final Set<MediaType> types;
+
+        FixedTypesParser(Set<MediaType> types) {
+            this.types = types;
+        }
+
+        @Override
+        public Set<MediaType> getSupportedTypes(ParseContext context) {
+            return types;
+        }
+    }
+}
@@ -18,11 +18,13 @@ package org.apache.tika.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -147,4 +149,93 @@ public class CompositeParserTest {
         assertEquals("True", metadata.get("BMP"));
         assertEquals("True", metadata.get("Alias"));
     }
+
+    @Test
+    public void testDispatchMatchesSupertypeWalk() throws Exception {
+        Parser text = new SingleTypeParser(MediaType.TEXT_PLAIN);
+        Parser xml = new SingleTypeParser(MediaType.APPLICATION_XML);
+        Parser zip = new SingleTypeParser(MediaType.APPLICATION_ZIP);
+        Parser fallback = new SingleTypeParser(MediaType.OCTET_STREAM);
+        MediaTypeRegistry registry = MediaTypeRegistry.getDefaultRegistry();
+        CompositeParser composite = new CompositeParser(registry, text, xml, zip);
+        composite.setFallback(fallback);
+
+        Map<MediaType, Parser> map = composite.getParsers(new ParseContext());
+        for (MediaType type : registry.getTypes()) {
+            assertSame(walkSupertypes(registry, map, type, fallback),
+                    composite.getParser(metadata(type.toString()), new ParseContext()), type.toString());
+        }
+        // types the registry doesn't know still walk up to a known one
+        assertSame(text, composite.getParser(metadata("text/x-not-registered; charset=UTF-8")));
+        assertSame(xml, composite.getParser(metadata("application/x-not-registered+xml")));
+        assertSame(fallback, composite.getParser(metadata("application/x-not-registered")));
+        assertSame(fallback, composite.getParser(new Metadata()));
+    }
+
+    @Test
+    public void testDispatchFollowsContextDependentTypes() throws Exception {
+        Parser text = new SingleTypeParser(MediaType.TEXT_PLAIN);
+        Parser html = new EmptyParser() {
+            @Override
+            public Set<MediaType> getSupportedTypes(ParseContext context) {
+                return context.get(Locale.class) != null
+                        ? Collections.singleton(MediaType.TEXT_HTML) : Collections.emptySet();
+            }
+        };
+        CompositeParser composite =
+                new CompositeParser(MediaTypeRegistry.getDefaultRegistry(), text, html);
+
+        ParseContext withHtml = new ParseContext();
+        withHtml.set(Locale.class, Locale.ROOT);
+        Metadata metadata = metadata("text/html");
+        assertSame(text, composite.getParser(metadata, new ParseContext()));
+        assertSame(html, composite.getParser(metadata, withHtml));
+        assertSame(text, composite.getParser(metadata, new ParseContext()));
+        assertEquals(2, composite.getSupportedTypes(withHtml).size());
+    }
+
+    @Test
+    public void testDispatchFollowsSetParsers() throws Exception {
+        Parser text = new SingleTypeParser(MediaType.TEXT_PLAIN);
+        CompositeParser composite =
+                new CompositeParser(MediaTypeRegistry.getDefaultRegistry(), text);
+        assertSame(text, composite.getParser(metadata("text/csv")));
+
+        Parser csv = new SingleTypeParser(MediaType.text("csv"));
+        composite.setParsers(Collections.singletonMap(MediaType.text("csv"), csv));
+        Parser parser = composite.getParser(metadata("text/csv"));
+        assertSame(csv, ((ParserDecorator) parser).getWrappedParser());
+        assertSame(composite.getFallback(), composite.getParser(metadata("text/plain")));
+    }
+
+    private static Parser walkSupertypes(MediaTypeRegistry registry, Map<MediaType, Parser> map,
+                                         MediaType type, Parser fallback) {
+        for (MediaType t = registry.normalize(type); t != null; t = registry.getSupertype(t)) {
+            Parser parser = map.get(t);
+            if (parser != null) {
+                return parser;
+            }
+        }
+        return fallback;
+    }
+
+    private static Metadata metadata(String contentType) {
+        Metadata metadata = new Metadata();
+        metadata.set(Metadata.CONTENT_TYPE, contentType);
+        return metadata;
+    }
+
+    @SuppressWarnings("serial")
+    private static class SingleTypeParser extends EmptyParser {
+        private final Set<MediaType> types;
+
+        SingleTypeParser(MediaType type) {
+            this.types = Collections.singleton(type);
+        }
+
+        @Override
+        public Set<MediaType> getSupportedTypes(ParseContext context) {
+            return types;
+        }
+    }
 }
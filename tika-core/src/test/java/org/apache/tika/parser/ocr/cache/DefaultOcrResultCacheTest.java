@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.ocr.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DefaultOcrResultCacheTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void testKey() throws Exception {
+        Path a = Files.write(tmp.resolve("a.png"), "image-a".getBytes(UTF_8));
+        Path b = Files.write(tmp.resolve("b.png"), "image-a".getBytes(UTF_8));
+        Path c = Files.write(tmp.resolve("c.png"), "image-c".getBytes(UTF_8));
+
+        String key = OcrResultCache.buildKey(a, "lang=eng");
+        assertEquals(64, key.length());
+        assertEquals(key, OcrResultCache.buildKey(b, "lang=eng"));
+        assertNotEquals(key, OcrResultCache.buildKey(c, "lang=eng"));
+        assertNotEquals(key, OcrResultCache.buildKey(a, "lang=fra"));
+    }
+
+    @Test
+    public void testLru() throws Exception {
+        DefaultOcrResultCache cache = new DefaultOcrResultCache(2);
+        cache.put("key1", "one");
+        cache.put("key2", "two");
+        assertEquals("one", cache.get("key1"));
+        cache.put("key3", "three");
+        //key2 was the least recently used
+        assertNull(cache.get("key2"));
+        assertEquals("one", cache.get("key1"));
+        assertEquals("three", cache.get("key3"));
+        assertEquals(2, cache.getMemorySize());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testDiskTier() throws Exception {
+        Path dir = tmp.resolve("ocr-cache");
+        DefaultOcrResultCache cache = new DefaultOcrResultCache(1, dir);
+        cache.put("abc1", "first");
+        cache.put("abc2", "second");
+
+        //as if after a restart
+        DefaultOcrResultCache reopened = new DefaultOcrResultCache(0, dir);
+        assertEquals("first", reopened.get("abc1"));
+        assertEquals("second", reopened.get("abc2"));
+        assertNull(reopened.get("abc3"));
+        assertEquals(2, reopened.getHitCount());
+        assertEquals(1, reopened.getMissCount());
+        assertEquals(0, reopened.getMemorySize());
+    }
+
+    @Test
+    public void testInvalidKey() throws Exception {
+        DefaultOcrResultCache cache = new DefaultOcrResultCache(1, tmp);
+        assertThrows(IllegalArgumentException.class, () -> cache.get("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put("a/b", "x"));
+    }
+}
@@ -35,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.tika.config.TikaComponent;
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.detect.EncodingDetectorContext;
 import org.apache.tika.detect.EncodingResult;
 import org.apache.tika.detect.MetaEncodingDetector;
@@ -148,6 +149,21 @@ public class CharSoupEncodingDetector implements MetaEncodingDetector {
     @Override
     public List<EncodingResult> detect(TikaInputStream tis, Metadata metadata,
                                        ParseContext parseContext) throws IOException {
+        return detectFromContext(tis, null, parseContext);
+    }
+
+    @Override
+    public List<EncodingResult> detect(DetectionProbe probe, Metadata metadata,
+                                       ParseContext parseContext) throws IOException {
+        return detectFromContext(probe.getStream(), probe, parseContext);
+    }
+
+    /**
+     * The bytes are only needed if the base detectors disagree, so the probe
+     * is read lazily from <code>tis</code> when none was passed in.
+     */
+    private List<EncodingResult> detectFromContext(TikaInputStream tis, DetectionProbe probe,
+                                                   ParseContext parseContext) throws IOException {
         EncodingDetectorContext context =
                 parseContext.get(EncodingDetectorContext.class);
         if (context == null || context.getResults().isEmpty()) {
@@ -161,7 +177,7 @@ public class CharSoupEncodingDetector implements MetaEncodingDetector {
             context.setArbitrationInfo("unanimous");
             winner = context.getResults().get(0).getCharset();
         } else {
-            winner = arbitrate(tis, context, uniqueCharsets);
+            winner = arbitrate(tis, probe, parseContext, context, uniqueCharsets);
         }
 
         if (winner == null) {
@@ -171,18 +187,21 @@ public class CharSoupEncodingDetector implements MetaEncodingDetector {
         return List.of(new EncodingResult(winner, confidence));
     }
 
-    private Charset arbitrate(TikaInputStream tis,
+    private Charset arbitrate(TikaInputStream tis, DetectionProbe probe,
+                              ParseContext parseContext,
                               EncodingDetectorContext context,
                               Set<Charset> uniqueCharsets) throws IOException {
         EncodingDetectorContext.Result firstResult = context.getResults().get(0);
 
-        if (tis == null) {
+        if (tis == null && probe == null) {
             context.setArbitrationInfo("no-stream");
             return firstResult.getCharset();
         }
 
-        byte[] bytes = readBytes(tis);
-        if (bytes == null || bytes.length == 0) {
+        probe = probe == null ? DetectionProbe.get(tis, parseContext, readLimit) :
+                probe.atLeast(readLimit, parseContext);
+        byte[] bytes = probe.copyOf(readLimit);
+        if (bytes.length == 0) {
             context.setArbitrationInfo("empty-stream");
             return firstResult.getCharset();
         }
@@ -409,31 +428,6 @@ public class CharSoupEncodingDetector implements MetaEncodingDetector {
         return 2; // UTF-16
     }
 
-    private byte[] readBytes(TikaInputStream tis) throws IOException {
-        try {
-            tis.mark(readLimit);
-            byte[] buf = new byte[readLimit];
-            int totalRead = 0;
-            int bytesRead;
-            while (totalRead < readLimit &&
-                    (bytesRead = tis.read(buf, totalRead,
-                            readLimit - totalRead)) != -1) {
-                totalRead += bytesRead;
-            }
-            if (totalRead == 0) {
-                return null;
-            }
-            if (totalRead < readLimit) {
-                byte[] trimmed = new byte[totalRead];
-                System.arraycopy(buf, 0, trimmed, 0, totalRead);
-                return trimmed;
-            }
-            return buf;
-        } finally {
-            tis.reset();
-        }
-    }
-
     /**
      * Decode bytes using the given charset, replacing malformed/unmappable
      * characters rather than throwing.
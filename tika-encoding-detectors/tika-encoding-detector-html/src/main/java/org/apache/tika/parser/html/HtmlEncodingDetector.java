@@ -20,7 +20,6 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Serializable;
-import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
@@ -34,6 +33,7 @@ import java.util.regex.Pattern;
 import org.apache.tika.config.ConfigDeserializer;
 import org.apache.tika.config.JsonConfig;
 import org.apache.tika.config.TikaComponent;
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.detect.EncodingDetector;
 import org.apache.tika.detect.EncodingResult;
 import org.apache.tika.io.TikaInputStream;
@@ -150,19 +150,14 @@ public class HtmlEncodingDetector implements EncodingDetector {
         if (tis == null) {
             return Collections.emptyList();
         }
+        return detect(DetectionProbe.get(tis, parseContext, defaultConfig.getMarkLimit()), metadata, parseContext);
+    }
 
+    @Override
+    public List<EncodingResult> detect(DetectionProbe probe, Metadata metadata,
+                                       ParseContext parseContext) throws IOException {
         int markLimit = defaultConfig.getMarkLimit();
-        tis.mark(markLimit);
-        byte[] buffer = new byte[markLimit];
-        int n = 0;
-        int m = tis.read(buffer);
-        while (m != -1 && n < buffer.length) {
-            n += m;
-            m = tis.read(buffer, n, buffer.length - n);
-        }
-        tis.reset();
-
-        String head = ASCII.decode(ByteBuffer.wrap(buffer, 0, n)).toString();
+        String head = ASCII.decode(probe.atLeast(markLimit, parseContext).getBuffer(markLimit)).toString();
         String headNoComments = head.replaceAll("<!--.*?(-->|$)", " ");
         Charset charset = findCharset(headNoComments);
         if (charset == null) {
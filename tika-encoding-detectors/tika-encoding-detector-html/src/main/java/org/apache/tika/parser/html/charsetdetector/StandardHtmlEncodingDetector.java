@@ -25,6 +25,7 @@ import java.util.List;
 import org.apache.commons.io.input.BoundedInputStream;
 
 import org.apache.tika.config.TikaComponent;
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.detect.EncodingDetector;
 import org.apache.tika.detect.EncodingResult;
 import org.apache.tika.detect.MetadataCharsetDetector;
@@ -84,8 +85,22 @@ public final class StandardHtmlEncodingDetector implements EncodingDetector {
                                        ParseContext context) throws IOException {
         int limit = getMarkLimit();
         tis.mark(limit);
-        InputStream limitedStream = BoundedInputStream.builder()
-                .setInputStream(tis).setMaxCount(limit).get();
+        try {
+            return detect(BoundedInputStream.builder()
+                    .setInputStream(tis).setMaxCount(limit).get(), metadata);
+        } finally {
+            tis.reset();
+        }
+    }
+
+    @Override
+    public List<EncodingResult> detect(DetectionProbe probe, Metadata metadata,
+                                       ParseContext context) throws IOException {
+        int limit = getMarkLimit();
+        return detect(probe.atLeast(limit, context).newInputStream(limit), metadata);
+    }
+
+    private List<EncodingResult> detect(InputStream limitedStream, Metadata metadata) throws IOException {
         PreScanner preScanner = new PreScanner(limitedStream);
 
         Charset detectedCharset = null;
@@ -106,7 +121,6 @@ public final class StandardHtmlEncodingDetector implements EncodingDetector {
             detectedCharset = preScanner.scan();
         }
 
-        tis.reset();
         if (detectedCharset == null) {
             return Collections.emptyList();
         }
@@ -26,6 +26,7 @@ import java.util.List;
 import org.apache.tika.config.ConfigDeserializer;
 import org.apache.tika.config.JsonConfig;
 import org.apache.tika.config.TikaComponent;
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.detect.EncodingDetector;
 import org.apache.tika.detect.EncodingResult;
 import org.apache.tika.io.TikaInputStream;
@@ -104,6 +105,12 @@ public class Icu4jEncodingDetector implements EncodingDetector {
         if (tis == null) {
             return Collections.emptyList();
         }
+        return detect(DetectionProbe.get(tis, parseContext, defaultConfig.markLimit), metadata, parseContext);
+    }
+
+    @Override
+    public List<EncodingResult> detect(DetectionProbe probe, Metadata metadata,
+                                       ParseContext parseContext) throws IOException {
         Config config = defaultConfig;
 
         CharsetDetector detector = new CharsetDetector(config.markLimit);
@@ -128,7 +135,7 @@ public class Icu4jEncodingDetector implements EncodingDetector {
         // TIKA-341 without enabling input filtering (stripping of tags)
         // short HTML tests don't work well
         detector.enableInputFilter(true);
-        detector.setText(tis);
+        detector.setText(probe.atLeast(config.markLimit, parseContext).copyOf(config.markLimit));
 
         List<EncodingResult> results = new ArrayList<>();
         for (CharsetMatch match : detector.detectAll()) {
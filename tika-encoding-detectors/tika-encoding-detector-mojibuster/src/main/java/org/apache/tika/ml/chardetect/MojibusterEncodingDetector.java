@@ -30,6 +30,7 @@ import java.util.Map;
 import org.apache.tika.config.ConfigDeserializer;
 import org.apache.tika.config.JsonConfig;
 import org.apache.tika.config.TikaComponent;
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.detect.EncodingDetector;
 import org.apache.tika.detect.EncodingResult;
 import org.apache.tika.io.TikaInputStream;
@@ -295,8 +296,13 @@ public class MojibusterEncodingDetector implements EncodingDetector {
         if (input == null) {
             return Collections.emptyList();
         }
+        return detect(DetectionProbe.get(input, parseContext, maxProbeBytes), metadata, parseContext);
+    }
 
-        byte[] probe = readProbe(input, maxProbeBytes);
+    @Override
+    public List<EncodingResult> detect(DetectionProbe detectionProbe, Metadata metadata,
+                                       ParseContext parseContext) throws IOException {
+        byte[] probe = detectionProbe.atLeast(maxProbeBytes, parseContext).copyOf(maxProbeBytes);
         // Strip BOM bytes before feature extraction. BOMs are excluded from training
         // data; stripping ensures consistent model inference. BOM detection is handled
         // by BOMDetector (which runs earlier in the chain and returns DECLARATIVE), and
@@ -906,27 +912,6 @@ public class MojibusterEncodingDetector implements EncodingDetector {
                 || label.equals("IBM1047");
     }
 
-    private static byte[] readProbe(TikaInputStream is, int maxBytes) throws IOException {
-        is.mark(maxBytes);
-        try {
-            byte[] buf = new byte[maxBytes];
-            int total = 0;
-            int n;
-            while (total < buf.length &&
-                   (n = is.read(buf, total, buf.length - total)) != -1) {
-                total += n;
-            }
-            if (total == buf.length) {
-                return buf;
-            }
-            byte[] trimmed = new byte[total];
-            System.arraycopy(buf, 0, trimmed, 0, total);
-            return trimmed;
-        } finally {
-            is.reset();
-        }
-    }
-
     public LinearModel getModel() {
         return model;
     }
@@ -16,6 +16,8 @@
  */
 package org.apache.tika.ml.chardetect;
 
+import java.nio.ByteBuffer;
+
 import org.apache.tika.ml.FeatureExtractor;
 
 /**
@@ -158,6 +160,20 @@ public class Utf16ColumnFeatureExtractor implements FeatureExtractor<byte[]> {
         return counts;
     }
 
+    /**
+     * Extract from the bytes between the buffer's position and its limit,
+     * in place. The buffer's position is not changed.
+     */
+    public int[] extractBuffer(ByteBuffer input) {
+        int[] counts = new int[NUM_FEATURES];
+        int from = input.position();
+        for (int i = from; i < input.limit(); i++) {
+            int v = input.get(i) & 0xFF;
+            counts[RANGE_OF_BYTE[v] * NUM_COLUMNS + ((i - from) & 1)]++;
+        }
+        return counts;
+    }
+
     /**
      * Sparse extraction into caller-owned, reusable buffers.  For this
      * small dense vector, "sparse" just means "write non-zero feature
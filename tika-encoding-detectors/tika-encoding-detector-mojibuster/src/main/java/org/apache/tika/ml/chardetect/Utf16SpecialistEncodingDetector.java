@@ -18,17 +18,18 @@ package org.apache.tika.ml.chardetect;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.tika.config.TikaComponent;
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.detect.EncodingDetector;
 import org.apache.tika.detect.EncodingResult;
 import org.apache.tika.io.TikaInputStream;
@@ -224,7 +225,21 @@ public class Utf16SpecialistEncodingDetector
             return null;
         }
         int len = Math.min(probe.length, maxProbeBytes);
-        int[] features = extractor.extract(probe, 0, len);
+        return score(extractor.extract(probe, 0, len));
+    }
+
+    /**
+     * Same as {@link #score(byte[])}, for the bytes between the buffer's
+     * position and its limit, which are read in place.
+     */
+    public SpecialistOutput score(ByteBuffer probe) {
+        if (probe == null || probe.remaining() < 2) {
+            return null;
+        }
+        return score(extractor.extractBuffer(window(probe)));
+    }
+
+    private SpecialistOutput score(int[] features) {
         float[] logits = model.predictCalibratedLogits(features);
         Map<String, Float> classLogits = new LinkedHashMap<>(2);
         for (int c = 0; c < logits.length; c++) {
@@ -238,8 +253,7 @@ public class Utf16SpecialistEncodingDetector
      * Returns {@code null} if the probe is too short.
      */
     public SpecialistOutput score(TikaInputStream tis) throws IOException {
-        byte[] probe = readProbe(tis);
-        return score(probe);
+        return score(DetectionProbe.get(tis, null, maxProbeBytes).getBuffer(maxProbeBytes));
     }
 
     /**
@@ -253,7 +267,17 @@ public class Utf16SpecialistEncodingDetector
     @Override
     public List<EncodingResult> detect(TikaInputStream tis, Metadata metadata,
                                        ParseContext parseContext) throws IOException {
-        return detect(readProbe(tis));
+        return detect(DetectionProbe.get(tis, parseContext, maxProbeBytes), metadata, parseContext);
+    }
+
+    @Override
+    public List<EncodingResult> detect(DetectionProbe probe, Metadata metadata,
+                                       ParseContext parseContext) throws IOException {
+        ByteBuffer bytes = probe.atLeast(maxProbeBytes, parseContext).getBuffer(maxProbeBytes);
+        if (bytes.remaining() < MIN_PROBE_BYTES) {
+            return Collections.emptyList();
+        }
+        return detect(extractor.extractBuffer(bytes));
     }
 
     /**
@@ -267,7 +291,10 @@ public class Utf16SpecialistEncodingDetector
             return Collections.emptyList();
         }
         int len = Math.min(probe.length, maxProbeBytes);
-        int[] features = extractor.extract(probe, 0, len);
+        return detect(extractor.extract(probe, 0, len));
+    }
+
+    private List<EncodingResult> detect(int[] features) {
         float[] logits = model.predictLogits(features);
 
         int winnerIdx = 0;
@@ -296,20 +323,11 @@ public class Utf16SpecialistEncodingDetector
                 EncodingResult.ResultType.STATISTICAL));
     }
 
-    private byte[] readProbe(TikaInputStream tis) throws IOException {
-        tis.mark(maxProbeBytes);
-        byte[] buf = new byte[maxProbeBytes];
-        try {
-            int n = IOUtils.read(tis, buf);
-            if (n < buf.length) {
-                byte[] trimmed = new byte[n];
-                System.arraycopy(buf, 0, trimmed, 0, n);
-                return trimmed;
-            }
-            return buf;
-        } finally {
-            tis.reset();
-        }
+    /**
+     * @return a view of at most {@link #maxProbeBytes} bytes of the probe
+     */
+    private ByteBuffer window(ByteBuffer probe) {
+        return probe.slice(probe.position(), Math.min(probe.remaining(), maxProbeBytes));
     }
 
     /**
@@ -16,6 +16,7 @@
  */
 package org.apache.tika.eval.core.langid;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -36,10 +37,18 @@ public class LanguageIDWrapper implements StringStatsCalculator<List<LanguageRes
 
     @Override
     public List<LanguageResult> calculate(String txt) {
+        return calculate(Collections.singletonList(txt)).get(0);
+    }
+
+    /**
+     * Detects the languages of several texts with one batch call.
+     *
+     * @return one result list per text, in the same order
+     */
+    public List<List<LanguageResult>> calculate(List<String> txts) {
         CharSoupLanguageDetector detector = new CharSoupLanguageDetector();
         detector.setMaxLength(MAX_TEXT_LENGTH);
-        detector.addText(txt);
-        return detector.detectAll();
+        return detector.detectAll(txts);
     }
 
 
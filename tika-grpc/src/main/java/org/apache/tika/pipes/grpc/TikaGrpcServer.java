@@ -58,6 +58,12 @@ public class TikaGrpcServer {
     @Parameter(names = {"--plugin-roots"}, description = "Comma-separated list of plugin root directories (overrides config file)", help = true)
     private String pluginRoots;
 
+    @Parameter(names = {"--num-clients"}, description = "Size of the pipes client pool used for fetch and parse requests (overrides numClients in the pipes config)")
+    private Integer numClients;
+
+    @Parameter(names = {"--max-queued-requests"}, description = "Number of bi-directional streaming requests that may wait for a free pipes client before the stream is throttled")
+    private int maxQueuedRequests = TikaGrpcServerImpl.DEFAULT_MAX_QUEUED_REQUESTS;
+
     @Parameter(names = {"-s", "--secure"}, description = "Enable credentials required to access this grpc server")
     private boolean secure;
 
@@ -101,7 +107,8 @@ public class TikaGrpcServer {
         }
         File tikaConfigFile = new File(tikaConfig.getAbsolutePath());
         healthStatusManager.setStatus(TikaGrpcServer.class.getSimpleName(), ServingStatus.SERVING);
-        serviceImpl = new TikaGrpcServerImpl(tikaConfigFile.getAbsolutePath(), pluginRoots);
+        serviceImpl = new TikaGrpcServerImpl(tikaConfigFile.getAbsolutePath(), pluginRoots,
+                numClients, maxQueuedRequests);
         server = Grpc
                 .newServerBuilderForPort(port, creds)
                 .addService(serviceImpl)
@@ -200,6 +207,16 @@ public class TikaGrpcServer {
         return this;
     }
 
+    public TikaGrpcServer setNumClients(Integer numClients) {
+        this.numClients = numClients;
+        return this;
+    }
+
+    public TikaGrpcServer setMaxQueuedRequests(int maxQueuedRequests) {
+        this.maxQueuedRequests = maxQueuedRequests;
+        return this;
+    }
+
     public TikaGrpcServer setSecure(boolean secure) {
         this.secure = secure;
         return this;
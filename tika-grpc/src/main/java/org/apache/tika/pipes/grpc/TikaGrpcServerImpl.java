@@ -21,6 +21,12 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -66,8 +72,9 @@ import org.apache.tika.pipes.api.PipesResult;
 import org.apache.tika.pipes.api.emitter.EmitKey;
 import org.apache.tika.pipes.api.fetcher.FetchKey;
 import org.apache.tika.pipes.api.fetcher.Fetcher;
-import org.apache.tika.pipes.core.PipesClient;
 import org.apache.tika.pipes.core.PipesConfig;
+import org.apache.tika.pipes.core.PipesException;
+import org.apache.tika.pipes.core.PipesParser;
 import org.apache.tika.pipes.core.config.ConfigStore;
 import org.apache.tika.pipes.core.config.ConfigStoreFactory;
 import org.apache.tika.pipes.core.fetcher.FetcherManager;
@@ -84,8 +91,15 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
 
     private static final String PIPES_ITERATOR_PREFIX = "pipesIterator:";
 
+    /**
+     * Default number of bi-directional streaming requests that may wait for
+     * a free pipes client before the stream itself is made to wait.
+     */
+    public static final int DEFAULT_MAX_QUEUED_REQUESTS = 100;
+
     PipesConfig pipesConfig;
-    PipesClient pipesClient;
+    PipesParser pipesParser;
+    private ThreadPoolExecutor streamingExecutor;
     FetcherManager fetcherManager;
     ConfigStore configStore;
     Path tikaConfigPath;
@@ -97,6 +111,25 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
     }
 
     TikaGrpcServerImpl(String tikaConfigPath, String pluginRootsOverride) throws TikaConfigException, IOException {
+        this(tikaConfigPath, pluginRootsOverride, null, DEFAULT_MAX_QUEUED_REQUESTS);
+    }
+
+    /**
+     * @param tikaConfigPath      path to the tika config json
+     * @param pluginRootsOverride plugin roots to use instead of the ones in the config, may be null
+     * @param numClients          size of the pipes client pool, or null to use the
+     *                            <code>numClients</code> from the pipes config
+     * @param maxQueuedRequests   number of bi-directional streaming requests that may be
+     *                            queued for a free client before the stream is throttled
+     */
+    TikaGrpcServerImpl(String tikaConfigPath, String pluginRootsOverride, Integer numClients,
+                       int maxQueuedRequests) throws TikaConfigException, IOException {
+        if (numClients != null && numClients < 1) {
+            throw new TikaConfigException("numClients must be > 0: " + numClients);
+        }
+        if (maxQueuedRequests < 1) {
+            throw new TikaConfigException("maxQueuedRequests must be > 0: " + maxQueuedRequests);
+        }
         File tikaConfigFile = new File(tikaConfigPath);
         if (!tikaConfigFile.exists()) {
             throw new TikaConfigException("Tika config file does not exist: " + tikaConfigPath);
@@ -113,8 +146,15 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
             pipesConfig = new PipesConfig();
         }
 
-        pipesClient = new PipesClient(pipesConfig, configPath);
-        
+        if (numClients != null) {
+            pipesConfig.setNumClients(numClients);
+        }
+
+        pipesParser = PipesParser.load(tikaJsonConfig, pipesConfig, configPath);
+        streamingExecutor = createStreamingExecutor(pipesConfig.getNumClients(), maxQueuedRequests);
+        LOG.info("Using a pool of {} pipes clients, with up to {} queued streaming requests",
+                pipesConfig.getNumClients(), maxQueuedRequests);
+
         try {
             if (pluginRootsOverride != null && !pluginRootsOverride.trim().isEmpty()) {
                 // Use command-line plugin roots
@@ -135,6 +175,32 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
         fetcherManager = FetcherManager.load(pluginManager, tikaJsonConfig, true, this.configStore);
     }
 
+    /**
+     * Executor for bi-directional streaming requests. There is one thread per
+     * pipes client, and requests are queued in arrival order across all streams.
+     * Once the queue is full, the request runs on the stream's own thread, which
+     * stops it from reading more requests until a client frees up. Once the
+     * executor is shutting down, requests are rejected instead.
+     */
+    private static ThreadPoolExecutor createStreamingExecutor(int numClients, int maxQueuedRequests) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(numClients, numClients,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxQueuedRequests),
+                r -> {
+                    Thread t = new Thread(r, "tika-grpc-fetch-and-parse-" + threadCount.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, e) -> {
+                    if (e.isShutdown()) {
+                        throw new RejectedExecutionException("The server is shutting down");
+                    }
+                    r.run();
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     private ConfigStore createConfigStore() throws TikaConfigException {
         String configStoreType = pipesConfig.getConfigStoreType();
         String configStoreParams = pipesConfig.getConfigStoreParams();
@@ -176,39 +242,130 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
     @Override
     public void fetchAndParseServerSideStreaming(FetchAndParseRequest request,
                                                  StreamObserver<FetchAndParseReply> responseObserver) {
-        fetchAndParseImpl(request, responseObserver);
+        FetchAndParseReply reply = fetchAndParseImpl(request);
+        if (reply != null) {
+            responseObserver.onNext(reply);
+        }
     }
 
     @Override
     public StreamObserver<FetchAndParseRequest> fetchAndParseBiDirectionalStreaming(
             StreamObserver<FetchAndParseReply> responseObserver) {
-        return new StreamObserver<>() {
-            @Override
-            public void onNext(FetchAndParseRequest fetchAndParseRequest) {
-                fetchAndParseImpl(fetchAndParseRequest, responseObserver);
-            }
-
-            @Override
-            public void onError(Throwable throwable) {
-                LOG.error("Parse error occurred", throwable);
-            }
-
-            @Override
-            public void onCompleted() {
-                responseObserver.onCompleted();
-            }
-        };
+        return new BiDirectionalStreamHandler(responseObserver);
     }
 
     @Override
     public void fetchAndParse(FetchAndParseRequest request,
                               StreamObserver<FetchAndParseReply> responseObserver) {
-        fetchAndParseImpl(request, responseObserver);
+        FetchAndParseReply reply = fetchAndParseImpl(request);
+        if (reply != null) {
+            responseObserver.onNext(reply);
+        }
         responseObserver.onCompleted();
     }
 
-    private void fetchAndParseImpl(FetchAndParseRequest request,
-                                   StreamObserver<FetchAndParseReply> responseObserver) {
+    /**
+     * Handles one bi-directional stream. Requests are parsed concurrently on the
+     * {@link #streamingExecutor}, and replies are sent as soon as they are ready,
+     * so they may arrive out of order; each reply carries its request's fetch key.
+     * The stream is completed once the client has completed its side and every
+     * outstanding request has been answered.
+     */
+    private final class BiDirectionalStreamHandler implements StreamObserver<FetchAndParseRequest> {
+
+        private final StreamObserver<FetchAndParseReply> responseObserver;
+
+        // One extra count for the request side of the stream, released by onCompleted
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+
+        private final AtomicBoolean failed = new AtomicBoolean(false);
+
+        BiDirectionalStreamHandler(StreamObserver<FetchAndParseReply> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+
+        @Override
+        public void onNext(FetchAndParseRequest fetchAndParseRequest) {
+            if (failed.get()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            ThreadPoolExecutor executor = streamingExecutor;
+            try {
+                if (executor == null) {
+                    throw new RejectedExecutionException("The server is shutting down");
+                }
+                execute(executor, fetchAndParseRequest);
+            } catch (RejectedExecutionException e) {
+                LOG.warn("Rejected {}: {}", fetchAndParseRequest.getFetchKey(), e.getMessage());
+                if (failed.compareAndSet(false, true)) {
+                    synchronized (responseObserver) {
+                        responseObserver.onError(io.grpc.Status.UNAVAILABLE
+                                .withDescription(e.getMessage())
+                                .asRuntimeException());
+                    }
+                }
+                release();
+            }
+        }
+
+        private void execute(ThreadPoolExecutor executor, FetchAndParseRequest fetchAndParseRequest) {
+            executor.execute(() -> {
+                try {
+                    FetchAndParseReply reply = fetchAndParseImpl(fetchAndParseRequest);
+                    if (reply != null) {
+                        synchronized (responseObserver) {
+                            if (!failed.get()) {
+                                responseObserver.onNext(reply);
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to fetch and parse {}", fetchAndParseRequest.getFetchKey(), e);
+                    if (failed.compareAndSet(false, true)) {
+                        synchronized (responseObserver) {
+                            responseObserver.onError(io.grpc.Status.INTERNAL
+                                    .withDescription("Failed to fetch and parse " +
+                                            fetchAndParseRequest.getFetchKey() + ": " + e.getMessage())
+                                    .withCause(e)
+                                    .asRuntimeException());
+                        }
+                    }
+                } finally {
+                    release();
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Parse error occurred", throwable);
+            // the call is cancelled, so there is nobody left to reply to
+            failed.set(true);
+        }
+
+        @Override
+        public void onCompleted() {
+            release();
+        }
+
+        private void release() {
+            if (outstanding.decrementAndGet() == 0) {
+                synchronized (responseObserver) {
+                    if (!failed.get()) {
+                        responseObserver.onCompleted();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetches and parses the requested document through the pipes client pool.
+     *
+     * @return the reply, or <code>null</code> if the thread was interrupted
+     */
+    private FetchAndParseReply fetchAndParseImpl(FetchAndParseRequest request) {
         Fetcher fetcher;
         try {
             fetcher = fetcherManager.getFetcher(request.getFetcherId());
@@ -223,7 +380,7 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
             if (StringUtils.isNotBlank(additionalFetchConfigJson)) {
                 parseContext.setJsonConfig(request.getFetcherId(), additionalFetchConfigJson);
             }
-            PipesResult pipesResult = pipesClient.process(new FetchEmitTuple(request.getFetchKey(), new FetchKey(fetcher.getExtensionConfig().id(), request.getFetchKey()),
+            PipesResult pipesResult = pipesParser.parse(new FetchEmitTuple(request.getFetchKey(), new FetchKey(fetcher.getExtensionConfig().id(), request.getFetchKey()),
                     new EmitKey(), tikaMetadata, parseContext, FetchEmitTuple.ON_PARSE_EXCEPTION.SKIP));
             FetchAndParseReply.Builder fetchReplyBuilder =
                     FetchAndParseReply.newBuilder()
@@ -242,11 +399,12 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
                     }
                 }
             }
-            responseObserver.onNext(fetchReplyBuilder.build());
-        } catch (IOException e) {
+            return fetchReplyBuilder.build();
+        } catch (IOException | PipesException e) {
             throw new RuntimeException(e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            return null;
         }
     }
 
@@ -492,17 +650,31 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
     }
 
     /**
-     * Close the pipe client, to be called after TikaGrpcServer has shut down.
+     * Close the pipes clients, to be called after TikaGrpcServer has shut down.
      */
     void postShutdown() {
-        if (pipesClient != null) {
-            LOG.info("Shutting down the pipes client");
+        if (streamingExecutor != null) {
+            streamingExecutor.shutdown();
+            try {
+                if (!streamingExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    LOG.warn("Timed out waiting for in-flight streaming requests");
+                    streamingExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                streamingExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            } finally {
+                streamingExecutor = null;
+            }
+        }
+        if (pipesParser != null) {
+            LOG.info("Shutting down the pipes clients");
             try {
-                pipesClient.close();
+                pipesParser.close();
             } catch (IOException e) {
-                LOG.error("Error closing the pipes client", e);
+                LOG.error("Error closing the pipes clients", e);
             } finally {
-                pipesClient = null;
+                pipesParser = null;
             }
         }
     }
@@ -33,9 +33,11 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -292,8 +294,11 @@ public class TikaGrpcServerTest {
                     .build());
             requestStreamObserver.onCompleted();
             
-            // Wait a bit for async processing to complete
-            Thread.sleep(1000);
+            // Requests are processed concurrently; wait for the server to complete the stream
+            long deadline = System.currentTimeMillis() + 60000;
+            while (!finished.get() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
             
             // Log what we got for debugging
             LOG.info("Successes: {}, Errors: {}", successes.size(), errors.size());
@@ -308,6 +313,18 @@ public class TikaGrpcServerTest {
             assertEquals(1, errors.size());
             assertTrue(finished.get());
 
+            // Replies may arrive out of order, but each is tagged with its fetch key
+            Set<String> expectedKeys = new HashSet<>();
+            for (File testDocument : testDocuments) {
+                expectedKeys.add(testDocument.getAbsolutePath());
+            }
+            Set<String> successKeys = new HashSet<>();
+            for (FetchAndParseReply success : successes) {
+                successKeys.add(success.getFetchKey());
+            }
+            assertEquals(expectedKeys, successKeys);
+            assertEquals("does not exist", errors.get(0).getFetchKey());
+
             tikaGrpcServerImpl.shutdown();
             server.shutdown();
             tikaGrpcServerImpl.postShutdown();
@@ -608,7 +608,8 @@ public class ElasticsearchTest {
                         ESEmitterConfig.UpdateStrategy.OVERWRITE,
                         10, DEFAULT_EMBEDDED_FILE_FIELD_NAME, null,
                         new HttpClientConfig(null, null, null,
-                                -1, -1, null, 0, false));
+                                -1, -1, null, 0, false),
+                        false, 0, 0);
 
         return new ElasticsearchTestClient(config,
                 httpClientFactory.build());
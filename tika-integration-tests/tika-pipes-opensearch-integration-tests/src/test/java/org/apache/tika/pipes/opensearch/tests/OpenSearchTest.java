@@ -418,7 +418,7 @@ public class OpenSearchTest {
         httpClientFactory.setPassword(CONTAINER.getPassword());
         OpenSearchEmitterConfig config = new OpenSearchEmitterConfig(CONTAINER.getHttpHostAddress(), "_id", OpenSearchEmitterConfig.AttachmentStrategy.SEPARATE_DOCUMENTS,
                 OpenSearchEmitterConfig.UpdateStrategy.OVERWRITE, 10, DEFAULT_EMBEDDED_FILE_FIELD_NAME,
-                new HttpClientConfig(null, null, null, -1, -1, null, -1));
+                new HttpClientConfig(null, null, null, -1, -1, null, -1), false, 0, 0);
         return new OpensearchTestClient(config, httpClientFactory.build());
 
     }
@@ -297,32 +297,160 @@ public class CharSoupModel {
                 nzIdx[pos++] = b;
             }
         }
+        return predictLogits(features, nzIdx, nnz);
+    }
 
+    /**
+     * Sparse variant of {@link #predictLogits(int[])}: visits only the
+     * buckets recorded in {@code features}, so the cost is independent of
+     * {@link #getNumBuckets()}. Results are identical to the dense method.
+     *
+     * @param features vector with {@link #getNumBuckets()} buckets
+     * @return float array of size {@code numClasses}
+     *         (raw logits, not normalized)
+     */
+    public float[] predictLogits(SparseFeatureVector features) {
+        if (features.getNumBuckets() != numBuckets) {
+            throw new IllegalArgumentException("Feature vector has "
+                    + features.getNumBuckets() + " buckets; model expects " + numBuckets);
+        }
+        return predictLogits(features.getCounts(), features.getIndices(), features.size());
+    }
+
+    private float[] predictLogits(int[] features, int[] nzIdx, int nnz) {
+        int[] vals = new int[nnz];
+        for (int i = 0; i < nnz; i++) {
+            vals[i] = features[nzIdx[i]];
+        }
+        return rowLogits(nzIdx, vals, 0, nnz);
+    }
+
+    /**
+     * Batch variant of {@link #predictLogits(SparseFeatureVector)}: one row of
+     * logits per matrix row, identical to scoring each row on its own.
+     * <p>
+     * Rows are scored straight off the CSR arrays with the same kernels as
+     * the single-text methods.
+     * <p>
+     * This method does not modify the model and is safe to call from
+     * several threads at once, each with its own matrix.
+     *
+     * @param features matrix with {@link #getNumBuckets()} buckets
+     * @return {@code float[features.rows()][numClasses]} raw logits
+     */
+    public float[][] predictLogits(SparseFeatureMatrix features) {
+        if (features.getNumBuckets() != numBuckets) {
+            throw new IllegalArgumentException("Feature matrix has "
+                    + features.getNumBuckets() + " buckets; model expects " + numBuckets);
+        }
+        int rows = features.rows();
+        float[][] logits = new float[rows][];
+        int[] cols = features.getCols();
+        int[] vals = features.getVals();
+        for (int r = 0; r < rows; r++) {
+            logits[r] = rowLogits(cols, vals, features.rowStart(r), features.rowStart(r + 1));
+        }
+        return logits;
+    }
+
+    /**
+     * Logits for the features {@code [start, end)}: bucket {@code buckets[k]}
+     * with count {@code vals[k]}.
+     */
+    private float[] rowLogits(int[] buckets, int[] vals, int start, int end) {
         float invNorm = 1.0f;
         if ((featureFlags & FLAG_L2_NORM) != 0) {
             double normSq = 0;
-            for (int i = 0; i < nnz; i++) {
-                long fv = features[nzIdx[i]];
+            for (int k = start; k < end; k++) {
+                long fv = vals[k];
                 normSq += fv * fv;
             }
             invNorm = normSq > 0 ? (float) (1.0 / Math.sqrt(normSq)) : 1.0f;
         }
 
+        float[] logits = new float[numClasses];
+        if (fitsInt32(vals, start, end)) {
+            int[] dots = dotsInt32(flatWeights, numClasses, buckets, vals, start, end);
+            for (int c = 0; c < numClasses; c++) {
+                logits[c] = biases[c] + scales[c] * (long) dots[c] * invNorm;
+            }
+        } else {
+            long[] dots = dotsScalar(flatWeights, numClasses, buckets, vals, start, end);
+            for (int c = 0; c < numClasses; c++) {
+                logits[c] = biases[c] + scales[c] * dots[c] * invNorm;
+            }
+        }
+        return logits;
+    }
+
+    /**
+     * Whether every per-class dot product over the counts
+     * {@code vals[start, end)} is guaranteed to fit in an {@code int}. Each
+     * weight is at most 128 in magnitude, so the sum of absolute feature
+     * values times 128 bounds every accumulator.
+     */
+    static boolean fitsInt32(int[] vals, int start, int end) {
+        long l1 = 0;
+        for (int k = start; k < end; k++) {
+            l1 += Math.abs((long) vals[k]);
+        }
+        return l1 * 128 <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Reference kernel: one bucket row at a time into {@code long}
+     * accumulators. Used when {@link #fitsInt32} does not hold.
+     */
+    static long[] dotsScalar(byte[] flatWeights, int numClasses,
+                             int[] buckets, int[] vals, int start, int end) {
         long[] dots = new long[numClasses];
-        for (int i = 0; i < nnz; i++) {
-            int b = nzIdx[i];
-            int fv = features[b];
-            int off = b * numClasses;
+        for (int k = start; k < end; k++) {
+            int fv = vals[k];
+            int off = buckets[k] * numClasses;
             for (int c = 0; c < numClasses; c++) {
                 dots[c] += (long) flatWeights[off + c] * fv;
             }
         }
+        return dots;
+    }
 
-        float[] logits = new float[numClasses];
-        for (int c = 0; c < numClasses; c++) {
-            logits[c] = biases[c] + scales[c] * dots[c] * invNorm;
+    /**
+     * INT8 × INT32 multiply-accumulate into {@code int} lanes, two bucket
+     * rows per pass. The inner loop is a plain widening byte-to-int
+     * multiply-add over contiguous arrays with no incubator modules; whether
+     * the JIT vectorizes it depends on the JVM and platform. Callers must check
+     * {@link #fitsInt32} first — under that bound the integer sums are
+     * exactly those of {@link #dotsScalar}, so logits are bit-identical.
+     */
+    static int[] dotsInt32(byte[] flatWeights, int numClasses,
+                           int[] buckets, int[] vals, int start, int end) {
+        int[] dots = new int[numClasses];
+        int k = start;
+        for (; k + 1 < end; k += 2) {
+            int off0 = buckets[k] * numClasses;
+            int off1 = buckets[k + 1] * numClasses;
+            int fv0 = vals[k];
+            int fv1 = vals[k + 1];
+            for (int c = 0; c < numClasses; c++) {
+                dots[c] += flatWeights[off0 + c] * fv0 + flatWeights[off1 + c] * fv1;
+            }
         }
-        return logits;
+        if (k < end) {
+            int off = buckets[k] * numClasses;
+            int fv = vals[k];
+            for (int c = 0; c < numClasses; c++) {
+                dots[c] += flatWeights[off + c] * fv;
+            }
+        }
+        return dots;
+    }
+
+    /**
+     * Bucket-major INT8 weights, shared with the inference kernels'
+     * tests and benchmark. Callers must not modify the array.
+     */
+    byte[] getFlatWeights() {
+        return flatWeights;
     }
 
     /**
@@ -87,6 +87,28 @@ public interface FeatureExtractor {
         return n;
     }
 
+    /**
+     * Sparse variant of {@link #extractAndCount(String, int[])}: clears
+     * {@code features} and extracts into it, so that neither clearing nor the
+     * model's dot product has to visit every bucket. Reusing one
+     * {@link SparseFeatureVector} per thread makes repeated detection
+     * allocation-free.
+     * <p>
+     * The default implementation extracts into the dense backing array and
+     * then rescans it; production extractors override this to record
+     * non-zero buckets as they are emitted.
+     *
+     * @param rawText  raw input text (may be {@code null})
+     * @param features reusable vector with {@link #getNumBuckets()} buckets
+     * @return total n-gram emission count (≥ 0)
+     */
+    default int extractAndCount(String rawText, SparseFeatureVector features) {
+        features.clear();
+        extract(rawText, features.getCounts());
+        features.reindex();
+        return features.totalCount();
+    }
+
     /**
      * @return number of hash buckets (feature vector size)
      */
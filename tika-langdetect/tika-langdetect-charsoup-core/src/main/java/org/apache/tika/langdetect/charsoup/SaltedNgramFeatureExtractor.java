@@ -116,7 +116,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
         if (rawText == null || rawText.isEmpty()) {
             return counts;
         }
-        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), counts);
+        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), SparseFeatureVector.wrap(counts));
         return counts;
     }
 
@@ -126,7 +126,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
         if (rawText == null || rawText.isEmpty()) {
             return;
         }
-        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), counts);
+        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), SparseFeatureVector.wrap(counts));
     }
 
     @Override
@@ -135,7 +135,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
         if (text == null || text.isEmpty()) {
             return counts;
         }
-        extractFeatures(text, counts);
+        extractFeatures(text, SparseFeatureVector.wrap(counts));
         return counts;
     }
 
@@ -147,7 +147,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
         if (text == null || text.isEmpty()) {
             return;
         }
-        extractFeatures(text, counts);
+        extractFeatures(text, SparseFeatureVector.wrap(counts));
     }
 
     @Override
@@ -160,6 +160,16 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
         return n;
     }
 
+    @Override
+    public int extractAndCount(String rawText, SparseFeatureVector features) {
+        features.clear();
+        if (rawText == null || rawText.isEmpty()) {
+            return 0;
+        }
+        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), features);
+        return features.totalCount();
+    }
+
     /**
      * Core extraction loop.  Collects codepoints into words (maximal runs
      * of same-family letters), then emits n-grams for each completed word
@@ -173,7 +183,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
      * This captures function-word-in-context patterns like "the X", "de X",
      * "в X" that are highly discriminative at short text lengths.
      */
-    private void extractFeatures(String text, int[] counts) {
+    private void extractFeatures(String text, SparseFeatureVector counts) {
         // Word buffer — reused across words.  Stores lowercased codepoints.
         int[] word = new int[256];
         int wordLen = 0;
@@ -292,7 +302,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
      *
      * @return the new previous-word length (i.e. {@code wordLen})
      */
-    private int saveAndEmitWordBigram(int[] counts,
+    private int saveAndEmitWordBigram(SparseFeatureVector counts,
                                       int[] prevWordBuf, int prevWordLen,
                                       int[] word, int wordLen) {
         if (!useWordBigrams) {
@@ -311,7 +321,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
      * byte (0xFF) between them to prevent collisions like
      * "ab" + "cd" vs "abc" + "d".
      */
-    private void emitWordBigram(int[] counts,
+    private void emitWordBigram(SparseFeatureVector counts,
                                 int[] w1, int w1Len,
                                 int[] w2, int w2Len) {
         int h = fnvFeedByte(FNV_BASIS, SALT_WORD_BIGRAM);
@@ -322,7 +332,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
         for (int j = 0; j < w2Len; j++) {
             h = fnvFeedInt(h, w2[j]);
         }
-        counts[(h & 0x7FFFFFFF) % numBuckets]++;
+        counts.add((h & 0x7FFFFFFF) % numBuckets);
     }
 
     /**
@@ -336,7 +346,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
      *       and all others get MID salt.</li>
      * </ul>
      */
-    static void emitWordNgrams(int[] counts, int[] word, int wordLen) {
+    static void emitWordNgrams(SparseFeatureVector counts, int[] word, int wordLen) {
         // Bigrams
         if (wordLen == 2) {
             emit(counts, SALT_FULL_WORD, word[0], word[1]);
@@ -382,61 +392,61 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
 
     // ----- emit helpers -----
 
-    private static void emit(int[] counts, int salt, int cp1) {
+    private static void emit(SparseFeatureVector counts, int salt, int cp1) {
         int h = fnvFeedByte(FNV_BASIS, salt);
         h = fnvFeedInt(h, cp1);
-        counts[(h & 0x7FFFFFFF) % counts.length]++;
+        counts.add((h & 0x7FFFFFFF) % counts.getNumBuckets());
     }
 
-    private static void emit(int[] counts, int salt, int cp1, int cp2) {
+    private static void emit(SparseFeatureVector counts, int salt, int cp1, int cp2) {
         int h = fnvFeedByte(FNV_BASIS, salt);
         h = fnvFeedInt(h, cp1);
         h = fnvFeedInt(h, cp2);
-        counts[(h & 0x7FFFFFFF) % counts.length]++;
+        counts.add((h & 0x7FFFFFFF) % counts.getNumBuckets());
     }
 
-    private static void emit(int[] counts, int salt, int cp1, int cp2, int cp3) {
+    private static void emit(SparseFeatureVector counts, int salt, int cp1, int cp2, int cp3) {
         int h = fnvFeedByte(FNV_BASIS, salt);
         h = fnvFeedInt(h, cp1);
         h = fnvFeedInt(h, cp2);
         h = fnvFeedInt(h, cp3);
-        counts[(h & 0x7FFFFFFF) % counts.length]++;
+        counts.add((h & 0x7FFFFFFF) % counts.getNumBuckets());
     }
 
-    private static void emit(int[] counts, int salt,
+    private static void emit(SparseFeatureVector counts, int salt,
                               int cp1, int cp2, int cp3, int cp4) {
         int h = fnvFeedByte(FNV_BASIS, salt);
         h = fnvFeedInt(h, cp1);
         h = fnvFeedInt(h, cp2);
         h = fnvFeedInt(h, cp3);
         h = fnvFeedInt(h, cp4);
-        counts[(h & 0x7FFFFFFF) % counts.length]++;
+        counts.add((h & 0x7FFFFFFF) % counts.getNumBuckets());
     }
 
-    private void emitWordLength(int[] counts, int wordLen) {
+    private void emitWordLength(SparseFeatureVector counts, int wordLen) {
         if (!useWordLength) {
             return;
         }
         int len = Math.min(wordLen, MAX_WORD_LEN_FEATURE);
         int h = fnvFeedByte(FNV_BASIS, SALT_WORD_LEN);
         h = fnvFeedByte(h, len);
-        counts[(h & 0x7FFFFFFF) % numBuckets]++;
+        counts.add((h & 0x7FFFFFFF) % numBuckets);
     }
 
-    private void emitCjkUnigram(int[] counts, int cp) {
+    private void emitCjkUnigram(SparseFeatureVector counts, int cp) {
         int h = fnvFeedByte(FNV_BASIS, SALT_CJK_UNIGRAM);
         h = fnvFeedInt(h, cp);
-        counts[(h & 0x7FFFFFFF) % numBuckets]++;
+        counts.add((h & 0x7FFFFFFF) % numBuckets);
     }
 
-    private void emitScriptFeatures(int[] counts,
+    private void emitScriptFeatures(SparseFeatureVector counts,
                                      int[] scriptCounts,
                                      int[] transitionCounts) {
         for (int s = 0; s < ScriptCategory.COUNT; s++) {
             if (scriptCounts[s] > 0) {
                 int h = fnvFeedByte(FNV_BASIS, SALT_SCRIPT);
                 h = fnvFeedByte(h, s);
-                counts[(h & 0x7FFFFFFF) % numBuckets] += scriptCounts[s];
+                counts.add((h & 0x7FFFFFFF) % numBuckets, scriptCounts[s]);
             }
         }
 
@@ -447,7 +457,7 @@ public class SaltedNgramFeatureExtractor implements FeatureExtractor {
                     int h = fnvFeedByte(FNV_BASIS, SALT_SCRIPT_TRANS);
                     h = fnvFeedByte(h, s);
                     h = fnvFeedByte(h, t);
-                    counts[(h & 0x7FFFFFFF) % numBuckets] += c;
+                    counts.add((h & 0x7FFFFFFF) % numBuckets, c);
                 }
             }
         }
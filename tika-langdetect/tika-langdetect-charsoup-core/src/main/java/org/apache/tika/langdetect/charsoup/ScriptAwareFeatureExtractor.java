@@ -95,7 +95,7 @@ public class ScriptAwareFeatureExtractor implements FeatureExtractor {
         if (rawText == null || rawText.isEmpty()) {
             return counts;
         }
-        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), counts);
+        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), SparseFeatureVector.wrap(counts));
         return counts;
     }
 
@@ -105,7 +105,7 @@ public class ScriptAwareFeatureExtractor implements FeatureExtractor {
         if (rawText == null || rawText.isEmpty()) {
             return;
         }
-        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), counts);
+        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), SparseFeatureVector.wrap(counts));
     }
 
     @Override
@@ -114,7 +114,7 @@ public class ScriptAwareFeatureExtractor implements FeatureExtractor {
         if (text == null || text.isEmpty()) {
             return counts;
         }
-        extractFeatures(text, counts);
+        extractFeatures(text, SparseFeatureVector.wrap(counts));
         return counts;
     }
 
@@ -126,7 +126,7 @@ public class ScriptAwareFeatureExtractor implements FeatureExtractor {
         if (text == null || text.isEmpty()) {
             return;
         }
-        extractFeatures(text, counts);
+        extractFeatures(text, SparseFeatureVector.wrap(counts));
     }
 
     @Override
@@ -139,7 +139,17 @@ public class ScriptAwareFeatureExtractor implements FeatureExtractor {
         return n;
     }
 
-    private void extractFeatures(String text, int[] counts) {
+    @Override
+    public int extractAndCount(String rawText, SparseFeatureVector features) {
+        features.clear();
+        if (rawText == null || rawText.isEmpty()) {
+            return 0;
+        }
+        extractFeatures(CharSoupFeatureExtractor.preprocess(rawText), features);
+        return features.totalCount();
+    }
+
+    private void extractFeatures(String text, SparseFeatureVector counts) {
         int prevCp = SENTINEL;
         int prevScript = -1;
         boolean prevWasLetter = false;
@@ -285,13 +295,13 @@ public class ScriptAwareFeatureExtractor implements FeatureExtractor {
         }
     }
 
-    private void emitBoundaryStart(int[] counts, int script, int lower, boolean cjk) {
+    private void emitBoundaryStart(SparseFeatureVector counts, int script, int lower, boolean cjk) {
         if (!cjk) {
             emitBigram(counts, script, SENTINEL, lower);
         }
     }
 
-    private void emitBoundaryEnd(int[] counts, int script, int prevCp, boolean cjk,
+    private void emitBoundaryEnd(SparseFeatureVector counts, int script, int prevCp, boolean cjk,
                                   int wordHash, int wordLen, int wordScript,
                                   int suf0, int suf1, int suf2, int suf3,
                                   int preA, int preB, int preC) {
@@ -310,47 +320,47 @@ public class ScriptAwareFeatureExtractor implements FeatureExtractor {
 
     // ---- Feature emission ----
 
-    private void emitBigram(int[] counts, int script, int cp1, int cp2) {
+    private void emitBigram(SparseFeatureVector counts, int script, int cp1, int cp2) {
         int h = fnvFeedInt(fnvFeedInt(fnvFeedByte(BIGRAM_BASIS, script), cp1), cp2);
-        counts[(h & 0x7FFFFFFF) % numBuckets]++;
+        counts.add((h & 0x7FFFFFFF) % numBuckets);
     }
 
-    private void emitTrigram(int[] counts, int script, int cp1, int cp2, int cp3) {
+    private void emitTrigram(SparseFeatureVector counts, int script, int cp1, int cp2, int cp3) {
         int h = fnvFeedInt(fnvFeedInt(fnvFeedInt(
                 fnvFeedByte(TRIGRAM_BASIS, script), cp1), cp2), cp3);
-        counts[(h & 0x7FFFFFFF) % numBuckets]++;
+        counts.add((h & 0x7FFFFFFF) % numBuckets);
     }
 
-    private void emitUnigram(int[] counts, int script, int cp) {
+    private void emitUnigram(SparseFeatureVector counts, int script, int cp) {
         int h = fnvFeedInt(fnvFeedByte(UNIGRAM_BASIS, script), cp);
-        counts[(h & 0x7FFFFFFF) % numBuckets]++;
+        counts.add((h & 0x7FFFFFFF) % numBuckets);
     }
 
-    private void emitSuffix(int[] counts, int script, int cp1, int cp2, int cp3) {
+    private void emitSuffix(SparseFeatureVector counts, int script, int cp1, int cp2, int cp3) {
         int h = fnvFeedInt(fnvFeedInt(fnvFeedInt(
                 fnvFeedByte(SUFFIX_BASIS, script), cp1), cp2), cp3);
-        counts[(h & 0x7FFFFFFF) % numBuckets]++;
+        counts.add((h & 0x7FFFFFFF) % numBuckets);
     }
 
-    private void emitPrefix(int[] counts, int script, int cp1, int cp2, int cp3) {
+    private void emitPrefix(SparseFeatureVector counts, int script, int cp1, int cp2, int cp3) {
         int h = fnvFeedInt(fnvFeedInt(fnvFeedInt(
                 fnvFeedByte(PREFIX_BASIS, script), cp1), cp2), cp3);
-        counts[(h & 0x7FFFFFFF) % numBuckets]++;
+        counts.add((h & 0x7FFFFFFF) % numBuckets);
     }
 
-    private void emitWordIfEligible(int[] counts, int wordHash, int wordLen) {
+    private void emitWordIfEligible(SparseFeatureVector counts, int wordHash, int wordLen) {
         if (wordLen >= MIN_WORD_LENGTH && wordLen <= MAX_WORD_LENGTH) {
-            counts[(wordHash & 0x7FFFFFFF) % numBuckets]++;
+            counts.add((wordHash & 0x7FFFFFFF) % numBuckets);
         }
     }
 
-    private void emitScriptFeatures(int[] counts,
+    private void emitScriptFeatures(SparseFeatureVector counts,
                                      int[] scriptCounts,
                                      int[] transitionCounts) {
         for (int s = 0; s < ScriptCategory.COUNT; s++) {
             if (scriptCounts[s] > 0) {
                 int h = fnvFeedByte(SCRIPT_BASIS, s);
-                counts[(h & 0x7FFFFFFF) % numBuckets] += scriptCounts[s];
+                counts.add((h & 0x7FFFFFFF) % numBuckets, scriptCounts[s]);
             }
         }
 
@@ -359,7 +369,7 @@ public class ScriptAwareFeatureExtractor implements FeatureExtractor {
                 int c = transitionCounts[s * ScriptCategory.COUNT + t];
                 if (c > 0) {
                     int h = fnvFeedByte(fnvFeedByte(SCRIPT_TRANS_BASIS, s), t);
-                    counts[(h & 0x7FFFFFFF) % numBuckets] += c;
+                    counts.add((h & 0x7FFFFFFF) % numBuckets, c);
                 }
             }
         }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.langdetect.charsoup;
+
+import java.util.Arrays;
+
+/**
+ * Reusable compressed-sparse-row (CSR) matrix of hashed feature counts, one
+ * row per text, for scoring many texts with
+ * {@link CharSoupModel#predictLogits(SparseFeatureMatrix)}.
+ * <p>
+ * Row {@code r} holds the non-zero buckets of one {@link SparseFeatureVector}
+ * at positions {@code rowStart(r)} until {@code rowStart(r + 1)} of the
+ * column and value arrays. {@link #clear()} keeps the arrays, so a matrix
+ * reused across batches stops allocating once it has seen its largest batch.
+ * <p>
+ * Not thread-safe; confine an instance to one thread.
+ */
+public final class SparseFeatureMatrix {
+
+    private static final int INITIAL_ROWS = 16;
+    private static final int INITIAL_ENTRIES = 1024;
+
+    private final int numBuckets;
+    private int rows;
+    private int[] rowStart = new int[INITIAL_ROWS + 1];
+    private int[] cols = new int[INITIAL_ENTRIES];
+    private int[] vals = new int[INITIAL_ENTRIES];
+
+    public SparseFeatureMatrix(int numBuckets) {
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException(
+                    "numBuckets must be positive: " + numBuckets);
+        }
+        this.numBuckets = numBuckets;
+    }
+
+    /**
+     * Append a copy of {@code features} as the next row.
+     *
+     * @return index of the new row
+     */
+    public int addRow(SparseFeatureVector features) {
+        if (features.getNumBuckets() != numBuckets) {
+            throw new IllegalArgumentException("Feature vector has "
+                    + features.getNumBuckets() + " buckets; matrix has " + numBuckets);
+        }
+        if (rows + 1 == rowStart.length) {
+            rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+        }
+        int start = rowStart[rows];
+        int n = features.size();
+        if (start + n > cols.length) {
+            int capacity = Math.max(cols.length * 2, start + n);
+            cols = Arrays.copyOf(cols, capacity);
+            vals = Arrays.copyOf(vals, capacity);
+        }
+        int[] indices = features.getIndices();
+        int[] counts = features.getCounts();
+        for (int i = 0; i < n; i++) {
+            int b = indices[i];
+            cols[start + i] = b;
+            vals[start + i] = counts[b];
+        }
+        rowStart[++rows] = start + n;
+        return rows - 1;
+    }
+
+    /**
+     * Remove all rows, keeping the allocated storage.
+     */
+    public void clear() {
+        rows = 0;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int getNumBuckets() {
+        return numBuckets;
+    }
+
+    int rowStart(int row) {
+        return rowStart[row];
+    }
+
+    int[] getCols() {
+        return cols;
+    }
+
+    int[] getVals() {
+        return vals;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.langdetect.charsoup;
+
+import java.util.Arrays;
+
+/**
+ * Reusable hashed feature vector that remembers which buckets are non-zero.
+ * <p>
+ * Counts live in a dense {@code int[numBuckets]} so that emission is a plain
+ * array increment, but every bucket that goes from zero to non-zero is also
+ * appended to a touched-index list. {@link #clear()} and
+ * {@link CharSoupModel#predictLogits(SparseFeatureVector)} then cost
+ * O(non-zero buckets) rather than O(numBuckets), which matters for short
+ * inputs against large bucket counts.
+ * <p>
+ * Not thread-safe: an instance is meant to be confined to one thread and
+ * reused across extractions via
+ * {@link FeatureExtractor#extractAndCount(String, SparseFeatureVector)}.
+ */
+public final class SparseFeatureVector {
+
+    private static final int INITIAL_INDEX_CAPACITY = 64;
+
+    private final int[] counts;
+    /** {@code null} for a wrapper around a caller's dense array. */
+    private int[] indices;
+    private int size;
+
+    public SparseFeatureVector(int numBuckets) {
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException(
+                    "numBuckets must be positive: " + numBuckets);
+        }
+        this.counts = new int[numBuckets];
+        this.indices = new int[INITIAL_INDEX_CAPACITY];
+    }
+
+    private SparseFeatureVector(int[] counts) {
+        this.counts = counts;
+        this.indices = null;
+    }
+
+    /**
+     * View over a caller-supplied dense array that does not track
+     * non-zero buckets. Lets the {@code int[]} extraction methods share
+     * the emission code with the sparse path.
+     */
+    static SparseFeatureVector wrap(int[] counts) {
+        return new SparseFeatureVector(counts);
+    }
+
+    /**
+     * Increment {@code bucket} by one.
+     */
+    void add(int bucket) {
+        if (counts[bucket]++ == 0 && indices != null) {
+            touch(bucket);
+        }
+    }
+
+    /**
+     * Increment {@code bucket} by {@code n}, which must be positive.
+     */
+    void add(int bucket, int n) {
+        if (counts[bucket] == 0 && indices != null) {
+            touch(bucket);
+        }
+        counts[bucket] += n;
+    }
+
+    private void touch(int bucket) {
+        if (size == indices.length) {
+            indices = Arrays.copyOf(indices, Math.min(size * 2, counts.length));
+        }
+        indices[size++] = bucket;
+    }
+
+    /**
+     * Zero every non-zero bucket. Runs in O({@link #size()}).
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            counts[indices[i]] = 0;
+        }
+        size = 0;
+    }
+
+    /**
+     * Rebuild the touched-index list after {@link #getCounts()} was filled
+     * directly. Scans all buckets.
+     */
+    void reindex() {
+        size = 0;
+        for (int b = 0; b < counts.length; b++) {
+            if (counts[b] != 0) {
+                touch(b);
+            }
+        }
+    }
+
+    /**
+     * @return number of non-zero buckets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return bucket index of the {@code i}-th non-zero bucket, in first-touched order
+     */
+    public int index(int i) {
+        return indices[i];
+    }
+
+    /**
+     * @return count for {@code bucket}
+     */
+    public int get(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * @return sum of all counts, i.e. the n-gram emission count
+     */
+    public int totalCount() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n += counts[indices[i]];
+        }
+        return n;
+    }
+
+    public int getNumBuckets() {
+        return counts.length;
+    }
+
+    /**
+     * Dense backing array. Callers must not modify it.
+     */
+    int[] getCounts() {
+        return counts;
+    }
+
+    int[] getIndices() {
+        return indices;
+    }
+}
@@ -156,6 +156,16 @@ public class CharSoupLanguageDetector extends LanguageDetector implements SelfCo
 
     static final CharSoupModel MODEL;
     private static final FeatureExtractor EXTRACTOR;
+
+    /**
+     * Per-thread feature vector reused across detections so that repeated
+     * calls neither allocate nor clear a full {@code int[numBuckets]}.
+     * Replaced if a detector with a different bucket count runs on the thread.
+     */
+    private static final ThreadLocal<SparseFeatureVector> FEATURES = new ThreadLocal<>();
+
+    /** Per-thread CSR matrix reused across {@link #detectAll(List)} calls. */
+    private static final ThreadLocal<SparseFeatureMatrix> MATRIX = new ThreadLocal<>();
     private static final Set<String> SUPPORTED_LANGUAGES;
 
     /** Generative language model for adjudication — {@code null} if not on classpath. */
@@ -635,7 +645,8 @@ public class CharSoupLanguageDetector extends LanguageDetector implements SelfCo
                 continue;
             }
 
-            int[] features = extractor.extract(entry.getValue());
+            SparseFeatureVector features = threadFeatures(extractor.getNumBuckets());
+            extractor.extractAndCount(entry.getValue(), features);
             float[] logits = model.predictLogits(features);
             logits = applyScriptGate(logits, entry.getValue(), classScript);
             float confidence = topClassScore(logits);
@@ -678,7 +689,7 @@ public class CharSoupLanguageDetector extends LanguageDetector implements SelfCo
         if (text == null || text.isEmpty()) {
             return Collections.emptyList();
         }
-        int[] features = new int[EXTRACTOR.getNumBuckets()];
+        SparseFeatureVector features = threadFeatures(EXTRACTOR.getNumBuckets());
         EXTRACTOR.extractAndCount(text, features);
         float[] logits = MODEL.predictLogits(features);
         logits = applyScriptGate(logits, text, CLASS_SCRIPT);
@@ -816,6 +827,25 @@ public class CharSoupLanguageDetector extends LanguageDetector implements SelfCo
         }
     }
 
+    private static SparseFeatureVector threadFeatures(int numBuckets) {
+        SparseFeatureVector features = FEATURES.get();
+        if (features == null || features.getNumBuckets() != numBuckets) {
+            features = new SparseFeatureVector(numBuckets);
+            FEATURES.set(features);
+        }
+        return features;
+    }
+
+    private static SparseFeatureMatrix threadMatrix(int numBuckets) {
+        SparseFeatureMatrix matrix = MATRIX.get();
+        if (matrix == null || matrix.getNumBuckets() != numBuckets) {
+            matrix = new SparseFeatureMatrix(numBuckets);
+            MATRIX.set(matrix);
+        }
+        matrix.clear();
+        return matrix;
+    }
+
     @Override
     public void addText(char[] cbuf, int off, int len) {
         int remaining = maxLength - buffer.length();
@@ -843,7 +873,7 @@ public class CharSoupLanguageDetector extends LanguageDetector implements SelfCo
         float[] bestLogits = null;
         float bestEntropy = Float.MAX_VALUE;
         String bestChunk = null;
-        int[] features = new int[extractor.getNumBuckets()];
+        SparseFeatureVector features = threadFeatures(extractor.getNumBuckets());
 
         for (int start = 0; start < len; start += CHUNK_SIZE) {
             int end = Math.min(start + CHUNK_SIZE, len);
@@ -867,15 +897,122 @@ public class CharSoupLanguageDetector extends LanguageDetector implements SelfCo
             }
         }
 
-        List<LanguageResult> results = buildResults(bestLogits, bestEntropy);
+        lastEntropy = bestEntropy;
+        return finishResults(bestLogits, bestEntropy, bestChunk, activeConfig.getStrategy());
+    }
+
+    /**
+     * Detect the language of each text in {@code texts} in one pass.
+     * <p>
+     * The result for each text equals that of {@code reset(); addText(text);
+     * detectAll()} on a detector built with the same configuration. The
+     * differences are that any {@link CharSoupDetectorConfig} injected through
+     * {@link #reset(ParseContext)} is ignored, and {@link #getDistributionEntropy()}
+     * is not updated. Features for the whole batch are extracted into one
+     * {@link SparseFeatureMatrix} and scored with a single call to
+     * {@link CharSoupModel#predictLogits(SparseFeatureMatrix)}. Long texts
+     * whose first chunk is inconclusive take further rounds for their
+     * remaining chunks.
+     * <p>
+     * Unlike the {@code addText}/{@code detectAll()} API, this method keeps no
+     * per-call state on the detector and is safe to call concurrently, so a
+     * single instance can serve every worker thread.
+     *
+     * @param texts texts to classify; {@code null} entries are treated as empty
+     * @return one result list per text, in the same order, each formatted as
+     *         {@link #detectAll()} formats it
+     */
+    public List<List<LanguageResult>> detectAll(List<String> texts) {
+        int n = texts.size();
+        String[] docs = new String[n];
+        float[][] bestLogits = new float[n][];
+        float[] bestEntropy = new float[n];
+        String[] bestChunk = new String[n];
+        int[] active = new int[n];
+        int activeCount = 0;
+        for (int i = 0; i < n; i++) {
+            String text = texts.get(i);
+            docs[i] = text == null ? "" : text.substring(0, bufferedLength(text.length()));
+            bestEntropy[i] = Float.MAX_VALUE;
+            if (!docs[i].isEmpty()) {
+                active[activeCount++] = i;
+            }
+        }
+
+        SparseFeatureVector features = threadFeatures(extractor.getNumBuckets());
+        SparseFeatureMatrix matrix = threadMatrix(extractor.getNumBuckets());
+        String[] chunks = new String[activeCount];
+        // round k scores chunk k of every text that has not yet stopped, which
+        // matches the early exit in detectAll()
+        for (int start = 0; activeCount > 0; start += CHUNK_SIZE) {
+            matrix.clear();
+            for (int j = 0; j < activeCount; j++) {
+                String doc = docs[active[j]];
+                chunks[j] = doc.substring(start, Math.min(start + CHUNK_SIZE, doc.length()));
+                extractor.extractAndCount(chunks[j], features);
+                matrix.addRow(features);
+            }
+            float[][] logits = model.predictLogits(matrix);
+
+            int stillActive = 0;
+            for (int j = 0; j < activeCount; j++) {
+                int i = active[j];
+                float[] gated = applyScriptGate(logits[j], chunks[j], classScript);
+                float[] collapsed = collapseGroups(gated, groupIndices);
+                float entropy = entropyFromLogits(collapsed);
+                if (entropy < bestEntropy[i]) {
+                    bestEntropy[i] = entropy;
+                    bestLogits[i] = collapsed;
+                    bestChunk[i] = chunks[j];
+                }
+                if (entropy >= ENTROPY_THRESHOLD && start + CHUNK_SIZE < docs[i].length()) {
+                    active[stillActive++] = i;
+                }
+            }
+            activeCount = stillActive;
+        }
+
+        Strategy strategy = config.getStrategy();
+        List<List<LanguageResult>> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (docs[i].isEmpty()) {
+                results.add(Collections.singletonList(LanguageResult.NULL));
+            } else {
+                results.add(finishResults(bestLogits[i], bestEntropy[i], bestChunk[i], strategy));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Length of the prefix of a {@code len}-char text that
+     * {@code addText(text)} buffers on a freshly reset detector: long texts
+     * are appended in {@link LanguageDetector#BUFFER_LENGTH} pieces until
+     * {@link #hasEnoughText()}, and everything is capped at {@link #maxLength}.
+     */
+    private int bufferedLength(int len) {
+        int cap = Math.max(0, maxLength);
+        if (len < BUFFER_LENGTH) {
+            return Math.min(len, cap);
+        }
+        int buffered = 0;
+        for (int start = 0; buffered < ENOUGH_TEXT_LENGTH && start < len; start += BUFFER_LENGTH) {
+            int piece = Math.min(BUFFER_LENGTH, len - start);
+            buffered += Math.max(0, Math.min(piece, cap - buffered));
+        }
+        return buffered;
+    }
+
+    private List<LanguageResult> finishResults(float[] logits, float entropy, String chunk,
+                                               Strategy strategy) {
+        List<LanguageResult> results = buildResults(logits, entropy);
 
-        Strategy strategy = activeConfig.getStrategy();
         if (strategy != Strategy.STANDARD && GLM_MODEL != null
                 && !results.isEmpty() && !results.get(0).getLanguage().isEmpty()) {
             boolean shouldAdjudicate = strategy == Strategy.GLM
                     || results.get(0).getRawScore() < GLM_ADJUDICATE_THRESHOLD;
             if (shouldAdjudicate) {
-                results = adjudicateWithGlm(bestChunk, results);
+                results = adjudicateWithGlm(chunk, results);
             }
         }
 
@@ -911,8 +1048,7 @@ public class CharSoupLanguageDetector extends LanguageDetector implements SelfCo
      * @param entropy pre-computed entropy of {@code logits}
      */
     private List<LanguageResult> buildResults(float[] logits, float entropy) {
-        lastEntropy = entropy;
-        float confScore = entropyToConfidenceScore(lastEntropy);
+        float confScore = entropyToConfidenceScore(entropy);
 
         int topIdx = 0;
         float topLogit = logits[0];
@@ -38,6 +38,41 @@ import org.apache.tika.parser.ParseContext;
  */
 public class CharSoupModelRoutingTest {
 
+    @Test
+    public void testBatchMatchesSingleText() {
+        StringBuilder junkThenText = new StringBuilder();
+        while (junkThenText.length() < 11_000) {
+            junkThenText.append("{x=1;y=[0x3f,0x7a]} ");
+        }
+        junkThenText.append("Der Hund saß auf der Matte und schlief den ganzen Nachmittag.");
+        List<String> texts = Arrays.asList(
+                "The children are playing in the park",
+                "",
+                null,
+                "日本語のテキストです",
+                junkThenText.toString(),
+                "Le chat est sur le tapis et");
+
+        List<List<LanguageResult>> batch = new CharSoupLanguageDetector().detectAll(texts);
+        assertEquals(texts.size(), batch.size());
+        for (int i = 0; i < texts.size(); i++) {
+            CharSoupLanguageDetector single = new CharSoupLanguageDetector();
+            if (texts.get(i) != null) {
+                single.addText(texts.get(i));
+            }
+            List<LanguageResult> expected = single.detectAll();
+            List<LanguageResult> actual = batch.get(i);
+            assertEquals(expected.size(), actual.size(), "text " + i);
+            for (int r = 0; r < expected.size(); r++) {
+                assertEquals(expected.get(r).getLanguage(), actual.get(r).getLanguage());
+                assertEquals(expected.get(r).getConfidence(), actual.get(r).getConfidence());
+                assertEquals(expected.get(r).getRawScore(), actual.get(r).getRawScore());
+                assertEquals(expected.get(r).getConfidenceScore(),
+                        actual.get(r).getConfidenceScore());
+            }
+        }
+    }
+
     @Test
     public void testEnglishShortText() {
         assertDetects("eng", "The children are playing in the park");
@@ -18,6 +18,7 @@ package org.apache.tika.langdetect.charsoup;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -25,6 +26,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -120,6 +122,63 @@ public class CharSoupModelTest {
         assertTrue(probs1[1] > probs1[0], "deu should win when bucket 1 is active");
     }
 
+    @Test
+    public void testInt32KernelMatchesScalar() {
+        int numBuckets = 512;
+        int numClasses = 37;
+        Random random = new Random(42);
+        String[] labels = new String[numClasses];
+        float[] scales = new float[numClasses];
+        float[] biases = new float[numClasses];
+        byte[][] weights = new byte[numClasses][numBuckets];
+        for (int c = 0; c < numClasses; c++) {
+            labels[c] = "l" + c;
+            scales[c] = random.nextFloat() * 0.01f;
+            biases[c] = random.nextFloat() - 0.5f;
+            random.nextBytes(weights[c]);
+            weights[c][c] = Byte.MIN_VALUE;
+        }
+        CharSoupModel model = new CharSoupModel(numBuckets, numClasses, labels, scales, biases,
+                weights, CharSoupModel.FLAG_L2_NORM);
+
+        for (int trial = 0; trial < 50; trial++) {
+            int[] features = new int[numBuckets];
+            // odd and even non-zero counts exercise the paired loop and its tail
+            int nnz = 1 + random.nextInt(80);
+            for (int i = 0; i < nnz; i++) {
+                features[random.nextInt(numBuckets)] = 1 + random.nextInt(20);
+            }
+            assertArrayEquals(referenceLogits(model, features), model.predictLogits(features));
+        }
+
+        // large counts must fall back to long accumulation rather than overflow
+        int[] features = new int[numBuckets];
+        features[0] = Integer.MAX_VALUE / 64;
+        features[1] = -Integer.MAX_VALUE / 64;
+        features[2] = Integer.MAX_VALUE / 64;
+        assertFalse(CharSoupModel.fitsInt32(features, 0, 3));
+        assertArrayEquals(referenceLogits(model, features), model.predictLogits(features));
+    }
+
+    private static float[] referenceLogits(CharSoupModel model, int[] features) {
+        byte[][] weights = model.getWeights();
+        int numClasses = model.getNumClasses();
+        double normSq = 0;
+        for (int fv : features) {
+            normSq += (long) fv * fv;
+        }
+        float invNorm = normSq > 0 ? (float) (1.0 / Math.sqrt(normSq)) : 1.0f;
+        float[] logits = new float[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            long dot = 0;
+            for (int b = 0; b < features.length; b++) {
+                dot += (long) weights[c][b] * features[b];
+            }
+            logits[c] = model.getBiases()[c] + model.getScales()[c] * dot * invNorm;
+        }
+        return logits;
+    }
+
     @Test
     public void testCorruptMagicThrows() {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.langdetect.charsoup;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the two {@link CharSoupModel} dot-product kernels —
+ * {@link CharSoupModel#dotsScalar} ({@code long} accumulators, one bucket
+ * row per pass) and {@link CharSoupModel#dotsInt32} ({@code int} lanes,
+ * two rows per pass) — on real feature vectors, and checks that both
+ * produce the same sums.
+ *
+ * <p>Not a JUnit test; run manually. With no {@code --model} arguments the
+ * built-in model on the classpath is used. Each line of {@code --text} is
+ * one input; without it a few built-in sentences are used.
+ *
+ * <pre>
+ *   mvn -pl tika-langdetect/tika-langdetect-charsoup exec:java \
+ *       -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=org.apache.tika.langdetect.charsoup.InferenceKernelBenchmark \
+ *       -Dexec.args="[--model /path/a.bin]... [--text /path/lines.txt] [--iterations 200]"
+ * </pre>
+ */
+public class InferenceKernelBenchmark {
+
+    private static final String DEFAULT_MODEL =
+            "/org/apache/tika/langdetect/charsoup/langdetect-20260320.bin";
+
+    private static final String[] DEFAULT_TEXTS = {
+            "The quick brown fox jumps over the lazy dog near the river bank.",
+            "Der schnelle braune Fuchs springt über den faulen Hund am Flussufer.",
+            "Le renard brun rapide saute par-dessus le chien paresseux près de la rivière.",
+            "El rápido zorro marrón salta sobre el perro perezoso junto al río.",
+            "Быстрая коричневая лиса прыгает через ленивую собаку у реки.",
+            "素早い茶色の狐が川岸の近くで怠け者の犬を飛び越える。",
+            "敏捷的棕色狐狸跳过了河岸附近的懒狗。",
+            "ok"
+    };
+
+    private static final int DEFAULT_ITERATIONS = 200;
+
+    public static void main(String[] args) throws Exception {
+        List<String> modelPaths = new ArrayList<>();
+        String textPath = null;
+        int iterations = DEFAULT_ITERATIONS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--model":
+                    modelPaths.add(args[++i]);
+                    break;
+                case "--text":
+                    textPath = args[++i];
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        List<String> texts = new ArrayList<>();
+        if (textPath != null) {
+            for (String line : Files.readAllLines(Paths.get(textPath), StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    texts.add(line);
+                }
+            }
+        } else {
+            texts.addAll(List.of(DEFAULT_TEXTS));
+        }
+
+        if (modelPaths.isEmpty()) {
+            run(DEFAULT_MODEL, CharSoupModel.loadFromClasspath(DEFAULT_MODEL), texts, iterations);
+        } else {
+            for (String path : modelPaths) {
+                try (InputStream is = Files.newInputStream(Paths.get(path))) {
+                    run(path, CharSoupModel.load(is), texts, iterations);
+                }
+            }
+        }
+    }
+
+    private static void run(String name, CharSoupModel model, List<String> texts,
+                            int iterations) {
+        FeatureExtractor extractor = model.createExtractor();
+        byte[] weights = model.getFlatWeights();
+        int numClasses = model.getNumClasses();
+
+        int[][] features = new int[texts.size()][];
+        int[][] nzIdx = new int[texts.size()][];
+        long totalNnz = 0;
+        for (int t = 0; t < texts.size(); t++) {
+            int[] dense = extractor.extract(texts.get(t));
+            nzIdx[t] = nonZero(dense);
+            features[t] = new int[nzIdx[t].length];
+            for (int i = 0; i < nzIdx[t].length; i++) {
+                features[t][i] = dense[nzIdx[t][i]];
+            }
+            totalNnz += nzIdx[t].length;
+            if (!CharSoupModel.fitsInt32(features[t], 0, features[t].length)) {
+                System.out.println("  text " + t + " exceeds the int32 bound; "
+                        + "production would use the scalar kernel");
+            }
+            long[] expected = CharSoupModel.dotsScalar(weights, numClasses,
+                    nzIdx[t], features[t], 0, features[t].length);
+            int[] actual = CharSoupModel.dotsInt32(weights, numClasses,
+                    nzIdx[t], features[t], 0, features[t].length);
+            for (int c = 0; c < numClasses; c++) {
+                if (expected[c] != actual[c]) {
+                    throw new IllegalStateException("Kernel mismatch on text " + t
+                            + ", class " + c + ": " + expected[c] + " != " + actual[c]);
+                }
+            }
+        }
+
+        System.out.printf(Locale.US, "%s: %d classes, %d buckets, %d texts, mean nnz %.1f%n",
+                name, numClasses, model.getNumBuckets(), texts.size(),
+                (double) totalNnz / texts.size());
+
+        // warm up both kernels before timing either
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += timeScalar(weights, numClasses, features, nzIdx);
+            sink += timeInt32(weights, numClasses, features, nzIdx);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += timeScalar(weights, numClasses, features, nzIdx);
+        }
+        long scalarNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += timeInt32(weights, numClasses, features, nzIdx);
+        }
+        long int32Nanos = System.nanoTime() - start;
+
+        long calls = (long) iterations * texts.size();
+        System.out.printf(Locale.US, "  scalar: %8.2f us/text%n", scalarNanos / 1000.0 / calls);
+        System.out.printf(Locale.US, "  int32:  %8.2f us/text  (%.2fx)%n",
+                int32Nanos / 1000.0 / calls, (double) scalarNanos / int32Nanos);
+        System.out.println("  (checksum " + sink + ")");
+    }
+
+    private static long timeScalar(byte[] weights, int numClasses, int[][] features,
+                                   int[][] nzIdx) {
+        long sum = 0;
+        for (int t = 0; t < features.length; t++) {
+            sum += CharSoupModel.dotsScalar(weights, numClasses, nzIdx[t], features[t],
+                    0, features[t].length)[0];
+        }
+        return sum;
+    }
+
+    private static long timeInt32(byte[] weights, int numClasses, int[][] features,
+                                  int[][] nzIdx) {
+        long sum = 0;
+        for (int t = 0; t < features.length; t++) {
+            sum += CharSoupModel.dotsInt32(weights, numClasses, nzIdx[t], features[t],
+                    0, features[t].length)[0];
+        }
+        return sum;
+    }
+
+    private static int[] nonZero(int[] features) {
+        int nnz = 0;
+        for (int f : features) {
+            if (f != 0) {
+                nnz++;
+            }
+        }
+        int[] idx = new int[nnz];
+        int pos = 0;
+        for (int b = 0; b < features.length; b++) {
+            if (features[b] != 0) {
+                idx[pos++] = b;
+            }
+        }
+        return idx;
+    }
+}
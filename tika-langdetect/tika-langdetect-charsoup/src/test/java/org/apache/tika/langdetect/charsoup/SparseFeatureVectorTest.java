@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.langdetect.charsoup;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SparseFeatureVectorTest {
+
+    private static final int NUM_BUCKETS = 8192;
+
+    private static final String[] TEXTS = {
+            "The quick brown fox jumps over the lazy dog.",
+            "Der schnelle braune Fuchs springt über den faulen Hund.",
+            "Быстрая коричневая лиса прыгает через ленивую собаку.",
+            "素早い茶色の狐が 怠け者の犬を飛び越える。",
+            "a",
+            "",
+            "mixed Latin и кириллица 漢字 text"
+    };
+
+    @Test
+    public void testMatchesDenseExtraction() {
+        FeatureExtractor[] extractors = {
+                new ScriptAwareFeatureExtractor(NUM_BUCKETS),
+                new ShortTextFeatureExtractor(NUM_BUCKETS),
+                new SaltedNgramFeatureExtractor(NUM_BUCKETS, true, true)
+        };
+        for (FeatureExtractor extractor : extractors) {
+            // one vector reused across texts checks that clear() leaves nothing behind
+            SparseFeatureVector sparse = new SparseFeatureVector(NUM_BUCKETS);
+            for (String text : TEXTS) {
+                int[] dense = new int[NUM_BUCKETS];
+                int expectedCount = extractor.extractAndCount(text, dense);
+                int count = extractor.extractAndCount(text, sparse);
+                assertEquals(expectedCount, count, text);
+                assertArrayEquals(dense, toDense(sparse), text);
+
+                int nnz = 0;
+                for (int c : dense) {
+                    if (c != 0) {
+                        nnz++;
+                    }
+                }
+                assertEquals(nnz, sparse.size(), text);
+            }
+        }
+    }
+
+    @Test
+    public void testPredictLogitsMatchesDense() {
+        int numClasses = 5;
+        Random random = new Random(7);
+        String[] labels = new String[numClasses];
+        byte[][] weights = new byte[numClasses][NUM_BUCKETS];
+        float[] scales = new float[numClasses];
+        float[] biases = new float[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            labels[c] = "l" + c;
+            random.nextBytes(weights[c]);
+            scales[c] = 0.01f;
+            biases[c] = c * 0.1f;
+        }
+        CharSoupModel model = new CharSoupModel(NUM_BUCKETS, numClasses, labels, scales,
+                biases, weights,
+                ScriptAwareFeatureExtractor.FEATURE_FLAGS | CharSoupModel.FLAG_L2_NORM);
+        FeatureExtractor extractor = model.createExtractor();
+        SparseFeatureVector sparse = new SparseFeatureVector(NUM_BUCKETS);
+        for (String text : TEXTS) {
+            int[] dense = extractor.extract(text);
+            extractor.extractAndCount(text, sparse);
+            assertArrayEquals(model.predictLogits(dense), model.predictLogits(sparse), text);
+        }
+    }
+
+    @Test
+    public void testMatrixMatchesRows() {
+        int numClasses = 11;
+        Random random = new Random(3);
+        String[] labels = new String[numClasses];
+        byte[][] weights = new byte[numClasses][NUM_BUCKETS];
+        float[] scales = new float[numClasses];
+        float[] biases = new float[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            labels[c] = "l" + c;
+            random.nextBytes(weights[c]);
+            scales[c] = 0.003f * (c + 1);
+            biases[c] = -c * 0.05f;
+        }
+        CharSoupModel model = new CharSoupModel(NUM_BUCKETS, numClasses, labels, scales,
+                biases, weights,
+                ScriptAwareFeatureExtractor.FEATURE_FLAGS | CharSoupModel.FLAG_L2_NORM);
+        FeatureExtractor extractor = model.createExtractor();
+
+        // includes empty rows and one that needs long sums
+        SparseFeatureMatrix matrix = new SparseFeatureMatrix(NUM_BUCKETS);
+        SparseFeatureVector row = new SparseFeatureVector(NUM_BUCKETS);
+        int rows = 69;
+        float[][] expected = new float[rows][];
+        for (int r = 0; r < rows; r++) {
+            if (r == 40) {
+                row.clear();
+                row.add(17, Integer.MAX_VALUE / 100);
+                row.add(4000, 5);
+            } else {
+                extractor.extractAndCount(TEXTS[r % TEXTS.length] + " " + r, row);
+            }
+            expected[r] = model.predictLogits(row);
+            assertEquals(r, matrix.addRow(row));
+        }
+
+        float[][] actual = model.predictLogits(matrix);
+        assertEquals(rows, actual.length);
+        for (int r = 0; r < rows; r++) {
+            assertArrayEquals(expected[r], actual[r], "row " + r);
+        }
+
+        matrix.clear();
+        assertEquals(0, model.predictLogits(matrix).length);
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        SparseFeatureVector v = new SparseFeatureVector(1000);
+        for (int b = 999; b >= 0; b--) {
+            v.add(b);
+            v.add(b, 2);
+        }
+        assertEquals(1000, v.size());
+        assertEquals(3000, v.totalCount());
+        v.clear();
+        assertEquals(0, v.size());
+        assertArrayEquals(new int[1000], toDense(v));
+    }
+
+    private static int[] toDense(SparseFeatureVector v) {
+        int[] dense = new int[v.getNumBuckets()];
+        for (int b = 0; b < dense.length; b++) {
+            dense[b] = v.get(b);
+        }
+        return dense;
+    }
+}
@@ -32,6 +32,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Minimal mock HTTP/1.1 server for unit tests, backed by a plain
@@ -70,6 +71,7 @@ public class TikaTestHttpServer implements Closeable {
     private final BlockingQueue<MockResponse> responses = new LinkedBlockingQueue<>();
     private final BlockingQueue<RecordedRequest> requests = new LinkedBlockingQueue<>();
     private final AtomicInteger requestCount = new AtomicInteger(0);
+    private volatile Function<RecordedRequest, MockResponse> dispatcher;
     private volatile boolean running = true;
 
     public TikaTestHttpServer() throws IOException {
@@ -156,11 +158,13 @@ public class TikaTestHttpServer implements Closeable {
                 body = new String(bodyChars, 0, read);
             }
 
-            requests.add(new RecordedRequest(method, path, headers, body));
+            RecordedRequest recorded = new RecordedRequest(method, path, headers, body);
+            requests.add(recorded);
             requestCount.incrementAndGet();
 
             // Send response
-            MockResponse resp = responses.poll();
+            Function<RecordedRequest, MockResponse> d = dispatcher;
+            MockResponse resp = d != null ? d.apply(recorded) : responses.poll();
             if (resp == null) {
                 resp = new MockResponse(500, "{\"error\":\"no response queued\"}");
             }
@@ -215,6 +219,16 @@ public class TikaTestHttpServer implements Closeable {
         responses.add(response);
     }
 
+    /**
+     * Computes each response from its request instead of taking it from the
+     * {@link #enqueue queue}. Use this when the code under test sends requests
+     * concurrently and a response must match the request it answers.
+     * Pass {@code null} to go back to queued responses.
+     */
+    public void setDispatcher(Function<RecordedRequest, MockResponse> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
     /**
      * Retrieves and removes the earliest recorded request, waiting up to
      * 5 seconds if necessary.
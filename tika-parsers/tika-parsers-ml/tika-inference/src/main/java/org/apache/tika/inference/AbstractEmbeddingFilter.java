@@ -17,8 +17,17 @@
 package org.apache.tika.inference;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +47,10 @@ import org.apache.tika.parser.ParseContext;
  * <ol>
  *   <li>Read source text from {@code contentField} in metadata</li>
  *   <li>Chunk it with {@link MarkdownChunker}</li>
- *   <li>Call {@link #embed(List, InferenceConfig)} to get vectors</li>
+ *   <li>Look up each chunk in the optional {@link EmbeddingCache}</li>
+ *   <li>Call {@link #embed(List, InferenceConfig)} to get vectors for the
+ *       misses, dispatching up to {@code maxConcurrentRequests} batches
+ *       at once</li>
  *   <li>Serialize chunks + vectors as JSON into {@code outputField}</li>
  * </ol>
  * <p>
@@ -52,7 +64,8 @@ import org.apache.tika.parser.ParseContext;
  * <p>
  * Thread safety: instances are safe for concurrent {@link #filter} calls once
  * fully constructed. Setters must not be called concurrently with
- * {@link #filter}.
+ * {@link #filter}, and {@link #embed} may be called concurrently from the
+ * filter's dispatch threads when {@code maxConcurrentRequests > 1}.
  */
 public abstract class AbstractEmbeddingFilter extends MetadataFilter {
 
@@ -63,8 +76,14 @@ public abstract class AbstractEmbeddingFilter extends MetadataFilter {
     private static final Logger LOG = LoggerFactory.getLogger(
             AbstractEmbeddingFilter.class);
 
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
     private InferenceConfig defaultConfig = new InferenceConfig();
 
+    private transient EmbeddingCache cache;
+    private transient boolean cacheInitialized;
+    private transient ExecutorService executor;
+
     protected AbstractEmbeddingFilter() {
     }
 
@@ -85,6 +104,22 @@ public abstract class AbstractEmbeddingFilter extends MetadataFilter {
     protected abstract void embed(List<Chunk> chunks, InferenceConfig config)
             throws IOException, TikaException;
 
+    /**
+     * Settings that the {@link EmbeddingCache} key is made of, next to the
+     * chunk text. Vectors are only reused when all of them match, so
+     * implementations must add anything else that changes the vector they get
+     * back, e.g. the endpoint path, requested dimensions or normalization.
+     *
+     * @param config the resolved config for this call
+     * @return the base URL and the model
+     */
+    protected List<String> getCacheKeySettings(InferenceConfig config) {
+        List<String> settings = new ArrayList<>();
+        settings.add(config.getBaseUrl());
+        settings.add(config.getModel());
+        return settings;
+    }
+
     @Override
     public void filter(List<Metadata> metadataList, ParseContext parseContext) throws TikaException {
         InferenceConfig requestConfig = parseContext.get(InferenceConfig.class);
@@ -137,12 +172,7 @@ public abstract class AbstractEmbeddingFilter extends MetadataFilter {
         }
 
         try {
-            int batchSize = defaultConfig.getMaxBatchSize();
-            for (int i = 0; i < chunks.size(); i += batchSize) {
-                List<Chunk> batch = chunks.subList(
-                        i, Math.min(i + batchSize, chunks.size()));
-                embed(batch, defaultConfig);
-            }
+            embedAll(chunks);
             ChunkSerializer.mergeInto(metadata, chunks);
         } catch (IOException e) {
             throw new TikaException(
@@ -154,6 +184,160 @@ public abstract class AbstractEmbeddingFilter extends MetadataFilter {
         }
     }
 
+    /**
+     * Fills in vectors from the cache where possible, embeds each distinct
+     * remaining text once, and stores the new vectors back in the cache.
+     */
+    private void embedAll(List<Chunk> chunks) throws IOException, TikaException {
+        EmbeddingCache embeddingCache = getCache();
+        if (embeddingCache == null) {
+            dispatch(chunks);
+            return;
+        }
+        List<Chunk> pending = new ArrayList<>();
+        List<String> pendingKeys = new ArrayList<>();
+        Map<String, Chunk> firstByKey = new HashMap<>();
+        List<Chunk[]> duplicates = new ArrayList<>();
+        List<String> keySettings = getCacheKeySettings(defaultConfig);
+        for (Chunk chunk : chunks) {
+            String key = EmbeddingCache.key(keySettings, chunk.getText());
+            float[] vector = embeddingCache.get(key);
+            if (vector != null) {
+                chunk.setVector(vector);
+                continue;
+            }
+            Chunk first = firstByKey.putIfAbsent(key, chunk);
+            if (first == null) {
+                pending.add(chunk);
+                pendingKeys.add(key);
+            } else {
+                duplicates.add(new Chunk[]{chunk, first});
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Embedding cache: {} of {} chunks need inference",
+                    pending.size(), chunks.size());
+        }
+        dispatch(pending);
+        for (int i = 0; i < pending.size(); i++) {
+            float[] vector = pending.get(i).getVector();
+            if (vector != null) {
+                embeddingCache.put(pendingKeys.get(i), vector);
+            }
+        }
+        for (Chunk[] pair : duplicates) {
+            float[] vector = pair[1].getVector();
+            if (vector != null) {
+                pair[0].setVector(vector.clone());
+            }
+        }
+    }
+
+    /**
+     * Splits {@code chunks} into {@code maxBatchSize} batches and embeds them.
+     * With more than one batch and {@code maxConcurrentRequests > 1}, the
+     * batches run on the filter's dispatch pool; each batch writes vectors
+     * into its own chunks, so waiting on the futures in submission order
+     * reassembles the results in chunk order and reports the first failing
+     * batch.
+     */
+    private void dispatch(List<Chunk> chunks) throws IOException, TikaException {
+        int batchSize = defaultConfig.getMaxBatchSize();
+        ExecutorService pool = chunks.size() > batchSize ? getExecutor() : null;
+        if (pool == null) {
+            for (int i = 0; i < chunks.size(); i += batchSize) {
+                embed(chunks.subList(i, Math.min(i + batchSize, chunks.size())),
+                        defaultConfig);
+            }
+            return;
+        }
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < chunks.size(); i += batchSize) {
+                List<Chunk> batch = chunks.subList(
+                        i, Math.min(i + batchSize, chunks.size()));
+                futures.add(pool.submit(() -> {
+                    embed(batch, defaultConfig);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof TikaException) {
+                throw (TikaException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TikaException("Embedding inference failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TikaException("Interrupted while waiting for embeddings", e);
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private synchronized EmbeddingCache getCache() throws TikaException {
+        if (!cacheInitialized) {
+            int size = defaultConfig.getEmbeddingCacheSize();
+            String dir = defaultConfig.getEmbeddingCacheDirectory();
+            boolean hasDir = dir != null && !dir.isBlank();
+            if (size > 0 || hasDir) {
+                try {
+                    cache = new EmbeddingCache(size, hasDir ? Paths.get(dir) : null);
+                } catch (IOException e) {
+                    throw new TikaException(
+                            "Could not create embedding cache directory: " + dir, e);
+                }
+            }
+            cacheInitialized = true;
+        }
+        return cache;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        int maxConcurrentRequests = defaultConfig.getMaxConcurrentRequests();
+        if (maxConcurrentRequests <= 1) {
+            return null;
+        }
+        if (executor == null) {
+            int poolId = POOL_COUNTER.incrementAndGet();
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(maxConcurrentRequests, r -> {
+                Thread t = new Thread(r,
+                        "tika-embedding-" + poolId + "-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Shuts down the request dispatch pool, if one was started.
+     */
+    @Override
+    public void close() throws IOException {
+        ExecutorService toShutdown;
+        synchronized (this) {
+            toShutdown = executor;
+            executor = null;
+        }
+        if (toShutdown != null) {
+            toShutdown.shutdownNow();
+        }
+        super.close();
+    }
+
     // ---- delegating config getters/setters --------------------------------
 
     public InferenceConfig getDefaultConfig() {
@@ -255,4 +439,28 @@ public abstract class AbstractEmbeddingFilter extends MetadataFilter {
     public void setMaxChunks(int maxChunks) {
         defaultConfig.setMaxChunks(maxChunks);
     }
+
+    public int getMaxConcurrentRequests() {
+        return defaultConfig.getMaxConcurrentRequests();
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        defaultConfig.setMaxConcurrentRequests(maxConcurrentRequests);
+    }
+
+    public int getEmbeddingCacheSize() {
+        return defaultConfig.getEmbeddingCacheSize();
+    }
+
+    public void setEmbeddingCacheSize(int embeddingCacheSize) {
+        defaultConfig.setEmbeddingCacheSize(embeddingCacheSize);
+    }
+
+    public String getEmbeddingCacheDirectory() {
+        return defaultConfig.getEmbeddingCacheDirectory();
+    }
+
+    public void setEmbeddingCacheDirectory(String embeddingCacheDirectory) throws TikaConfigException {
+        defaultConfig.setEmbeddingCacheDirectory(embeddingCacheDirectory);
+    }
 }
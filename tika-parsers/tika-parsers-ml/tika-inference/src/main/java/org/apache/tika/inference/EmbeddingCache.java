@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.inference;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed cache of chunk embeddings.
+ * <p>
+ * Vectors are keyed by the SHA-256 hash of the settings that determine the
+ * vector (endpoint, model and the like) and the chunk text, so identical
+ * chunks (boilerplate disclaimers, footers, headers) are embedded once per
+ * endpoint and model.  Two tiers are supported:
+ * <ul>
+ *   <li>an in-memory LRU bounded by entry count, and</li>
+ *   <li>an optional directory of {@code <hash>.f32} files holding raw
+ *       big-endian float32 bytes ({@link VectorSerializer#toBytes(float[])}).
+ *       Files are sharded by the first two hex characters of the hash and
+ *       written via a temp file plus rename, so several processes may share
+ *       one directory.</li>
+ * </ul>
+ * Disk errors are logged and treated as cache misses; they never fail
+ * the embedding request.
+ * <p>
+ * Thread safety: all methods are safe for concurrent use.
+ */
+public class EmbeddingCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddingCache.class);
+
+    private static final String SUFFIX = ".f32";
+
+    private final Map<String, float[]> memory;
+    private final Path directory;
+
+    /**
+     * @param maxEntries maximum number of vectors held in memory;
+     *                   {@code 0} disables the in-memory tier
+     * @param directory  directory for the on-disk tier, or {@code null}
+     *                   to disable it
+     * @throws IOException if the directory cannot be created
+     */
+    public EmbeddingCache(int maxEntries, Path directory) throws IOException {
+        if (maxEntries > 0) {
+            this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        } else {
+            this.memory = null;
+        }
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cache key for a chunk of text.
+     *
+     * @param settings everything that changes the vector for a given text,
+     *                 e.g. the endpoint, the model, the number of dimensions;
+     *                 {@code null} entries are treated as empty
+     * @param text     the chunk text
+     */
+    public static String key(List<String> settings, String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (String setting : settings) {
+            if (setting != null) {
+                digest.update(setting.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+        }
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns a copy of the cached vector for {@code key}, or {@code null}
+     * on a miss.  A hit on disk is promoted into the in-memory tier.
+     */
+    public float[] get(String key) {
+        if (memory != null) {
+            float[] vector;
+            synchronized (memory) {
+                vector = memory.get(key);
+            }
+            if (vector != null) {
+                return vector.clone();
+            }
+        }
+        if (directory == null) {
+            return null;
+        }
+        float[] vector;
+        try {
+            vector = VectorSerializer.fromBytes(Files.readAllBytes(path(key)));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.warn("Could not read cached embedding {}", key, e);
+            return null;
+        }
+        putMemory(key, vector.clone());
+        return vector;
+    }
+
+    /**
+     * Stores a copy of {@code vector} under {@code key} in every enabled tier.
+     */
+    public void put(String key, float[] vector) {
+        putMemory(key, vector.clone());
+        if (directory == null) {
+            return;
+        }
+        Path target = path(key);
+        if (Files.isRegularFile(target)) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            tmp = Files.createTempFile(target.getParent(), key, ".tmp");
+            Files.write(tmp, VectorSerializer.toBytes(vector));
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            LOG.warn("Could not write cached embedding {}", key, e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    //swallow
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of vectors currently held in memory.
+     */
+    public int size() {
+        if (memory == null) {
+            return 0;
+        }
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    private void putMemory(String key, float[] vector) {
+        if (memory == null) {
+            return;
+        }
+        synchronized (memory) {
+            memory.put(key, vector);
+        }
+    }
+
+    private Path path(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+}
@@ -110,6 +110,40 @@ public class InferenceConfig implements Serializable {
      */
     private int maxChunks = 1024;
 
+    // ---- dispatch and caching settings ------------------------------------
+
+    /**
+     * Maximum number of embeddings API requests a filter instance keeps in
+     * flight at once, shared across all documents it is processing.  When a
+     * document needs more than one batch, the batches are dispatched
+     * concurrently up to this limit and the vectors are reassembled in chunk
+     * order.
+     * <p>
+     * Default is {@code 1}, which sends the batches one after another on the
+     * calling thread.
+     */
+    private int maxConcurrentRequests = 1;
+
+    /**
+     * Maximum number of chunk vectors held in the in-memory LRU cache.
+     * Vectors are keyed by a SHA-256 hash of the model name and the chunk
+     * text, so repeated boilerplate (disclaimers, footers) is only embedded
+     * once.
+     * <p>
+     * Default is {@code 0}, which disables the in-memory cache.
+     */
+    private int embeddingCacheSize = 0;
+
+    /**
+     * Optional directory for a persistent vector cache.  Each cached vector
+     * is stored as raw big-endian float32 bytes (the {@link VectorSerializer}
+     * layout before base64) in a file named after its content hash.  The
+     * directory is created if it does not exist.
+     * <p>
+     * Default is empty, which disables the on-disk cache.
+     */
+    private String embeddingCacheDirectory = "";
+
     // ---- getters / setters ------------------------------------------------
 
     public String getBaseUrl() {
@@ -224,6 +258,46 @@ public class InferenceConfig implements Serializable {
         this.maxChunks = maxChunks;
     }
 
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * Set the maximum number of concurrent embeddings API requests.
+     * Must be at least 1.
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException(
+                    "maxConcurrentRequests must be at least 1, got: " + maxConcurrentRequests);
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public int getEmbeddingCacheSize() {
+        return embeddingCacheSize;
+    }
+
+    /**
+     * Set the number of vectors kept in the in-memory cache.
+     * {@code 0} disables it; must not be negative.
+     */
+    public void setEmbeddingCacheSize(int embeddingCacheSize) {
+        if (embeddingCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    "embeddingCacheSize must not be negative, got: " + embeddingCacheSize);
+        }
+        this.embeddingCacheSize = embeddingCacheSize;
+    }
+
+    public String getEmbeddingCacheDirectory() {
+        return embeddingCacheDirectory;
+    }
+
+    public void setEmbeddingCacheDirectory(String embeddingCacheDirectory) throws TikaConfigException {
+        this.embeddingCacheDirectory = embeddingCacheDirectory;
+    }
+
     /**
      * Runtime-only config that prevents modification of security-sensitive
      * and cost-sensitive fields ({@code baseUrl}, {@code apiKey},
@@ -275,5 +349,28 @@ public class InferenceConfig implements Serializable {
                     "Cannot modify maxChunks at runtime. "
                             + "Chunk limits must be configured at initialization time.");
         }
+
+        @Override
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            throw new IllegalStateException(
+                    "Cannot modify maxConcurrentRequests at runtime. "
+                            + "Request concurrency must be configured at initialization time.");
+        }
+
+        @Override
+        public void setEmbeddingCacheSize(int embeddingCacheSize) {
+            throw new IllegalStateException(
+                    "Cannot modify embeddingCacheSize at runtime. "
+                            + "The embedding cache must be configured at initialization time.");
+        }
+
+        @Override
+        public void setEmbeddingCacheDirectory(String embeddingCacheDirectory) throws TikaConfigException {
+            if (!StringUtils.isBlank(embeddingCacheDirectory)) {
+                throw new TikaConfigException(
+                        "Cannot modify embeddingCacheDirectory at runtime. "
+                                + "Cache paths must be configured at initialization time.");
+            }
+        }
     }
 }
@@ -97,6 +97,14 @@ public class OpenAIEmbeddingFilter extends AbstractEmbeddingFilter {
         parseResponse(responseBody, chunks);
     }
 
+    @Override
+    protected List<String> getCacheKeySettings(InferenceConfig config) {
+        List<String> settings = super.getCacheKeySettings(config);
+        //e.g. the Azure deployment
+        settings.add(embeddingsPath);
+        return settings;
+    }
+
     String buildRequest(List<Chunk> chunks, InferenceConfig config) {
         ObjectNode root = MAPPER.createObjectNode();
         if (!StringUtils.isBlank(config.getModel())) {
@@ -38,16 +38,30 @@ public final class VectorSerializer {
      * Encode a float array as a base64 string (big-endian float32).
      */
     public static String encode(float[] vector) {
-        ByteBuffer buf = ByteBuffer.allocate(vector.length * Float.BYTES);
-        buf.asFloatBuffer().put(vector);
-        return Base64.getEncoder().encodeToString(buf.array());
+        return Base64.getEncoder().encodeToString(toBytes(vector));
     }
 
     /**
      * Decode a base64 string back to a float array (big-endian float32).
      */
     public static float[] decode(String base64) {
-        byte[] bytes = Base64.getDecoder().decode(base64);
+        return fromBytes(Base64.getDecoder().decode(base64));
+    }
+
+    /**
+     * Encode a float array as raw big-endian float32 bytes, i.e. the
+     * byte layout of {@link #encode(float[])} before base64.
+     */
+    public static byte[] toBytes(float[] vector) {
+        ByteBuffer buf = ByteBuffer.allocate(vector.length * Float.BYTES);
+        buf.asFloatBuffer().put(vector);
+        return buf.array();
+    }
+
+    /**
+     * Decode raw big-endian float32 bytes back to a float array.
+     */
+    public static float[] fromBytes(byte[] bytes) {
         FloatBuffer fb = ByteBuffer.wrap(bytes).asFloatBuffer();
         float[] vector = new float[fb.remaining()];
         fb.get(vector);
@@ -16,20 +16,28 @@
  */
 package org.apache.tika.inference;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.http.TikaTestHttpServer;
@@ -230,6 +238,179 @@ public class OpenAIEmbeddingFilterTest {
         assertNotNull(merged.get(1).getVector());
     }
 
+    @Test
+    void testConcurrentBatchesKeepChunkOrder() throws Exception {
+        config.setMaxBatchSize(1);
+        config.setMaxConcurrentRequests(4);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        server.setDispatcher(request -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                // later sections answer first, so responses complete out of order
+                Thread.sleep(50L * (8 - request.body().length() % 8));
+                return new TikaTestHttpServer.MockResponse(200, echoEmbeddingResponse(request));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new TikaTestHttpServer.MockResponse(500, "{}");
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        StringBuilder content = new StringBuilder();
+        for (char c = 'A'; c <= 'F'; c++) {
+            content.append("# Section ").append(c).append("\n\n")
+                    .append("Text about section ").append(c).append(".\n\n");
+        }
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.TIKA_CONTENT.getName(), content.toString());
+        filter.filter(List.of(metadata));
+        filter.close();
+
+        List<Chunk> chunks = ChunkSerializer.fromJson(metadata.get("tika:chunks"));
+        assertEquals(6, chunks.size());
+        assertEquals(6, server.getRequestCount());
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            assertTrue(chunk.getText().contains("Section " + (char) ('A' + i)));
+            assertArrayEquals(textVector(chunk.getText()), chunk.getVector(), 0.0f);
+        }
+        assertTrue(maxInFlight.get() > 1, "batches should overlap");
+        assertTrue(maxInFlight.get() <= 4, "at most maxConcurrentRequests in flight");
+    }
+
+    @Test
+    void testEmbeddingCacheSkipsRepeatedChunks() throws Exception {
+        config.setEmbeddingCacheSize(16);
+        server.setDispatcher(request ->
+                new TikaTestHttpServer.MockResponse(200, echoEmbeddingResponse(request)));
+
+        String footer = "# Footer\n\nThis message is confidential.";
+        Metadata first = new Metadata();
+        first.set(TikaCoreProperties.TIKA_CONTENT.getName(),
+                "# Intro\n\nFirst document.\n\n" + footer
+                        + "\n\n# Body\n\nMore text.\n\n" + footer);
+        filter.filter(List.of(first));
+
+        JsonNode input = MAPPER.readTree(server.takeRequest().body()).get("input");
+        // the repeated footer is only sent once
+        assertEquals(3, input.size());
+        List<Chunk> firstChunks = ChunkSerializer.fromJson(first.get("tika:chunks"));
+        assertEquals(4, firstChunks.size());
+        for (Chunk chunk : firstChunks) {
+            assertArrayEquals(textVector(chunk.getText()), chunk.getVector(), 0.0f);
+        }
+
+        Metadata second = new Metadata();
+        second.set(TikaCoreProperties.TIKA_CONTENT.getName(),
+                "# Intro\n\nSecond document.\n\n" + footer);
+        filter.filter(List.of(second));
+
+        input = MAPPER.readTree(server.takeRequest().body()).get("input");
+        assertEquals(1, input.size());
+        assertTrue(input.get(0).asText().contains("Second document"));
+        for (Chunk chunk : ChunkSerializer.fromJson(second.get("tika:chunks"))) {
+            assertArrayEquals(textVector(chunk.getText()), chunk.getVector(), 0.0f);
+        }
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void testEmbeddingCacheOnDisk(@TempDir Path cacheDir) throws Exception {
+        config.setEmbeddingCacheDirectory(cacheDir.toString());
+        server.setDispatcher(request ->
+                new TikaTestHttpServer.MockResponse(200, echoEmbeddingResponse(request)));
+
+        String content = "# Section A\n\nSome text about section A.\n\n"
+                + "# Section B\n\nSome text about section B.";
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.TIKA_CONTENT.getName(), content);
+        filter.filter(List.of(metadata));
+        assertEquals(1, server.getRequestCount());
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(cacheDir)) {
+            files = walk.filter(p -> p.toString().endsWith(".f32")).toList();
+        }
+        assertEquals(2, files.size());
+        for (Path file : files) {
+            assertEquals(3 * Float.BYTES, Files.size(file));
+        }
+
+        // a fresh filter (empty memory) is served from the directory
+        OpenAIEmbeddingFilter restarted = new OpenAIEmbeddingFilter(config);
+        Metadata again = new Metadata();
+        again.set(TikaCoreProperties.TIKA_CONTENT.getName(), content);
+        restarted.filter(List.of(again));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(metadata.get("tika:chunks"), again.get("tika:chunks"));
+    }
+
+    @Test
+    void testEmbeddingCacheKeyedByEndpointAndModel(@TempDir Path cacheDir) throws Exception {
+        config.setEmbeddingCacheDirectory(cacheDir.toString());
+        server.setDispatcher(request ->
+                new TikaTestHttpServer.MockResponse(200, echoEmbeddingResponse(request)));
+
+        String content = "# Section A\n\nSome text about section A.";
+        filter.filter(List.of(contentMetadata(content)));
+        assertEquals(1, server.getRequestCount());
+
+        // another endpoint path, e.g. another Azure deployment, is not served from the cache
+        OpenAIEmbeddingFilter otherPath = new OpenAIEmbeddingFilter(config);
+        otherPath.setEmbeddingsPath("/v2/embeddings");
+        otherPath.filter(List.of(contentMetadata(content)));
+        assertEquals(2, server.getRequestCount());
+
+        // nor is another model
+        config.setModel("text-embedding-3-large");
+        new OpenAIEmbeddingFilter(config).filter(List.of(contentMetadata(content)));
+        assertEquals(3, server.getRequestCount());
+
+        // the same settings are
+        new OpenAIEmbeddingFilter(config).filter(List.of(contentMetadata(content)));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    private static Metadata contentMetadata(String content) {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.TIKA_CONTENT.getName(), content);
+        return metadata;
+    }
+
+    /**
+     * Deterministic per-text vector used by {@link #echoEmbeddingResponse}.
+     */
+    private static float[] textVector(String text) {
+        return new float[]{text.length(), text.hashCode() & 0xffff, 1.0f};
+    }
+
+    /**
+     * Build an embeddings response whose vectors are derived from the request's
+     * input texts, so that each response can be checked against its chunks.
+     */
+    private static String echoEmbeddingResponse(TikaTestHttpServer.RecordedRequest request) {
+        JsonNode input;
+        try {
+            input = MAPPER.readTree(request.body()).get("input");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StringBuilder sb = new StringBuilder("{\"object\":\"list\",\"data\":[");
+        for (int i = 0; i < input.size(); i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            float[] v = textVector(input.get(i).asText());
+            sb.append("{\"object\":\"embedding\",\"index\":").append(i)
+                    .append(",\"embedding\":[").append(v[0]).append(",")
+                    .append(v[1]).append(",").append(v[2]).append("]}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
     /**
      * Build a mock OpenAI embeddings response.
      */
@@ -20,6 +20,8 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.util.Base64;
+
 import org.junit.jupiter.api.Test;
 
 public class VectorSerializerTest {
@@ -53,6 +55,15 @@ public class VectorSerializerTest {
         assertArrayEquals(vec, VectorSerializer.decode("PwAAAEEgAABAwAAA"), 1e-6f);
     }
 
+    @Test
+    void testRawBytesMatchBase64Layout() {
+        float[] vec = {0.5f, 10.0f, 6.0f};
+        byte[] raw = VectorSerializer.toBytes(vec);
+        assertEquals(12, raw.length);
+        assertEquals("PwAAAEEgAABAwAAA", Base64.getEncoder().encodeToString(raw));
+        assertArrayEquals(vec, VectorSerializer.fromBytes(raw), 1e-6f);
+    }
+
     @Test
     void testLargeVector() {
         float[] large = new float[768];
@@ -119,6 +119,19 @@ public class Tess4JConfig implements Serializable {
      */
     private String nativeLibPath = "";
 
+    /**
+     * Number of OCR results to keep in memory so that identical images
+     * (same bytes, same OCR settings) are only OCR'd once across documents.
+     * Default is 0, which disables the in-memory tier.
+     */
+    private int ocrCacheSize = 0;
+
+    /**
+     * Directory in which to persist OCR results so that they survive restarts.
+     * If empty, there is no on-disk tier.
+     */
+    private String ocrCacheDirectory = "";
+
     public String getLanguage() {
         return language;
     }
@@ -278,6 +291,32 @@ public class Tess4JConfig implements Serializable {
         this.nativeLibPath = nativeLibPath;
     }
 
+    public int getOcrCacheSize() {
+        return ocrCacheSize;
+    }
+
+    /**
+     * Set the number of OCR results to keep in memory. Default is 0 (disabled).
+     */
+    public void setOcrCacheSize(int ocrCacheSize) throws TikaConfigException {
+        if (ocrCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    "ocrCacheSize must be at least 0, got: " + ocrCacheSize);
+        }
+        this.ocrCacheSize = ocrCacheSize;
+    }
+
+    public String getOcrCacheDirectory() {
+        return ocrCacheDirectory;
+    }
+
+    /**
+     * Set the directory in which to persist OCR results.
+     */
+    public void setOcrCacheDirectory(String ocrCacheDirectory) throws TikaConfigException {
+        this.ocrCacheDirectory = ocrCacheDirectory;
+    }
+
     /**
      * Validates language strings. Languages should conform to tesseract's expected format.
      */
@@ -306,11 +345,11 @@ public class Tess4JConfig implements Serializable {
      * pool settings during parse-time configuration.
      * <p>
      * <b>Always blocked:</b> {@code dataPath}, {@code nativeLibPath},
-     * {@code poolSize}.
+     * {@code poolSize}, {@code ocrCacheSize}, {@code ocrCacheDirectory}.
      * <p>
      * Paths are blocked to prevent file-system access attacks.
-     * Pool size is blocked because the pool is built at init time and
-     * cannot be resized at runtime.
+     * Pool and cache sizes are blocked because the pool and the cache are
+     * built at init time and cannot be resized at runtime.
      */
     public static class RuntimeConfig extends Tess4JConfig {
 
@@ -344,6 +383,24 @@ public class Tess4JConfig implements Serializable {
                             "and cannot be resized.");
         }
 
+        @Override
+        public void setOcrCacheSize(int ocrCacheSize) throws TikaConfigException {
+            if (ocrCacheSize != 0) {
+                throw new TikaConfigException(
+                        "Cannot modify ocrCacheSize at runtime. " +
+                                "The cache is created at initialization time.");
+            }
+        }
+
+        @Override
+        public void setOcrCacheDirectory(String ocrCacheDirectory) throws TikaConfigException {
+            if (!StringUtils.isBlank(ocrCacheDirectory)) {
+                throw new TikaConfigException(
+                        "Cannot modify ocrCacheDirectory at runtime. " +
+                                "Paths must be configured at parser initialization time.");
+            }
+        }
+
         @Override
         public void setMaxImagePixels(long maxImagePixels) {
             throw new IllegalStateException(
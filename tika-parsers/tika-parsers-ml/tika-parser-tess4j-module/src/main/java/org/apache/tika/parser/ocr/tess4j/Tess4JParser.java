@@ -21,6 +21,7 @@ import static org.apache.tika.sax.XHTMLContentHandler.XHTML;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -52,6 +53,8 @@ import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.ocr.cache.DefaultOcrResultCache;
+import org.apache.tika.parser.ocr.cache.OcrResultCache;
 import org.apache.tika.sax.XHTMLContentHandler;
 import org.apache.tika.utils.StringUtils;
 
@@ -99,6 +102,7 @@ public class Tess4JParser implements Parser, Initializable {
 
     private Tess4JConfig defaultConfig;
     private transient BlockingQueue<Tesseract> pool;
+    private transient OcrResultCache ocrResultCache;
     private volatile boolean initialized = false;
 
     public Tess4JParser() throws TikaConfigException {
@@ -152,6 +156,19 @@ public class Tess4JParser implements Parser, Initializable {
         XHTMLContentHandler xhtml = new XHTMLContentHandler(handler, metadata, parseContext);
         xhtml.startDocument();
 
+        // Identical images with identical settings are only OCR'd once
+        OcrResultCache cache = parseContext.get(OcrResultCache.class, ocrResultCache);
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = OcrResultCache.buildKey(tis.getPath(), getCacheSettings(config));
+            String cached = cache.get(cacheKey);
+            if (cached != null) {
+                writeOcrResult(cached, xhtml);
+                xhtml.endDocument();
+                return;
+            }
+        }
+
         Tesseract tesseract = null;
         long timeoutMillis = TimeoutLimits.getProcessTimeoutMillis(
                 parseContext, config.getTimeoutSeconds() * 1000L);
@@ -190,15 +207,11 @@ public class Tess4JParser implements Parser, Initializable {
 
             String ocrResult = tesseract.doOCR(image);
             TikaProgressTracker.update(parseContext);
-
-            // Emit the text as XHTML
-            AttributesImpl attrs = new AttributesImpl();
-            attrs.addAttribute("", "class", "class", "CDATA", "ocr");
-            xhtml.startElement(XHTML, "div", "div", attrs);
-            if (ocrResult != null && !ocrResult.isEmpty()) {
-                xhtml.characters(ocrResult.toCharArray(), 0, ocrResult.length());
+            if (cacheKey != null && ocrResult != null) {
+                cache.put(cacheKey, ocrResult);
             }
-            xhtml.endElement(XHTML, "div", "div");
+
+            writeOcrResult(ocrResult, xhtml);
 
         } catch (TesseractException e) {
             throw new TikaException("Tess4J OCR failed", e);
@@ -214,12 +227,37 @@ public class Tess4JParser implements Parser, Initializable {
         xhtml.endDocument();
     }
 
+    /**
+     * Emits the OCR'd text as XHTML.
+     */
+    private void writeOcrResult(String ocrResult, XHTMLContentHandler xhtml) throws SAXException {
+        AttributesImpl attrs = new AttributesImpl();
+        attrs.addAttribute("", "class", "class", "CDATA", "ocr");
+        xhtml.startElement(XHTML, "div", "div", attrs);
+        if (ocrResult != null && !ocrResult.isEmpty()) {
+            xhtml.characters(ocrResult.toCharArray(), 0, ocrResult.length());
+        }
+        xhtml.endElement(XHTML, "div", "div");
+    }
+
+    /**
+     * Everything in the config that changes the OCR output for a given image.
+     */
+    private String getCacheSettings(Tess4JConfig config) {
+        return "tess4j;lang=" + config.getLanguage() +
+                ";psm=" + config.getPageSegMode() +
+                ";oem=" + config.getOcrEngineMode() +
+                ";dpi=" + config.getDpi() +
+                ";dataPath=" + defaultConfig.getDataPath();
+    }
+
     @Override
     public void initialize() throws TikaConfigException {
         if (defaultConfig.isSkipOcr()) {
             initialized = false;
             return;
         }
+        initOcrResultCache();
         try {
             configureNativeLibPath();
             initPool();
@@ -254,6 +292,22 @@ public class Tess4JParser implements Parser, Initializable {
         }
     }
 
+    /**
+     * Creates the OCR result cache if the default config asks for one.
+     */
+    private void initOcrResultCache() throws TikaConfigException {
+        String directory = defaultConfig.getOcrCacheDirectory();
+        if (defaultConfig.getOcrCacheSize() == 0 && StringUtils.isBlank(directory)) {
+            return;
+        }
+        try {
+            ocrResultCache = new DefaultOcrResultCache(defaultConfig.getOcrCacheSize(),
+                    StringUtils.isBlank(directory) ? null : Paths.get(directory));
+        } catch (IOException e) {
+            throw new TikaConfigException("Couldn't create ocrCacheDirectory: " + directory, e);
+        }
+    }
+
     /**
      * Creates the pool of {@link Tesseract} instances based on the default config.
      */
@@ -501,6 +555,30 @@ public class Tess4JParser implements Parser, Initializable {
         defaultConfig.setMaxImagePixels(maxImagePixels);
     }
 
+    public int getOcrCacheSize() {
+        return defaultConfig.getOcrCacheSize();
+    }
+
+    public void setOcrCacheSize(int ocrCacheSize) throws TikaConfigException {
+        defaultConfig.setOcrCacheSize(ocrCacheSize);
+    }
+
+    public String getOcrCacheDirectory() {
+        return defaultConfig.getOcrCacheDirectory();
+    }
+
+    public void setOcrCacheDirectory(String ocrCacheDirectory) throws TikaConfigException {
+        defaultConfig.setOcrCacheDirectory(ocrCacheDirectory);
+    }
+
+    /**
+     * Returns the OCR result cache built from the default config, or
+     * {@code null} if caching is not configured.
+     */
+    public OcrResultCache getOcrResultCache() {
+        return ocrResultCache;
+    }
+
     /**
      * Returns whether the parser has been successfully initialized
      * (i.e., Tess4J native library is available).
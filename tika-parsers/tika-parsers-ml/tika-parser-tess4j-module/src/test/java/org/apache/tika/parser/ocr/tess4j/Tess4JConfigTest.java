@@ -137,4 +137,16 @@ public class Tess4JConfigTest {
         config.setDataPath("");
         assertEquals("", config.getDataPath());
     }
+
+    @Test
+    public void testRuntimeConfigBlocksOcrCache() throws TikaConfigException {
+        Tess4JConfig.RuntimeConfig config = new Tess4JConfig.RuntimeConfig();
+        //the defaults are accepted
+        config.setOcrCacheDirectory("");
+        config.setOcrCacheSize(0);
+        assertThrows(TikaConfigException.class,
+                () -> config.setOcrCacheDirectory("/some/path"));
+        assertThrows(TikaConfigException.class,
+                () -> config.setOcrCacheSize(100));
+    }
 }
@@ -42,7 +42,8 @@ import org.apache.tika.digest.DigesterFactory;
  *           { "algorithm": "MD5" },
  *           { "algorithm": "SHA3_256", "encoding": "BASE32" }
  *         ],
- *         "skipContainerDocumentDigest": false
+ *         "skipContainerDocumentDigest": false,
+ *         "digestWhileParsing": false
  *       }
  *     }
  *   }
@@ -54,6 +55,7 @@ public class BouncyCastleDigesterFactory implements DigesterFactory {
 
     private List<DigestDef> digests = new ArrayList<>();
     private boolean skipContainerDocumentDigest = false;
+    private boolean digestWhileParsing = false;
 
     public BouncyCastleDigesterFactory() {
         digests.add(new DigestDef(DigestDef.Algorithm.MD5));
@@ -73,6 +75,15 @@ public class BouncyCastleDigesterFactory implements DigesterFactory {
         this.skipContainerDocumentDigest = skipContainerDocumentDigest;
     }
 
+    @Override
+    public boolean isDigestWhileParsing() {
+        return digestWhileParsing;
+    }
+
+    public void setDigestWhileParsing(boolean digestWhileParsing) {
+        this.digestWhileParsing = digestWhileParsing;
+    }
+
     public List<DigestDef> getDigests() {
         return digests;
     }
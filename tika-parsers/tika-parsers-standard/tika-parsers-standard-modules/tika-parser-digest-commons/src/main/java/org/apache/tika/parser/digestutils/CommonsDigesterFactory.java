@@ -39,7 +39,8 @@ import org.apache.tika.digest.DigesterFactory;
  *           { "algorithm": "MD5" },
  *           { "algorithm": "SHA256", "encoding": "BASE32" }
  *         ],
- *         "skipContainerDocumentDigest": false
+ *         "skipContainerDocumentDigest": false,
+ *         "digestWhileParsing": false
  *       }
  *     }
  *   }
@@ -51,6 +52,7 @@ public class CommonsDigesterFactory implements DigesterFactory {
 
     private List<DigestDef> digests = new ArrayList<>();
     private boolean skipContainerDocumentDigest = false;
+    private boolean digestWhileParsing = false;
 
     public CommonsDigesterFactory() {
         digests.add(new DigestDef(DigestDef.Algorithm.MD5));
@@ -70,6 +72,15 @@ public class CommonsDigesterFactory implements DigesterFactory {
         this.skipContainerDocumentDigest = skipContainerDocumentDigest;
     }
 
+    @Override
+    public boolean isDigestWhileParsing() {
+        return digestWhileParsing;
+    }
+
+    public void setDigestWhileParsing(boolean digestWhileParsing) {
+        this.digestWhileParsing = digestWhileParsing;
+    }
+
     public List<DigestDef> getDigests() {
         return digests;
     }
@@ -43,6 +43,24 @@ public class OfficeParserConfig implements Serializable {
      */
     private int rtfEmbeddedMaxBytesInKb = 2 * 1024 * 1024; // 2 GB
 
+    /**
+     * Bytes of xlsx shared strings to keep on heap before spilling them to a
+     * memory-mapped temporary file.  Set to -1 to never spill.
+     */
+    private long sharedStringsMaxBytesInMemory = 128 * 1024 * 1024;
+
+    /**
+     * Number of xlsx sheets to parse concurrently.  1 parses them one after
+     * the other on the calling thread.
+     */
+    private int xlsxSheetParallelism = 1;
+
+    /**
+     * Maximum bytes of extracted content to buffer for the xlsx sheets that are
+     * parsed concurrently.
+     */
+    private long xlsxMaxBufferedSheetBytes = 64 * 1024 * 1024;
+
     private boolean includeGlossary = true;
     private String dateOverrideFormat = null;
     private int maxOverride = 0;//ignore
@@ -302,4 +320,74 @@ public class OfficeParserConfig implements Serializable {
     public void setRtfEmbeddedMaxBytesInKb(int rtfEmbeddedMaxBytesInKb) {
         this.rtfEmbeddedMaxBytesInKb = rtfEmbeddedMaxBytesInKb;
     }
+
+    public long getSharedStringsMaxBytesInMemory() {
+        return sharedStringsMaxBytesInMemory;
+    }
+
+    /**
+     * The xlsx parser packs the workbook's shared strings as UTF-8 bytes rather
+     * than holding one {@link String} per entry.  Once the packed strings exceed
+     * this many bytes, they are spilled to a memory-mapped temporary file so that
+     * workbooks with millions of unique strings don't exhaust the heap.
+     * <p>
+     * Default: 128 MB.  Set to -1 to always keep them on heap.
+     *
+     * @param sharedStringsMaxBytesInMemory bytes to keep on heap before spilling
+     */
+    public void setSharedStringsMaxBytesInMemory(long sharedStringsMaxBytesInMemory) {
+        if (sharedStringsMaxBytesInMemory < -1) {
+            throw new IllegalArgumentException(
+                    "sharedStringsMaxBytesInMemory must be -1 or at least 0, got: " +
+                            sharedStringsMaxBytesInMemory);
+        }
+        this.sharedStringsMaxBytesInMemory = sharedStringsMaxBytesInMemory;
+    }
+
+    public int getXlsxSheetParallelism() {
+        return xlsxSheetParallelism;
+    }
+
+    /**
+     * Parses up to this many sheets of an xlsx workbook concurrently.  Each
+     * sheet is buffered until the sheets before it have been written, so the
+     * output is the same as with sequential parsing, in the same sheet order.
+     * The content buffered for the sheets in flight is capped by
+     * {@link #setXlsxMaxBufferedSheetBytes(long)}.
+     * <p>
+     * Default: 1 (sheets are parsed one after the other).  This has no effect
+     * on xlsb files.
+     *
+     * @param xlsxSheetParallelism maximum number of sheets to parse at once
+     */
+    public void setXlsxSheetParallelism(int xlsxSheetParallelism) {
+        if (xlsxSheetParallelism < 1) {
+            throw new IllegalArgumentException(
+                    "xlsxSheetParallelism must be at least 1, got: " + xlsxSheetParallelism);
+        }
+        this.xlsxSheetParallelism = xlsxSheetParallelism;
+    }
+
+    public long getXlsxMaxBufferedSheetBytes() {
+        return xlsxMaxBufferedSheetBytes;
+    }
+
+    /**
+     * When sheets are parsed concurrently, caps the memory held by the content
+     * of the sheets that have been parsed but not yet written.  A sheet that
+     * does not fit is parsed again when its turn comes, straight into the
+     * output.
+     * <p>
+     * Default: 64 MB.
+     *
+     * @param xlsxMaxBufferedSheetBytes bytes of buffered sheet content
+     */
+    public void setXlsxMaxBufferedSheetBytes(long xlsxMaxBufferedSheetBytes) {
+        if (xlsxMaxBufferedSheetBytes < 1) {
+            throw new IllegalArgumentException(
+                    "xlsxMaxBufferedSheetBytes must be at least 1, got: " +
+                            xlsxMaxBufferedSheetBytes);
+        }
+        this.xlsxMaxBufferedSheetBytes = xlsxMaxBufferedSheetBytes;
+    }
 }
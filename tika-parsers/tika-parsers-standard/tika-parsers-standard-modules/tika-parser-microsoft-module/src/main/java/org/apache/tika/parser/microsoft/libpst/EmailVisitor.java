@@ -57,29 +57,31 @@ public class EmailVisitor implements FileVisitor<Path> {
 
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-        if (processEmailAsMsg) {
-            if (file
-                    .getFileName()
-                    .toString()
-                    .endsWith(".msg")) {
-                process(file);
-            }
-        } else if (file
-                .getFileName()
-                .toString()
-                .endsWith(".eml")) {
+        if (isEmail(file)) {
             process(file);
         }
         return FileVisitResult.CONTINUE;
     }
 
-    private void process(Path file) throws IOException {
+    boolean isEmail(Path file) {
+        return file
+                .getFileName()
+                .toString()
+                .endsWith(processEmailAsMsg ? ".msg" : ".eml");
+    }
+
+    Metadata getMetadata(Path file) {
         Metadata emailMetadata = Metadata.newInstance(parseContext);
         String internalPath = root
                 .relativize(file)
                 .toString();
         emailMetadata.set(TikaCoreProperties.INTERNAL_PATH, internalPath);
         emailMetadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, file.getFileName().toString());
+        return emailMetadata;
+    }
+
+    void process(Path file) throws IOException {
+        Metadata emailMetadata = getMetadata(file);
         try (TikaInputStream tis = TikaInputStream.get(file)) {
             try {
                 embeddedDocumentExtractor.parseEmbedded(tis, xhtml, emailMetadata, parseContext, true);
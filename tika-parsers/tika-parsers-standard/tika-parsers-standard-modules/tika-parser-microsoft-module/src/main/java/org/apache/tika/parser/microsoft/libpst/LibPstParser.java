@@ -16,31 +16,58 @@
  */
 package org.apache.tika.parser.microsoft.libpst;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
+import org.apache.tika.concurrent.ParseWorkerPool;
 import org.apache.tika.config.ConfigDeserializer;
 import org.apache.tika.config.Initializable;
 import org.apache.tika.config.JsonConfig;
+import org.apache.tika.config.OutputLimits;
 import org.apache.tika.config.TikaComponent;
 import org.apache.tika.exception.TikaConfigException;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.extractor.EmbeddedDocumentExtractor;
+import org.apache.tika.extractor.EmbeddedDocumentUtil;
+import org.apache.tika.extractor.RecordedEmbeddedDocument;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.RecordingContentHandler;
 import org.apache.tika.sax.XHTMLContentHandler;
 import org.apache.tika.utils.FileProcessResult;
 import org.apache.tika.utils.ProcessUtils;
@@ -94,9 +121,15 @@ public class LibPstParser implements Parser, Initializable {
         try {
             ProcessBuilder pb = getProcessBuilder(pst, activeConfig, outDir, debugFile);
             XHTMLContentHandler xhtml = new XHTMLContentHandler(contentHandler, metadata, parseContext);
-            FileProcessResult fileProcessResult = ProcessUtils.execute(pb, activeConfig.getTimeoutSeconds() * 1000l, MAX_STDOUT, MAX_STDERR);
-            xhtml.startDocument();
-            processContents(outDir, activeConfig, xhtml, metadata, parseContext);
+            FileProcessResult fileProcessResult;
+            if (activeConfig.isStreamingExtraction()) {
+                xhtml.startDocument();
+                fileProcessResult = extractAndProcessContents(pb, outDir, activeConfig, xhtml, metadata, parseContext);
+            } else {
+                fileProcessResult = ProcessUtils.execute(pb, activeConfig.getTimeoutSeconds() * 1000l, MAX_STDOUT, MAX_STDERR);
+                xhtml.startDocument();
+                processContents(outDir, activeConfig, xhtml, metadata, parseContext);
+            }
             if (fileProcessResult.isTimeout()) {
                 throw new TikaException("Timeout exception: " + fileProcessResult.getProcessTimeMillis());
             }
@@ -125,6 +158,53 @@ public class LibPstParser implements Parser, Initializable {
         Files.walkFileTree(outDir, new EmailVisitor(outDir, config.isProcessEmailAsMsg(), xhtml, metadata, parseContext));
     }
 
+    /**
+     * Runs readpst on a background thread and parses emails as they are written,
+     * rather than waiting for the full export, see {@link StreamingExport}.
+     * <p>
+     * Nothing is deleted before readpst has exited; the whole output directory is
+     * removed once the parse is done.
+     */
+    private FileProcessResult extractAndProcessContents(ProcessBuilder pb, Path outDir, LibPstParserConfig config, XHTMLContentHandler xhtml,
+                                                        Metadata metadata, ParseContext parseContext)
+            throws IOException, SAXException, TikaException {
+        long timeoutMillis = config.getTimeoutSeconds() * 1000l;
+        FutureTask<FileProcessResult> readPst = new FutureTask<>(() -> ProcessUtils.execute(pb, timeoutMillis, MAX_STDOUT, MAX_STDERR));
+        Thread readPstThread = new Thread(readPst, "tika-libpst-readpst");
+        readPstThread.setDaemon(true);
+
+        EmailVisitor emailVisitor = new EmailVisitor(outDir, config.isProcessEmailAsMsg(), xhtml, metadata, parseContext);
+        try (StreamingExport export = new StreamingExport(outDir, config, emailVisitor, xhtml, parseContext)) {
+            readPstThread.start();
+            FileProcessResult result = null;
+            while (result == null) {
+                try {
+                    result = readPst.get(config.getPollIntervalMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    export.scan(false);
+                }
+            }
+            //readpst has exited, everything left in the directory is complete
+            export.scan(true);
+            return result;
+        } catch (InterruptedException e) {
+            throw new TikaException("Interrupted while waiting for readpst", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new TikaException("Couldn't run readpst", e.getCause());
+        } finally {
+            //no-op if readpst has finished; otherwise interrupting the thread destroys the process
+            readPst.cancel(true);
+            try {
+                readPstThread.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private ProcessBuilder getProcessBuilder(Path pst, LibPstParserConfig config, Path outDir, Path debugFile)
             throws TikaConfigException {
         List commands = new ArrayList<String>();
@@ -138,6 +218,10 @@ public class LibPstParser implements Parser, Initializable {
         if (config.isIncludeDeleted()) {
             commands.add("-D");
         }
+        if (config.getReadPstJobs() > 0) {
+            commands.add("-j");
+            commands.add(Integer.toString(config.getReadPstJobs()));
+        }
         if (config.isProcessEmailAsMsg()) {
             commands.add("-m");
         } else {
@@ -212,4 +296,315 @@ public class LibPstParser implements Parser, Initializable {
     public LibPstParserConfig getDefaultConfig() {
         return defaultConfig;
     }
+
+    private record FileState(long size, long lastModified) {
+
+        static FileState of(Path file) throws IOException {
+            return new FileState(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+        }
+    }
+
+    /**
+     * The emails of a streaming export, from the moment readpst creates them until they
+     * are written out.
+     * <p>
+     * New files and folders are picked up with a {@link WatchService}, so that a scan
+     * only looks at what is new or still changing: an email is settled once its size
+     * and modification time are unchanged since the previous scan, and it has not been
+     * modified for <code>settleMillis</code>. Settled emails are parsed ahead on a
+     * {@link ParseWorkerPool} into a {@link RecordedEmbeddedDocument} when
+     * <code>emailParallelism</code> is above 1.
+     * <p>
+     * An email is only written out, in path order, once readpst is done with it: once it
+     * has exited or, if it exports one folder at a time (no <code>-j</code>), depth first,
+     * once a folder outside of the email's folder has been created after it. Settling is
+     * a guess, not a guarantee: readpst does not signal when it has closed a file. So an
+     * email that changed after it was parsed, e.g. because readpst stalled on it for
+     * longer than <code>settleMillis</code>, is parsed again when it is written out.
+     * <p>
+     * Files are not deleted here: readpst may still be writing to the output directory.
+     */
+    private static class StreamingExport implements Closeable {
+
+        private final Path outDir;
+        private final long settleMillis;
+        //whether readpst exports one folder at a time
+        private final boolean sequential;
+        private final EmailVisitor emailVisitor;
+        private final XHTMLContentHandler xhtml;
+        private final ParseContext parseContext;
+        private final OutputLimits outputLimits;
+        private final int parallelism;
+        //null if emails are only parsed on the calling thread, when they are written out
+        private final ParseWorkerPool workerPool;
+        private final RecordingContentHandler.MemoryBudget budget;
+        private final WatchService watchService;
+        //false once a folder could not be watched; every scan then walks the whole directory
+        private boolean watching = true;
+
+        private final Set<Path> seen = new HashSet<>();
+        //emails that are not settled yet, with their state at the previous scan
+        private final Map<Path, FileState> unsettled = new HashMap<>();
+        //folders readpst may still be writing to, with the scan in which each was first seen
+        private final Map<Path, Integer> openFolders = new HashMap<>();
+        //settled emails in open folders
+        private final Map<Path, List<Email>> waiting = new HashMap<>();
+        //settled emails that have not been handed to a worker yet
+        private final TreeMap<Path, Email> unparsed = new TreeMap<>();
+        //emails that have been handed to a worker and not written out yet
+        private final Set<Email> submitted = new HashSet<>();
+        private final AtomicInteger running = new AtomicInteger();
+        //emails that can be written out in the current scan
+        private List<Email> ready = new ArrayList<>();
+        private int scans = 0;
+        private long written = 0;
+
+        StreamingExport(Path outDir, LibPstParserConfig config, EmailVisitor emailVisitor,
+                        XHTMLContentHandler xhtml, ParseContext parseContext) throws IOException {
+            this.outDir = outDir;
+            this.settleMillis = config.getSettleMillis();
+            this.sequential = config.getReadPstJobs() <= 1;
+            this.emailVisitor = emailVisitor;
+            this.xhtml = xhtml;
+            this.parseContext = parseContext;
+            this.outputLimits = OutputLimits.get(parseContext);
+            EmbeddedDocumentExtractor extractor = EmbeddedDocumentUtil.getEmbeddedDocumentExtractor(parseContext);
+            this.parallelism = config.getEmailParallelism() > 1 && RecordedEmbeddedDocument.canRecord(extractor, parseContext) ?
+                    config.getEmailParallelism() : 1;
+            this.workerPool = parallelism > 1 ? new ParseWorkerPool("libpst-email", parallelism, parseContext) : null;
+            this.budget = new RecordingContentHandler.MemoryBudget(config.getMaxBufferedEmailBytes());
+            this.watchService = outDir.getFileSystem().newWatchService();
+            discover(outDir);
+        }
+
+        /**
+         * Picks up what readpst has written since the previous scan, writes out the emails
+         * that are done, and hands settled emails to the workers.
+         */
+        void scan(boolean readPstFinished) throws IOException, SAXException, TikaException {
+            scans++;
+            pollEvents(readPstFinished);
+            if (readPstFinished) {
+                for (Path email : unsettled.keySet()) {
+                    ready.add(new Email(email, FileState.of(email)));
+                }
+                unsettled.clear();
+                for (List<Email> emails : waiting.values()) {
+                    ready.addAll(emails);
+                }
+                waiting.clear();
+                openFolders.clear();
+            } else {
+                settle();
+            }
+            List<Email> emails = ready;
+            ready = new ArrayList<>();
+            emails.sort(Comparator.comparing(email -> email.path));
+            write(emails);
+            if (! readPstFinished) {
+                submitUnparsed();
+            }
+        }
+
+        private void pollEvents(boolean readPstFinished) throws IOException {
+            boolean overflow = false;
+            WatchKey key;
+            while ((key = watchService.poll()) != null) {
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        discover(dir.resolve((Path) event.context()));
+                    }
+                }
+                key.reset();
+            }
+            if (overflow || ! watching || readPstFinished) {
+                //events may have been dropped or still be on their way
+                List<Path> paths;
+                try (Stream<Path> walk = Files.walk(outDir)) {
+                    paths = walk.collect(Collectors.toList());
+                }
+                for (Path path : paths) {
+                    discover(path);
+                }
+            }
+        }
+
+        private void discover(Path path) throws IOException {
+            if (! seen.add(path)) {
+                return;
+            }
+            if (Files.isDirectory(path)) {
+                if (watching) {
+                    try {
+                        path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+                    } catch (IOException e) {
+                        //e.g. out of inotify watches
+                        LOGGER.warn("Couldn't watch {}, scanning the whole export from now on", path, e);
+                        watching = false;
+                    }
+                }
+                if (sequential) {
+                    //readpst has moved on from the folders that this one is not in
+                    Iterator<Map.Entry<Path, Integer>> it = openFolders.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Map.Entry<Path, Integer> folder = it.next();
+                        if (folder.getValue() < scans && ! path.startsWith(folder.getKey())) {
+                            it.remove();
+                            List<Email> emails = waiting.remove(folder.getKey());
+                            if (emails != null) {
+                                ready.addAll(emails);
+                            }
+                        }
+                    }
+                }
+                openFolders.put(path, scans);
+                //what was created before the folder was watched
+                List<Path> children;
+                try (Stream<Path> list = Files.list(path)) {
+                    children = list.collect(Collectors.toList());
+                }
+                for (Path child : children) {
+                    discover(child);
+                }
+            } else if (Files.isRegularFile(path) && emailVisitor.isEmail(path)) {
+                unsettled.put(path, null);
+            }
+        }
+
+        private void settle() throws IOException {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<Path, FileState>> it = unsettled.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Path, FileState> entry = it.next();
+                FileState state = FileState.of(entry.getKey());
+                if (! state.equals(entry.getValue()) || now - state.lastModified() < settleMillis) {
+                    entry.setValue(state);
+                    continue;
+                }
+                it.remove();
+                Email email = new Email(entry.getKey(), state);
+                if (workerPool != null) {
+                    unparsed.put(email.path, email);
+                }
+                Path folder = email.path.getParent();
+                if (openFolders.containsKey(folder)) {
+                    waiting.computeIfAbsent(folder, f -> new ArrayList<>()).add(email);
+                } else {
+                    ready.add(email);
+                }
+            }
+        }
+
+        /**
+         * Parses settled emails ahead while the workers and the memory budget have room.
+         */
+        private void submitUnparsed() {
+            while (! unparsed.isEmpty() && running.get() < parallelism && budget.getUsedBytes() < budget.getMaxBytes()) {
+                submit(unparsed.firstEntry().getValue());
+            }
+        }
+
+        private void submit(Email email) {
+            if (workerPool == null || email.future != null) {
+                return;
+            }
+            unparsed.remove(email.path);
+            InputStream stream;
+            try {
+                stream = Files.newInputStream(email.path);
+            } catch (IOException e) {
+                //leave it to the calling thread to report this at the email's turn
+                return;
+            }
+            int writeLimit = outputLimits.getWriteLimit();
+            if (writeLimit > -1) {
+                writeLimit = (int) Math.max(0, writeLimit - written);
+            }
+            email.metadata = emailVisitor.getMetadata(email.path);
+            email.stream = stream;
+            RecordedEmbeddedDocument recorded = new RecordedEmbeddedDocument(email.metadata, parseContext, writeLimit, budget);
+            email.recorded = recorded;
+            submitted.add(email);
+            running.incrementAndGet();
+            email.future = workerPool.submit(() -> {
+                try {
+                    return recorded.parse(stream);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+
+        private void write(List<Email> emails) throws IOException, SAXException, TikaException {
+            for (int i = 0; i < emails.size(); i++) {
+                //keep the workers busy with the emails that come next
+                for (int j = i; j < Math.min(emails.size(), i + parallelism); j++) {
+                    submit(emails.get(j));
+                }
+                writeEmail(emails.get(i));
+            }
+        }
+
+        private void writeEmail(Email email) throws IOException, SAXException, TikaException {
+            try {
+                unparsed.remove(email.path);
+                if (email.future != null) {
+                    RecordedEmbeddedDocument recorded = workerPool.await(email.future);
+                    //readpst may have written to it after it was parsed
+                    if (! recorded.isBudgetExceeded() && email.state.equals(FileState.of(email.path))) {
+                        recorded.replay(xhtml, email.metadata, parseContext);
+                        written += recorded.getWriteCount();
+                        return;
+                    }
+                }
+                emailVisitor.process(email.path);
+            } finally {
+                submitted.remove(email);
+                email.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Email email : submitted) {
+                email.close();
+            }
+            if (workerPool != null) {
+                workerPool.close();
+            }
+            watchService.close();
+        }
+    }
+
+    /**
+     * A settled email, possibly being parsed by a worker.
+     */
+    private static class Email {
+        private final Path path;
+        //the state in which it was parsed
+        private final FileState state;
+        private Metadata metadata;
+        private InputStream stream;
+        private RecordedEmbeddedDocument recorded;
+        private Future<RecordedEmbeddedDocument> future;
+
+        Email(Path path, FileState state) {
+            this.path = path;
+            this.state = state;
+        }
+
+        void close() {
+            if (future != null) {
+                future.cancel(true);
+            }
+            //stops a parse that is still running
+            IOUtils.closeQuietly(stream);
+            if (recorded != null) {
+                recorded.clear();
+            }
+        }
+    }
 }
@@ -50,6 +50,54 @@ public class LibPstParserConfig implements Serializable {
      */
     private String readPstPath = "";
 
+    /**
+     * If true, readpst runs in the background and extracted emails are parsed
+     * while it is still exporting, instead of waiting for the whole PST to be
+     * exported first. An email is only written out once readpst is done with it:
+     * once readpst has moved on from its folder, which can only be told when readpst
+     * exports one folder at a time, or else once readpst has exited. With
+     * {@link #setEmailParallelism(int) emailParallelism} above 1, emails that look
+     * complete are parsed ahead on worker threads, also while readpst exports folders
+     * in parallel. Files are not deleted until readpst has exited, so the temp
+     * directory still grows to the full export size.
+     */
+    private boolean streamingExtraction = false;
+
+    /**
+     * In streaming mode, the number of threads that parse emails ahead of the one
+     * being written out. 1 parses each email on the calling thread once readpst is
+     * done with it.
+     */
+    private int emailParallelism = 1;
+
+    /**
+     * In streaming mode, caps the memory held by the output of the emails that were
+     * parsed ahead and not yet written out.
+     */
+    private long maxBufferedEmailBytes = 64 * 1024 * 1024;
+
+    /**
+     * Number of child processes readpst may fork to export folders in parallel
+     * (readpst's -j option). Not passed to readpst if this value is <= 0.
+     */
+    private int readPstJobs = 0;
+
+    /**
+     * How often the output directory is scanned for new emails in streaming mode.
+     */
+    private long pollIntervalMillis = 500;
+
+    /**
+     * In streaming mode, an email file is only parsed before readpst has exited once
+     * its size and modification time have not changed for this long. This is a guess,
+     * not a guarantee: readpst does not signal when it has closed a file, and a file
+     * that merely looks idle for this long, e.g. while readpst is busy with a large
+     * attachment, could still be written to. That is why an email is only written out
+     * once readpst has left its folder or exited, is parsed again if it has changed
+     * since it was parsed, and is never deleted before readpst exits.
+     */
+    private long settleMillis = 2000;
+
     public long getTimeoutSeconds() {
         return timeoutSeconds;
     }
@@ -98,6 +146,83 @@ public class LibPstParserConfig implements Serializable {
         this.readPstPath = readPstPath;
     }
 
+    public boolean isStreamingExtraction() {
+        return streamingExtraction;
+    }
+
+    public void setStreamingExtraction(boolean streamingExtraction) {
+        this.streamingExtraction = streamingExtraction;
+    }
+
+    public int getReadPstJobs() {
+        return readPstJobs;
+    }
+
+    public void setReadPstJobs(int readPstJobs) {
+        this.readPstJobs = readPstJobs;
+    }
+
+    public int getEmailParallelism() {
+        return emailParallelism;
+    }
+
+    /**
+     * When greater than 1, emails of a streaming export are parsed on this many worker
+     * threads as soon as they look complete. Their output is buffered and written out
+     * in path order once readpst is done with them, so the output and the write limit
+     * are the same as with sequential parsing. Falls back to sequential parsing when a
+     * custom embedded document extractor is configured, or the embedded count limit
+     * is set to throw.
+     *
+     * @param emailParallelism number of worker threads
+     * @see #setMaxBufferedEmailBytes(long)
+     */
+    public void setEmailParallelism(int emailParallelism) {
+        if (emailParallelism < 1) {
+            throw new IllegalArgumentException(
+                    "emailParallelism must be at least 1, got: " + emailParallelism);
+        }
+        this.emailParallelism = emailParallelism;
+    }
+
+    public long getMaxBufferedEmailBytes() {
+        return maxBufferedEmailBytes;
+    }
+
+    /**
+     * When emails are parsed concurrently, caps the memory held by the output of the
+     * emails that have been parsed but not yet written out. No more emails are parsed
+     * ahead while the cap is reached, and an email that does not fit is parsed again
+     * when its turn comes, straight into the output.
+     * <p>
+     * Default: 64 MB.
+     *
+     * @param maxBufferedEmailBytes bytes of buffered email output
+     */
+    public void setMaxBufferedEmailBytes(long maxBufferedEmailBytes) {
+        if (maxBufferedEmailBytes < 1) {
+            throw new IllegalArgumentException(
+                    "maxBufferedEmailBytes must be at least 1, got: " + maxBufferedEmailBytes);
+        }
+        this.maxBufferedEmailBytes = maxBufferedEmailBytes;
+    }
+
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    public void setPollIntervalMillis(long pollIntervalMillis) {
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    public long getSettleMillis() {
+        return settleMillis;
+    }
+
+    public void setSettleMillis(long settleMillis) {
+        this.settleMillis = settleMillis;
+    }
+
     /**
      * RuntimeConfig blocks modification of security-sensitive path fields at runtime.
      * When a config is obtained from ParseContext (i.e. user-provided at parse time),
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.microsoft.ooxml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.tika.io.TemporaryResources;
+
+/**
+ * Append-only store for the shared strings of an xlsx workbook.
+ * <p>
+ * Workbooks with millions of unique strings are common enough that holding
+ * each entry as a {@code String} can exhaust the heap. This store keeps the
+ * UTF-8 bytes of all strings packed end to end in 1 MB chunks plus one offset
+ * per string, and only materializes a {@code String} when a cell asks for it.
+ * The first chunk starts at 4 KB and doubles as it fills, so that the many
+ * workbooks with only a few strings don't pay for a full chunk.
+ * <p>
+ * Once the packed bytes exceed {@code maxBytesInMemory}, they are written to a
+ * temporary file, later strings are appended to that file, and lookups read
+ * from a read-only memory mapping of it. The file is deleted by {@link #close()}.
+ * <p>
+ * All strings must be added before {@link #finish()} is called. After that
+ * the store is read-only and lookups may be made from several threads.
+ */
+class SharedStringsStore implements Closeable {
+
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int FIRST_CHUNK_SIZE = 4096;
+    //each mapped segment also covers the longest string, so that every string
+    //lies entirely in the segment its first byte falls in
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final long maxBytesInMemory;
+    private final CharsetEncoder encoder = UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer encoded = ByteBuffer.allocate(256);
+
+    //offsets[i] is the start of string i, offsets[count] its end
+    private long[] offsets;
+    private int count = 0;
+    private long size = 0;
+    private int maxLength = 0;
+
+    private final List<byte[]> chunks = new ArrayList<>();
+
+    private final TemporaryResources tmp = new TemporaryResources();
+    private Path spillFile;
+    private OutputStream spillOut;
+    private MappedByteBuffer[] segments;
+    private boolean finished = false;
+
+    /**
+     * @param maxBytesInMemory number of bytes to keep on heap before spilling
+     *                         to a memory-mapped file, or -1 to never spill
+     * @param expectedCount    number of strings the workbook declares, used as
+     *                         a sizing hint
+     */
+    SharedStringsStore(long maxBytesInMemory, int expectedCount) {
+        this.maxBytesInMemory = maxBytesInMemory;
+        // guard against corrupt files with absurd counts
+        this.offsets = new long[Math.max(16, Math.min(expectedCount, 100_000)) + 1];
+    }
+
+    void add(CharSequence s) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Can't add strings after finish()");
+        }
+        encode(s);
+        int length = encoded.remaining();
+        if (spillOut == null && maxBytesInMemory > -1 && size + length > maxBytesInMemory) {
+            spill();
+        }
+        if (spillOut != null) {
+            spillOut.write(encoded.array(), 0, length);
+        } else {
+            appendToChunks(encoded.array(), length);
+        }
+        if (count + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+        }
+        size += length;
+        maxLength = Math.max(maxLength, length);
+        offsets[++count] = size;
+    }
+
+    /**
+     * Ends the adding of strings. If the strings were spilled, this flushes
+     * the temporary file and maps it into memory.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (spillOut != null) {
+            spillOut.flush();
+            map();
+        }
+    }
+
+    String get(int idx) {
+        if (idx < 0 || idx >= count) {
+            throw new IndexOutOfBoundsException("Index " + idx + " out of bounds for length " + count);
+        }
+        long start = offsets[idx];
+        int length = (int) (offsets[idx + 1] - start);
+        if (length == 0) {
+            return "";
+        }
+        if (spillOut != null) {
+            if (segments == null) {
+                throw new IllegalStateException("finish() must be called before reading spilled strings");
+            }
+            int segment = (int) (start / SEGMENT_SIZE);
+            byte[] bytes = new byte[length];
+            segments[segment].get((int) (start - segment * SEGMENT_SIZE), bytes);
+            return new String(bytes, UTF_8);
+        }
+        int chunk = (int) (start >>> CHUNK_BITS);
+        int off = (int) (start & CHUNK_MASK);
+        if (off + length <= CHUNK_SIZE) {
+            return new String(chunks.get(chunk), off, length, UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            int n = Math.min(length - copied, CHUNK_SIZE - off);
+            System.arraycopy(chunks.get(chunk++), off, bytes, copied, n);
+            copied += n;
+            off = 0;
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return whether the strings were spilled to a temporary file
+     */
+    boolean isSpilled() {
+        return spillOut != null;
+    }
+
+    /**
+     * @return the temporary file the strings were spilled to, or null
+     */
+    Path getSpillFile() {
+        return spillFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        segments = null;
+        //closes the spill stream, then deletes the file. The mapping stays valid
+        //until it is garbage collected; on Windows the file is only deleted on exit.
+        tmp.close();
+    }
+
+    private void encode(CharSequence s) {
+        //utf-8 needs at most three bytes per char
+        if (encoded.capacity() < s.length() * 3) {
+            encoded = ByteBuffer.allocate(s.length() * 3);
+        }
+        encoded.clear();
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(s), encoded, true);
+        encoder.flush(encoded);
+        encoded.flip();
+    }
+
+    private void appendToChunks(byte[] bytes, int length) {
+        int copied = 0;
+        while (copied < length) {
+            int off = (int) (size + copied) & CHUNK_MASK;
+            if (off == 0 && (size + copied) >>> CHUNK_BITS == chunks.size()) {
+                chunks.add(new byte[chunks.isEmpty() ? FIRST_CHUNK_SIZE : CHUNK_SIZE]);
+            }
+            byte[] chunk = chunks.get(chunks.size() - 1);
+            int n = Math.min(length - copied, CHUNK_SIZE - off);
+            if (off + n > chunk.length) {
+                //only the first chunk can be short; it grows up to CHUNK_SIZE
+                int newLength = chunk.length;
+                while (newLength < off + n) {
+                    newLength <<= 1;
+                }
+                chunk = Arrays.copyOf(chunk, newLength);
+                chunks.set(chunks.size() - 1, chunk);
+            }
+            System.arraycopy(bytes, copied, chunk, off, n);
+            copied += n;
+        }
+    }
+
+    private void spill() throws IOException {
+        spillFile = tmp.createTempFile(".bin");
+        spillOut = new BufferedOutputStream(Files.newOutputStream(spillFile), 64 * 1024);
+        tmp.addResource(spillOut);
+        long remaining = size;
+        for (byte[] chunk : chunks) {
+            int n = (int) Math.min(remaining, chunk.length);
+            spillOut.write(chunk, 0, n);
+            remaining -= n;
+        }
+        chunks.clear();
+    }
+
+    private void map() throws IOException {
+        int numSegments = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[numSegments];
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+            for (int i = 0; i < numSegments; i++) {
+                long start = i * SEGMENT_SIZE;
+                long length = Math.min(size - start, SEGMENT_SIZE + maxLength);
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        }
+        segments = mapped;
+    }
+}
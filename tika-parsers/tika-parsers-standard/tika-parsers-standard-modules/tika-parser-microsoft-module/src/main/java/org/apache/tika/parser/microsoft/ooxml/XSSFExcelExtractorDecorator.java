@@ -19,11 +19,15 @@ package org.apache.tika.parser.microsoft.ooxml;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.apache.poi.hssf.extractor.ExcelExtractor;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
@@ -49,6 +53,9 @@ import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+import org.apache.tika.concurrent.ParseWorkerPool;
+import org.apache.tika.config.OutputLimits;
+import org.apache.tika.config.TikaProgressTracker;
 import org.apache.tika.exception.RuntimeSAXException;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.exception.WriteLimitReachedException;
@@ -58,6 +65,7 @@ import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.microsoft.OfficeParserConfig;
 import org.apache.tika.parser.microsoft.TikaExcelDataFormatter;
+import org.apache.tika.sax.RecordingContentHandler;
 import org.apache.tika.sax.XHTMLContentHandler;
 import org.apache.tika.utils.ExceptionUtils;
 import org.apache.tika.utils.StringUtils;
@@ -96,6 +104,7 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
      * Allows access to headers/footers from raw xml strings
      */
     protected static HeaderFooterHelper hfHelper = new HeaderFooterHelper();
+    private final Locale locale;
     protected final DataFormatter formatter;
     protected final List<PackagePart> sheetParts = new ArrayList<>();
     protected final Map<String, String> drawingHyperlinks = new HashMap<>();
@@ -107,17 +116,26 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
         super(context, pkg);
 
         this.parseContext = context;
+        this.locale = locale;
+        this.formatter = createFormatter(context);
+    }
 
+    /**
+     * DataFormatter caches the formats it has seen, so each thread that
+     * formats cells needs its own.
+     */
+    private DataFormatter createFormatter(ParseContext context) {
+        TikaExcelDataFormatter dataFormatter;
         if (locale == null) {
-            formatter = new TikaExcelDataFormatter();
+            dataFormatter = new TikaExcelDataFormatter();
         } else {
-            formatter = new TikaExcelDataFormatter(locale);
+            dataFormatter = new TikaExcelDataFormatter(locale);
         }
         OfficeParserConfig officeParserConfig = context.get(OfficeParserConfig.class);
         if (officeParserConfig != null) {
-            ((TikaExcelDataFormatter) formatter)
-                    .setDateFormatOverride(officeParserConfig.getDateFormatOverride());
+            dataFormatter.setDateFormatOverride(officeParserConfig.getDateFormatOverride());
         }
+        return dataFormatter;
     }
 
     @Override
@@ -164,11 +182,51 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
         }
         try {
             stringsShim = new XSSFSharedStringsShim(xssfReader.getSharedStringsData(),
-                    config.isConcatenatePhoneticRuns(), parseContext);
+                    config.isConcatenatePhoneticRuns(),
+                    config.getSharedStringsMaxBytesInMemory(), parseContext);
         } catch (Exception e) {
             metadata.add(TikaCoreProperties.TIKA_META_EXCEPTION_WARNING,
                     ExceptionUtils.getStackTrace(e));
         }
+        try {
+            processSheets(iter, stylesShim, stringsShim, xhtml);
+        } finally {
+            if (stringsShim != null) {
+                stringsShim.close();
+            }
+        }
+
+        //consider adding this back to POI
+        try (InputStream wbData = xssfReader.getWorkbookData()) {
+            XMLReaderUtils
+                    .parseSAX(wbData, new WorkbookMetadataHandler(),
+                            parseContext);
+        } catch (InvalidFormatException | TikaException e) {
+            //swallow
+        }
+        try {
+            getPersons(container, metadata);
+        } catch (InvalidFormatException | TikaException | IOException | SAXException e) {
+            //swallow
+        }
+
+        // Extract external data sources (HIGH security risk - can hide malicious URLs)
+        try {
+            extractExternalDataSources(container, xhtml);
+        } catch (InvalidFormatException | TikaException | IOException | SAXException e) {
+            //swallow
+        }
+
+    }
+
+    private void processSheets(XSSFReader.SheetIterator iter, XSSFStylesShim stylesShim,
+                               XSSFSharedStringsShim stringsShim, XHTMLContentHandler xhtml)
+            throws SAXException, IOException {
+        if (config.getXlsxSheetParallelism() > 1) {
+            processSheetsInParallel(iter, stylesShim, stringsShim, xhtml);
+            return;
+        }
+        OPCPackage container = opcPackage;
         while (true) {
             try {
                 if (!iter.hasNext()) {
@@ -253,28 +311,200 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
             // All done with this sheet
             xhtml.endElement("div");
         }
+    }
 
-        //consider adding this back to POI
-        try (InputStream wbData = xssfReader.getWorkbookData()) {
-            XMLReaderUtils
-                    .parseSAX(wbData, new WorkbookMetadataHandler(),
-                            parseContext);
-        } catch (InvalidFormatException | TikaException e) {
-            //swallow
+    /**
+     * Parses up to {@link OfficeParserConfig#getXlsxSheetParallelism()} sheets at
+     * once, each on a worker thread into its own {@link RecordingContentHandler},
+     * and writes them into {@code xhtml} in workbook order.
+     * <p>
+     * Everything that reads the package's relationships (the sheet iterator,
+     * comments, drawings, hyperlinks) stays on this thread; the workers only
+     * parse the sheet XML.
+     * <p>
+     * Each recorder gets what is left of the write limit in {@link OutputLimits},
+     * so a worker stops once it has more than the output can take.  The recorders
+     * share a budget of {@link OfficeParserConfig#getXlsxMaxBufferedSheetBytes()};
+     * a sheet that does not fit is parsed again on this thread when its turn comes.
+     */
+    private void processSheetsInParallel(XSSFReader.SheetIterator iter,
+                                         XSSFStylesShim stylesShim,
+                                         XSSFSharedStringsShim stringsShim,
+                                         XHTMLContentHandler xhtml)
+            throws SAXException, IOException {
+        int parallelism = config.getXlsxSheetParallelism();
+        OutputLimits outputLimits = OutputLimits.get(parseContext);
+        RecordingContentHandler.MemoryBudget budget =
+                new RecordingContentHandler.MemoryBudget(config.getXlsxMaxBufferedSheetBytes());
+        long written = 0;
+        Deque<PendingSheet> pending = new ArrayDeque<>();
+        try (ParseWorkerPool workerPool =
+                     new ParseWorkerPool("xlsx-sheet", parallelism, parseContext)) {
+            try {
+                while (true) {
+                    if (pending.size() >= parallelism) {
+                        written += writeSheet(pending.pollFirst(), stylesShim, stringsShim, xhtml,
+                                workerPool);
+                    }
+                    try {
+                        if (!iter.hasNext()) {
+                            break;
+                        }
+                    } catch (RuntimeException e) {
+                        metadata.add(TikaCoreProperties.TIKA_META_EXCEPTION_WARNING,
+                                ExceptionUtils.getStackTrace(e));
+                        break;
+                    }
+                    InputStream stream;
+                    try {
+                        stream = iter.next();
+                    } catch (RuntimeException e) {
+                        //see processSheets
+                        metadata.add(TikaCoreProperties.TIKA_META_EXCEPTION_WARNING,
+                                ExceptionUtils.getStackTrace(e));
+                        break;
+                    }
+                    boolean submitted = false;
+                    try {
+                        PackagePart sheetPart = iter.getSheetPart();
+
+                        addDrawingHyperLinks(sheetPart);
+                        sheetParts.add(sheetPart);
+
+                        XSSFCommentsShim commentsShim = parseSheetComments(sheetPart);
+                        if (commentsShim != null && commentsShim.getNumberOfComments() > 0) {
+                            metadata.set(Office.HAS_COMMENTS, true);
+                        }
+                        int writeLimit = outputLimits.getWriteLimit();
+                        if (writeLimit > -1) {
+                            writeLimit = (int) Math.max(0, writeLimit - written);
+                        }
+                        PendingSheet sheet = new PendingSheet(iter.getSheetName(), sheetPart,
+                                commentsShim, stream, new RecordingContentHandler(writeLimit,
+                                        outputLimits.isThrowOnWriteLimit(), budget));
+                        sheet.sheetExtractor = new SheetTextAsHTML(config,
+                                new RecordingSheetHandler(sheet.content));
+                        sheet.handler = new XSSFSheetInterestingPartsCapturer(
+                                new TikaSheetXMLHandler(stylesShim, commentsShim, stringsShim,
+                                        sheet.sheetExtractor, createFormatter(parseContext), false));
+                        ParseContext sheetContext = new ParseContext();
+                        sheetContext.copyFrom(parseContext);
+                        sheet.future = workerPool.submit(parseSheetTask(sheet, sheetContext));
+                        pending.addLast(sheet);
+                        submitted = true;
+                    } finally {
+                        if (!submitted) {
+                            stream.close();
+                        }
+                    }
+                }
+                while (!pending.isEmpty()) {
+                    written += writeSheet(pending.pollFirst(), stylesShim, stringsShim, xhtml,
+                            workerPool);
+                }
+            } finally {
+                for (PendingSheet sheet : pending) {
+                    sheet.future.cancel(true);
+                    //stops a parse that is already running
+                    sheet.stream.close();
+                    sheet.content.clear();
+                }
+            }
         }
+    }
+
+    private static Callable<SAXException> parseSheetTask(PendingSheet sheet, ParseContext context) {
+        return () -> {
+            try (InputStream stream = sheet.stream) {
+                parseSheet(sheet.handler, stream, context);
+            } catch (SAXException | RuntimeException e) {
+                //SheetTextAsHTML wraps what the recorder throws in a RuntimeSAXException
+                if (sheet.content.isBudgetExceeded() ||
+                        WriteLimitReachedException.isWriteLimitReached(e)) {
+                    //stopped by the recorder, see writeSheet
+                    return null;
+                }
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                }
+                return (SAXException) e;
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Waits for the sheet to be parsed and writes it into {@code xhtml}, along
+     * with the parts of the sheet that are read from the package on this thread.
+     *
+     * @return the number of characters that were recorded for the sheet
+     */
+    private int writeSheet(PendingSheet sheet, XSSFStylesShim stylesShim,
+                           XSSFSharedStringsShim stringsShim, XHTMLContentHandler xhtml,
+                           ParseWorkerPool workerPool)
+            throws SAXException, IOException {
+        OPCPackage container = opcPackage;
+
+        xhtml.startElement("div", "class", "sheet");
+        xhtml.element("h1", sheet.sheetName);
+        xhtml.startElement("table");
+        xhtml.startElement("tbody");
+
+        SAXException parseException;
         try {
-            getPersons(container, metadata);
-        } catch (InvalidFormatException | TikaException | IOException | SAXException e) {
-            //swallow
+            parseException = workerPool.await(sheet.future);
+        } catch (TikaException e) {
+            throw new IOException(e);
+        }
+        int written = sheet.content.getWriteCount();
+        if (sheet.content.isBudgetExceeded()) {
+            //it did not fit next to the other sheets in flight
+            sheet.content.clear();
+            written = 0;
+            sheet.sheetExtractor = new SheetTextAsHTML(config, xhtml);
+            try (InputStream stream = sheet.sheetPart.getInputStream()) {
+                processSheet(sheet.sheetExtractor, sheet.commentsShim, stylesShim, stringsShim,
+                        stream);
+            } catch (SAXException e) {
+                WriteLimitReachedException.throwIfWriteLimitReached(e);
+                metadata.add(TikaCoreProperties.TIKA_META_EXCEPTION_WARNING,
+                        ExceptionUtils.getStackTrace(e));
+            }
+        } else {
+            try {
+                //if the recorder stopped at the write limit, xhtml reaches its own limit here
+                sheet.content.replay(xhtml);
+            } finally {
+                sheet.content.clear();
+            }
+            if (parseException == null) {
+                setSheetMetadata(sheet.handler);
+            } else {
+                metadata.add(TikaCoreProperties.TIKA_META_EXCEPTION_WARNING,
+                        ExceptionUtils.getStackTrace(parseException));
+            }
         }
-
-        // Extract external data sources (HIGH security risk - can hide malicious URLs)
         try {
-            extractExternalDataSources(container, xhtml);
-        } catch (InvalidFormatException | TikaException | IOException | SAXException e) {
+            getThreadedComments(container, sheet.sheetPart, xhtml);
+        } catch (InvalidFormatException | TikaException | IOException e) {
             //swallow
         }
+        xhtml.endElement("tbody");
+        xhtml.endElement("table");
 
+        for (String header : sheet.sheetExtractor.headers) {
+            extractHeaderFooter(header, xhtml);
+        }
+        for (String footer : sheet.sheetExtractor.footers) {
+            extractHeaderFooter(footer, xhtml);
+        }
+        if (config.isIncludeShapeBasedContent()) {
+            processDrawings(sheet.sheetPart, xhtml);
+        }
+        extractHyperLinks(sheet.sheetPart, xhtml);
+        xhtml.endElement("div");
+        TikaProgressTracker.update(parseContext);
+        return written;
     }
 
     /**
@@ -865,27 +1095,36 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
                              XSSFCommentsShim commentsShim,
                              XSSFStylesShim stylesShim, XSSFSharedStringsShim stringsShim,
                              InputStream sheetInputStream) throws IOException, SAXException {
+        XSSFSheetInterestingPartsCapturer handler = new XSSFSheetInterestingPartsCapturer(
+                new TikaSheetXMLHandler(stylesShim, commentsShim, stringsShim,
+                        sheetContentsHandler, formatter, false));
+        parseSheet(handler, sheetInputStream, parseContext);
+        setSheetMetadata(handler);
+    }
+
+    private static void parseSheet(XSSFSheetInterestingPartsCapturer handler,
+                                   InputStream sheetInputStream, ParseContext context)
+            throws IOException, SAXException {
         try {
-            XSSFSheetInterestingPartsCapturer handler = new XSSFSheetInterestingPartsCapturer(
-                    new TikaSheetXMLHandler(stylesShim, commentsShim, stringsShim,
-                            sheetContentsHandler, formatter, false));
-            XMLReaderUtils.parseSAX(sheetInputStream, handler, parseContext);
+            XMLReaderUtils.parseSAX(sheetInputStream, handler, context);
             sheetInputStream.close();
-
-            if (handler.hasProtection) {
-                metadata.set(Office.PROTECTED_WORKSHEET, true);
-            }
-            if (handler.hasHiddenColumn) {
-                metadata.set(Office.HAS_HIDDEN_COLUMNS, true);
-            }
-            if (handler.hasHiddenRow) {
-                metadata.set(Office.HAS_HIDDEN_ROWS, true);
-            }
         } catch (TikaException e) {
             throw new RuntimeException("SAX parser appears to be broken - " + e.getMessage());
         }
     }
 
+    private void setSheetMetadata(XSSFSheetInterestingPartsCapturer handler) {
+        if (handler.hasProtection) {
+            metadata.set(Office.PROTECTED_WORKSHEET, true);
+        }
+        if (handler.hasHiddenColumn) {
+            metadata.set(Office.HAS_HIDDEN_COLUMNS, true);
+        }
+        if (handler.hasHiddenRow) {
+            metadata.set(Office.HAS_HIDDEN_ROWS, true);
+        }
+    }
+
     /**
      * Parse the comments XML for a sheet part via SAX, avoiding XMLBeans.
      */
@@ -1073,6 +1312,66 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
         }
     }
 
+    /**
+     * A sheet that has been handed to a worker thread to be parsed.
+     */
+    private static class PendingSheet {
+        private final String sheetName;
+        private final PackagePart sheetPart;
+        private final XSSFCommentsShim commentsShim;
+        private final InputStream stream;
+        private final RecordingContentHandler content;
+        private SheetTextAsHTML sheetExtractor;
+        private XSSFSheetInterestingPartsCapturer handler;
+        private Future<SAXException> future;
+
+        PendingSheet(String sheetName, PackagePart sheetPart, XSSFCommentsShim commentsShim,
+                     InputStream stream, RecordingContentHandler content) {
+            this.sheetName = sheetName;
+            this.sheetPart = sheetPart;
+            this.commentsShim = commentsShim;
+            this.stream = stream;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Hands what a {@link SheetTextAsHTML} writes to a recorder as is, before any
+     * of the XHTML formatting.  Replaying the recorder into the real
+     * {@link XHTMLContentHandler} then formats the sheet exactly as writing to
+     * it directly would have.
+     */
+    private static class RecordingSheetHandler extends XHTMLContentHandler {
+
+        private final RecordingContentHandler recorder;
+
+        RecordingSheetHandler(RecordingContentHandler recorder) {
+            super(recorder, new Metadata());
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void startElement(String uri, String local, String name, Attributes attributes)
+                throws SAXException {
+            recorder.startElement(uri, local, name, attributes);
+        }
+
+        @Override
+        public void endElement(String uri, String local, String name) throws SAXException {
+            recorder.endElement(uri, local, name);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            recorder.characters(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            recorder.ignorableWhitespace(ch, start, length);
+        }
+    }
+
     protected static class HeaderFooterFromString implements HeaderFooter {
         private String text;
 
@@ -16,10 +16,9 @@
  */
 package org.apache.tika.parser.microsoft.ooxml;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -33,30 +32,54 @@ import org.apache.tika.utils.XMLReaderUtils;
  * SAX-based shim that replaces POI's {@code ReadOnlySharedStringsTable}
  * for XLSX event-based parsing.
  * <p>
- * Parses {@code xl/sharedStrings.xml} and stores each shared string entry
- * as a plain {@code String}, avoiding the XMLBeans dependency that
- * {@code XSSFRichTextString} requires. Rich text runs within a single
- * {@code <si>} are concatenated into a single string.
+ * Parses {@code xl/sharedStrings.xml} into a compact {@link SharedStringsStore},
+ * avoiding the XMLBeans dependency that {@code XSSFRichTextString} requires.
+ * Rich text runs within a single {@code <si>} are concatenated into a single string.
  */
-class XSSFSharedStringsShim {
+class XSSFSharedStringsShim implements Closeable {
 
-    private final List<String> strings;
     private final boolean includePhoneticRuns;
+    private final long maxBytesInMemory;
+    private SharedStringsStore strings;
 
     XSSFSharedStringsShim(InputStream sharedStringsData,
                            boolean includePhoneticRuns,
                            ParseContext parseContext)
             throws IOException, SAXException, TikaException {
+        this(sharedStringsData, includePhoneticRuns, -1, parseContext);
+    }
+
+    /**
+     * @param maxBytesInMemory bytes of shared strings to keep on heap before
+     *                         spilling to a temporary file, or -1 to never spill
+     */
+    XSSFSharedStringsShim(InputStream sharedStringsData,
+                           boolean includePhoneticRuns,
+                           long maxBytesInMemory,
+                           ParseContext parseContext)
+            throws IOException, SAXException, TikaException {
         this.includePhoneticRuns = includePhoneticRuns;
+        this.maxBytesInMemory = maxBytesInMemory;
         SharedStringsHandler handler = new SharedStringsHandler();
         if (sharedStringsData != null) {
             try {
                 XMLReaderUtils.parseSAX(sharedStringsData, handler, parseContext);
+            } catch (IOException | SAXException | TikaException | RuntimeException e) {
+                close();
+                throw e;
             } finally {
                 sharedStringsData.close();
             }
         }
-        this.strings = handler.strings;
+        if (strings == null) {
+            strings = new SharedStringsStore(maxBytesInMemory, 0);
+        }
+        try {
+            strings.finish();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
     }
 
     String getItemAt(int idx) {
@@ -67,12 +90,18 @@ class XSSFSharedStringsShim {
         return strings.size();
     }
 
+    @Override
+    public void close() throws IOException {
+        if (strings != null) {
+            strings.close();
+        }
+    }
+
     private class SharedStringsHandler extends DefaultHandler {
 
         private static final String NS =
                 "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
 
-        final List<String> strings = new ArrayList<>();
         private StringBuilder characters;
         private boolean tIsOpen;
         private boolean inRPh;
@@ -85,17 +114,18 @@ class XSSFSharedStringsShim {
             }
             switch (localName) {
                 case "sst":
+                    int hint = 0;
                     String uniqueCount = attributes.getValue("uniqueCount");
                     if (uniqueCount != null) {
                         try {
-                            int hint = (int) Long.parseLong(uniqueCount);
-                            // guard against corrupt files with absurd counts
-                            ((ArrayList<String>) strings).ensureCapacity(
-                                    Math.min(hint, 100_000));
+                            hint = (int) Math.min(Long.parseLong(uniqueCount), Integer.MAX_VALUE);
                         } catch (NumberFormatException e) {
                             // ignore
                         }
                     }
+                    if (strings == null) {
+                        strings = new SharedStringsStore(maxBytesInMemory, hint);
+                    }
                     characters = new StringBuilder(64);
                     break;
                 case "si":
@@ -119,14 +149,18 @@ class XSSFSharedStringsShim {
         }
 
         @Override
-        public void endElement(String uri, String localName, String qName) {
+        public void endElement(String uri, String localName, String qName) throws SAXException {
             if (uri != null && !NS.equals(uri)) {
                 return;
             }
             switch (localName) {
                 case "si":
                     if (characters != null) {
-                        strings.add(characters.toString());
+                        try {
+                            strings.add(characters);
+                        } catch (IOException e) {
+                            throw new SAXException(e);
+                        }
                     }
                     break;
                 case "t":
@@ -19,10 +19,18 @@ package org.apache.tika.parser.microsoft.libpst;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.apache.tika.TikaTest;
 import org.apache.tika.config.loader.TikaLoader;
@@ -113,4 +121,75 @@ public class TestLibPstParser extends TikaTest {
                 .get(Metadata.CONTENT_TYPE));
     }
 
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    public void testStreamingExtraction(@TempDir Path tmp) throws Exception {
+        //stand-in for readpst that exports one folder at a time. It fails if an email
+        //is deleted before it exits, or if -j isn't passed through
+        Path msg = getMsgPath();
+        Parser p = loadStreamingParser(tmp, "1", 1,
+                "mkdir -p \"$out/mailbox/Inbox\"\n" +
+                "cp '" + msg + "' \"$out/mailbox/Inbox/1.msg\"\n" +
+                "sleep 0.3\n" +
+                "mkdir -p \"$out/mailbox/Sent\"\n" +
+                "cp '" + msg + "' \"$out/mailbox/Sent/2.msg\"\n" +
+                "sleep 0.5\n" +
+                "[ -f \"$out/mailbox/Inbox/1.msg\" ] || exit 3\n");
+
+        List<Metadata> metadataList = getRecursiveMetadata("testPST.pst", p);
+        assertEquals(3, metadataList.size());
+        assertEquals("mailbox/Inbox/1.msg", metadataList.get(1).get(TikaCoreProperties.INTERNAL_PATH));
+        assertEquals("mailbox/Sent/2.msg", metadataList.get(2).get(TikaCoreProperties.INTERNAL_PATH));
+        assertEquals("Jukka Zitting", metadataList.get(2).get(Message.MESSAGE_FROM_NAME));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    public void testStreamingExtractionParallel(@TempDir Path tmp) throws Exception {
+        //stand-in for readpst that exports two folders at once, and stalls on a
+        //half-written email for longer than settleMillis
+        Path msg = getMsgPath();
+        Parser p = loadStreamingParser(tmp, "2", 2,
+                "mkdir -p \"$out/mailbox/Inbox\" \"$out/mailbox/Sent\"\n" +
+                "head -c 1000 '" + msg + "' > \"$out/mailbox/Inbox/1.msg\"\n" +
+                "cp '" + msg + "' \"$out/mailbox/Sent/2.msg\"\n" +
+                "cp '" + msg + "' \"$out/mailbox/Sent/3.msg\"\n" +
+                "sleep 0.5\n" +
+                "cp '" + msg + "' \"$out/mailbox/Inbox/1.msg\"\n");
+
+        List<Metadata> metadataList = getRecursiveMetadata("testPST.pst", p);
+        assertEquals(4, metadataList.size());
+        assertEquals("mailbox/Inbox/1.msg", metadataList.get(1).get(TikaCoreProperties.INTERNAL_PATH));
+        assertEquals("mailbox/Sent/2.msg", metadataList.get(2).get(TikaCoreProperties.INTERNAL_PATH));
+        assertEquals("mailbox/Sent/3.msg", metadataList.get(3).get(TikaCoreProperties.INTERNAL_PATH));
+        for (int i = 1; i < metadataList.size(); i++) {
+            assertEquals("Jukka Zitting", metadataList.get(i).get(Message.MESSAGE_FROM_NAME));
+        }
+    }
+
+    private static Path getMsgPath() throws Exception {
+        return Paths.get(TestLibPstParser.class.getResource("/test-documents/testMSG.msg").toURI());
+    }
+
+    private static Parser loadStreamingParser(Path tmp, String jobs, int emailParallelism,
+                                              String export) throws Exception {
+        Path script = tmp.resolve("readpst");
+        Files.writeString(script, "#!/bin/sh\n" +
+                "while [ $# -gt 0 ]; do\n" +
+                "  case \"$1\" in -o) out=\"$2\"; shift;; -j) jobs=\"$2\"; shift;; esac\n" +
+                "  shift\n" +
+                "done\n" +
+                "[ -z \"$out\" ] && exit 0\n" +
+                "[ \"$jobs\" = \"" + jobs + "\" ] || exit 2\n" +
+                export, StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwx------"));
+
+        Path config = tmp.resolve("tika-libpst-streaming-config.json");
+        Files.writeString(config, "{\"parsers\": [{\"default-parser\": {\"_exclude\": [\"outlook-pst-parser\", \"pst-mail-item-parser\"]}}," +
+                "{\"lib-pst-parser\": {\"readPstPath\": \"" + tmp.toAbsolutePath() + "/\", \"debug\": false," +
+                "\"streamingExtraction\": true, \"readPstJobs\": " + jobs + ", \"emailParallelism\": " + emailParallelism + "," +
+                "\"pollIntervalMillis\": 50, \"settleMillis\": 100}}]}",
+                StandardCharsets.UTF_8);
+        return TikaLoader.load(config).loadAutoDetectParser();
+    }
 }
@@ -17,6 +17,7 @@
 package org.apache.tika.parser.microsoft.ooxml;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -38,10 +39,12 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import org.apache.tika.MultiThreadedTikaTest;
+import org.apache.tika.config.OutputLimits;
 import org.apache.tika.config.loader.TikaLoader;
 import org.apache.tika.detect.DefaultDetector;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.exception.EncryptedDocumentException;
+import org.apache.tika.exception.WriteLimitReachedException;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.Office;
@@ -55,6 +58,9 @@ import org.apache.tika.parser.RecursiveParserWrapper;
 import org.apache.tika.parser.microsoft.OfficeParser;
 import org.apache.tika.parser.microsoft.OfficeParserConfig;
 import org.apache.tika.parser.microsoft.OfficeParserTest;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.ToTextContentHandler;
+import org.apache.tika.sax.WriteOutContentHandler;
 
 public class OOXMLParserTest extends MultiThreadedTikaTest {
 
@@ -265,6 +271,75 @@ public class OOXMLParserTest extends MultiThreadedTikaTest {
         assertNotContained("autoshape", xml);
     }
 
+    @Test
+    public void testXlsxSheetParallelism() throws Exception {
+        for (String fileName : new String[]{"testEXCEL.xlsx", "testEXCEL_headers_footers.xlsx",
+                "testEXCEL_hyperlinks.xlsx", "testEXCEL_textbox.xlsx",
+                "testEXCEL_protected_passtika.xlsx"}) {
+            ParseContext sequentialContext = new ParseContext();
+            sequentialContext.set(PasswordProvider.class, m -> "tika");
+            XMLResult sequential = getXML(fileName, sequentialContext);
+
+            ParseContext parallelContext = new ParseContext();
+            parallelContext.set(PasswordProvider.class, m -> "tika");
+            OfficeParserConfig officeParserConfig = new OfficeParserConfig();
+            officeParserConfig.setXlsxSheetParallelism(2);
+            parallelContext.set(OfficeParserConfig.class, officeParserConfig);
+            XMLResult parallel = getXML(fileName, parallelContext);
+
+            assertEquals(sequential.xml, parallel.xml, fileName);
+            for (String name : sequential.metadata.names()) {
+                assertEquals(sequential.metadata.get(name), parallel.metadata.get(name), fileName + " " + name);
+            }
+        }
+
+        //the write limit applies to the sheets as they are written out in order
+        OfficeParserConfig officeParserConfig = new OfficeParserConfig();
+        officeParserConfig.setXlsxSheetParallelism(3);
+        ParseContext context = new ParseContext();
+        context.set(OfficeParserConfig.class, officeParserConfig);
+        BodyContentHandler handler = new BodyContentHandler(100);
+        try (TikaInputStream tis = getResourceAsStream("/test-documents/testEXCEL.xlsx")) {
+            AUTO_DETECT_PARSER.parse(tis, handler, new Metadata(), context);
+            fail("should have hit the write limit");
+        } catch (WriteLimitReachedException e) {
+            //expected
+        }
+        assertEquals(100, handler.toString().length());
+        assertTrue(getText("testEXCEL.xlsx").startsWith(handler.toString()));
+    }
+
+    @Test
+    public void testXlsxSheetParallelismBounds() throws Exception {
+        String expected = getText("testEXCEL.xlsx");
+
+        //the workers stop at the write limit from OutputLimits
+        OfficeParserConfig officeParserConfig = new OfficeParserConfig();
+        officeParserConfig.setXlsxSheetParallelism(3);
+        ParseContext context = new ParseContext();
+        context.set(OfficeParserConfig.class, officeParserConfig);
+        context.set(OutputLimits.class, new OutputLimits(100, true, 100, 10, 1_000_000, 100));
+        BodyContentHandler handler =
+                new BodyContentHandler(WriteOutContentHandler.newInstance(new ToTextContentHandler(), context));
+        try (TikaInputStream tis = getResourceAsStream("/test-documents/testEXCEL.xlsx")) {
+            assertThrows(WriteLimitReachedException.class,
+                    () -> AUTO_DETECT_PARSER.parse(tis, handler, new Metadata(), context));
+        }
+        assertEquals(100, handler.toString().length());
+        assertTrue(expected.startsWith(handler.toString()));
+
+        //sheets that do not fit in the buffer are parsed again on the calling thread
+        officeParserConfig = new OfficeParserConfig();
+        officeParserConfig.setXlsxSheetParallelism(3);
+        officeParserConfig.setXlsxMaxBufferedSheetBytes(1);
+        ParseContext smallBufferContext = new ParseContext();
+        smallBufferContext.set(OfficeParserConfig.class, officeParserConfig);
+        assertEquals(getXML("testEXCEL.xlsx").xml, getXML("testEXCEL.xlsx", smallBufferContext).xml);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new OfficeParserConfig().setXlsxSheetParallelism(0));
+    }
+
     @Test
     public void testXLSXThumbnail() throws Exception {
         String xml = getXML("testXLSX_Thumbnail.xlsx").xml;
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.microsoft.ooxml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.tika.parser.ParseContext;
+
+/**
+ * Measures the heap retained by the shared strings of a synthetic workbook with
+ * many unique strings: one {@code String} per entry (the previous representation)
+ * vs. {@link SharedStringsStore} on heap vs. spilled to a memory-mapped file.
+ * <p>
+ * Run with a fixed heap, e.g. {@code -Xmx4g}.
+ * <p>
+ * Usage: SharedStringsBenchmark [numStrings]
+ */
+public class SharedStringsBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numStrings = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path sst = Files.createTempFile("tika-sst-benchmark", ".xml");
+        try {
+            writeSharedStrings(sst, numStrings);
+            System.out.println(String.format(Locale.ROOT, "%,d unique strings, sharedStrings.xml: %,d bytes",
+                    numStrings, Files.size(sst)));
+
+            //each variant is measured in its own frame, so that nothing of the
+            //previous one is still reachable
+            measureStrings(sst);
+            measureStore(sst, "store, on heap", -1);
+            measureStore(sst, "store, spilled past 16 MB", 16 * 1024 * 1024);
+        } finally {
+            Files.delete(sst);
+        }
+    }
+
+    private static void measureStrings(Path sst) throws Exception {
+        long before = usedHeap();
+        List<String> strings = new ArrayList<>();
+        try (XSSFSharedStringsShim shim = parse(sst, -1)) {
+            for (int i = 0; i < shim.getCount(); i++) {
+                strings.add(new String(shim.getItemAt(i)));
+            }
+        }
+        report("List<String>", usedHeap() - before, strings.size());
+    }
+
+    private static void measureStore(Path sst, String label, long maxBytesInMemory) throws Exception {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        try (XSSFSharedStringsShim shim = parse(sst, maxBytesInMemory)) {
+            report(label, usedHeap() - before, lookups(shim));
+        }
+        System.out.println(String.format(Locale.ROOT, "  parse + lookups: %,d ms",
+                (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private static XSSFSharedStringsShim parse(Path sst, long maxBytesInMemory) throws Exception {
+        try (InputStream is = Files.newInputStream(sst)) {
+            return new XSSFSharedStringsShim(is, true, maxBytesInMemory, new ParseContext());
+        }
+    }
+
+    /**
+     * Random lookups, as cells referencing the table would make.
+     */
+    private static long lookups(XSSFSharedStringsShim shim) {
+        Random random = new Random(1);
+        long chars = 0;
+        for (int i = 0; i < 2_000_000; i++) {
+            chars += shim.getItemAt(random.nextInt(shim.getCount())).length();
+        }
+        return chars;
+    }
+
+    private static void writeSharedStrings(Path sst, int numStrings) throws Exception {
+        Random random = new Random(42);
+        try (Writer w = Files.newBufferedWriter(sst, UTF_8)) {
+            w.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+            w.write("<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"" +
+                    numStrings + "\" uniqueCount=\"" + numStrings + "\">");
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < numStrings; i++) {
+                sb.setLength(0);
+                sb.append("Customer ").append(i).append(' ');
+                //mostly short cells, like names, codes and addresses
+                int words = 1 + random.nextInt(6);
+                for (int j = 0; j < words; j++) {
+                    int len = 3 + random.nextInt(8);
+                    for (int k = 0; k < len; k++) {
+                        sb.append((char) ('a' + random.nextInt(26)));
+                    }
+                    sb.append(' ');
+                }
+                w.write("<si><t>");
+                w.write(sb.toString());
+                w.write("</t></si>");
+            }
+            w.write("</sst>");
+        }
+    }
+
+    private static void report(String label, long retained, long chars) {
+        System.out.println(String.format(Locale.ROOT, "%-28s retained heap: %,d KB", label,
+                retained / 1024));
+        blackhole(chars);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static volatile long sink;
+
+    private static void blackhole(long value) {
+        sink += value;
+    }
+}
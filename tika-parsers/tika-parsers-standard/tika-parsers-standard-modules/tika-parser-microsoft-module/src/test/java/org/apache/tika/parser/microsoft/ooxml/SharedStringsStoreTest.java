@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.microsoft.ooxml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.microsoft.OfficeParserConfig;
+
+public class SharedStringsStoreTest {
+
+    private static List<String> sampleStrings(int n) {
+        List<String> strings = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            sb.setLength(0);
+            sb.append("cell ").append(i).append(" é日本 😀");
+            //every so often a string that crosses a 1 MB chunk boundary
+            if (i % 97 == 0) {
+                for (int j = 0; j < 5000; j++) {
+                    sb.append('x');
+                }
+            }
+            if (i % 13 == 0) {
+                sb.setLength(0);
+            }
+            strings.add(sb.toString());
+        }
+        return strings;
+    }
+
+    @Test
+    public void testInMemory() throws Exception {
+        List<String> expected = sampleStrings(50_000);
+        try (SharedStringsStore store = new SharedStringsStore(-1, 10)) {
+            for (String s : expected) {
+                store.add(s);
+            }
+            store.finish();
+            assertFalse(store.isSpilled());
+            assertEquals(expected.size(), store.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), store.get(i));
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(expected.size()));
+        }
+    }
+
+    @Test
+    public void testSpilled() throws Exception {
+        List<String> expected = sampleStrings(50_000);
+        Path spillFile;
+        try (SharedStringsStore store = new SharedStringsStore(100_000, expected.size())) {
+            for (String s : expected) {
+                store.add(s);
+            }
+            store.finish();
+            assertTrue(store.isSpilled());
+            spillFile = store.getSpillFile();
+            assertTrue(Files.exists(spillFile));
+            assertEquals(expected.size(), store.size());
+            for (int i = expected.size() - 1; i >= 0; i--) {
+                assertEquals(expected.get(i), store.get(i));
+            }
+            assertThrows(IllegalStateException.class, () -> store.add("too late"));
+        }
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    public void testFewStrings() throws Exception {
+        try (SharedStringsStore store = new SharedStringsStore(-1, 0)) {
+            store.add("short");
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                sb.append('x');
+            }
+            //outgrows the small first chunk
+            store.add(sb);
+            store.add("after");
+            store.finish();
+            assertEquals(3, store.size());
+            assertEquals("short", store.get(0));
+            assertEquals(sb.toString(), store.get(1));
+            assertEquals("after", store.get(2));
+        }
+    }
+
+    @Test
+    public void testConfig() {
+        OfficeParserConfig config = new OfficeParserConfig();
+        config.setSharedStringsMaxBytesInMemory(-1);
+        config.setSharedStringsMaxBytesInMemory(0);
+        assertThrows(IllegalArgumentException.class,
+                () -> config.setSharedStringsMaxBytesInMemory(-2));
+    }
+
+    @Test
+    public void testShim() throws Exception {
+        String xml = "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" " +
+                "count=\"3\" uniqueCount=\"3\">" +
+                "<si><t>plain</t></si>" +
+                "<si><r><t>rich </t></r><r><t>text</t></r></si>" +
+                "<si><t>漢字</t><rPh sb=\"0\" eb=\"2\"><t>かんじ</t></rPh></si>" +
+                "</sst>";
+        for (long maxBytesInMemory : new long[]{-1, 0}) {
+            try (XSSFSharedStringsShim shim = new XSSFSharedStringsShim(
+                    new ByteArrayInputStream(xml.getBytes(UTF_8)), true, maxBytesInMemory,
+                    new ParseContext())) {
+                assertEquals(3, shim.getCount());
+                assertEquals("plain", shim.getItemAt(0));
+                assertEquals("rich text", shim.getItemAt(1));
+                assertEquals("漢字 かんじ", shim.getItemAt(2));
+            }
+        }
+    }
+}
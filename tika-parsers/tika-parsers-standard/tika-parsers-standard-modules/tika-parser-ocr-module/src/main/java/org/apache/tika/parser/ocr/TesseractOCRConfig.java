@@ -91,6 +91,10 @@ public class TesseractOCRConfig implements Serializable {
     private String tesseractPath = "";
     private String tessdataPath = "";
     private String imageMagickPath = "";
+    // number of ocr results to cache in memory across documents; 0 disables the in-memory tier
+    private int ocrCacheSize = 0;
+    // directory for the on-disk tier of the ocr result cache; empty disables it
+    private String ocrCacheDirectory = "";
 
 
     /**
@@ -574,6 +578,40 @@ public class TesseractOCRConfig implements Serializable {
         this.imageMagickPath = imageMagickPath;
     }
 
+    public int getOcrCacheSize() {
+        return ocrCacheSize;
+    }
+
+    /**
+     * Number of OCR results to keep in memory so that identical images
+     * (same bytes, same OCR settings) are only OCR'd once across documents.
+     * Default is 0, which disables the in-memory tier. This is a parser-level
+     * setting and cannot be changed at parse time.
+     *
+     * @param ocrCacheSize number of results to keep in memory
+     */
+    public void setOcrCacheSize(int ocrCacheSize) throws TikaConfigException {
+        if (ocrCacheSize < 0) {
+            throw new IllegalArgumentException("ocrCacheSize must be >= 0: " + ocrCacheSize);
+        }
+        this.ocrCacheSize = ocrCacheSize;
+    }
+
+    public String getOcrCacheDirectory() {
+        return ocrCacheDirectory;
+    }
+
+    /**
+     * Directory in which to persist OCR results so that they survive restarts.
+     * Default is empty, which disables the on-disk tier. This is a parser-level
+     * setting and cannot be changed at parse time.
+     *
+     * @param ocrCacheDirectory directory for cached OCR results
+     */
+    public void setOcrCacheDirectory(String ocrCacheDirectory) throws TikaConfigException {
+        this.ocrCacheDirectory = ocrCacheDirectory == null ? "" : ocrCacheDirectory;
+    }
+
     /**
      * Runtime-only TesseractOCRConfig that prevents modification of paths.
      * Used to enforce immutability of parser-level paths during parse-time configuration.
@@ -609,6 +647,20 @@ public class TesseractOCRConfig implements Serializable {
             }
         }
 
+        @Override
+        public void setOcrCacheDirectory(String ocrCacheDirectory) throws TikaConfigException {
+            if (! StringUtils.isBlank(ocrCacheDirectory)) {
+                throw new TikaConfigException("Cannot modify ocrCacheDirectory at runtime. " + "Paths must be configured at parser initialization time.");
+            }
+        }
+
+        @Override
+        public void setOcrCacheSize(int ocrCacheSize) throws TikaConfigException {
+            if (ocrCacheSize != 0) {
+                throw new TikaConfigException("Cannot modify ocrCacheSize at runtime. " + "The cache is created at parser initialization time.");
+            }
+        }
+
         @Override
         public void setTrustedPageSeparator(String pageSeparator) {
             throw new IllegalArgumentException("Cannot use setTrustedPageSeparator at runtime. " + "Use setPageSeparator instead.");
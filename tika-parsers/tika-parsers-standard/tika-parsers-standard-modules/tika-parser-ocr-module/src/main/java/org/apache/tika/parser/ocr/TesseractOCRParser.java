@@ -22,6 +22,7 @@ import static org.apache.tika.sax.XHTMLContentHandler.XHTML;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -75,6 +76,8 @@ import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.AbstractExternalProcessParser;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.ocr.cache.DefaultOcrResultCache;
+import org.apache.tika.parser.ocr.cache.OcrResultCache;
 import org.apache.tika.sax.BodyContentHandler;
 import org.apache.tika.sax.EmbeddedContentHandler;
 import org.apache.tika.sax.TeeContentHandler;
@@ -144,6 +147,7 @@ public class TesseractOCRParser extends AbstractExternalProcessParser implements
     private boolean hasTesseract;
     private boolean hasImageMagick;
     private ImagePreprocessor imagePreprocessor;
+    private transient OcrResultCache ocrResultCache;
 
     public TesseractOCRParser() throws TikaConfigException {
         initialize();
@@ -381,6 +385,17 @@ public class TesseractOCRParser extends AbstractExternalProcessParser implements
             long size = tikaInputStream.getLength();
 
             if (size >= config.getMinFileSizeToOcr() && size <= config.getMaxFileSizeToOcr()) {
+                OcrResultCache cache = getOcrResultCache(parseContext);
+                String cacheKey = null;
+                if (cache != null) {
+                    cacheKey = OcrResultCache.buildKey(input, getCacheSettings(config));
+                    String cached = cache.get(cacheKey);
+                    if (cached != null) {
+                        handleOutput(new ByteArrayInputStream(cached.getBytes(UTF_8)), xhtml,
+                                metadata, parseContext, config);
+                        return;
+                    }
+                }
 
                 // Process image
                 if (config.isEnableImagePreprocessing() || config.isApplyRotation()) {
@@ -412,13 +427,14 @@ public class TesseractOCRParser extends AbstractExternalProcessParser implements
                         "." + extension);
 
                 if (tmpTxtOutput.exists()) {
-                    try (InputStream is = new FileInputStream(tmpTxtOutput)) {
-                        if (config.getPageSegMode().equals("0")) {
-                            extractOSD(is, metadata);
-                        } else if (config.getOutputType().equals(TesseractOCRConfig.OUTPUT_TYPE.HOCR)) {
-                            extractHOCROutput(is, parseContext, xhtml);
-                        } else {
-                            extractOutput(is, xhtml);
+                    if (cacheKey != null) {
+                        byte[] output = Files.readAllBytes(tmpTxtOutput.toPath());
+                        cache.put(cacheKey, new String(output, UTF_8));
+                        handleOutput(new ByteArrayInputStream(output), xhtml, metadata,
+                                parseContext, config);
+                    } else {
+                        try (InputStream is = new FileInputStream(tmpTxtOutput)) {
+                            handleOutput(is, xhtml, metadata, parseContext, config);
                         }
                     }
                 }
@@ -430,6 +446,50 @@ public class TesseractOCRParser extends AbstractExternalProcessParser implements
         }
     }
 
+    private void handleOutput(InputStream is, ContentHandler xhtml, Metadata metadata,
+                              ParseContext parseContext, TesseractOCRConfig config)
+            throws IOException, SAXException, TikaException {
+        if (config.getPageSegMode().equals("0")) {
+            extractOSD(is, metadata);
+        } else if (config.getOutputType().equals(TesseractOCRConfig.OUTPUT_TYPE.HOCR)) {
+            extractHOCROutput(is, parseContext, xhtml);
+        } else {
+            extractOutput(is, xhtml);
+        }
+    }
+
+    private OcrResultCache getOcrResultCache(ParseContext parseContext) {
+        return parseContext.get(OcrResultCache.class, ocrResultCache);
+    }
+
+    /**
+     * Everything in the config that changes tesseract's output for a given image.
+     * The metadata that image preprocessing adds (e.g. rotation) is not cached.
+     */
+    private String getCacheSettings(TesseractOCRConfig config) {
+        StringBuilder sb = new StringBuilder("tesseract");
+        sb.append(";psm=").append(config.getPageSegMode());
+        if (!"0".equals(config.getPageSegMode())) {
+            sb.append(";lang=").append(config.getLanguage());
+            sb.append(";output=").append(config.getOutputType());
+            sb.append(";pageSeparator=").append(config.getPageSeparator());
+            sb.append(";preserveInterwordSpacing=").append(config.isPreserveInterwordSpacing());
+            for (Map.Entry<String, String> e : new TreeMap<>(config.getOtherTesseractConfig()).entrySet()) {
+                sb.append(";").append(e.getKey()).append("=").append(e.getValue());
+            }
+        }
+        if ((config.isEnableImagePreprocessing() || config.isApplyRotation()) && hasImageMagick) {
+            sb.append(";preprocess=").append(config.isEnableImagePreprocessing());
+            sb.append(";rotate=").append(config.isApplyRotation());
+            sb.append(";density=").append(config.getDensity());
+            sb.append(";depth=").append(config.getDepth());
+            sb.append(";colorspace=").append(config.getColorspace());
+            sb.append(";filter=").append(config.getFilter());
+            sb.append(";resize=").append(config.getResize());
+        }
+        return sb.toString();
+    }
+
     private void extractOSD(InputStream is, Metadata metadata) throws IOException {
         Matcher matcher = Pattern.compile("^([^:]+):\\s*(.*)").matcher("");
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, UTF_8))) {
@@ -646,6 +706,24 @@ public class TesseractOCRParser extends AbstractExternalProcessParser implements
             }
         }
         imagePreprocessor = new ImagePreprocessor(defaultConfig.getImageMagickPath() + getImageMagickProg());
+        if (defaultConfig.getOcrCacheSize() > 0 || !StringUtils.isBlank(defaultConfig.getOcrCacheDirectory())) {
+            try {
+                ocrResultCache = new DefaultOcrResultCache(defaultConfig.getOcrCacheSize(),
+                        StringUtils.isBlank(defaultConfig.getOcrCacheDirectory()) ? null :
+                                Paths.get(defaultConfig.getOcrCacheDirectory()));
+            } catch (IOException e) {
+                throw new TikaConfigException("Couldn't create ocrCacheDirectory: " +
+                        defaultConfig.getOcrCacheDirectory(), e);
+            }
+        }
+    }
+
+    /**
+     * @return the OCR result cache built from the parser's configuration, or
+     * <code>null</code> if caching is not configured
+     */
+    public OcrResultCache getOcrResultCache() {
+        return ocrResultCache;
     }
 
     private void validateLangString(String language) throws TikaConfigException {
@@ -28,6 +28,7 @@ import org.junit.jupiter.api.Test;
 
 import org.apache.tika.TikaTest;
 import org.apache.tika.config.loader.TikaLoader;
+import org.apache.tika.exception.TikaConfigException;
 import org.apache.tika.parser.CompositeParser;
 
 public class TesseractOCRConfigTest extends TikaTest {
@@ -246,4 +247,18 @@ public class TesseractOCRConfigTest extends TikaTest {
             config.setColorspace("someth!ng");
         });
     }
+
+    @Test
+    public void testOcrCacheIsParserLevel() throws Exception {
+        TesseractOCRConfig.RuntimeConfig config = new TesseractOCRConfig.RuntimeConfig();
+        //the defaults are accepted
+        config.setOcrCacheDirectory("");
+        config.setOcrCacheSize(0);
+        assertThrows(TikaConfigException.class, () -> {
+            config.setOcrCacheDirectory("/tmp/ocr-cache");
+        });
+        assertThrows(TikaConfigException.class, () -> {
+            config.setOcrCacheSize(100);
+        });
+    }
 }
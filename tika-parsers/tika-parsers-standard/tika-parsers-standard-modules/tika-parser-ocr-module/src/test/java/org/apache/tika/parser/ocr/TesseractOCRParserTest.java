@@ -47,6 +47,7 @@ import org.apache.tika.parser.image.JpegParser;
 import org.apache.tika.parser.image.PSDParser;
 import org.apache.tika.parser.image.TiffParser;
 import org.apache.tika.parser.image.WebPParser;
+import org.apache.tika.parser.ocr.cache.OcrResultCache;
 
 public class TesseractOCRParserTest extends TikaTest {
 
@@ -241,6 +242,35 @@ public class TesseractOCRParserTest extends TikaTest {
 
     }
 
+    @Test
+    public void testOcrResultCache() throws Exception {
+        assumeTrue(canRun(), "can run OCR");
+        TesseractOCRConfig config = new TesseractOCRConfig();
+        config.setOcrCacheSize(10);
+        TesseractOCRParser parser = new TesseractOCRParser(config);
+        OcrResultCache cache = parser.getOcrResultCache();
+        assertNotNull(cache);
+
+        String first = getXML("testOCR_spacing.png", parser, getMetadata(MediaType.image("png"))).xml;
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        String second = getXML("testOCR_spacing.png", parser, getMetadata(MediaType.image("png"))).xml;
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertContains("The quick", second);
+        assertEquals(first, second);
+
+        //a change in the ocr settings must not hit the cached result
+        TesseractOCRConfig spacing = new TesseractOCRConfig();
+        spacing.setPreserveInterwordSpacing(true);
+        ParseContext context = new ParseContext();
+        context.set(TesseractOCRConfig.class, spacing);
+        getXML("testOCR_spacing.png", parser, getMetadata(MediaType.image("png")), context);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
     @Test
     public void testArbitraryParams() throws Exception {
         TikaLoader loader = TikaLoader.load(
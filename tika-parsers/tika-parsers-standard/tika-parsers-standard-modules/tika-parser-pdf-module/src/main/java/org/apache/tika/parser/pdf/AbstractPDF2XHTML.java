@@ -130,6 +130,7 @@ import org.apache.tika.renderer.pdf.pdfbox.TextOnlyPDFRenderer;
 import org.apache.tika.renderer.pdf.pdfbox.VectorGraphicsOnlyPDFRenderer;
 import org.apache.tika.sax.BodyContentHandler;
 import org.apache.tika.sax.EmbeddedContentHandler;
+import org.apache.tika.sax.RecordingContentHandler;
 import org.apache.tika.sax.XHTMLContentHandler;
 import org.apache.tika.utils.ExceptionUtils;
 import org.apache.tika.utils.StringUtils;
@@ -200,6 +201,10 @@ class AbstractPDF2XHTML extends PDFTextStripper {
 
     int num3DAnnotations = 0;
 
+    //renders and OCRs pages ahead when ocr parallelism > 1; created on first use
+    private OcrPipeline ocrPipeline;
+    private boolean ocrPipelineChecked = false;
+
     AbstractPDF2XHTML(PDDocument pdDocument, ContentHandler handler, ParseContext context,
                       Metadata metadata, PDFParserConfig config, Renderer renderer) throws IOException {
         this.pdDocument = pdDocument;
@@ -562,6 +567,24 @@ class AbstractPDF2XHTML extends PDFTextStripper {
             }
         }
 
+        OcrPipeline pipeline = getOcrPipeline(ocrStrategy, ocrImageMediaType);
+        if (pipeline != null) {
+            int lastPageIndex = Math.min(getEndPage(), pdDocument.getNumberOfPages()) - 1;
+            if (maxPagesToOcr > 0 && c != null) {
+                lastPageIndex = Math.min(lastPageIndex, pageIndex + maxPagesToOcr - c.getCount());
+            }
+            try {
+                OcrPipeline.Result result = pipeline.take(pageIndex, lastPageIndex, this::estimateImageBytes);
+                result.getOcrOutput().replay(new EmbeddedContentHandler(new BodyContentHandler(xhtml)));
+                propagateChunks(result.getRenderResult().getMetadata());
+            } catch (IOException e) {
+                handleCatchableIOE(e);
+            } catch (SAXException e) {
+                throw new IOException("error writing OCR content from PDF", e);
+            }
+            return;
+        }
+
         try (TemporaryResources tmp = new TemporaryResources()) {
             try (RenderResult renderResult = renderCurrentPage(pdPage, context, tmp)) {
                 Metadata renderMetadata = renderResult.getMetadata();
@@ -571,13 +594,7 @@ class AbstractPDF2XHTML extends PDFTextStripper {
                     ocrParser.parse(tis, new EmbeddedContentHandler(new BodyContentHandler(xhtml)),
                             renderMetadata, context);
                 }
-                // Propagate enrichment metadata added by the OCR parser (e.g. tika:chunks
-                // from image embedding parsers) back to the parent document so it isn't
-                // silently discarded when the renderMetadata goes out of scope.
-                String renderChunks = renderMetadata.get(TikaCoreProperties.TIKA_CHUNKS);
-                if (renderChunks != null && metadata.get(TikaCoreProperties.TIKA_CHUNKS) == null) {
-                    metadata.set(TikaCoreProperties.TIKA_CHUNKS, renderChunks);
-                }
+                propagateChunks(renderMetadata);
             }
         } catch (IOException e) {
             handleCatchableIOE(e);
@@ -586,13 +603,81 @@ class AbstractPDF2XHTML extends PDFTextStripper {
         }
     }
 
+    private void propagateChunks(Metadata renderMetadata) {
+        // Propagate enrichment metadata added by the OCR parser (e.g. tika:chunks
+        // from image embedding parsers) back to the parent document so it isn't
+        // silently discarded when the renderMetadata goes out of scope.
+        String renderChunks = renderMetadata.get(TikaCoreProperties.TIKA_CHUNKS);
+        if (renderChunks != null && metadata.get(TikaCoreProperties.TIKA_CHUNKS) == null) {
+            metadata.set(TikaCoreProperties.TIKA_CHUNKS, renderChunks);
+        }
+    }
+
+    /**
+     * Returns the pipeline that renders and OCRs pages ahead of the current page,
+     * or null if pages should be OCR'd one at a time. Pages can only be
+     * rendered ahead if every page is OCR'd and the pages were not already
+     * rendered before the parse.
+     */
+    private OcrPipeline getOcrPipeline(OcrConfig.Strategy ocrStrategy, MediaType ocrImageMediaType) {
+        if (ocrPipelineChecked) {
+            return ocrPipeline;
+        }
+        ocrPipelineChecked = true;
+        if (config.getOcrParallelism() < 2 ||
+                (ocrStrategy != OCR_ONLY && ocrStrategy != OCR_AND_TEXT_EXTRACTION)) {
+            return null;
+        }
+        PDFRenderingState renderingState = context.get(PDFRenderingState.class);
+        if (renderingState != null && renderingState.getRenderResults() != null) {
+            //the pages were rendered before the parse
+            return null;
+        }
+        ocrPipeline = new OcrPipeline(
+                (renderPageIndex, tmp) -> renderPage(renderPageIndex,
+                        pdDocument.getPage(renderPageIndex), context, tmp),
+                renderResult -> {
+                    //the worker gets its own copy because the ParseContext is not thread-safe
+                    ParseContext ocrContext = new ParseContext();
+                    ocrContext.copyFrom(context);
+                    return () -> {
+                        RecordingContentHandler recorder = new RecordingContentHandler();
+                        Metadata renderMetadata = renderResult.getMetadata();
+                        try (TikaInputStream tis = renderResult.getInputStream()) {
+                            renderMetadata.set(TikaCoreProperties.CONTENT_TYPE_PARSER_OVERRIDE,
+                                    ocrImageMediaType.toString());
+                            ocrParser.parse(tis, recorder, renderMetadata, ocrContext);
+                        }
+                        return recorder;
+                    };
+                },
+                config.getOcrParallelism(), config.getOcrMaxInFlightImageBytes(), context);
+        return ocrPipeline;
+    }
+
+    private long estimateImageBytes(int pageIndexToEstimate) {
+        PDRectangle mediaBox = pdDocument.getPage(pageIndexToEstimate).getMediaBox();
+        int dpi = config.getOcrDPI();
+        long width = (long) Math.ceil(mediaBox.getWidth() / 72.0 * dpi);
+        long height = (long) Math.ceil(mediaBox.getHeight() / 72.0 * dpi);
+        int bytesPerPixel = config.getOcrImageType() == OcrConfig.ImageType.RGB ? 3 : 1;
+        return width * height * bytesPerPixel;
+    }
+
     private RenderResult renderCurrentPage(PDPage pdPage, ParseContext parseContext,
                                            TemporaryResources tmpResources)
             throws IOException, TikaException {
+        return renderPage(pageIndex, pdPage, parseContext, tmpResources);
+    }
+
+    private RenderResult renderPage(int renderPageIndex, PDPage pdPage, ParseContext parseContext,
+                                    TemporaryResources tmpResources)
+            throws IOException, TikaException {
+        int renderPageNo = renderPageIndex + 1;
         PDFRenderingState renderingState = parseContext.get(PDFRenderingState.class);
         if (renderingState == null) {
-            Metadata pageMetadata = getCurrentPageMetadata(pdPage);
-            noContextRenderCurrentPage(pageMetadata, parseContext, tmpResources);
+            Metadata pageMetadata = getPageMetadata(pdPage, renderPageNo);
+            noContextRenderPage(renderPageIndex, pageMetadata, parseContext, tmpResources);
         }
         //if the full document has already been rendered, then reuse that file
         //TODO: we need to prevent this if only a portion of the page or portions
@@ -602,18 +687,18 @@ class AbstractPDF2XHTML extends PDFTextStripper {
         //grayscale for (notionally?) better OCR).
         PageBasedRenderResults results = (PageBasedRenderResults) renderingState.getRenderResults();
         if (results != null) {
-            List<RenderResult> pageResults = results.getPage(getCurrentPageNo());
+            List<RenderResult> pageResults = results.getPage(renderPageNo);
             if (pageResults.size() == 1) {
                 return pageResults.get(0);
             }
         }
-        Metadata pageMetadata = getCurrentPageMetadata(pdPage);
+        Metadata pageMetadata = getPageMetadata(pdPage, renderPageNo);
         Renderer thisRenderer = getPDFRenderer(renderer);
         //if there's a configured renderer and if the rendering strategy is "all"
         if (thisRenderer != null &&
                 config.getOcrRenderingStrategy() == OcrConfig.RenderingStrategy.ALL) {
             PageRangeRequest pageRangeRequest =
-                    new PageRangeRequest(getCurrentPageNo(), getCurrentPageNo());
+                    new PageRangeRequest(renderPageNo, renderPageNo);
             if (thisRenderer instanceof PDDocumentRenderer) {
                 //do not do autocloseable.  We need to leave the pdDocument open!
                 TikaInputStream tis = TikaInputStream.get(new byte[0]);
@@ -630,7 +715,7 @@ class AbstractPDF2XHTML extends PDFTextStripper {
                         pageRangeRequest).getResults().get(0);
             }
         } else {
-            return noContextRenderCurrentPage(pageMetadata, parseContext, tmpResources);
+            return noContextRenderPage(renderPageIndex, pageMetadata, parseContext, tmpResources);
         }
     }
 
@@ -647,17 +732,17 @@ class AbstractPDF2XHTML extends PDFTextStripper {
     }
 
 
-    private Metadata getCurrentPageMetadata(PDPage pdPage) {
+    private Metadata getPageMetadata(PDPage pdPage, int pageNo) {
         Metadata pageMetadata = Metadata.newInstance(context);
         pageMetadata.set(TikaCoreProperties.TYPE, PDFParser.MEDIA_TYPE.toString());
-        pageMetadata.set(TikaPagedText.PAGE_NUMBER, getCurrentPageNo());
+        pageMetadata.set(TikaPagedText.PAGE_NUMBER, pageNo);
         pageMetadata.set(TikaPagedText.PAGE_ROTATION, (float) pdPage.getRotation());
         return pageMetadata;
     }
 
-    private RenderResult noContextRenderCurrentPage(Metadata pageMetadata,
-                                                    ParseContext parseContext,
-                                                    TemporaryResources tmpResources)
+    private RenderResult noContextRenderPage(int renderPageIndex, Metadata pageMetadata,
+                                             ParseContext parseContext,
+                                             TemporaryResources tmpResources)
             throws IOException, TikaException {
         PDFRenderer renderer = null;
         switch (config.getOcrRenderingStrategy()) {
@@ -690,14 +775,14 @@ class AbstractPDF2XHTML extends PDFTextStripper {
             // prevent OOM on pathologically large pages
             long maxPixels = config.getOcrMaxImagePixels();
             if (maxPixels > 0) {
-                PDPage currentPage = pdDocument.getPage(pageIndex);
+                PDPage currentPage = pdDocument.getPage(renderPageIndex);
                 PDRectangle mediaBox = currentPage.getMediaBox();
                 long estWidth = (long) Math.ceil(mediaBox.getWidth() / 72.0 * dpi);
                 long estHeight = (long) Math.ceil(mediaBox.getHeight() / 72.0 * dpi);
                 long estPixels = estWidth * estHeight;
                 if (estPixels > maxPixels) {
                     metadata.add(TikaCoreProperties.TIKA_META_EXCEPTION_EMBEDDED_STREAM,
-                            "Skipping OCR for page " + (pageIndex + 1)
+                            "Skipping OCR for page " + (renderPageIndex + 1)
                                     + ": estimated " + estPixels
                                     + " pixels exceeds maxImagePixels="
                                     + maxPixels);
@@ -707,7 +792,7 @@ class AbstractPDF2XHTML extends PDFTextStripper {
             }
 
             BufferedImage image =
-                    renderer.renderImageWithDPI(pageIndex, dpi, config.getOcrImageType().getPdfBoxImageType());
+                    renderer.renderImageWithDPI(renderPageIndex, dpi, config.getOcrImageType().getPdfBoxImageType());
 
             //TODO -- get suffix based on OcrImageType
             tmpFile = tmpResources.createTempFile();
@@ -1117,6 +1202,8 @@ class AbstractPDF2XHTML extends PDFTextStripper {
 
     @Override
     protected void endDocument(PDDocument pdf) throws IOException {
+        //subclasses that override processPages() may have left the pipeline open
+        closeOcrPipeline();
         try {
             // Extract text for any bookmarks:
             if (config.isExtractBookmarksText()) {
@@ -1486,11 +1573,22 @@ class AbstractPDF2XHTML extends PDFTextStripper {
      */
     @Override
     protected void processPages(PDPageTree pages) throws IOException {
-        for (PDPage page : pages) {
-            if (getCurrentPageNo() >= getStartPage() && getCurrentPageNo() <= getEndPage()) {
-                processPage(page);
+        try {
+            for (PDPage page : pages) {
+                if (getCurrentPageNo() >= getStartPage() && getCurrentPageNo() <= getEndPage()) {
+                    processPage(page);
+                }
+                pageIndex++;
             }
-            pageIndex++;
+        } finally {
+            closeOcrPipeline();
+        }
+    }
+
+    private void closeOcrPipeline() throws IOException {
+        if (ocrPipeline != null) {
+            ocrPipeline.close();
+            ocrPipeline = null;
         }
     }
 
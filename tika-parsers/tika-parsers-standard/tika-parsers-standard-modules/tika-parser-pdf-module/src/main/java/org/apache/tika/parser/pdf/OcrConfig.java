@@ -148,6 +148,27 @@ public class OcrConfig implements Serializable {
      */
     private int maxPagesToOcr = -1;
 
+    /**
+     * Number of pages to OCR concurrently when every page is OCR'd
+     * ({@link Strategy#OCR_ONLY} and {@link Strategy#OCR_AND_TEXT_EXTRACTION}).
+     * Pages are rendered ahead of the page being processed and their OCR output
+     * is written in page order. This does not apply when the pages are
+     * rendered before the parse.
+     * <p>
+     * Default is {@code 1} (one page at a time).
+     */
+    private int parallelism = 1;
+
+    /**
+     * Memory budget in bytes for the rendered page images that are waiting for
+     * or undergoing OCR when {@link #parallelism} is greater than 1. The size
+     * of an image is estimated from the page size, the dpi and the image type.
+     * One page is always allowed, even if its image exceeds this budget.
+     * <p>
+     * Default is 268,435,456 (256 MB).
+     */
+    private long maxInFlightImageBytes = 256L * 1024 * 1024;
+
     public Strategy getStrategy() {
         return strategy;
     }
@@ -238,4 +259,35 @@ public class OcrConfig implements Serializable {
         }
         this.maxPagesToOcr = maxPagesToOcr;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of pages to OCR concurrently. Default is {@code 1}.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "parallelism must be at least 1, got: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public long getMaxInFlightImageBytes() {
+        return maxInFlightImageBytes;
+    }
+
+    /**
+     * Set the memory budget in bytes for rendered page images in flight when
+     * OCR runs in parallel. Default is 268,435,456 (256 MB).
+     */
+    public void setMaxInFlightImageBytes(long maxInFlightImageBytes) {
+        if (maxInFlightImageBytes < 1) {
+            throw new IllegalArgumentException(
+                    "maxInFlightImageBytes must be at least 1, got: " + maxInFlightImageBytes);
+        }
+        this.maxInFlightImageBytes = maxInFlightImageBytes;
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.pdf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.xml.sax.SAXException;
+
+import org.apache.tika.concurrent.ParseWorkerPool;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.renderer.RenderResult;
+import org.apache.tika.sax.RecordingContentHandler;
+
+/**
+ * Renders pages ahead of the page that is currently being processed and runs
+ * OCR on them in a bounded pool of workers. The results are handed back in
+ * page order so that they can be written into the page they belong to.
+ * <p>
+ * Rendering stays on the calling thread because the PDDocument is not
+ * thread-safe. Pages are rendered ahead until {@code parallelism} pages are in
+ * flight or until the estimated size of the in-flight images reaches the
+ * memory budget. At least one page is always allowed in flight.
+ * <p>
+ * This is not thread-safe and must only be called from the thread that is
+ * processing the document.
+ */
+class OcrPipeline implements Closeable {
+
+    /**
+     * Renders one page on the calling thread.
+     */
+    interface PageRenderer {
+        RenderResult render(int pageIndex, TemporaryResources tmp) throws IOException, TikaException;
+    }
+
+    /**
+     * Prepares, on the calling thread, the OCR task for a rendered page.
+     * The task itself runs on a worker thread.
+     */
+    interface PageOcr {
+        Callable<RecordingContentHandler> prepare(RenderResult renderResult);
+    }
+
+    private final PageRenderer pageRenderer;
+    private final PageOcr pageOcr;
+    private final int parallelism;
+    private final long maxInFlightImageBytes;
+    private final ParseWorkerPool workerPool;
+    private final Deque<InFlightPage> inFlight = new ArrayDeque<>();
+    private long inFlightImageBytes = 0;
+    private int nextPageIndex = -1;
+
+    OcrPipeline(PageRenderer pageRenderer, PageOcr pageOcr, int parallelism,
+                long maxInFlightImageBytes, ParseContext context) {
+        this.pageRenderer = pageRenderer;
+        this.pageOcr = pageOcr;
+        this.parallelism = parallelism;
+        this.maxInFlightImageBytes = maxInFlightImageBytes;
+        this.workerPool = new ParseWorkerPool("pdf-ocr", parallelism, context);
+    }
+
+    /**
+     * Returns the OCR result for the page, rendering and submitting it and the
+     * pages after it as needed.
+     *
+     * @param pageIndex          zero-based index of the page that needs its OCR result now
+     * @param lastPageIndex      zero-based index of the last page that may be rendered ahead
+     * @param imageBytesEstimate estimates the size in memory of a page's rendered image
+     */
+    Result take(int pageIndex, int lastPageIndex, ImageBytesEstimate imageBytesEstimate)
+            throws IOException, TikaException {
+        //drop pages that were rendered ahead but then not asked for
+        while (!inFlight.isEmpty() && inFlight.peekFirst().pageIndex < pageIndex) {
+            discard(inFlight.pollFirst());
+        }
+        if (inFlight.isEmpty() || inFlight.peekFirst().pageIndex != pageIndex) {
+            discardAll();
+            nextPageIndex = pageIndex;
+        }
+        while (nextPageIndex <= lastPageIndex && inFlight.size() < parallelism) {
+            long imageBytes = imageBytesEstimate.estimate(nextPageIndex);
+            if (!inFlight.isEmpty() && inFlightImageBytes + imageBytes > maxInFlightImageBytes) {
+                break;
+            }
+            submit(nextPageIndex++, imageBytes);
+        }
+        InFlightPage page = inFlight.pollFirst();
+        try {
+            return new Result(page.renderResult, workerPool.await(page.future));
+        } catch (SAXException e) {
+            throw new IOException("error writing OCR content from PDF", e);
+        } finally {
+            inFlightImageBytes -= page.imageBytes;
+            page.tmp.close();
+        }
+    }
+
+    private void submit(int pageIndex, long imageBytes) throws IOException, TikaException {
+        TemporaryResources tmp = new TemporaryResources();
+        RenderResult renderResult;
+        try {
+            renderResult = pageRenderer.render(pageIndex, tmp);
+            tmp.addResource(renderResult);
+        } catch (IOException | TikaException | RuntimeException e) {
+            tmp.close();
+            throw e;
+        }
+        Future<RecordingContentHandler> future = workerPool.submit(pageOcr.prepare(renderResult));
+        inFlight.addLast(new InFlightPage(pageIndex, renderResult, tmp, imageBytes, future));
+        inFlightImageBytes += imageBytes;
+    }
+
+    private void discard(InFlightPage page) throws IOException {
+        page.future.cancel(true);
+        try {
+            page.future.get();
+        } catch (Exception e) {
+            //the result is no longer needed
+        }
+        inFlightImageBytes -= page.imageBytes;
+        page.tmp.close();
+    }
+
+    private void discardAll() throws IOException {
+        while (!inFlight.isEmpty()) {
+            discard(inFlight.pollFirst());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            discardAll();
+        } finally {
+            workerPool.close();
+        }
+    }
+
+    interface ImageBytesEstimate {
+        long estimate(int pageIndex) throws IOException;
+    }
+
+    static class Result {
+        private final RenderResult renderResult;
+        private final RecordingContentHandler ocrOutput;
+
+        Result(RenderResult renderResult, RecordingContentHandler ocrOutput) {
+            this.renderResult = renderResult;
+            this.ocrOutput = ocrOutput;
+        }
+
+        RenderResult getRenderResult() {
+            return renderResult;
+        }
+
+        RecordingContentHandler getOcrOutput() {
+            return ocrOutput;
+        }
+    }
+
+    private static class InFlightPage {
+        private final int pageIndex;
+        private final RenderResult renderResult;
+        private final TemporaryResources tmp;
+        private final long imageBytes;
+        private final Future<RecordingContentHandler> future;
+
+        InFlightPage(int pageIndex, RenderResult renderResult, TemporaryResources tmp,
+                     long imageBytes, Future<RecordingContentHandler> future) {
+            this.pageIndex = pageIndex;
+            this.renderResult = renderResult;
+            this.tmp = tmp;
+            this.imageBytes = imageBytes;
+            this.future = future;
+        }
+    }
+}
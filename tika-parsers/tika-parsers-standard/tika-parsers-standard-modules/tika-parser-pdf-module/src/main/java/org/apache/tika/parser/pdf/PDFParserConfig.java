@@ -637,6 +637,37 @@ public class PDFParserConfig implements Serializable {
         ocr.setMaxPagesToOcr(ocrMaxPagesToOcr);
     }
 
+    /**
+     * @return number of pages to OCR concurrently
+     */
+    public int getOcrParallelism() {
+        return ocr.getParallelism();
+    }
+
+    /**
+     * Set the number of pages to OCR concurrently when every page is OCR'd.
+     * Default is {@code 1}.
+     */
+    public void setOcrParallelism(int ocrParallelism) {
+        ocr.setParallelism(ocrParallelism);
+    }
+
+    /**
+     * @return memory budget in bytes for rendered page images in flight when
+     * OCR runs in parallel
+     */
+    public long getOcrMaxInFlightImageBytes() {
+        return ocr.getMaxInFlightImageBytes();
+    }
+
+    /**
+     * Set the memory budget in bytes for rendered page images in flight when
+     * OCR runs in parallel. Default is 256 MB.
+     */
+    public void setOcrMaxInFlightImageBytes(long ocrMaxInFlightImageBytes) {
+        ocr.setMaxInFlightImageBytes(ocrMaxInFlightImageBytes);
+    }
+
     /**
      * @return whether or not to extract PDActions
      * @see #setExtractActions(boolean)
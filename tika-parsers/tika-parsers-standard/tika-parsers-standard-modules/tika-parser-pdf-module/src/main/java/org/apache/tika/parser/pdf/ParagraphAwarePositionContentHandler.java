@@ -16,9 +16,6 @@
  */
 package org.apache.tika.parser.pdf;
 
-import org.apache.pdfbox.text.TextPosition;
-import org.xml.sax.ContentHandler;
-
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -27,6 +24,9 @@ import java.util.ListIterator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.apache.pdfbox.text.TextPosition;
+import org.xml.sax.ContentHandler;
+
 public class ParagraphAwarePositionContentHandler extends PositionContentHandler {
 
 
@@ -16,13 +16,14 @@
  */
 package org.apache.tika.parser.pdf;
 
+import java.util.List;
+import java.util.regex.Pattern;
+
 import org.apache.pdfbox.text.TextPosition;
 import org.apache.pdfbox.util.Matrix;
-import org.apache.tika.sax.ContentHandlerDecorator;
 import org.xml.sax.ContentHandler;
 
-import java.util.List;
-import java.util.regex.Pattern;
+import org.apache.tika.sax.ContentHandlerDecorator;
 
 public abstract class PositionContentHandler extends ContentHandlerDecorator {
 
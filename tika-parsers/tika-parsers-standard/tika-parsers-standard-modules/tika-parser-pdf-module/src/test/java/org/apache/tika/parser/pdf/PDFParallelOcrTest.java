@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import org.apache.tika.TikaTest;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaPagedText;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.ToXMLContentHandler;
+import org.apache.tika.sax.XHTMLContentHandler;
+
+public class PDFParallelOcrTest extends TikaTest {
+
+    private static final String FILE = "distr_agreement_5pg.pdf";
+
+    @Test
+    public void testPagesStayInOrder() throws Exception {
+        SlowOcrParser.THREADS.clear();
+        String sequential = parse(OcrConfig.Strategy.OCR_ONLY, 1, 256L * 1024 * 1024);
+        assertTrue(SlowOcrParser.THREADS.stream().noneMatch(t -> t.startsWith("pdf-ocr-")));
+        SlowOcrParser.THREADS.clear();
+        String parallel = parse(OcrConfig.Strategy.OCR_ONLY, 3, 256L * 1024 * 1024);
+        assertTrue(SlowOcrParser.THREADS.stream().allMatch(t -> t.startsWith("pdf-ocr-")));
+        assertEquals(sequential, parallel);
+        int last = -1;
+        for (int i = 1; i <= 5; i++) {
+            int index = parallel.indexOf("ocr page " + i + "<");
+            assertTrue(index > last, "page " + i + " out of order");
+            last = index;
+        }
+    }
+
+    @Test
+    public void testWithTextExtraction() throws Exception {
+        assertEquals(parse(OcrConfig.Strategy.OCR_AND_TEXT_EXTRACTION, 1, 256L * 1024 * 1024),
+                parse(OcrConfig.Strategy.OCR_AND_TEXT_EXTRACTION, 4, 256L * 1024 * 1024));
+    }
+
+    @Test
+    public void testTinyMemoryBudget() throws Exception {
+        //only one page fits in the budget at a time
+        assertEquals(parse(OcrConfig.Strategy.OCR_ONLY, 1, 256L * 1024 * 1024),
+                parse(OcrConfig.Strategy.OCR_ONLY, 4, 1));
+    }
+
+    private String parse(OcrConfig.Strategy strategy, int parallelism, long maxInFlightImageBytes)
+            throws Exception {
+        PDFParserConfig config = new PDFParserConfig();
+        config.setOcrStrategy(strategy);
+        config.setOcrDPI(20);
+        config.setOcrParallelism(parallelism);
+        config.setOcrMaxInFlightImageBytes(maxInFlightImageBytes);
+        ParseContext context = new ParseContext();
+        context.set(PDFParserConfig.class, config);
+        context.set(Parser.class, new SlowOcrParser());
+        ContentHandler handler = new ToXMLContentHandler();
+        try (TikaInputStream tis = getResourceAsStream("/test-documents/" + FILE)) {
+            new PDFParser().parse(tis, handler, new Metadata(), context);
+        }
+        return handler.toString();
+    }
+
+    /**
+     * Pretends to OCR the page image, taking a random amount of time so that
+     * parallel pages finish out of order.
+     */
+    private static class SlowOcrParser implements Parser {
+
+        private static final Set<String> THREADS = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public Set<MediaType> getSupportedTypes(ParseContext context) {
+            return Collections.singleton(MediaType.image("ocr-png"));
+        }
+
+        @Override
+        public void parse(TikaInputStream tis, ContentHandler handler, Metadata metadata,
+                          ParseContext context) throws IOException, SAXException, TikaException {
+            THREADS.add(Thread.currentThread().getName());
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(50));
+            } catch (InterruptedException e) {
+                throw new TikaException("interrupted", e);
+            }
+            XHTMLContentHandler xhtml = new XHTMLContentHandler(handler, metadata, context);
+            xhtml.startDocument();
+            xhtml.element("p", "ocr page " + metadata.get(TikaPagedText.PAGE_NUMBER));
+            xhtml.endDocument();
+        }
+    }
+}
@@ -23,13 +23,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
@@ -38,11 +41,14 @@ import org.apache.commons.compress.archivers.zip.UnsupportedZipFeatureException.
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
+import org.apache.tika.concurrent.ParseWorkerPool;
 import org.apache.tika.config.ConfigDeserializer;
 import org.apache.tika.config.JsonConfig;
+import org.apache.tika.config.OutputLimits;
 import org.apache.tika.config.TikaComponent;
 import org.apache.tika.detect.EncodingDetector;
 import org.apache.tika.detect.EncodingResult;
@@ -51,6 +57,7 @@ import org.apache.tika.exception.TikaConfigException;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.extractor.EmbeddedDocumentExtractor;
 import org.apache.tika.extractor.EmbeddedDocumentUtil;
+import org.apache.tika.extractor.RecordedEmbeddedDocument;
 import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
@@ -58,6 +65,7 @@ import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.metadata.Zip;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.RecordingContentHandler;
 import org.apache.tika.sax.XHTMLContentHandler;
 import org.apache.tika.utils.ParserUtils;
 
@@ -277,14 +285,20 @@ public class ZipParser extends AbstractArchiveParser {
         xhtml.startDocument();
 
         try {
-            Enumeration<ZipArchiveEntry> entries = zipFile.getEntries();
-            while (entries.hasMoreElements()) {
-                ZipArchiveEntry entry = entries.nextElement();
-                if (centralDirectoryEntries != null) {
-                    centralDirectoryEntries.add(entry.getName());
-                }
-                if (!entry.isDirectory()) {
-                    parseZipFileEntry(zipFile, entry, extractor, metadata, xhtml, context, config);
+            if (config.getEntryParallelism() > 1 &&
+                    RecordedEmbeddedDocument.canRecord(extractor, context)) {
+                parseZipFileEntriesConcurrently(zipFile, extractor, metadata, xhtml, context, config,
+                        centralDirectoryEntries);
+            } else {
+                Enumeration<ZipArchiveEntry> entries = zipFile.getEntries();
+                while (entries.hasMoreElements()) {
+                    ZipArchiveEntry entry = entries.nextElement();
+                    if (centralDirectoryEntries != null) {
+                        centralDirectoryEntries.add(entry.getName());
+                    }
+                    if (!entry.isDirectory()) {
+                        parseZipFileEntry(zipFile, entry, extractor, metadata, xhtml, context, config);
+                    }
                 }
             }
         } finally {
@@ -480,18 +494,144 @@ public class ZipParser extends AbstractArchiveParser {
         writeEntryXhtml(name, xhtml);
 
         if (extractor.shouldParseEmbedded(entryMetadata)) {
-            TemporaryResources tmp = new TemporaryResources();
-            try (InputStream entryStream = zipFile.getInputStream(entry)) {
-                TikaInputStream tis = TikaInputStream.get(entryStream, tmp, entryMetadata);
-                extractor.parseEmbedded(tis, xhtml, entryMetadata, new ParseContext(), true);
-            } catch (UnsupportedZipFeatureException e) {
-                EmbeddedDocumentUtil.recordEmbeddedStreamException(e, parentMetadata);
+            parseZipFileEntryStream(zipFile, entry, extractor, entryMetadata, parentMetadata, xhtml);
+        }
+    }
+
+    private void parseZipFileEntryStream(ZipFile zipFile, ZipArchiveEntry entry,
+                                          EmbeddedDocumentExtractor extractor, Metadata entryMetadata,
+                                          Metadata parentMetadata, XHTMLContentHandler xhtml)
+            throws SAXException, IOException, TikaException {
+        TemporaryResources tmp = new TemporaryResources();
+        try (InputStream entryStream = zipFile.getInputStream(entry)) {
+            TikaInputStream tis = TikaInputStream.get(entryStream, tmp, entryMetadata);
+            extractor.parseEmbedded(tis, xhtml, entryMetadata, new ParseContext(), true);
+        } catch (UnsupportedZipFeatureException e) {
+            EmbeddedDocumentUtil.recordEmbeddedStreamException(e, parentMetadata);
+        } finally {
+            tmp.dispose();
+        }
+    }
+
+    /**
+     * Same as the sequential loop in {@link #parseWithZipFile}, except that up to
+     * {@link ZipParserConfig#getEntryParallelism()} entries ahead of the one being written
+     * are parsed on worker threads into a {@link RecordedEmbeddedDocument}.
+     * <p>
+     * When an entry's turn comes, it is handed to the embedded document extractor as in
+     * the sequential loop, with a parser that replays the recording instead of parsing
+     * the entry again. Each recorder gets what is left of the write limit in
+     * {@link OutputLimits}, and the recorders share a budget of
+     * {@link ZipParserConfig#getMaxBufferedEntryBytes()}; an entry that does not fit is
+     * parsed again on this thread when its turn comes.
+     */
+    private void parseZipFileEntriesConcurrently(ZipFile zipFile, EmbeddedDocumentExtractor extractor,
+                                                 Metadata parentMetadata, XHTMLContentHandler xhtml,
+                                                 ParseContext context, ZipParserConfig config,
+                                                 Set<String> centralDirectoryEntries)
+            throws SAXException, IOException, TikaException {
+        int parallelism = config.getEntryParallelism();
+        OutputLimits outputLimits = OutputLimits.get(context);
+        RecordingContentHandler.MemoryBudget budget =
+                new RecordingContentHandler.MemoryBudget(config.getMaxBufferedEntryBytes());
+        long written = 0;
+        Deque<PendingEntry> pending = new ArrayDeque<>();
+        try (ParseWorkerPool workerPool = new ParseWorkerPool("zip-entry", parallelism, context)) {
+            try {
+                Enumeration<ZipArchiveEntry> entries = zipFile.getEntries();
+                while (entries.hasMoreElements()) {
+                    ZipArchiveEntry entry = entries.nextElement();
+                    if (centralDirectoryEntries != null) {
+                        centralDirectoryEntries.add(entry.getName());
+                    }
+                    if (entry.isDirectory()) {
+                        continue;
+                    }
+                    PendingEntry pendingEntry = new PendingEntry(entry,
+                            detectEntryName(entry, parentMetadata, context, config));
+                    pending.addLast(pendingEntry);
+                    if (!entry.getGeneralPurposeBit().usesEncryption()) {
+                        pendingEntry.metadata = buildEntryMetadata(entry, pendingEntry.name, context);
+                        int writeLimit = outputLimits.getWriteLimit();
+                        if (writeLimit > -1) {
+                            writeLimit = (int) Math.max(0, writeLimit - written);
+                        }
+                        submit(zipFile, pendingEntry, context, workerPool, writeLimit, budget);
+                    }
+                    if (pending.size() > parallelism) {
+                        written += writePendingEntry(zipFile, pending.pollFirst(), extractor,
+                                parentMetadata, xhtml, context, workerPool);
+                    }
+                }
+                while (!pending.isEmpty()) {
+                    written += writePendingEntry(zipFile, pending.pollFirst(), extractor,
+                            parentMetadata, xhtml, context, workerPool);
+                }
             } finally {
-                tmp.dispose();
+                for (PendingEntry pendingEntry : pending) {
+                    pendingEntry.close();
+                }
             }
         }
     }
 
+    private void submit(ZipFile zipFile, PendingEntry pendingEntry, ParseContext context,
+                        ParseWorkerPool workerPool, int writeLimit,
+                        RecordingContentHandler.MemoryBudget budget) {
+        InputStream entryStream;
+        try {
+            //ZipFile positions the stream on the calling thread;
+            //reads from the returned stream are safe on any thread
+            entryStream = zipFile.getInputStream(pendingEntry.entry);
+        } catch (IOException e) {
+            //leave it to the sequential path to report this at the entry's turn
+            return;
+        }
+        RecordedEmbeddedDocument recorded = new RecordedEmbeddedDocument(pendingEntry.metadata,
+                context, writeLimit, budget);
+        pendingEntry.stream = entryStream;
+        pendingEntry.recorded = recorded;
+        pendingEntry.future = workerPool.submit(() -> recorded.parse(entryStream));
+    }
+
+    /**
+     * @return the number of characters that were recorded for the entry
+     */
+    private int writePendingEntry(ZipFile zipFile, PendingEntry pendingEntry,
+                                  EmbeddedDocumentExtractor extractor, Metadata parentMetadata,
+                                  XHTMLContentHandler xhtml, ParseContext context,
+                                  ParseWorkerPool workerPool)
+            throws SAXException, IOException, TikaException {
+        try {
+            if (pendingEntry.metadata == null) {
+                handleEncryptedEntry(pendingEntry.name, parentMetadata, xhtml);
+                return 0;
+            }
+            writeEntryXhtml(pendingEntry.name, xhtml);
+            if (!extractor.shouldParseEmbedded(pendingEntry.metadata)) {
+                return 0;
+            }
+            RecordedEmbeddedDocument recorded = null;
+            if (pendingEntry.future != null) {
+                recorded = workerPool.await(pendingEntry.future);
+            }
+            if (recorded == null || recorded.isBudgetExceeded()) {
+                //it could not be opened for the worker,
+                //or it did not fit next to the other entries in flight
+                if (recorded != null) {
+                    recorded.clear();
+                }
+                parseZipFileEntryStream(zipFile, pendingEntry.entry, extractor,
+                        pendingEntry.metadata, parentMetadata, xhtml);
+                return 0;
+            }
+            recorded.replay(xhtml, pendingEntry.metadata, context);
+            return recorded.getWriteCount();
+        } finally {
+            pendingEntry.close();
+        }
+    }
+
     private void parseStreamEntry(ZipArchiveInputStream zis, ZipArchiveEntry entry,
                                    EmbeddedDocumentExtractor extractor, Metadata parentMetadata,
                                    XHTMLContentHandler xhtml, ParseContext context,
@@ -702,4 +842,33 @@ public class ZipParser extends AbstractArchiveParser {
             metadata.add(Zip.CENTRAL_DIRECTORY_ONLY_ENTRIES, cd);
         }
     }
+
+    /**
+     * An entry waiting for its turn to be written, possibly being parsed by a worker.
+     * {@link #metadata} is null for encrypted entries.
+     */
+    private static class PendingEntry {
+        private final ZipArchiveEntry entry;
+        private final String name;
+        private Metadata metadata;
+        private InputStream stream;
+        private RecordedEmbeddedDocument recorded;
+        private Future<RecordedEmbeddedDocument> future;
+
+        PendingEntry(ZipArchiveEntry entry, String name) {
+            this.entry = entry;
+            this.name = name;
+        }
+
+        void close() {
+            if (future != null) {
+                future.cancel(true);
+            }
+            //stops a parse that is still running
+            IOUtils.closeQuietly(stream);
+            if (recorded != null) {
+                recorded.clear();
+            }
+        }
+    }
 }
@@ -58,6 +58,18 @@ public class ZipParserConfig implements Serializable {
      */
     private boolean integrityCheck = true;
 
+    /**
+     * Maximum number of entries to parse concurrently.
+     * Default is 1 (entries are parsed one after the other).
+     */
+    private int entryParallelism = 1;
+
+    /**
+     * Maximum bytes of output buffered for entries that are parsed concurrently.
+     * Default is 64 MB.
+     */
+    private long maxBufferedEntryBytes = 64 * 1024 * 1024;
+
     public ZipParserConfig() {
     }
 
@@ -102,4 +114,54 @@ public class ZipParserConfig implements Serializable {
     public void setIntegrityCheck(boolean integrityCheck) {
         this.integrityCheck = integrityCheck;
     }
+
+    public int getEntryParallelism() {
+        return entryParallelism;
+    }
+
+    /**
+     * When greater than 1, entries of a file-based ZIP are parsed on this many worker
+     * threads. The output of each entry is buffered until the entries before it have
+     * been written, and is then handed to the embedded document extractor in archive
+     * order, so the output and the write limit are the same as with sequential parsing.
+     * Documents embedded in an entry are parsed on the entry's worker; under the
+     * {@link org.apache.tika.parser.RecursiveParserWrapper}, their metadata is also
+     * handed on in archive order. The maximum number of embedded documents is applied
+     * in that order too, so the same documents fall under it as with sequential parsing.
+     * <p>
+     * This has no effect on archives that can only be read as a stream, with a
+     * custom {@link org.apache.tika.extractor.EmbeddedDocumentExtractor}, or when
+     * reaching the maximum number of embedded documents is set to throw.
+     *
+     * @param entryParallelism maximum number of entries to parse concurrently
+     * @see #setMaxBufferedEntryBytes(long)
+     */
+    public void setEntryParallelism(int entryParallelism) {
+        if (entryParallelism < 1) {
+            throw new IllegalArgumentException(
+                    "entryParallelism must be at least 1, got: " + entryParallelism);
+        }
+        this.entryParallelism = entryParallelism;
+    }
+
+    public long getMaxBufferedEntryBytes() {
+        return maxBufferedEntryBytes;
+    }
+
+    /**
+     * When entries are parsed concurrently, caps the memory held by the output
+     * of the entries that have been parsed but not yet written.  An entry that
+     * does not fit is parsed again when its turn comes, straight into the output.
+     * <p>
+     * Default: 64 MB.
+     *
+     * @param maxBufferedEntryBytes bytes of buffered entry output
+     */
+    public void setMaxBufferedEntryBytes(long maxBufferedEntryBytes) {
+        if (maxBufferedEntryBytes < 1) {
+            throw new IllegalArgumentException(
+                    "maxBufferedEntryBytes must be at least 1, got: " + maxBufferedEntryBytes);
+        }
+        this.maxBufferedEntryBytes = maxBufferedEntryBytes;
+    }
 }
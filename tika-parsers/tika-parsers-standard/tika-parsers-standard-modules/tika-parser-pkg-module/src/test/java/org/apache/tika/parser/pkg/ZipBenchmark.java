@@ -39,6 +39,9 @@ public class ZipBenchmark {
     // Toggle this to switch between DefaultHandler and RecursiveParserWrapper
     private static final boolean USE_RECURSIVE_PARSER_WRAPPER = true;
 
+    // Each ZIP is also parsed with this ZipParserConfig#setEntryParallelism
+    private static final int ENTRY_PARALLELISM = 4;
+
     @Test
     public void benchmarkAutoDetectParser(@TempDir Path tempDir) throws Exception {
         // Enable to run
@@ -71,6 +74,30 @@ public class ZipBenchmark {
 
         System.out.println("\nLarge ZIP (5000 entries, ~2.5GB):");
         runBenchmark(largeZip, 5000, 10, 2);
+
+        // Text entries that take a while to parse, where entryParallelism pays off
+        Path deflatedZip = tempDir.resolve("deflated.zip");
+        createDeflatedBenchmarkZip(deflatedZip, 1000, 256 * 1024);
+        System.out.println("\nDeflated ZIP (1000 text entries, ~250MB inflated):");
+        runBenchmark(deflatedZip, 1000, 10, 2);
+    }
+
+    private void createDeflatedBenchmarkZip(Path zipPath, int numEntries, int entrySize) throws Exception {
+        try (java.util.zip.ZipOutputStream zos =
+                     new java.util.zip.ZipOutputStream(Files.newOutputStream(zipPath))) {
+            java.util.Random random = new java.util.Random(42);
+            StringBuilder sb = new StringBuilder(entrySize);
+            while (sb.length() < entrySize) {
+                sb.append("word").append(random.nextInt(10000)).append(' ');
+            }
+            byte[] content = sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+
+            for (int i = 0; i < numEntries; i++) {
+                zos.putNextEntry(new java.util.zip.ZipEntry("entry" + i + ".txt"));
+                zos.write(content);
+                zos.closeEntry();
+            }
+        }
     }
 
     private void createBenchmarkZip(Path zipPath, int numEntries, int entrySize) throws Exception {
@@ -98,13 +125,25 @@ public class ZipBenchmark {
     }
 
     private void runBenchmark(Path zipPath, int numEntries, int iterations, int warmup) throws Exception {
-        AutoDetectParser parser = new AutoDetectParser();
-        ParseContext context = new ParseContext();
-
         long sizeKB = Files.size(zipPath) / 1024;
         String sizeStr = sizeKB >= 1024 ? (sizeKB / 1024) + " MB" : sizeKB + " KB";
         System.out.printf(Locale.ROOT, "  Entries: %d, Size: %s%n", numEntries, sizeStr);
 
+        double sequentialMs = timeParses(zipPath, iterations, warmup, 1);
+        System.out.printf(Locale.ROOT, "  Average: %.3f ms%n", sequentialMs);
+        double parallelMs = timeParses(zipPath, iterations, warmup, ENTRY_PARALLELISM);
+        System.out.printf(Locale.ROOT, "  Average (entryParallelism=%d): %.3f ms (%.2fx)%n",
+                ENTRY_PARALLELISM, parallelMs, sequentialMs / parallelMs);
+    }
+
+    private double timeParses(Path zipPath, int iterations, int warmup, int entryParallelism)
+            throws Exception {
+        AutoDetectParser parser = new AutoDetectParser();
+        ParseContext context = new ParseContext();
+        ZipParserConfig config = new ZipParserConfig();
+        config.setEntryParallelism(entryParallelism);
+        context.set(ZipParserConfig.class, config);
+
         // Warmup
         for (int i = 0; i < warmup; i++) {
             try (TikaInputStream tis = TikaInputStream.get(zipPath)) {
@@ -129,8 +168,7 @@ public class ZipBenchmark {
         }
         long duration = System.nanoTime() - start;
 
-        double avgMs = duration / (double) iterations / 1_000_000.0;
-        System.out.printf(Locale.ROOT, "  Average: %.3f ms%n", avgMs);
+        return duration / (double) iterations / 1_000_000.0;
     }
 
     private void parseWithRecursiveWrapper(AutoDetectParser parser, TikaInputStream tis,
@@ -35,12 +35,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import org.apache.tika.Tika;
+import org.apache.tika.config.EmbeddedLimits;
+import org.apache.tika.config.OutputLimits;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.exception.WriteLimitReachedException;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.metadata.Zip;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.ToTextContentHandler;
+import org.apache.tika.sax.WriteOutContentHandler;
 
 /**
  * Test case for parsing zip files.
@@ -210,6 +216,121 @@ public class ZipParserTest extends AbstractPkgTest {
         assertNull(containerMetadata.get(Zip.INTEGRITY_CHECK_RESULT));
     }
 
+    @Test
+    public void testEntryParallelism() throws Exception {
+        for (String file : new String[]{"test-documents.zip", "test-zip-of-zip.zip",
+                "testZipEncrypted.zip", "testEmbedded.zip"}) {
+            assertSameAsSequential(file, null);
+
+            XMLResult expected = getXML(file, new ParseContext());
+            XMLResult actual = getXML(file, parallelContext(3));
+            assertEquals(expected.xml, actual.xml, file);
+            assertEquals(normalize(expected.metadata), normalize(actual.metadata), file);
+        }
+    }
+
+    @Test
+    public void testEntryParallelismEmbeddedCountLimit() throws Exception {
+        //the limit is applied in archive order, to the entries and to what is embedded in them
+        for (String file : new String[]{"test-documents.zip", "test-zip-of-zip.zip",
+                "testEmbedded.zip"}) {
+            for (int maxCount : new int[]{0, 1, 4, 7}) {
+                EmbeddedLimits limits = new EmbeddedLimits(-1, false, maxCount, false);
+                List<Metadata> metadataList = assertSameAsSequential(file, limits);
+                assertTrue(metadataList.size() <= maxCount + 1, file + " " + maxCount);
+
+                ParseContext context = new ParseContext();
+                context.set(EmbeddedLimits.class, limits);
+                XMLResult expected = getXML(file, context);
+                context = parallelContext(3);
+                context.set(EmbeddedLimits.class, limits);
+                XMLResult actual = getXML(file, context);
+                assertEquals(expected.xml, actual.xml, file + " " + maxCount);
+            }
+        }
+    }
+
+    private List<Metadata> assertSameAsSequential(String file, EmbeddedLimits limits)
+            throws Exception {
+        ParseContext context = new ParseContext();
+        context.set(EmbeddedLimits.class, limits);
+        List<Metadata> expected = getRecursiveMetadata(file, context, true);
+
+        context = parallelContext(3);
+        context.set(EmbeddedLimits.class, limits);
+        List<Metadata> actual = getRecursiveMetadata(file, context, true);
+
+        assertEquals(expected.size(), actual.size(), file);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(normalize(expected.get(i)), normalize(actual.get(i)), file + " " + i);
+        }
+        return actual;
+    }
+
+    @Test
+    public void testEntryParallelismWriteLimit() throws Exception {
+        String expected = getTextWithWriteLimit(new ParseContext());
+        assertEquals(200, expected.length());
+        assertEquals(expected, getTextWithWriteLimit(parallelContext(3)));
+    }
+
+    @Test
+    public void testEntryParallelismBounds() throws Exception {
+        //the workers stop at the write limit from OutputLimits
+        ParseContext context = parallelContext(3);
+        context.set(OutputLimits.class, new OutputLimits(200, true, 100, 10, 1_000_000, 100));
+        BodyContentHandler handler = new BodyContentHandler(
+                WriteOutContentHandler.newInstance(new ToTextContentHandler(), context));
+        try (TikaInputStream tis = getResourceAsStream("/test-documents/test-documents.zip")) {
+            assertThrows(WriteLimitReachedException.class,
+                    () -> AUTO_DETECT_PARSER.parse(tis, handler, new Metadata(), context));
+        }
+        assertEquals(getTextWithWriteLimit(new ParseContext()), handler.toString());
+
+        //entries that do not fit in the buffer are parsed again on the calling thread
+        ParseContext smallBufferContext = parallelContext(3);
+        smallBufferContext.get(ZipParserConfig.class).setMaxBufferedEntryBytes(1);
+        assertEquals(getXML("test-documents.zip", new ParseContext()).xml,
+                getXML("test-documents.zip", smallBufferContext).xml);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ZipParserConfig().setEntryParallelism(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ZipParserConfig().setMaxBufferedEntryBytes(0));
+    }
+
+    private String getTextWithWriteLimit(ParseContext context) throws Exception {
+        BodyContentHandler handler = new BodyContentHandler(200);
+        try (TikaInputStream tis = getResourceAsStream("/test-documents/test-documents.zip")) {
+            assertThrows(WriteLimitReachedException.class,
+                    () -> AUTO_DETECT_PARSER.parse(tis, handler, new Metadata(), context));
+        }
+        return handler.toString();
+    }
+
+    private static ParseContext parallelContext(int entryParallelism) {
+        ZipParserConfig config = new ZipParserConfig();
+        config.setEntryParallelism(entryParallelism);
+        ParseContext context = new ParseContext();
+        context.set(ZipParserConfig.class, config);
+        return context;
+    }
+
+    //drops the parse time and the stack frames of recorded exceptions
+    private static Metadata normalize(Metadata metadata) {
+        Metadata normalized = new Metadata();
+        for (String name : metadata.names()) {
+            if (name.equals(TikaCoreProperties.PARSE_TIME_MILLIS.getName())) {
+                continue;
+            }
+            for (String value : metadata.getValues(name)) {
+                normalized.add(name, name.startsWith(TikaCoreProperties.TIKA_META_EXCEPTION_PREFIX) ?
+                        value.split("\\R", 2)[0] : value);
+            }
+        }
+        return normalized;
+    }
+
     @Test
     public void testIntegrityCheckHiddenEntry(@TempDir Path tempDir) throws Exception {
         // Create a ZIP with a hidden entry (in local headers but not central directory)
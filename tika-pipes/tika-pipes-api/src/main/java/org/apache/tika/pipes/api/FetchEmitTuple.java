@@ -17,6 +17,7 @@
 package org.apache.tika.pipes.api;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Objects;
 
 import org.apache.tika.metadata.Metadata;
@@ -38,6 +39,7 @@ public class FetchEmitTuple implements Serializable {
     private final Metadata metadata;
     private final ParseContext parseContext;
     private final ON_PARSE_EXCEPTION onParseException;
+    private byte[] inlineBytes;
 
     public FetchEmitTuple(String id, FetchKey fetchKey, EmitKey emitKey) {
         this(id, fetchKey, emitKey, new Metadata());
@@ -86,6 +88,26 @@ public class FetchEmitTuple implements Serializable {
         return onParseException;
     }
 
+    /**
+     * @return the document bytes carried with this tuple, or <code>null</code>
+     * if the document should be retrieved through the fetcher
+     */
+    public byte[] getInlineBytes() {
+        return inlineBytes;
+    }
+
+    /**
+     * Sets the document bytes to be parsed directly instead of being retrieved
+     * by the fetcher. This is intended for small documents where the cost of
+     * writing and re-reading a file is larger than sending the bytes with the
+     * request. The fetchKey is still used to name the document.
+     *
+     * @param inlineBytes the document bytes, or <code>null</code> to use the fetcher
+     */
+    public void setInlineBytes(byte[] inlineBytes) {
+        this.inlineBytes = inlineBytes;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -98,7 +120,8 @@ public class FetchEmitTuple implements Serializable {
         FetchEmitTuple that = (FetchEmitTuple) o;
         return Objects.equals(id, that.id) && Objects.equals(fetchKey, that.fetchKey) && Objects.equals(emitKey, that.emitKey)
                 && Objects.equals(metadata, that.metadata) &&
-                Objects.equals(parseContext, that.parseContext) && onParseException == that.onParseException;
+                Objects.equals(parseContext, that.parseContext) && onParseException == that.onParseException &&
+                Arrays.equals(inlineBytes, that.inlineBytes);
     }
 
     @Override
@@ -109,6 +132,7 @@ public class FetchEmitTuple implements Serializable {
         result = 31 * result + Objects.hashCode(metadata);
         result = 31 * result + Objects.hashCode(parseContext);
         result = 31 * result + Objects.hashCode(onParseException);
+        result = 31 * result + Arrays.hashCode(inlineBytes);
         return result;
     }
 
@@ -116,6 +140,7 @@ public class FetchEmitTuple implements Serializable {
     public String toString() {
         return "FetchEmitTuple{" + "id='" + id + '\'' + ", fetchKey=" + fetchKey + ", emitKey=" + emitKey +
                 ", metadata=" + metadata + ", parseContext=" + parseContext +
-                ", onParseException=" + onParseException + '}';
+                ", onParseException=" + onParseException +
+                (inlineBytes == null ? "" : ", inlineBytes=" + inlineBytes.length) + '}';
     }
 }
@@ -49,7 +49,9 @@ import org.apache.tika.pipes.api.emitter.EmitKey;
 import org.apache.tika.pipes.core.emitter.EmitDataImpl;
 import org.apache.tika.pipes.core.protocol.PipesMessage;
 import org.apache.tika.pipes.core.protocol.PipesMessageType;
+import org.apache.tika.pipes.core.serialization.BinaryPipesIpc;
 import org.apache.tika.pipes.core.serialization.JsonPipesIpc;
+import org.apache.tika.pipes.core.serialization.PipesIpcCodec;
 import org.apache.tika.pipes.core.server.IntermediateResult;
 import org.apache.tika.utils.ExceptionUtils;
 import org.apache.tika.utils.StringUtils;
@@ -77,6 +79,8 @@ public class PipesClient implements Closeable {
     private final int pipesClientId;
 
     private ConnectionTuple connectionTuple;
+    // codec for result payloads, negotiated per connection in waitForStartup()
+    private PipesIpcCodec ipcCodec = PipesIpcCodec.JSON;
     private int filesProcessed = 0;
 
     /**
@@ -365,14 +369,21 @@ public class PipesClient implements Closeable {
                         return buildFatalResult(t.getId(), t.getEmitKey(), UNSPECIFIED_CRASH,
                                 intermediateResult.get(), crashMsg);
                     case INTERMEDIATE_RESULT:
-                        intermediateResult.set(JsonPipesIpc.fromBytes(msg.payload(), Metadata.class));
+                        intermediateResult.set(ipcCodec.readMetadata(msg.payload()));
                         lastUpdate = Instant.now();
                         break;
                     case WORKING:
                         lastUpdate = Instant.ofEpochMilli(msg.lastProgressMillis());
                         break;
+                    case FINISHED_CHUNK:
                     case FINISHED:
-                        PipesResult result = JsonPipesIpc.fromBytes(msg.payload(), PipesResult.class);
+                        PipesResult result;
+                        if (msg.type() == PipesMessageType.FINISHED_CHUNK) {
+                            // large result streamed in chunks; decode them as they arrive
+                            result = BinaryPipesIpc.readPipesResult(msg.payload(), new FinishedChunkSource());
+                        } else {
+                            result = ipcCodec.readPipesResult(msg.payload());
+                        }
                         // Restore ParseContext from original FetchEmitTuple (not serialized back from server)
                         if (result.emitData() instanceof EmitDataImpl emitDataImpl) {
                             emitDataImpl.setParseContext(t.getParseContext());
@@ -432,6 +443,7 @@ public class PipesClient implements Closeable {
         PipesMessage msg = PipesMessage.read(connectionTuple.input);
         if (msg.type() == PipesMessageType.READY) {
             LOG.info("clientId={}: server successfully started", pipesClientId);
+            selectCodec(msg.payload());
         } else if (msg.type() == PipesMessageType.STARTUP_FAILED) {
             // Send ACK for startup failure
             PipesMessage.ack().write(connectionTuple.output);
@@ -444,6 +456,43 @@ public class PipesClient implements Closeable {
         }
     }
 
+    private void selectCodec(byte[] advertised) throws IOException {
+        PipesIpcCodec preferred = pipesConfig.getIpcCodec();
+        if (preferred == null || preferred == PipesIpcCodec.JSON || !preferred.isAdvertisedIn(advertised)) {
+            ipcCodec = PipesIpcCodec.JSON;
+            return;
+        }
+        PipesMessage.selectCodec(preferred.getByte()).write(connectionTuple.output);
+        ipcCodec = preferred;
+        LOG.debug("clientId={}: selected {} result codec", pipesClientId, ipcCodec);
+    }
+
+    /**
+     * Supplies the rest of a chunked result: the payloads of the following
+     * FINISHED_CHUNK messages and of the final FINISHED message, which is ACKed.
+     */
+    private class FinishedChunkSource implements BinaryPipesIpc.ChunkSource {
+
+        private boolean done = false;
+
+        @Override
+        public byte[] next() throws IOException {
+            if (done) {
+                return null;
+            }
+            PipesMessage msg = PipesMessage.read(connectionTuple.input);
+            if (msg.type() == PipesMessageType.FINISHED_CHUNK) {
+                return msg.payload();
+            }
+            if (msg.type() == PipesMessageType.FINISHED) {
+                PipesMessage.ack().write(connectionTuple.output);
+                done = true;
+                return msg.payload();
+            }
+            throw new IOException("Unexpected message type while reading chunked result: " + msg.type());
+        }
+    }
+
     /**
      * Connection state: socket and streams for communicating with the server.
      * Unlike the old ServerTuple, this doesn't include the process or server socket
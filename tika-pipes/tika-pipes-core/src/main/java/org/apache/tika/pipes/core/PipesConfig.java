@@ -23,6 +23,8 @@ import org.apache.tika.config.loader.TikaJsonConfig;
 import org.apache.tika.exception.TikaConfigException;
 import org.apache.tika.pipes.api.FetchEmitTuple;
 import org.apache.tika.pipes.api.ParseMode;
+import org.apache.tika.pipes.core.protocol.PipesMessage;
+import org.apache.tika.pipes.core.serialization.PipesIpcCodec;
 
 public class PipesConfig {
 
@@ -43,6 +45,22 @@ public class PipesConfig {
 
     public static final boolean DEFAULT_USE_SHARED_SERVER = false;
 
+    public static final int DEFAULT_MAX_INLINE_BYTES = 1024 * 1024;
+
+    /**
+     * Room left in a request frame for the rest of the fetch-emit tuple
+     * (ids, keys, metadata and parse context) next to the inline bytes.
+     */
+    static final int INLINE_FRAME_RESERVE_BYTES = 1024 * 1024;
+
+    /**
+     * Largest allowed value for {@link #setMaxInlineBytes(int)}: the inline bytes
+     * must fit in a single {@link PipesMessage} after Smile's 7-bit encoding of
+     * binary data, which stores 7 bytes in 8.
+     */
+    public static final int MAX_INLINE_BYTES_LIMIT =
+            (PipesMessage.MAX_PAYLOAD_BYTES - INLINE_FRAME_RESERVE_BYTES) / 8 * 7;
+
     /**
      * The emit strategy configuration determines how the forked PipesServer handles emitting data.
      * See {@link EmitStrategyConfig} for details.
@@ -76,11 +94,13 @@ public class PipesConfig {
     public static final long DEFAULT_EMIT_MAX_ESTIMATED_BYTES = 100000;
     public static final int DEFAULT_QUEUE_SIZE = 10000;
     public static final int DEFAULT_NUM_EMITTERS = 1;
+    public static final int DEFAULT_EMITTER_QUEUE_SIZE = 100;
 
     private long emitWithinMillis = DEFAULT_EMIT_WITHIN_MILLIS;
     private long emitMaxEstimatedBytes = DEFAULT_EMIT_MAX_ESTIMATED_BYTES;
     private int queueSize = DEFAULT_QUEUE_SIZE;
     private int numEmitters = DEFAULT_NUM_EMITTERS;
+    private int emitterQueueSize = DEFAULT_EMITTER_QUEUE_SIZE;
     private boolean emitIntermediateResults = false;
     /**
      * When true, only stop processing on fatal errors (FAILED_TO_INITIALIZE).
@@ -104,6 +124,18 @@ public class PipesConfig {
      */
     private FetchEmitTuple.ON_PARSE_EXCEPTION onParseException = FetchEmitTuple.ON_PARSE_EXCEPTION.EMIT;
 
+    /**
+     * Preferred encoding for results sent from the forked PipesServer back to the client.
+     * Falls back to JSON if the server does not advertise support for it.
+     */
+    private PipesIpcCodec ipcCodec = PipesIpcCodec.BINARY;
+
+    /**
+     * Documents up to this size that are handed to pipes by tika-server are sent
+     * inline with the request instead of being written to a temp file for the fetcher.
+     */
+    private int maxInlineBytes = DEFAULT_MAX_INLINE_BYTES;
+
     private ArrayList<String> forkedJvmArgs = new ArrayList<>();
     private String javaPath = "java";
 
@@ -346,6 +378,21 @@ public class PipesConfig {
         this.numEmitters = numEmitters;
     }
 
+    /**
+     * Each emitter id gets its own flush worker in the AsyncEmitter. This is the
+     * number of emit data that may wait for a single emitter before the AsyncEmitter
+     * blocks.
+     *
+     * @return the capacity of each per-emitter queue
+     */
+    public int getEmitterQueueSize() {
+        return emitterQueueSize;
+    }
+
+    public void setEmitterQueueSize(int emitterQueueSize) {
+        this.emitterQueueSize = emitterQueueSize;
+    }
+
     public boolean isEmitIntermediateResults() {
         return emitIntermediateResults;
     }
@@ -421,6 +468,52 @@ public class PipesConfig {
         this.onParseException = onParseException;
     }
 
+    /**
+     * Gets the preferred encoding for results sent from the PipesServer to the client.
+     *
+     * @return the preferred result codec
+     */
+    public PipesIpcCodec getIpcCodec() {
+        return ipcCodec;
+    }
+
+    /**
+     * Sets the preferred encoding for results sent from the PipesServer to the client.
+     * Use {@link PipesIpcCodec#JSON} to force the Jackson Smile encoding.
+     *
+     * @param ipcCodec the preferred result codec
+     */
+    public void setIpcCodec(PipesIpcCodec ipcCodec) {
+        this.ipcCodec = ipcCodec;
+    }
+
+    /**
+     * Gets the maximum size of a document that may be sent inline with the request.
+     *
+     * @return the maximum number of inline bytes
+     */
+    public int getMaxInlineBytes() {
+        return maxInlineBytes;
+    }
+
+    /**
+     * Sets the maximum size of a document that may be sent inline with the request.
+     * Set to 0 to always hand documents over through the file system.
+     *
+     * @param maxInlineBytes the maximum number of inline bytes, from 0 to
+     *                       {@link #MAX_INLINE_BYTES_LIMIT}
+     */
+    public void setMaxInlineBytes(int maxInlineBytes) {
+        if (maxInlineBytes < 0) {
+            throw new IllegalArgumentException("maxInlineBytes must be at least 0, got: " + maxInlineBytes);
+        }
+        if (maxInlineBytes > MAX_INLINE_BYTES_LIMIT) {
+            throw new IllegalArgumentException("maxInlineBytes must be at most " + MAX_INLINE_BYTES_LIMIT +
+                    " to fit in one request, got: " + maxInlineBytes);
+        }
+        this.maxInlineBytes = maxInlineBytes;
+    }
+
     public String getConfigStoreType() {
         return configStoreType;
     }
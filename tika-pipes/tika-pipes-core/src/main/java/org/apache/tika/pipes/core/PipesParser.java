@@ -87,7 +87,8 @@ public class PipesParser implements Closeable {
         this.pipesConfig = pipesConfig;
         this.tikaConfigPath = tikaConfigPath;
         this.isSharedMode = pipesConfig.isUseSharedServer();
-        this.clientQueue = new ArrayBlockingQueue<>(pipesConfig.getNumClients());
+        // fair, so that callers waiting for a client are served in arrival order
+        this.clientQueue = new ArrayBlockingQueue<>(pipesConfig.getNumClients(), true);
 
         if (isSharedMode) {
             // Shared mode: one ServerManager for all clients
@@ -17,15 +17,16 @@
 package org.apache.tika.pipes.core.async;
 
 import java.io.IOException;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,21 +39,44 @@ import org.apache.tika.pipes.core.emitter.EmitterManager;
 import org.apache.tika.utils.ExceptionUtils;
 
 /**
- * Worker thread that takes EmitData off the queue, batches it
- * and tries to emit it as a batch
+ * Worker thread that takes EmitData off the queue and hands it to
+ * a flush worker per emitter id. Each flush worker batches its
+ * emit data and emits it independently, so that one slow emitter
+ * doesn't hold up the others.
+ * <p>
+ * Flush workers adapt their batch size: while an emitter has a backlog
+ * and flushes complete within emitWithinMillis, batches grow (up to
+ * {@link #MAX_BATCH_GROWTH} times emitMaxEstimatedBytes) to amortize
+ * the per-request cost; when flushes are slow or the backlog is gone,
+ * they shrink back towards emitMaxEstimatedBytes.
+ * <p>
+ * Handing emit data to a flush worker never waits on a full queue while
+ * other emitters have work: the emit data is parked until the worker has
+ * room. Only once an emitter has emitterQueueSize emit data parked does
+ * routing wait for it.
+ * <p>
+ * Emit data that is not emitted, because a flush failed or because the
+ * emitter was interrupted before it could flush, is counted in
+ * {@link EmitterStats#failedEmitData()} and logged with its emit key.
  */
 public class AsyncEmitter implements Callable<Integer> {
 
     static final EmitDataPair EMIT_DATA_STOP_SEMAPHORE = new EmitDataPair(null, null);
     static final int EMITTER_FUTURE_CODE = 2;
+    static final int MAX_BATCH_GROWTH = 16;
+
+    //how long to wait for a queue with parked emit data to have room
+    private static final long PARKED_WAIT_MILLIS = 100;
+
+    //maximum number of emit keys to log for emit data that were not emitted
+    private static final int MAX_LOGGED_KEYS = 100;
 
     private static final Logger LOG = LoggerFactory.getLogger(AsyncEmitter.class);
 
     private final PipesConfig asyncConfig;
     private final EmitterManager emitterManager;
     private final ArrayBlockingQueue<EmitDataPair> emitDataQueue;
-
-    Instant lastEmitted = Instant.now();
+    private final Map<String, FlushWorker> workers = new ConcurrentHashMap<>();
 
     public AsyncEmitter(PipesConfig asyncConfig, ArrayBlockingQueue<EmitDataPair> emitData,
                         EmitterManager emitterManager) {
@@ -63,89 +87,269 @@ public class AsyncEmitter implements Callable<Integer> {
 
     @Override
     public Integer call() throws Exception {
-        EmitDataCache cache = new EmitDataCache(asyncConfig.getEmitMaxEstimatedBytes());
-
-        while (true) {
-            EmitDataPair emitDataPair = emitDataQueue.poll(500, TimeUnit.MILLISECONDS);
-            if (emitDataPair == EMIT_DATA_STOP_SEMAPHORE) {
-                cache.emitAll();
-                return EMITTER_FUTURE_CODE;
+        boolean stopped = false;
+        try {
+            while (true) {
+                boolean parked = drainParked();
+                checkWorkers();
+                EmitDataPair emitDataPair = emitDataQueue.poll(parked ? PARKED_WAIT_MILLIS : 500,
+                        TimeUnit.MILLISECONDS);
+                if (emitDataPair == EMIT_DATA_STOP_SEMAPHORE) {
+                    for (FlushWorker worker : workers.values()) {
+                        while (!worker.parked.isEmpty()) {
+                            worker.awaitRoom();
+                        }
+                        worker.stop();
+                    }
+                    for (FlushWorker worker : workers.values()) {
+                        worker.thread.join();
+                    }
+                    stopped = true;
+                    checkWorkers();
+                    return EMITTER_FUTURE_CODE;
+                }
+                if (emitDataPair != null) {
+                    route(emitDataPair);
+                } else {
+                    LOG.trace("Nothing on the async queue");
+                }
             }
-            if (emitDataPair != null) {
-                //this can block on emitAll
-                cache.add(emitDataPair);
-            } else {
-                LOG.trace("Nothing on the async queue");
+        } finally {
+            if (!stopped) {
+                for (FlushWorker worker : workers.values()) {
+                    worker.abandonParked();
+                    worker.thread.interrupt();
+                }
             }
-            LOG.debug("cache size: ({}) bytes and extract count: {}", cache.estimatedSize,
-                    cache.size);
-            long elapsed = ChronoUnit.MILLIS.between(lastEmitted, Instant.now());
-            if (elapsed > asyncConfig.getEmitWithinMillis()) {
-                LOG.debug("{} elapsed > {}, going to emitAll", elapsed, asyncConfig.getEmitWithinMillis());
-                //this can block
-                cache.emitAll();
+        }
+    }
+
+    private void route(EmitDataPair emitDataPair) throws InterruptedException, TikaException {
+        FlushWorker worker = workers.computeIfAbsent(emitDataPair.emitterId(), FlushWorker::new);
+        worker.parked.addLast(emitDataPair.emitData());
+        worker.drainParked();
+        //only an emitter that is this far behind holds up the others
+        while (worker.parked.size() > asyncConfig.getEmitterQueueSize()) {
+            drainParked();
+            worker.awaitRoom();
+        }
+    }
+
+    /**
+     * @return whether any emit data is still parked
+     */
+    private boolean drainParked() {
+        boolean parked = false;
+        for (FlushWorker worker : workers.values()) {
+            worker.drainParked();
+            parked |= !worker.parked.isEmpty();
+        }
+        return parked;
+    }
+
+    /**
+     * @return a snapshot of the flush workers' queues, batch sizes and flush latencies
+     */
+    public List<EmitterStats> getEmitterStats() {
+        List<EmitterStats> stats = new ArrayList<>();
+        for (FlushWorker worker : workers.values()) {
+            stats.add(worker.getStats());
+        }
+        return stats;
+    }
+
+    private void checkWorkers() throws TikaException {
+        for (FlushWorker worker : workers.values()) {
+            if (worker.failure != null) {
+                throw new TikaException("flush worker for emitter id=" + worker.emitterId + " failed",
+                        worker.failure);
             }
         }
     }
 
-    private class EmitDataCache {
-        private final long maxBytes;
+    private class FlushWorker implements Runnable {
+
+        private final String emitterId;
+        private final ArrayBlockingQueue<EmitData> queue;
+        private final Thread thread;
+        private final long minBatchBytes;
+        private final long maxBatchBytes;
+        //emit data waiting for room in the queue; used only by the routing thread
+        private final Deque<EmitData> parked = new ArrayDeque<>();
+        private final AtomicLong failedEmitData = new AtomicLong();
 
-        long estimatedSize = 0;
-        int size = 0;
-        Map<String, List<EmitData>> map = new HashMap<>();
+        private volatile boolean stopping = false;
+        private volatile Throwable failure;
 
-        public EmitDataCache(long maxBytes) {
-            this.maxBytes = maxBytes;
+        //written only by the worker thread
+        private volatile long targetBatchBytes;
+        private volatile int lastBatchSize = 0;
+        private volatile long lastFlushMillis = 0;
+        private volatile double avgFlushMillis = -1;
+        private volatile long totalFlushes = 0;
+        private volatile long totalEmitted = 0;
+        private volatile long failedFlushes = 0;
+
+        FlushWorker(String emitterId) {
+            this.emitterId = emitterId;
+            this.queue = new ArrayBlockingQueue<>(asyncConfig.getEmitterQueueSize());
+            this.minBatchBytes = asyncConfig.getEmitMaxEstimatedBytes();
+            this.maxBatchBytes = minBatchBytes * MAX_BATCH_GROWTH;
+            this.targetBatchBytes = minBatchBytes;
+            this.thread = new Thread(this, "async-emitter-" + emitterId);
+            this.thread.setDaemon(true);
+            this.thread.start();
         }
 
-        void updateEstimatedSize(long newBytes) {
-            estimatedSize += newBytes;
+        void drainParked() {
+            while (!parked.isEmpty() && queue.offer(parked.peekFirst())) {
+                parked.pollFirst();
+            }
         }
 
-        void add(EmitDataPair emitDataPair) {
-            size++;
-            long sz = emitDataPair.emitData().getEstimatedSizeBytes();
-            if (estimatedSize + sz > maxBytes) {
-                LOG.debug("estimated size ({}) > maxBytes({}), going to emitAll",
-                        (estimatedSize + sz), maxBytes);
-                emitAll();
+        /**
+         * Waits a little for room for the first parked emit data.
+         */
+        void awaitRoom() throws InterruptedException, TikaException {
+            if (queue.offer(parked.peekFirst(), PARKED_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                parked.pollFirst();
+                return;
             }
-            List<EmitData> cached = map.computeIfAbsent(emitDataPair.emitterId(), k -> new ArrayList<>());
-            updateEstimatedSize(sz);
-            cached.add(emitDataPair.emitData());
-        }
-
-        private void emitAll() {
-            int emitted = 0;
-            LOG.debug("about to emit {} files, {} estimated bytes", size, estimatedSize);
-            for (Map.Entry<String, List<EmitData>> e : map.entrySet()) {
-                Emitter emitter = null;
-                try {
-                    emitter = emitterManager.getEmitter(e.getKey());
-                } catch (IOException | TikaException ex) {
-                    LOG.warn("emitter id={} failed on instantiation", e.getKey(), ex);
-                    return;
+            LOG.debug("emitter id={} has a full queue ({}) and {} parked", emitterId, queue.size(),
+                    parked.size());
+            if (failure != null || !thread.isAlive()) {
+                throw new TikaException("flush worker for emitter id=" + emitterId + " is not running",
+                        failure);
+            }
+        }
+
+        void abandonParked() {
+            reportNotEmitted(new ArrayList<>(parked), "was stopped before they were queued");
+            parked.clear();
+        }
+
+        private void reportNotEmitted(List<EmitData> emitData, String reason) {
+            if (emitData.isEmpty()) {
+                return;
+            }
+            failedEmitData.addAndGet(emitData.size());
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < emitData.size() && i < MAX_LOGGED_KEYS; i++) {
+                keys.add(emitData.get(i).getEmitKey());
+            }
+            LOG.warn("emitter id={} did not emit {} emit data; it {}: {}", emitterId, emitData.size(),
+                    reason, keys);
+        }
+
+        void stop() {
+            stopping = true;
+        }
+
+        @Override
+        public void run() {
+            List<EmitData> batch = new ArrayList<>();
+            long batchBytes = 0;
+            long batchStarted = 0;
+            try {
+                while (true) {
+                    long waitMillis = 500;
+                    if (!batch.isEmpty()) {
+                        waitMillis = Math.min(waitMillis, Math.max(0,
+                                batchStarted + asyncConfig.getEmitWithinMillis() - System.currentTimeMillis()));
+                    }
+                    EmitData emitData = queue.poll(waitMillis, TimeUnit.MILLISECONDS);
+                    if (emitData != null) {
+                        long sz = emitData.getEstimatedSizeBytes();
+                        if (!batch.isEmpty() && batchBytes + sz > targetBatchBytes) {
+                            LOG.debug("emitter id={}: estimated size ({}) > target ({}), going to flush",
+                                    emitterId, batchBytes + sz, targetBatchBytes);
+                            flush(batch, batchBytes);
+                            batch = new ArrayList<>();
+                            batchBytes = 0;
+                        }
+                        if (batch.isEmpty()) {
+                            batchStarted = System.currentTimeMillis();
+                        }
+                        batch.add(emitData);
+                        batchBytes += sz;
+                    } else if (stopping && queue.isEmpty()) {
+                        if (!batch.isEmpty()) {
+                            flush(batch, batchBytes);
+                        }
+                        return;
+                    }
+                    if (!batch.isEmpty() &&
+                            System.currentTimeMillis() - batchStarted >= asyncConfig.getEmitWithinMillis()) {
+                        flush(batch, batchBytes);
+                        batch = new ArrayList<>();
+                        batchBytes = 0;
+                    }
                 }
-                tryToEmit(emitter, e.getValue());
-                emitted += e.getValue().size();
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+                reportNotEmitted(batch, "was interrupted");
+            } catch (Throwable t) {
+                LOG.error("flush worker for emitter id={} failed", emitterId, t);
+                failure = t;
+                queue.drainTo(batch);
+                reportNotEmitted(batch, "failed");
             }
+        }
+
+        private void flush(List<EmitData> batch, long batchBytes) {
+            LOG.debug("emitter id={}: about to emit {} files, {} estimated bytes", emitterId,
+                    batch.size(), batchBytes);
+            long start = System.nanoTime();
+            boolean success = tryToEmit(batch);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
 
-            LOG.debug("emitted: {} files", emitted);
-            estimatedSize = 0;
-            size = 0;
-            map.clear();
-            lastEmitted = Instant.now();
+            lastBatchSize = batch.size();
+            lastFlushMillis = elapsedMillis;
+            avgFlushMillis = avgFlushMillis < 0 ? elapsedMillis : 0.8 * avgFlushMillis + 0.2 * elapsedMillis;
+            totalFlushes++;
+            if (success) {
+                totalEmitted += batch.size();
+            } else {
+                failedFlushes++;
+                failedEmitData.addAndGet(batch.size());
+            }
+            adaptBatchSize(elapsedMillis);
+            LOG.debug("emitter id={}: emitted {} files in {} ms; queue depth={}, target batch bytes={}",
+                    emitterId, batch.size(), elapsedMillis, queue.size(), targetBatchBytes);
         }
 
-        private void tryToEmit(Emitter emitter, List<? extends EmitData> emitData) {
+        private void adaptBatchSize(long elapsedMillis) {
+            int depth = queue.size();
+            if (elapsedMillis > asyncConfig.getEmitWithinMillis() || depth == 0) {
+                targetBatchBytes = Math.max(minBatchBytes, targetBatchBytes / 2);
+            } else if (depth >= queue.remainingCapacity()) {
+                //at least half full
+                targetBatchBytes = Math.min(maxBatchBytes, targetBatchBytes * 2);
+            }
+        }
 
+        private boolean tryToEmit(List<EmitData> batch) {
+            Emitter emitter;
+            try {
+                emitter = emitterManager.getEmitter(emitterId);
+            } catch (IOException | TikaException ex) {
+                LOG.warn("emitter id={} failed on instantiation", emitterId, ex);
+                return false;
+            }
             try {
-                emitter.emit(emitData);
+                emitter.emit(batch);
+                return true;
             } catch (IOException e) {
                 LOG.warn("emitter class ({}): {}", emitter.getClass(),
                         ExceptionUtils.getStackTrace(e));
+                return false;
             }
         }
+
+        EmitterStats getStats() {
+            return new EmitterStats(emitterId, queue.size(), queue.size() + queue.remainingCapacity(),
+                    targetBatchBytes, lastBatchSize, lastFlushMillis, avgFlushMillis, totalFlushes,
+                    totalEmitted, failedFlushes, failedEmitData.get());
+        }
     }
 }
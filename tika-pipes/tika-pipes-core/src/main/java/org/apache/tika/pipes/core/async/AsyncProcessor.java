@@ -76,6 +76,7 @@ public class AsyncProcessor implements Closeable {
     private final Path tikaConfigPath;
     private final PipesReporter pipesReporter;
     private final List<ServerManager> serverManagers = new ArrayList<>();
+    private final List<AsyncEmitter> asyncEmitters = new ArrayList<>();
     private final AtomicLong totalProcessed = new AtomicLong(0);
     private final AtomicBoolean applicationErrorOccurred = new AtomicBoolean(false);
     private static long MAX_OFFER_WAIT_MS = 120000;
@@ -178,8 +179,9 @@ public class AsyncProcessor implements Closeable {
 
             EmitterManager emitterManager = EmitterManager.load(tikaPluginManager, tikaJsonConfig);
             for (int i = 0; i < asyncConfig.getNumEmitters(); i++) {
-                executorCompletionService.submit(
-                        new AsyncEmitter(asyncConfig, emitDatumTuples, emitterManager));
+                AsyncEmitter asyncEmitter = new AsyncEmitter(asyncConfig, emitDatumTuples, emitterManager);
+                asyncEmitters.add(asyncEmitter);
+                executorCompletionService.submit(asyncEmitter);
             }
         } catch (Exception e) {
             LOG.error("problem initializing AsyncProcessor", e);
@@ -369,6 +371,17 @@ public class AsyncProcessor implements Closeable {
         return totalProcessed.get();
     }
 
+    /**
+     * @return queue depth, batch size and flush latency for each emitter's flush worker
+     */
+    public List<EmitterStats> getEmitterStats() {
+        List<EmitterStats> stats = new ArrayList<>();
+        for (AsyncEmitter asyncEmitter : asyncEmitters) {
+            stats.addAll(asyncEmitter.getEmitterStats());
+        }
+        return stats;
+    }
+
     private class FetchEmitWorker implements Callable<Integer> {
 
         private final PipesConfig asyncConfig;
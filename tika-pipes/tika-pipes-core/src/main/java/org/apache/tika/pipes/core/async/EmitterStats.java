@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.core.async;
+
+/**
+ * Snapshot of the state of one emitter's flush worker in an {@link AsyncEmitter}.
+ * A queueDepth that stays near queueCapacity means the emitter can't keep up
+ * and is applying backpressure to the parsers.
+ *
+ * @param emitterId the emitter id
+ * @param queueDepth number of emit data waiting to be batched
+ * @param queueCapacity capacity of the emitter's queue
+ * @param targetBatchBytes current estimated size at which a batch is flushed
+ * @param lastBatchSize number of emit data in the last flushed batch
+ * @param lastFlushMillis how long the last flush took
+ * @param avgFlushMillis exponentially weighted average of flush latency, or -1 before the first flush
+ * @param totalFlushes number of batches flushed
+ * @param totalEmitted number of emit data flushed
+ * @param failedFlushes number of batches that the emitter failed to emit
+ * @param failedEmitData number of emit data that were not emitted, in failed batches
+ *                       or left over when the emitter was interrupted
+ */
+public record EmitterStats(String emitterId, int queueDepth, int queueCapacity, long targetBatchBytes,
+                           int lastBatchSize, long lastFlushMillis, double avgFlushMillis,
+                           long totalFlushes, long totalEmitted, long failedFlushes,
+                           long failedEmitData) {
+}
@@ -96,12 +96,21 @@ public record PipesMessage(PipesMessageType type, byte[] payload) {
      * Writes this message to the stream and flushes.
      */
     public void write(DataOutputStream out) throws IOException {
+        write(out, type, payload, 0, payload.length);
+    }
+
+    /**
+     * Writes one framed message whose payload is a slice of {@code buf}, and flushes.
+     * This avoids copying the slice when streaming a payload in chunks.
+     */
+    public static void write(DataOutputStream out, PipesMessageType type, byte[] buf,
+                             int offset, int length) throws IOException {
         out.write(MAGIC_0);
         out.write(MAGIC_1);
         out.write(type.getByte());
-        out.writeInt(payload.length);
-        if (payload.length > 0) {
-            out.write(payload);
+        out.writeInt(length);
+        if (length > 0) {
+            out.write(buf, offset, length);
         }
         out.flush();
     }
@@ -120,6 +129,22 @@ public record PipesMessage(PipesMessageType type, byte[] payload) {
         return new PipesMessage(PipesMessageType.READY, EMPTY);
     }
 
+    /**
+     * Creates a READY message whose payload lists the wire bytes of the
+     * result codecs the server supports.
+     */
+    public static PipesMessage ready(byte[] supportedCodecs) {
+        return new PipesMessage(PipesMessageType.READY, supportedCodecs);
+    }
+
+    /**
+     * Creates a SELECT_CODEC message (fire-and-forget, no ACK) telling the
+     * server which codec to use for result payloads on this connection.
+     */
+    public static PipesMessage selectCodec(byte codec) {
+        return new PipesMessage(PipesMessageType.SELECT_CODEC, new byte[]{codec});
+    }
+
     public static PipesMessage shutDown() {
         return new PipesMessage(PipesMessageType.SHUT_DOWN, EMPTY);
     }
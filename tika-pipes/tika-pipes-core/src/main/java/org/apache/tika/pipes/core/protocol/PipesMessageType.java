@@ -39,7 +39,9 @@ public enum PipesMessageType {
     FINISHED(0x09, true, -1),
     OOM(0x0A, true, 18),
     TIMEOUT(0x0B, true, 17),
-    UNSPECIFIED_CRASH(0x0C, true, 19);
+    UNSPECIFIED_CRASH(0x0C, true, 19),
+    SELECT_CODEC(0x0D, false, -1),
+    FINISHED_CHUNK(0x0E, false, -1);
 
     private final int wireByte;
     private final boolean requiresAck;
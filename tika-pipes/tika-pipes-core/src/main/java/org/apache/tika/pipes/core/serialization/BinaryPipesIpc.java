@@ -0,0 +1,512 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.core.serialization;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.pipes.api.PipesResult;
+import org.apache.tika.pipes.api.emitter.EmitData;
+import org.apache.tika.pipes.core.emitter.EmitDataImpl;
+import org.apache.tika.utils.StringUtils;
+
+/**
+ * Compact binary encoding of {@link Metadata} and {@link PipesResult} for the
+ * PipesServer to PipesClient direction of the IPC protocol.
+ * <p>
+ * Strings are written as a varint header followed by their bytes, so large
+ * extracted text is copied once on each side instead of being tokenized.
+ * Strings whose chars all fit in ISO-8859-1, which is the compact internal
+ * representation of most Java strings, are written as one byte per char; that
+ * is a plain copy on both sides. All other strings are written as UTF-8.
+ * Metadata field names are interned in a per-payload dictionary: the first
+ * occurrence of a name is written in full and assigned the next index, and
+ * later occurrences (typically in every embedded document of a
+ * RecursiveParserWrapper metadata list) are written as that index.
+ * <p>
+ * A PipesResult can also be written and read as a sequence of bounded chunks
+ * (see {@link #write(PipesResult, int, ChunkSink)}), so that neither side has
+ * to hold the whole encoded result in a single array. Only strings larger than
+ * a chunk are ever assembled in full.
+ * <p>
+ * This format is only used when both sides agree on it at connection startup;
+ * see {@link PipesIpcCodec}.
+ */
+public class BinaryPipesIpc {
+
+    /**
+     * Smallest chunk size accepted by {@link #write(PipesResult, int, ChunkSink)}
+     */
+    public static final int MIN_CHUNK_BYTES = 4096;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HAS_EMIT_DATA = 0x01;
+    private static final int HAS_MESSAGE = 0x02;
+
+    //the string header carries the byte length shifted left by one
+    private static final int MAX_STRING_BYTES = Integer.MAX_VALUE / 2 - 1;
+
+    //strings up to this length are written in one piece even when chunking
+    private static final int INLINE_STRING_CHARS = 1024;
+
+    /**
+     * Receives the full chunks of an encoded payload as they are produced.
+     */
+    public interface ChunkSink {
+        void write(byte[] bytes, int offset, int length) throws IOException;
+    }
+
+    /**
+     * Supplies the chunks of an encoded payload in order.
+     */
+    public interface ChunkSource {
+        /**
+         * @return the next chunk, or {@code null} after the last one
+         */
+        byte[] next() throws IOException;
+    }
+
+    private BinaryPipesIpc() {
+    }
+
+    public static byte[] toBytes(PipesResult pipesResult) throws IOException {
+        Writer w = new Writer(estimateSize(pipesResult.emitData()));
+        w.writePipesResult(pipesResult);
+        return w.toByteArray();
+    }
+
+    /**
+     * Encodes the result, handing every full chunk of {@code chunkSize} bytes to the
+     * sink as soon as it is filled.
+     *
+     * @return the final, possibly empty, partial chunk. For small results this is the
+     * whole payload and the sink is never called.
+     */
+    public static byte[] write(PipesResult pipesResult, int chunkSize, ChunkSink sink) throws IOException {
+        if (chunkSize < MIN_CHUNK_BYTES) {
+            throw new IllegalArgumentException("chunkSize must be >= " + MIN_CHUNK_BYTES);
+        }
+        Writer w = new Writer(chunkSize, sink);
+        w.writePipesResult(pipesResult);
+        return w.toByteArray();
+    }
+
+    public static byte[] toBytes(Metadata metadata) throws IOException {
+        Writer w = new Writer(1024);
+        w.writeByte(FORMAT_VERSION);
+        w.writeMetadata(metadata);
+        return w.toByteArray();
+    }
+
+    public static PipesResult readPipesResult(byte[] bytes) throws IOException {
+        return readPipesResult(bytes, null);
+    }
+
+    /**
+     * Decodes a result whose encoding starts with {@code firstChunk} and continues
+     * with the chunks supplied by {@code moreChunks}, which may be {@code null}.
+     * Chunks are decoded as they are pulled from the source.
+     */
+    public static PipesResult readPipesResult(byte[] firstChunk, ChunkSource moreChunks) throws IOException {
+        Reader r = new Reader(firstChunk, moreChunks);
+        r.checkVersion();
+        String statusName = r.readString();
+        PipesResult.RESULT_STATUS status;
+        try {
+            status = PipesResult.RESULT_STATUS.valueOf(statusName);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IOException("Unknown result status: " + statusName);
+        }
+        int flags = r.readByte();
+        EmitDataImpl emitData = null;
+        if ((flags & HAS_EMIT_DATA) != 0) {
+            String emitKey = r.readString();
+            String containerStackTrace = r.readString();
+            int size = r.readVarInt();
+            List<Metadata> metadataList = new ArrayList<>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                metadataList.add(r.readMetadata());
+            }
+            emitData = new EmitDataImpl(emitKey, metadataList, containerStackTrace);
+        }
+        String message = null;
+        if ((flags & HAS_MESSAGE) != 0) {
+            message = r.readString();
+        }
+        r.checkFullyConsumed();
+        return new PipesResult(status, emitData, message);
+    }
+
+    public static Metadata readMetadata(byte[] bytes) throws IOException {
+        Reader r = new Reader(bytes, null);
+        r.checkVersion();
+        Metadata metadata = r.readMetadata();
+        r.checkFullyConsumed();
+        return metadata;
+    }
+
+    private static int estimateSize(EmitData emitData) {
+        if (emitData == null) {
+            return 256;
+        }
+        //the estimate counts two bytes per char plus overhead, which is
+        //generous for UTF-8 of mostly ascii text
+        return (int) Math.min(emitData.getEstimatedSizeBytes() / 2 + 256,
+                Integer.MAX_VALUE - 16);
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Writer {
+
+        private final Map<String, Integer> names = new HashMap<>();
+        //if null, the buffer grows to hold the whole payload
+        private final ChunkSink sink;
+        private byte[] buf;
+        private int pos;
+
+        Writer(int initialSize) {
+            buf = new byte[Math.max(64, initialSize)];
+            sink = null;
+        }
+
+        Writer(int chunkSize, ChunkSink sink) {
+            buf = new byte[chunkSize];
+            this.sink = sink;
+        }
+
+        void writePipesResult(PipesResult pipesResult) throws IOException {
+            writeByte(FORMAT_VERSION);
+            writeString(pipesResult.status().name());
+            EmitData emitData = pipesResult.emitData();
+            boolean hasMessage = !StringUtils.isBlank(pipesResult.message());
+            writeByte((emitData != null ? HAS_EMIT_DATA : 0) | (hasMessage ? HAS_MESSAGE : 0));
+            if (emitData != null) {
+                writeString(emitData.getEmitKey());
+                writeString(emitData.getContainerStackTrace());
+                List<Metadata> metadataList = emitData.getMetadataList();
+                if (metadataList == null) {
+                    writeVarInt(0);
+                } else {
+                    writeVarInt(metadataList.size());
+                    for (Metadata metadata : metadataList) {
+                        writeMetadata(metadata);
+                    }
+                }
+            }
+            if (hasMessage) {
+                writeString(pipesResult.message());
+            }
+        }
+
+        void writeByte(int b) throws IOException {
+            ensureCapacity(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarInt(int v) throws IOException {
+            ensureCapacity(5);
+            while ((v & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        /**
+         * Writes 0 for null, otherwise ((byteLength << 1) | isUtf8) + 1 followed by the bytes
+         */
+        void writeString(String s) throws IOException {
+            if (s == null) {
+                writeVarInt(0);
+                return;
+            }
+            int len = s.length();
+            if (len > MAX_STRING_BYTES) {
+                throw new IllegalStateException("String too large: " + len);
+            }
+            if (sink != null && len > INLINE_STRING_CHARS) {
+                writeLargeString(s);
+                return;
+            }
+            //optimistically write one byte per char and fall back to utf-8
+            //at the first char that doesn't fit.  The whole string must fit in
+            //the buffer so that nothing is flushed before we might rewind.
+            ensureCapacity(5 + len);
+            int start = pos;
+            writeVarInt((len << 1) + 1);
+            for (int i = 0; i < len; i++) {
+                char c = s.charAt(i);
+                if (c > 0xFF) {
+                    pos = start;
+                    writeUtf8(s);
+                    return;
+                }
+                buf[pos + i] = (byte) c;
+            }
+            pos += len;
+        }
+
+        private void writeLargeString(String s) throws IOException {
+            if (!isLatin1(s)) {
+                writeUtf8(s);
+                return;
+            }
+            int len = s.length();
+            writeVarInt((len << 1) + 1);
+            int i = 0;
+            while (i < len) {
+                if (pos == buf.length) {
+                    flush();
+                }
+                int n = Math.min(len - i, buf.length - pos);
+                for (int j = 0; j < n; j++) {
+                    buf[pos + j] = (byte) s.charAt(i + j);
+                }
+                pos += n;
+                i += n;
+            }
+        }
+
+        private void writeUtf8(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_STRING_BYTES) {
+                throw new IllegalStateException("String too large: " + bytes.length);
+            }
+            writeVarInt(((bytes.length << 1) | 1) + 1);
+            if (sink == null) {
+                ensureCapacity(bytes.length);
+                System.arraycopy(bytes, 0, buf, pos, bytes.length);
+                pos += bytes.length;
+                return;
+            }
+            int off = 0;
+            while (off < bytes.length) {
+                if (pos == buf.length) {
+                    flush();
+                }
+                int n = Math.min(bytes.length - off, buf.length - pos);
+                System.arraycopy(bytes, off, buf, pos, n);
+                pos += n;
+                off += n;
+            }
+        }
+
+        void writeName(String name) throws IOException {
+            Integer index = names.get(name);
+            if (index != null) {
+                writeVarInt(index);
+                return;
+            }
+            int next = names.size();
+            names.put(name, next);
+            writeVarInt(next);
+            writeString(name);
+        }
+
+        void writeMetadata(Metadata metadata) throws IOException {
+            String[] fieldNames = metadata.names();
+            writeVarInt(fieldNames.length);
+            for (String name : fieldNames) {
+                String[] values = metadata.getValues(name);
+                writeName(name);
+                writeVarInt(values.length);
+                for (String v : values) {
+                    writeString(v);
+                }
+            }
+        }
+
+        private void ensureCapacity(int extra) throws IOException {
+            if (buf.length - pos >= extra) {
+                return;
+            }
+            if (sink != null) {
+                //callers never ask for more than INLINE_STRING_CHARS + 5 when chunking
+                flush();
+                return;
+            }
+            long needed = (long) pos + extra;
+            if (needed > Integer.MAX_VALUE - 16) {
+                throw new IllegalStateException("Payload too large: " + needed);
+            }
+            int newLength = (int) Math.min(Math.max(needed, (long) buf.length * 2),
+                    Integer.MAX_VALUE - 16);
+            buf = Arrays.copyOf(buf, newLength);
+        }
+
+        private void flush() throws IOException {
+            if (pos > 0) {
+                sink.write(buf, 0, pos);
+                pos = 0;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static class Reader {
+
+        private final List<String> names = new ArrayList<>();
+        private ChunkSource source;
+        private byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, ChunkSource source) {
+            this.buf = buf;
+            this.source = source;
+        }
+
+        void checkVersion() throws IOException {
+            int version = readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported binary pipes format version: " + version);
+            }
+        }
+
+        void checkFullyConsumed() throws IOException {
+            if (pos < buf.length || nextChunk()) {
+                throw new IOException("Trailing bytes in binary pipes payload: " +
+                        (buf.length - pos));
+            }
+        }
+
+        /**
+         * Moves to the next non-empty chunk
+         *
+         * @return false if there are no more chunks
+         */
+        private boolean nextChunk() throws IOException {
+            while (pos >= buf.length) {
+                if (source == null) {
+                    return false;
+                }
+                byte[] next = source.next();
+                if (next == null) {
+                    source = null;
+                    return false;
+                }
+                buf = next;
+                pos = 0;
+            }
+            return true;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= buf.length && !nextChunk()) {
+                throw new IOException("Truncated binary pipes payload");
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        int readVarInt() throws IOException {
+            int v = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (v < 0) {
+                        throw new IOException("Negative length in binary pipes payload");
+                    }
+                    return v;
+                }
+            }
+            throw new IOException("Malformed varint in binary pipes payload");
+        }
+
+        String readString() throws IOException {
+            int header = readVarInt();
+            if (header == 0) {
+                return null;
+            }
+            header--;
+            int len = header >>> 1;
+            Charset charset = (header & 1) == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+            if (len <= buf.length - pos) {
+                String s = new String(buf, pos, len, charset);
+                pos += len;
+                return s;
+            }
+            if (source == null) {
+                throw new IOException("Truncated binary pipes payload");
+            }
+            //the string spans chunks
+            byte[] bytes = new byte[len];
+            int off = 0;
+            while (off < len) {
+                if (pos >= buf.length && !nextChunk()) {
+                    throw new IOException("Truncated binary pipes payload");
+                }
+                int n = Math.min(len - off, buf.length - pos);
+                System.arraycopy(buf, pos, bytes, off, n);
+                pos += n;
+                off += n;
+            }
+            return new String(bytes, charset);
+        }
+
+        String readName() throws IOException {
+            int index = readVarInt();
+            if (index < names.size()) {
+                return names.get(index);
+            }
+            if (index != names.size()) {
+                throw new IOException("Bad field name index: " + index);
+            }
+            String name = readString();
+            if (name == null) {
+                throw new IOException("Null field name in binary pipes payload");
+            }
+            names.add(name);
+            return name;
+        }
+
+        Metadata readMetadata() throws IOException {
+            Metadata metadata = new Metadata();
+            int numFields = readVarInt();
+            for (int i = 0; i < numFields; i++) {
+                String name = readName();
+                int numValues = readVarInt();
+                if (numValues == 1) {
+                    metadata.set(name, readString());
+                } else {
+                    for (int j = 0; j < numValues; j++) {
+                        metadata.add(name, readString());
+                    }
+                }
+            }
+            return metadata;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import static org.apache.tika.pipes.core.serialization.FetchEmitTupleSerializer.
 import static org.apache.tika.pipes.core.serialization.FetchEmitTupleSerializer.FETCH_RANGE_END;
 import static org.apache.tika.pipes.core.serialization.FetchEmitTupleSerializer.FETCH_RANGE_START;
 import static org.apache.tika.pipes.core.serialization.FetchEmitTupleSerializer.ID;
+import static org.apache.tika.pipes.core.serialization.FetchEmitTupleSerializer.INLINE_BYTES;
 import static org.apache.tika.pipes.core.serialization.FetchEmitTupleSerializer.METADATA_KEY;
 import static org.apache.tika.pipes.core.serialization.FetchEmitTupleSerializer.ON_PARSE_EXCEPTION;
 import static org.apache.tika.serialization.serdes.ParseContextSerializer.PARSE_CONTEXT;
@@ -64,9 +65,14 @@ public class FetchEmitTupleDeserializer extends JsonDeserializer<FetchEmitTuple>
         ParseContext parseContext = parseContextNode == null ? new ParseContext() : ParseContextDeserializer.readParseContext(parseContextNode, mapper);
         FetchEmitTuple.ON_PARSE_EXCEPTION onParseException = readOnParseException(root);
 
-        return new FetchEmitTuple(id, new FetchKey(fetcherId, fetchKey, fetchRangeStart, fetchRangeEnd),
+        FetchEmitTuple t = new FetchEmitTuple(id, new FetchKey(fetcherId, fetchKey, fetchRangeStart, fetchRangeEnd),
                 new EmitKey(emitterName, emitKey), metadata, parseContext,
                 onParseException);
+        JsonNode inlineBytesNode = root.get(INLINE_BYTES);
+        if (inlineBytesNode != null && !inlineBytesNode.isNull()) {
+            t.setInlineBytes(inlineBytesNode.binaryValue());
+        }
+        return t;
     }
 
     private static FetchEmitTuple.ON_PARSE_EXCEPTION readOnParseException(JsonNode root) throws IOException {
@@ -38,6 +38,7 @@ public class FetchEmitTupleSerializer extends JsonSerializer<FetchEmitTuple> {
     public static final String EMIT_KEY = "emitKey";
     public static final String METADATA_KEY = "metadata";
     public static final String ON_PARSE_EXCEPTION = "onParseException";
+    public static final String INLINE_BYTES = "inlineBytes";
 
     public void serialize(FetchEmitTuple t, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
 
@@ -60,6 +61,9 @@ public class FetchEmitTupleSerializer extends JsonSerializer<FetchEmitTuple> {
         if (!t.getParseContext().isEmpty()) {
             jsonGenerator.writeObjectField(PARSE_CONTEXT, t.getParseContext());
         }
+        if (t.getInlineBytes() != null) {
+            jsonGenerator.writeBinaryField(INLINE_BYTES, t.getInlineBytes());
+        }
         jsonGenerator.writeEndObject();
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.core.serialization;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.pipes.api.PipesResult;
+
+/**
+ * Encoding used for the {@link Metadata} and {@link PipesResult} payloads that the
+ * PipesServer sends back to the PipesClient (INTERMEDIATE_RESULT and FINISHED).
+ * <p>
+ * The server lists the codecs it supports in the READY message. If the client prefers
+ * a codec other than {@link #JSON} and the server supports it, the client selects it
+ * with a SELECT_CODEC message before sending its first request. A server that
+ * advertises nothing, or a client that does not select anything, stays on {@link #JSON}.
+ * <p>
+ * Requests (FetchEmitTuple) and crash messages are always encoded with
+ * {@link JsonPipesIpc}.
+ */
+public enum PipesIpcCodec {
+
+    /**
+     * Jackson Smile via {@link JsonPipesIpc}
+     */
+    JSON(0x00),
+
+    /**
+     * Length-prefixed strings with interned field names via {@link BinaryPipesIpc}
+     */
+    BINARY(0x01);
+
+    private static final byte[] SUPPORTED = new byte[]{JSON.getByte(), BINARY.getByte()};
+
+    private final int wireByte;
+
+    PipesIpcCodec(int wireByte) {
+        this.wireByte = wireByte;
+    }
+
+    public byte getByte() {
+        return (byte) wireByte;
+    }
+
+    /**
+     * @return the wire bytes of all codecs this side of the protocol can decode and encode
+     */
+    public static byte[] supportedBytes() {
+        return SUPPORTED.clone();
+    }
+
+    /**
+     * @param b the wire byte
+     * @return the matching codec
+     * @throws IllegalArgumentException if no codec matches
+     */
+    public static PipesIpcCodec lookup(int b) {
+        for (PipesIpcCodec codec : values()) {
+            if (codec.wireByte == b) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException(
+                String.format(Locale.ROOT, "Unknown PipesIpcCodec wire byte: 0x%02x", b & 0xFF));
+    }
+
+    /**
+     * @param advertised the payload of a READY message
+     * @return whether this codec is in the list the server advertised
+     */
+    public boolean isAdvertisedIn(byte[] advertised) {
+        for (byte b : advertised) {
+            if (b == getByte()) {
+                return true;
+            }
+        }
+        return this == JSON;
+    }
+
+    public byte[] toBytes(PipesResult pipesResult) throws IOException {
+        if (this == BINARY) {
+            return BinaryPipesIpc.toBytes(pipesResult);
+        }
+        return JsonPipesIpc.toBytes(pipesResult);
+    }
+
+    public byte[] toBytes(Metadata metadata) throws IOException {
+        if (this == BINARY) {
+            return BinaryPipesIpc.toBytes(metadata);
+        }
+        return JsonPipesIpc.toBytes(metadata);
+    }
+
+    public PipesResult readPipesResult(byte[] bytes) throws IOException {
+        if (this == BINARY) {
+            return BinaryPipesIpc.readPipesResult(bytes);
+        }
+        return JsonPipesIpc.fromBytes(bytes, PipesResult.class);
+    }
+
+    public Metadata readMetadata(byte[] bytes) throws IOException {
+        if (this == BINARY) {
+            return BinaryPipesIpc.readMetadata(bytes);
+        }
+        return JsonPipesIpc.fromBytes(bytes, Metadata.class);
+    }
+}
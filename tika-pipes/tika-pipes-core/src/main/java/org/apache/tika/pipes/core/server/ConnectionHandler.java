@@ -114,7 +114,7 @@ public class ConnectionHandler implements Runnable, Closeable {
         LOG.debug("handlerId={}: starting connection handler", handlerId);
         try {
             // Send READY signal (fire-and-forget, no ACK)
-            PipesMessage.ready().write(output);
+            protocolIO.writeReady();
             LOG.debug("handlerId={}: sent READY, entering main loop", handlerId);
 
             mainLoop();
@@ -149,6 +149,9 @@ public class ConnectionHandler implements Runnable, Closeable {
                     case PING:
                         PipesMessage.ping().write(output);
                         break;
+                    case SELECT_CODEC:
+                        protocolIO.selectCodec(msg);
+                        break;
                     case NEW_REQUEST:
                         intermediateResult.clear();
                         CountDownLatch countDownLatch = new CountDownLatch(1);
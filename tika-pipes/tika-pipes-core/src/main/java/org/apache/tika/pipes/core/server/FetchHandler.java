@@ -42,6 +42,14 @@ class FetchHandler {
     }
 
     public TisOrResult fetch(FetchEmitTuple fetchEmitTuple, Metadata metadata, ParseContext parseContext) {
+        if (fetchEmitTuple.getInlineBytes() != null) {
+            //the bytes came with the request, there's nothing to fetch
+            try {
+                return new TisOrResult(TikaInputStream.get(fetchEmitTuple.getInlineBytes(), metadata), null);
+            } catch (IOException e) {
+                return new TisOrResult(null, new PipesResult(PipesResult.RESULT_STATUS.FETCH_EXCEPTION, ExceptionUtils.getStackTrace(e)));
+            }
+        }
         FetcherOrResult fetcherResult = getFetcher(fetchEmitTuple);
         if (fetcherResult.pipesResult != null) {
             return new TisOrResult(null, fetcherResult.pipesResult);
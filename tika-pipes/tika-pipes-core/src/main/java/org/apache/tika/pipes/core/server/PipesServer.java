@@ -308,7 +308,7 @@ public class PipesServer implements AutoCloseable {
 
     public void mainLoop() {
         try {
-            PipesMessage.ready().write(output);
+            protocolIO.writeReady();
         } catch (IOException e) {
             LOG.error("pipesClientId={}: failed to send READY", pipesClientId, e);
             exit(PipesMessageType.UNSPECIFIED_CRASH.getExitCode().orElse(19));
@@ -342,6 +342,9 @@ public class PipesServer implements AutoCloseable {
                     case PING:
                         PipesMessage.ping().write(output);
                         break;
+                    case SELECT_CODEC:
+                        protocolIO.selectCodec(msg);
+                        break;
                     case NEW_REQUEST:
                         intermediateResult.clear();
                         CountDownLatch countDownLatch = new CountDownLatch(1);
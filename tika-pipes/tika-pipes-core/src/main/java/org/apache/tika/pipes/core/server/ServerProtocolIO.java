@@ -30,7 +30,9 @@ import org.apache.tika.pipes.core.extractor.UnpackConfig;
 import org.apache.tika.pipes.core.protocol.PipesMessage;
 import org.apache.tika.pipes.core.protocol.PipesMessageType;
 import org.apache.tika.pipes.core.protocol.ShutDownReceivedException;
+import org.apache.tika.pipes.core.serialization.BinaryPipesIpc;
 import org.apache.tika.pipes.core.serialization.JsonPipesIpc;
+import org.apache.tika.pipes.core.serialization.PipesIpcCodec;
 import org.apache.tika.utils.ExceptionUtils;
 import org.apache.tika.utils.StringUtils;
 
@@ -45,22 +47,62 @@ import org.apache.tika.utils.StringUtils;
  */
 public class ServerProtocolIO {
 
+    /**
+     * Size of the FINISHED_CHUNK messages used to stream large results
+     */
+    public static final int RESULT_CHUNK_BYTES = 1024 * 1024;
+
     private final DataInputStream input;
     private final DataOutputStream output;
+    private PipesIpcCodec codec = PipesIpcCodec.JSON;
 
     public ServerProtocolIO(DataInputStream input, DataOutputStream output) {
         this.input = input;
         this.output = output;
     }
 
+    /**
+     * Writes the READY message, advertising the result codecs this server supports.
+     */
+    public void writeReady() throws IOException {
+        PipesMessage.ready(PipesIpcCodec.supportedBytes()).write(output);
+    }
+
+    /**
+     * Switches the result codec in response to a SELECT_CODEC message from the client.
+     *
+     * @throws IOException if the payload does not name a supported codec
+     */
+    public void selectCodec(PipesMessage msg) throws IOException {
+        if (msg.payload().length != 1) {
+            throw new IOException("SELECT_CODEC payload must be one byte, but was " + msg.payload().length);
+        }
+        try {
+            codec = PipesIpcCodec.lookup(msg.payload()[0]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
     /**
      * Writes a FINISHED message with the serialized result and waits for ACK.
+     * <p>
+     * With the binary codec, a result larger than {@link #RESULT_CHUNK_BYTES} is
+     * streamed as FINISHED_CHUNK messages while it is encoded, and the FINISHED
+     * message carries the last chunk.
      *
      * @throws ShutDownReceivedException if SHUT_DOWN is received instead of ACK
      * @throws IOException on serialization or I/O errors
      */
     public void writeFinished(PipesResult pipesResult) throws IOException {
-        byte[] bytes = JsonPipesIpc.toBytes(pipesResult);
+        byte[] bytes;
+        if (codec == PipesIpcCodec.BINARY) {
+            bytes = BinaryPipesIpc.write(pipesResult, RESULT_CHUNK_BYTES,
+                    (buf, offset, length) -> PipesMessage.write(output,
+                            PipesMessageType.FINISHED_CHUNK, buf, offset, length));
+        } else {
+            bytes = codec.toBytes(pipesResult);
+        }
         PipesMessage.finished(bytes).write(output);
         awaitAck();
     }
@@ -72,7 +114,7 @@ public class ServerProtocolIO {
      * @throws IOException on serialization or I/O errors
      */
     public void writeIntermediate(Metadata metadata) throws IOException {
-        byte[] bytes = JsonPipesIpc.toBytes(metadata);
+        byte[] bytes = codec.toBytes(metadata);
         PipesMessage.intermediateResult(bytes).write(output);
         awaitAck();
     }
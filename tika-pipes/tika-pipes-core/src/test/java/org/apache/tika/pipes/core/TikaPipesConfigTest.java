@@ -16,10 +16,27 @@
  */
 package org.apache.tika.pipes.core;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
 import org.apache.tika.TikaTest;
 
 public class TikaPipesConfigTest extends TikaTest {
     //this handles tests for the newer pipes type configs.
+
+    @Test
+    public void testMaxInlineBytesBounds() throws Exception {
+        PipesConfig config = new PipesConfig();
+        config.setMaxInlineBytes(0);
+        assertEquals(0, config.getMaxInlineBytes());
+        config.setMaxInlineBytes(PipesConfig.MAX_INLINE_BYTES_LIMIT);
+        assertEquals(PipesConfig.MAX_INLINE_BYTES_LIMIT, config.getMaxInlineBytes());
+        assertThrows(IllegalArgumentException.class, () -> config.setMaxInlineBytes(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> config.setMaxInlineBytes(PipesConfig.MAX_INLINE_BYTES_LIMIT + 1));
+    }
 /*
     TODO -- reimplent these with json
     @Test
@@ -194,6 +194,29 @@ class PipesMessageTest {
         assertEquals(PipesMessageType.OOM, roundTrip(PipesMessage.crash(PipesMessageType.OOM, data)).type());
     }
 
+    @Test
+    void testCodecNegotiationMessages() throws IOException {
+        PipesMessage ready = roundTrip(PipesMessage.ready(new byte[]{0x00, 0x01}));
+        assertEquals(PipesMessageType.READY, ready.type());
+        assertArrayEquals(new byte[]{0x00, 0x01}, ready.payload());
+
+        PipesMessage select = roundTrip(PipesMessage.selectCodec((byte) 0x01));
+        assertEquals(PipesMessageType.SELECT_CODEC, select.type());
+        assertArrayEquals(new byte[]{0x01}, select.payload());
+        assertFalse(PipesMessageType.SELECT_CODEC.requiresAck());
+    }
+
+    @Test
+    void testWriteSlice() throws IOException {
+        byte[] buf = "0123456789".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PipesMessage.write(new DataOutputStream(baos), PipesMessageType.FINISHED_CHUNK, buf, 2, 5);
+        PipesMessage msg = PipesMessage.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(PipesMessageType.FINISHED_CHUNK, msg.type());
+        assertArrayEquals("23456".getBytes(StandardCharsets.UTF_8), msg.payload());
+        assertFalse(PipesMessageType.FINISHED_CHUNK.requiresAck());
+    }
+
     private PipesMessage roundTrip(PipesMessage msg) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         msg.write(new DataOutputStream(baos));
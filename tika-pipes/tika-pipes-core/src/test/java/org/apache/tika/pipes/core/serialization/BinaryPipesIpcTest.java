@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.core.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.pipes.api.PipesResult;
+import org.apache.tika.pipes.core.emitter.EmitDataImpl;
+
+public class BinaryPipesIpcTest {
+
+    @Test
+    public void testPipesResultRoundTrip() throws Exception {
+        List<Metadata> metadataList = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Metadata m = new Metadata();
+            m.set(TikaCoreProperties.RESOURCE_NAME_KEY, "file-" + i + ".txt");
+            m.set("Content-Type", "text/plain; charset=UTF-8");
+            m.add("dc:creator", "alice");
+            m.add("dc:creator", "bob");
+            m.set(TikaCoreProperties.TIKA_CONTENT, "café 日本語 😀 " + i);
+            metadataList.add(m);
+        }
+        PipesResult result = new PipesResult(PipesResult.RESULT_STATUS.PARSE_SUCCESS_WITH_EXCEPTION,
+                new EmitDataImpl("emit-key", metadataList, "stack trace"), "a message");
+
+        for (PipesIpcCodec codec : PipesIpcCodec.values()) {
+            PipesResult deserialized = codec.readPipesResult(codec.toBytes(result));
+            assertEquals(result.status(), deserialized.status(), codec.name());
+            assertEquals("a message", deserialized.message(), codec.name());
+            assertEquals("emit-key", deserialized.emitData().getEmitKey(), codec.name());
+            assertEquals("stack trace", deserialized.emitData().getContainerStackTrace(), codec.name());
+            assertEquals(metadataList, deserialized.emitData().getMetadataList(), codec.name());
+        }
+    }
+
+    @Test
+    public void testFieldNamesAreInterned() throws Exception {
+        List<Metadata> metadataList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Metadata m = new Metadata();
+            m.set("a-rather-long-metadata-field-name", "v");
+            metadataList.add(m);
+        }
+        byte[] bytes = BinaryPipesIpc.toBytes(new PipesResult(PipesResult.RESULT_STATUS.EMIT_SUCCESS,
+                new EmitDataImpl("k", metadataList)));
+        //the name is written once, every later occurrence is a one byte index
+        assertTrue(bytes.length < 100 * 8, "length: " + bytes.length);
+        assertEquals(metadataList,
+                BinaryPipesIpc.readPipesResult(bytes).emitData().getMetadataList());
+    }
+
+    @Test
+    public void testNoEmitData() throws Exception {
+        PipesResult result = new PipesResult(PipesResult.RESULT_STATUS.FETCH_EXCEPTION, "fetch failed");
+        PipesResult deserialized = BinaryPipesIpc.readPipesResult(BinaryPipesIpc.toBytes(result));
+        assertEquals(PipesResult.RESULT_STATUS.FETCH_EXCEPTION, deserialized.status());
+        assertNull(deserialized.emitData());
+        assertEquals("fetch failed", deserialized.message());
+
+        deserialized = BinaryPipesIpc.readPipesResult(
+                BinaryPipesIpc.toBytes(new PipesResult(PipesResult.RESULT_STATUS.EMIT_SUCCESS)));
+        assertEquals(PipesResult.RESULT_STATUS.EMIT_SUCCESS, deserialized.status());
+        assertNull(deserialized.emitData());
+        assertNull(deserialized.message());
+    }
+
+    @Test
+    public void testMetadataRoundTrip() throws Exception {
+        Metadata m = new Metadata();
+        m.set("empty", "");
+        m.add("multi", "1");
+        m.add("multi", "2");
+        m.add("multi", "3");
+        for (PipesIpcCodec codec : PipesIpcCodec.values()) {
+            assertEquals(m, codec.readMetadata(codec.toBytes(m)), codec.name());
+        }
+        assertEquals(new Metadata(), BinaryPipesIpc.readMetadata(BinaryPipesIpc.toBytes(new Metadata())));
+    }
+
+    @Test
+    public void testChunkedRoundTrip() throws Exception {
+        StringBuilder latin1 = new StringBuilder();
+        StringBuilder utf8 = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            latin1.append("données ").append(i).append(' ');
+            utf8.append("日本語 “quoted” ").append(i).append(' ');
+        }
+        List<Metadata> metadataList = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Metadata m = new Metadata();
+            m.set(TikaCoreProperties.RESOURCE_NAME_KEY, "file-" + i);
+            m.set("long-value", i % 2 == 0 ? latin1.toString() : utf8.toString());
+            m.add("short", "a");
+            m.add("short", "b");
+            metadataList.add(m);
+        }
+        PipesResult result = new PipesResult(PipesResult.RESULT_STATUS.PARSE_SUCCESS,
+                new EmitDataImpl("emit-key", metadataList), "message");
+
+        int chunkSize = BinaryPipesIpc.MIN_CHUNK_BYTES;
+        List<byte[]> chunks = new ArrayList<>();
+        byte[] last = BinaryPipesIpc.write(result, chunkSize,
+                (bytes, offset, length) -> chunks.add(Arrays.copyOfRange(bytes, offset, offset + length)));
+        assertTrue(chunks.size() > 100, "chunks: " + chunks.size());
+        for (byte[] chunk : chunks) {
+            assertEquals(chunkSize, chunk.length);
+        }
+        assertTrue(last.length <= chunkSize);
+
+        //the concatenated chunks are the same encoding as the unchunked payload
+        ByteArrayOutputStream concatenated = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            concatenated.write(chunk);
+        }
+        concatenated.write(last);
+        assertArrayEquals(BinaryPipesIpc.toBytes(result), concatenated.toByteArray());
+
+        chunks.add(last);
+        PipesResult deserialized = BinaryPipesIpc.readPipesResult(chunks.get(0),
+                chunkSource(chunks.subList(1, chunks.size())));
+        assertEquals(PipesResult.RESULT_STATUS.PARSE_SUCCESS, deserialized.status());
+        assertEquals("message", deserialized.message());
+        assertEquals(metadataList, deserialized.emitData().getMetadataList());
+
+        //missing the final chunk
+        assertThrows(IOException.class, () -> BinaryPipesIpc.readPipesResult(chunks.get(0),
+                chunkSource(chunks.subList(1, chunks.size() - 1))));
+    }
+
+    private static BinaryPipesIpc.ChunkSource chunkSource(List<byte[]> chunks) {
+        Iterator<byte[]> it = chunks.iterator();
+        return () -> it.hasNext() ? it.next() : null;
+    }
+
+    @Test
+    public void testCorruptPayloads() throws Exception {
+        Metadata m = new Metadata();
+        m.set("k", "value");
+        byte[] bytes = BinaryPipesIpc.toBytes(m);
+        assertThrows(IOException.class,
+                () -> BinaryPipesIpc.readMetadata(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IOException.class,
+                () -> BinaryPipesIpc.readMetadata(Arrays.copyOf(bytes, bytes.length + 1)));
+        byte[] badVersion = bytes.clone();
+        badVersion[0] = 99;
+        assertThrows(IOException.class, () -> BinaryPipesIpc.readMetadata(badVersion));
+    }
+
+    @Test
+    public void testNegotiation() {
+        byte[] advertised = PipesIpcCodec.supportedBytes();
+        for (PipesIpcCodec codec : PipesIpcCodec.values()) {
+            assertEquals(codec, PipesIpcCodec.lookup(codec.getByte()));
+            assertTrue(codec.isAdvertisedIn(advertised));
+        }
+        //an older server sends an empty READY payload
+        assertTrue(PipesIpcCodec.JSON.isAdvertisedIn(new byte[0]));
+        assertEquals(false, PipesIpcCodec.BINARY.isAdvertisedIn(new byte[0]));
+        assertArrayEquals(new byte[]{0x00, 0x01}, advertised);
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.tika.pipes.core.serialization;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.Reader;
@@ -102,6 +103,28 @@ public class JsonFetchEmitTupleTest {
 
     }
 
+    @Test
+    public void testInlineBytes() throws Exception {
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        FetchEmitTuple t = new FetchEmitTuple("my_id", new FetchKey("my_fetcher", "fetchKey1"),
+                new EmitKey("my_emitter", "emitKey1"), new Metadata(), new ParseContext(), FetchEmitTuple.ON_PARSE_EXCEPTION.EMIT);
+        t.setInlineBytes(bytes);
+
+        StringWriter writer = new StringWriter();
+        JsonFetchEmitTuple.toJson(t, writer);
+        FetchEmitTuple deserialized = JsonFetchEmitTuple.fromJson(new StringReader(writer.toString()));
+        assertEquals(t, deserialized);
+        assertArrayEquals(bytes, deserialized.getInlineBytes());
+
+        //this is the path taken by NEW_REQUEST
+        deserialized = JsonPipesIpc.fromBytes(JsonPipesIpc.toBytes(t), FetchEmitTuple.class);
+        assertEquals(t, deserialized);
+        assertArrayEquals(bytes, deserialized.getInlineBytes());
+    }
+
     @Test
     public void testUnpackConfigSerialization() throws Exception {
         ParseContext parseContext = new ParseContext();
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.core.serialization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.pipes.api.PipesResult;
+import org.apache.tika.pipes.core.emitter.EmitDataImpl;
+
+/**
+ * Round-trip (encode on the server, decode on the client) throughput of the
+ * FINISHED payload for each {@link PipesIpcCodec}.
+ * <p>
+ * The payloads are shaped like RecursiveParserWrapper output: a container
+ * document followed by embedded documents, each with the usual
+ * X-TIKA bookkeeping fields, a handful of format-specific fields and
+ * extracted text.
+ * <p>
+ * Usage: PipesIpcCodecBenchmark [numEmbedded] [contentKbPerDocument] [iterations]
+ */
+public class PipesIpcCodecBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numEmbedded = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int contentKb = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        PipesResult result = new PipesResult(PipesResult.RESULT_STATUS.PARSE_SUCCESS,
+                new EmitDataImpl("container.zip", buildMetadataList(numEmbedded, contentKb)));
+
+        for (int round = 0; round < 3; round++) {
+            System.out.println("--- " + (round == 0 ? "warmup" : "measured") + " ---");
+            for (PipesIpcCodec codec : PipesIpcCodec.values()) {
+                run(codec, result, iterations);
+            }
+        }
+    }
+
+    private static void run(PipesIpcCodec codec, PipesResult result, int iterations) throws Exception {
+        long bytes = 0;
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            byte[] payload = codec.toBytes(result);
+            long mid = System.nanoTime();
+            PipesResult decoded = codec.readPipesResult(payload);
+            long end = System.nanoTime();
+            encodeNanos += mid - start;
+            decodeNanos += end - mid;
+            bytes = payload.length;
+            checksum += decoded.emitData().getMetadataList().size();
+        }
+        if (checksum != (long) iterations * result.emitData().getMetadataList().size()) {
+            throw new IllegalStateException("bad round trip");
+        }
+        System.out.println(String.format(Locale.ROOT,
+                "%-7s payload=%,d bytes encode=%.3f ms decode=%.3f ms round-trip=%.1f MB/s",
+                codec, bytes, encodeNanos / 1e6 / iterations, decodeNanos / 1e6 / iterations,
+                (bytes * (double) iterations) / ((encodeNanos + decodeNanos) / 1e9) / (1024 * 1024)));
+    }
+
+    private static List<Metadata> buildMetadataList(int numEmbedded, int contentKb) {
+        Random random = new Random(42);
+        List<Metadata> metadataList = new ArrayList<>();
+        for (int i = 0; i <= numEmbedded; i++) {
+            Metadata m = new Metadata();
+            boolean container = i == 0;
+            m.set(Metadata.CONTENT_TYPE, container ? "application/zip" :
+                    "application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+            m.set(TikaCoreProperties.RESOURCE_NAME_KEY, container ? "container.zip" : "doc-" + i + ".docx");
+            m.set(TikaCoreProperties.PARSE_TIME_MILLIS, Integer.toString(random.nextInt(500)));
+            m.set("X-TIKA:Parsed-By", "org.apache.tika.parser.DefaultParser");
+            m.add("X-TIKA:Parsed-By", container ? "org.apache.tika.parser.pkg.PackageParser" :
+                    "org.apache.tika.parser.microsoft.ooxml.OOXMLParser");
+            if (!container) {
+                m.set(TikaCoreProperties.EMBEDDED_RESOURCE_PATH, "/doc-" + i + ".docx");
+                m.set(TikaCoreProperties.EMBEDDED_DEPTH, "1");
+                m.set("dc:creator", "Author " + random.nextInt(20));
+                m.set("dc:title", "Quarterly report " + i);
+                m.set("dcterms:created", "2024-03-0" + (1 + random.nextInt(9)) + "T10:15:30Z");
+                m.set("dcterms:modified", "2024-04-0" + (1 + random.nextInt(9)) + "T08:00:00Z");
+                m.set("extended-properties:Application", "Microsoft Office Word");
+                m.set("extended-properties:Company", "Example Corp");
+                m.set("meta:page-count", Integer.toString(1 + random.nextInt(40)));
+                m.set("meta:word-count", Integer.toString(random.nextInt(20000)));
+                m.set("meta:character-count", Integer.toString(random.nextInt(100000)));
+            }
+            m.set(TikaCoreProperties.TIKA_CONTENT, text(random, contentKb * 1024));
+            metadataList.add(m);
+        }
+        return metadataList;
+    }
+
+    private static String text(Random random, int length) {
+        String[] words = {"the", "quarterly", "revenue", "increased", "by", "percent",
+                "compared", "with", "last", "year", "données", "für", "naïve", "résumé"};
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            sb.append(words[random.nextInt(words.length)]);
+            sb.append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return sb.toString();
+    }
+}
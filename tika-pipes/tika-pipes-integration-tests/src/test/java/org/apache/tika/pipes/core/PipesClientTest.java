@@ -40,6 +40,8 @@ import org.apache.tika.pipes.api.ParseMode;
 import org.apache.tika.pipes.api.PipesResult;
 import org.apache.tika.pipes.api.emitter.EmitKey;
 import org.apache.tika.pipes.api.fetcher.FetchKey;
+import org.apache.tika.pipes.core.serialization.PipesIpcCodec;
+import org.apache.tika.pipes.core.server.ServerProtocolIO;
 
 
 public class PipesClientTest {
@@ -70,6 +72,25 @@ public class PipesClientTest {
         }
     }
 
+    @Test
+    public void testInlineBytes(@TempDir Path tmp) throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>" +
+                "<mock><metadata action=\"add\" name=\"dc:creator\">inline author</metadata>" +
+                "<write element=\"p\">inline content</write></mock>";
+        //the fetch key doesn't exist in the fetcher's basePath; the inline bytes must be used
+        String fetchKey = "inline-only.xml";
+        try (PipesClient pipesClient = init(tmp, testDoc)) {
+            FetchEmitTuple t = new FetchEmitTuple(fetchKey, new FetchKey(fetcherName, fetchKey),
+                    new EmitKey(), new Metadata(), new ParseContext(), FetchEmitTuple.ON_PARSE_EXCEPTION.SKIP);
+            t.setInlineBytes(xml.getBytes(StandardCharsets.UTF_8));
+            PipesResult pipesResult = pipesClient.process(t);
+            Assertions.assertNotNull(pipesResult.emitData().getMetadataList());
+            Metadata metadata = pipesResult.emitData().getMetadataList().get(0);
+            assertEquals("inline author", metadata.get("dc:creator"));
+            assertTrue(metadata.get(TikaCoreProperties.TIKA_CONTENT).contains("inline content"));
+        }
+    }
+
     @Test
     public void testMetadataFilter(@TempDir Path tmp) throws Exception {
         ParseContext parseContext = new ParseContext();
@@ -185,6 +206,46 @@ public class PipesClientTest {
         }
     }
 
+    @Test
+    public void testLargeResult(@TempDir Path tmp) throws Exception {
+        // The extracted text is several times ServerProtocolIO.RESULT_CHUNK_BYTES, so the
+        // binary codec streams it back in chunks. The JSON codec sends one FINISHED message.
+        Path inputDir = tmp.resolve("input");
+        Files.createDirectories(inputDir);
+        String mockContent = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>" + "<mock>" +
+                "<metadata action=\"add\" name=\"dc:creator\">Test</metadata>" +
+                "<write element=\"p\">" + "données “quoted” ".repeat(400000) + "</write>" +
+                "</mock>";
+        String testFile = "mock-large.xml";
+        Files.write(inputDir.resolve(testFile), mockContent.getBytes(StandardCharsets.UTF_8));
+
+        Path tikaConfigPath = PluginsTestHelper.getFileSystemFetcherConfig(tmp, inputDir, tmp.resolve("output"));
+        // raise the direct emit threshold so that the large result is passed back to the client
+        Files.writeString(tikaConfigPath, Files.readString(tikaConfigPath, StandardCharsets.UTF_8)
+                .replaceAll("\"thresholdBytes\"\\s*:\\s*\\d+", "\"thresholdBytes\": 1000000000"), StandardCharsets.UTF_8);
+        TikaJsonConfig tikaJsonConfig = TikaJsonConfig.load(tikaConfigPath);
+        for (PipesIpcCodec codec : PipesIpcCodec.values()) {
+            PipesConfig pipesConfig = PipesConfig.load(tikaJsonConfig);
+            pipesConfig.setIpcCodec(codec);
+            try (PipesClient pipesClient = new PipesClient(pipesConfig, tikaConfigPath)) {
+                for (int i = 0; i < 2; i++) {
+                    PipesResult pipesResult = pipesClient.process(
+                            new FetchEmitTuple(testFile, new FetchKey(fetcherName, testFile),
+                                    new EmitKey(), new Metadata(), new ParseContext(),
+                                    FetchEmitTuple.ON_PARSE_EXCEPTION.SKIP));
+                    assertEquals(PipesResult.RESULT_STATUS.PARSE_SUCCESS, pipesResult.status(),
+                            codec.name() + ": " + pipesResult.message());
+                    Metadata metadata = pipesResult.emitData().getMetadataList().get(0);
+                    assertEquals("Test", metadata.get("dc:creator"));
+                    String content = metadata.get(TikaCoreProperties.TIKA_CONTENT);
+                    assertTrue(content.length() > 5 * ServerProtocolIO.RESULT_CHUNK_BYTES,
+                            codec.name() + " content length: " + content.length());
+                    assertTrue(content.contains("données “quoted”"), codec.name());
+                }
+            }
+        }
+    }
+
     @Test
     public void testRuntimeTimeoutChange(@TempDir Path tmp) throws Exception {
         // Test that TimeoutLimits can be changed at runtime via ParseContext
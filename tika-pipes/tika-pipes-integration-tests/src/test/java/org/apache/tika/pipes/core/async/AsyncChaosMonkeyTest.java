@@ -146,12 +146,23 @@ public class AsyncChaosMonkeyTest {
         while (processor.checkActive()) {
             Thread.sleep(100);
         }
+        List<EmitterStats> emitterStats = processor.getEmitterStats();
         processor.close();
         Set<String> emitKeys = new HashSet<>();
         for (File f : outputDir.toFile().listFiles()) {
             emitKeys.add(f.getName());
         }
 
+        long emitted = 0;
+        for (EmitterStats stats : emitterStats) {
+            assertEquals(emitterPluginId, stats.emitterId());
+            assertEquals(0, stats.queueDepth());
+            assertEquals(0, stats.failedFlushes());
+            assertEquals(0, stats.failedEmitData());
+            emitted += stats.totalEmitted();
+        }
+        assertEquals(ok, emitted);
+
         // When emitIntermediateResults = false, only successful files are emitted
         assertEquals(ok, emitKeys.size());
 
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.core.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.pipes.api.emitter.EmitData;
+import org.apache.tika.pipes.api.emitter.Emitter;
+import org.apache.tika.pipes.core.PipesConfig;
+import org.apache.tika.pipes.core.emitter.EmitDataImpl;
+import org.apache.tika.pipes.core.emitter.EmitterManager;
+import org.apache.tika.plugins.ExtensionConfig;
+
+public class AsyncEmitterTest {
+
+    private final ArrayBlockingQueue<EmitDataPair> emitDataQueue = new ArrayBlockingQueue<>(10000);
+
+    private ExecutorService executorService;
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testBlockedEmitterDoesNotStallOthers() throws Exception {
+        PipesConfig config = new PipesConfig();
+        config.setEmitterQueueSize(10);
+        config.setEmitWithinMillis(10);
+        //one emit data per batch
+        config.setEmitMaxEstimatedBytes(emitData("blocked", 0).getEstimatedSizeBytes());
+
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter blocked = new RecordingEmitter("blocked", batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        });
+        int numFast = 200;
+        CountDownLatch fastEmitted = new CountDownLatch(numFast);
+        RecordingEmitter fast = new RecordingEmitter("fast", batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                fastEmitted.countDown();
+            }
+        });
+
+        AsyncEmitter asyncEmitter = newAsyncEmitter(config, blocked, fast);
+        Future<Integer> future = executorService.submit(asyncEmitter);
+
+        //the blocked emitter gets one emit data in flight, a full queue and
+        //fewer than emitterQueueSize parked; before, routing waited as soon as
+        //its queue was full, and the fast emitter got nothing more
+        int numBlocked = 15;
+        for (int i = 0; i < numFast; i++) {
+            if (i < numBlocked) {
+                emitDataQueue.put(new EmitDataPair("blocked", emitData("blocked", i)));
+            }
+            emitDataQueue.put(new EmitDataPair("fast", emitData("fast", i)));
+        }
+
+        assertTrue(fastEmitted.await(30, TimeUnit.SECONDS),
+                "fast emitter was stalled; still waiting for " + fastEmitted.getCount());
+        assertEquals(numFast, fast.emitted.size());
+        assertTrue(blocked.emitted.size() < numBlocked);
+
+        release.countDown();
+        emitDataQueue.put(AsyncEmitter.EMIT_DATA_STOP_SEMAPHORE);
+        assertEquals(AsyncEmitter.EMITTER_FUTURE_CODE, future.get(30, TimeUnit.SECONDS));
+        assertEquals(numBlocked, blocked.emitted.size());
+        for (EmitterStats stats : asyncEmitter.getEmitterStats()) {
+            assertEquals(0, stats.failedEmitData(), stats.emitterId());
+        }
+    }
+
+    @Test
+    public void testBatchesGrowUpToTheCap() throws Exception {
+        EmitData sample = emitData("grow", 0);
+        PipesConfig config = new PipesConfig();
+        config.setEmitterQueueSize(40);
+        //flushes never count as slow, so batches grow while there is a backlog
+        config.setEmitWithinMillis(60000);
+        //one emit data per batch to start with
+        config.setEmitMaxEstimatedBytes(sample.getEstimatedSizeBytes());
+
+        AtomicInteger maxBatchSize = new AtomicInteger();
+        RecordingEmitter emitter = new RecordingEmitter("grow", batch -> {
+            maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        });
+
+        AsyncEmitter asyncEmitter = newAsyncEmitter(config, emitter);
+        Future<Integer> future = executorService.submit(asyncEmitter);
+
+        int numEmitData = 3000;
+        for (int i = 0; i < numEmitData; i++) {
+            emitDataQueue.put(new EmitDataPair("grow", emitData("grow", i)));
+        }
+        //the last batch is only flushed by the stop, as emitWithinMillis is never reached
+        long maxTargetBatchBytes = 0;
+        while (!emitDataQueue.isEmpty() && !future.isDone()) {
+            for (EmitterStats stats : asyncEmitter.getEmitterStats()) {
+                maxTargetBatchBytes = Math.max(maxTargetBatchBytes, stats.targetBatchBytes());
+            }
+            Thread.sleep(1);
+        }
+        emitDataQueue.put(AsyncEmitter.EMIT_DATA_STOP_SEMAPHORE);
+        assertEquals(AsyncEmitter.EMITTER_FUTURE_CODE, future.get(30, TimeUnit.SECONDS));
+
+        assertEquals(numEmitData, emitter.emitted.size());
+        long cap = AsyncEmitter.MAX_BATCH_GROWTH * sample.getEstimatedSizeBytes();
+        assertEquals(cap, maxTargetBatchBytes);
+        assertTrue(maxBatchSize.get() > 1, "batches never grew");
+        assertTrue(maxBatchSize.get() <= AsyncEmitter.MAX_BATCH_GROWTH,
+                "batch of " + maxBatchSize.get() + " is over the cap");
+    }
+
+    private AsyncEmitter newAsyncEmitter(PipesConfig config, RecordingEmitter... emitters)
+            throws Exception {
+        EmitterManager emitterManager = mock(EmitterManager.class);
+        for (RecordingEmitter emitter : emitters) {
+            when(emitterManager.getEmitter(emitter.id)).thenReturn(emitter);
+        }
+        return new AsyncEmitter(config, emitDataQueue, emitterManager);
+    }
+
+    private static EmitData emitData(String emitterId, int i) {
+        //same length keys, so that all emit data have the same estimated size
+        return new EmitDataImpl(String.format(Locale.ROOT, "%s-%06d", emitterId, i), List.of());
+    }
+
+    @FunctionalInterface
+    private interface BatchHandler {
+        void handle(List<? extends EmitData> batch) throws IOException;
+    }
+
+    private static class RecordingEmitter implements Emitter {
+
+        private final List<String> emitted = new CopyOnWriteArrayList<>();
+
+        private final String id;
+
+        private final BatchHandler handler;
+
+        RecordingEmitter(String id, BatchHandler handler) {
+            this.id = id;
+            this.handler = handler;
+        }
+
+        @Override
+        public void emit(String emitKey, List<Metadata> metadataList, ParseContext parseContext)
+                throws IOException {
+            emit(List.of(new EmitDataImpl(emitKey, metadataList)));
+        }
+
+        @Override
+        public void emit(List<? extends EmitData> emitData) throws IOException {
+            handler.handle(emitData);
+            for (EmitData d : emitData) {
+                emitted.add(d.getEmitKey());
+            }
+        }
+
+        @Override
+        public ExtensionConfig getExtensionConfig() {
+            return null;
+        }
+    }
+}
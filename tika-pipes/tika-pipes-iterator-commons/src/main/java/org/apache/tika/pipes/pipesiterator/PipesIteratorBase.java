@@ -23,6 +23,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,7 +52,8 @@ public abstract class PipesIteratorBase extends AbstractTikaExtension implements
     private ArrayBlockingQueue<FetchEmitTuple> queue = null;
     private int queueSize = DEFAULT_QUEUE_SIZE;
 
-    private int added = 0;
+    //subclasses may call tryToAdd from several threads
+    private final AtomicInteger added = new AtomicInteger(0);
     private FutureTask<Integer> futureTask;
 
     /**
@@ -73,14 +75,14 @@ public abstract class PipesIteratorBase extends AbstractTikaExtension implements
     public Integer call() throws Exception {
         enqueue();
         tryToAdd(COMPLETED_SEMAPHORE);
-        return added;
+        return added.get();
     }
 
 
     protected abstract void enqueue() throws IOException, TimeoutException, InterruptedException;
 
     protected void tryToAdd(FetchEmitTuple p) throws InterruptedException, TimeoutException {
-        added++;
+        added.incrementAndGet();
         boolean offered = queue.offer(p, maxWaitMs, TimeUnit.MILLISECONDS);
         if (!offered) {
             throw new TimeoutException("timed out while offering");
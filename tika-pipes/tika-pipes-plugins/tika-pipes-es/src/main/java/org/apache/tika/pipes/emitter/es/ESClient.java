@@ -18,23 +18,32 @@ package org.apache.tika.pipes.emitter.es;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
@@ -59,6 +68,34 @@ public class ESClient {
 
     private static final Logger LOG = LoggerFactory.getLogger(ESClient.class);
 
+    /**
+     * Default upper bound on the estimated size of one {@code _bulk} request
+     * body, well under the server's default {@code http.max_content_length}
+     * of 100mb.
+     */
+    static final long DEFAULT_MAX_BULK_BYTES = 50L * 1024 * 1024;
+
+    /**
+     * Item statuses that mean "try again later" rather than "this document
+     * is bad".
+     */
+    private static final Set<Integer> RETRIABLE_STATUSES = Set.of(429, 502, 503, 504);
+
+    private static final long INITIAL_RETRY_BACKOFF_MILLIS = 500;
+
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 30000;
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Generator factory for the NDJSON body: no separator between root
+     * values (newlines are written explicitly) and the connection stream
+     * is left open when a generator is closed.
+     */
+    private static final JsonFactory BULK_JSON_FACTORY = new JsonFactory()
+            .setRootValueSeparator(null)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
     protected final HttpClient httpClient;
 
     private final MetadataToJsonWriter metadataToJsonWriter;
@@ -75,36 +112,22 @@ public class ESClient {
 
     public void emitDocuments(List<? extends EmitData> emitData)
             throws IOException, TikaClientException {
-        StringBuilder json = new StringBuilder();
+        List<BulkItem> items = new ArrayList<>();
         for (EmitData d : emitData) {
-            appendDoc(d.getEmitKey(), d.getMetadataList(), json);
+            addItems(d.getEmitKey(), d.getMetadataList(), items);
         }
-        emitJson(json);
+        emitItems(items);
     }
 
     public void emitDocument(String emitKey, List<Metadata> metadataList)
             throws IOException, TikaClientException {
-        StringBuilder json = new StringBuilder();
-        appendDoc(emitKey, metadataList, json);
-        emitJson(json);
-    }
-
-    private void emitJson(StringBuilder json)
-            throws IOException, TikaClientException {
-        String requestUrl = config.esUrl() + "/_bulk";
-        JsonResponse response = postJson(requestUrl, json.toString());
-        if (response.getStatus() != 200) {
-            throw new TikaClientException(response.getMsg());
-        } else {
-            JsonNode errorNode = response.getJson().get("errors");
-            if (errorNode != null && errorNode.asText().equals("true")) {
-                throw new TikaClientException(response.getJson().toString());
-            }
-        }
+        List<BulkItem> items = new ArrayList<>();
+        addItems(emitKey, metadataList, items);
+        emitItems(items);
     }
 
-    private void appendDoc(String emitKey, List<Metadata> metadataList,
-                           StringBuilder json) throws IOException {
+    private void addItems(String emitKey, List<Metadata> metadataList,
+                          List<BulkItem> items) {
         int i = 0;
         String routing =
                 (config.attachmentStrategy() ==
@@ -116,28 +139,108 @@ public class ESClient {
             if (i > 0) {
                 id.append("-").append(UUID.randomUUID());
             }
-            String indexJson = metadataToJsonWriter.getBulkJson(id.toString(), routing);
-            json.append(indexJson).append("\n");
-            if (i == 0) {
-                json.append(metadataToJsonWriter.writeContainer(
-                        metadata, config.attachmentStrategy()));
-            } else {
-                json.append(metadataToJsonWriter.writeEmbedded(
-                        metadata, config.attachmentStrategy(), emitKey,
-                        config.embeddedFileFieldName()));
-            }
-            json.append("\n");
+            items.add(new BulkItem(id.toString(), routing, emitKey, metadata, i == 0));
             i++;
         }
     }
 
+    /**
+     * Sends the items in as many {@code _bulk} requests as needed to keep
+     * each request under {@link ESEmitterConfig#maxBulkBytes()}. An item
+     * larger than the budget is sent on its own.
+     */
+    private void emitItems(List<BulkItem> items)
+            throws IOException, TikaClientException {
+        long budget = config.maxBulkBytes() > 0 ? config.maxBulkBytes() : DEFAULT_MAX_BULK_BYTES;
+        int from = 0;
+        long size = 0;
+        for (int i = 0; i < items.size(); i++) {
+            long itemSize = items.get(i).estimatedBytes;
+            if (i > from && size + itemSize > budget) {
+                emitBatch(items.subList(from, i));
+                from = i;
+                size = 0;
+            }
+            size += itemSize;
+        }
+        if (from < items.size()) {
+            emitBatch(items.subList(from, items.size()));
+        }
+    }
+
+    /**
+     * Posts one {@code _bulk} request. If some items fail with a retriable
+     * status (e.g. 429 when the cluster is rejecting writes), only those
+     * items are re-sent, up to {@link ESEmitterConfig#maxBulkRetries()}
+     * times with exponential backoff. Any other item failure fails the
+     * whole call, as before.
+     */
+    private void emitBatch(List<BulkItem> batch)
+            throws IOException, TikaClientException {
+        String requestUrl = config.esUrl() + "/_bulk";
+        List<BulkItem> pending = batch;
+        for (int attempt = 0; ; attempt++) {
+            JsonResponse response = post(requestUrl, new BulkEntity(pending));
+            if (response.getStatus() != 200) {
+                throw new TikaClientException(response.getMsg());
+            }
+            JsonNode errorNode = response.getJson().get("errors");
+            if (errorNode == null || !errorNode.asText().equals("true")) {
+                return;
+            }
+            List<BulkItem> retry = getRetriableFailures(response.getJson(), pending);
+            if (retry == null || attempt >= config.maxBulkRetries()) {
+                throw new TikaClientException(response.getJson().toString());
+            }
+            LOG.warn("{} of {} bulk items were rejected; retrying them (attempt {} of {})",
+                    retry.size(), pending.size(), attempt + 1, config.maxBulkRetries());
+            try {
+                Thread.sleep(Math.min(MAX_RETRY_BACKOFF_MILLIS,
+                        INITIAL_RETRY_BACKOFF_MILLIS << attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TikaClientException("interrupted while waiting to retry bulk items");
+            }
+            pending = retry;
+        }
+    }
+
+    /**
+     * Returns the items whose bulk result has a retriable status, or
+     * {@code null} if any item failed for another reason or the response
+     * items can't be matched up with the request.
+     */
+    private static List<BulkItem> getRetriableFailures(JsonNode root, List<BulkItem> sent) {
+        JsonNode results = root.get("items");
+        if (results == null || !results.isArray() || results.size() != sent.size()) {
+            return null;
+        }
+        List<BulkItem> retry = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            // each result is {"index"|"update": {"status": ..., ...}}
+            Iterator<JsonNode> values = results.get(i).elements();
+            int status = values.hasNext() ? values.next().path("status").asInt(-1) : -1;
+            if (status >= 200 && status < 300) {
+                continue;
+            }
+            if (!RETRIABLE_STATUSES.contains(status)) {
+                return null;
+            }
+            retry.add(sent.get(i));
+        }
+        return retry;
+    }
+
     // Package-private for testing
     static String metadataToJsonContainerInsert(
             Metadata metadata,
             ESEmitterConfig.AttachmentStrategy attachmentStrategy)
             throws IOException {
-        return new InsertMetadataToJsonWriter().writeContainer(
-                metadata, attachmentStrategy);
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator jg = new JsonFactory().createGenerator(writer)) {
+            new InsertMetadataToJsonWriter().writeContainer(metadata, attachmentStrategy, jg);
+        }
+        return writer.toString();
     }
 
     // Package-private for testing
@@ -146,13 +249,20 @@ public class ESClient {
             ESEmitterConfig.AttachmentStrategy attachmentStrategy,
             String emitKey, String embeddedFileFieldName)
             throws IOException {
-        return new InsertMetadataToJsonWriter().writeEmbedded(
-                metadata, attachmentStrategy, emitKey, embeddedFileFieldName);
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator jg = new JsonFactory().createGenerator(writer)) {
+            new InsertMetadataToJsonWriter().writeEmbedded(
+                    metadata, attachmentStrategy, emitKey, embeddedFileFieldName, jg);
+        }
+        return writer.toString();
     }
 
     public JsonResponse postJson(String url, String json) throws IOException {
+        return post(url, new StringEntity(json, StandardCharsets.UTF_8));
+    }
+
+    private JsonResponse post(String url, HttpEntity entity) throws IOException {
         HttpPost httpRequest = new HttpPost(url);
-        StringEntity entity = new StringEntity(json, StandardCharsets.UTF_8);
         httpRequest.setEntity(entity);
         httpRequest.setHeader("Accept", "application/json");
         httpRequest.setHeader("Content-type", "application/json; charset=utf-8");
@@ -190,141 +300,249 @@ public class ESClient {
         }
     }
 
+    // -----------------------------------------------------------------------
+    // Streaming _bulk request body
+    // -----------------------------------------------------------------------
+
+    /**
+     * One action/document line pair of a {@code _bulk} request. The id is
+     * fixed when the item is created so that a retried item overwrites
+     * the same document.
+     */
+    private static class BulkItem {
+        private final String id;
+        private final String routing;
+        private final String emitKey;
+        private final Metadata metadata;
+        private final boolean container;
+        private final long estimatedBytes;
+
+        BulkItem(String id, String routing, String emitKey, Metadata metadata,
+                 boolean container) {
+            this.id = id;
+            this.routing = routing;
+            this.emitKey = emitKey;
+            this.metadata = metadata;
+            this.container = container;
+            this.estimatedBytes = estimateBytes(id, metadata);
+        }
+    }
+
+    /**
+     * Rough UTF-8 size of an item's two NDJSON lines, ignoring escaping.
+     */
+    private static long estimateBytes(String id, Metadata metadata) {
+        long bytes = 128 + utf8Length(id) * 2L;
+        for (String n : metadata.names()) {
+            bytes += utf8Length(n) + 8;
+            for (String v : metadata.getValues(n)) {
+                bytes += utf8Length(v) + 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static long utf8Length(String s) {
+        long len = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                // surrogate pairs count 2 + 2 = 4 bytes
+                len += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                len++;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Writes the NDJSON body directly to the connection with a single
+     * {@link JsonGenerator}, optionally gzip-compressed, instead of
+     * building the whole payload in memory. The body is regenerated from
+     * the items on every {@link #writeTo} call, so the entity is repeatable.
+     */
+    private class BulkEntity extends AbstractHttpEntity {
+
+        private final List<BulkItem> items;
+
+        BulkEntity(List<BulkItem> items) {
+            this.items = items;
+            setContentType("application/json; charset=utf-8");
+            if (config.compressRequests()) {
+                setContentEncoding("gzip");
+            }
+            setChunked(true);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            writeTo(bos);
+            return bos.toInputStream();
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            GZIPOutputStream gzip = config.compressRequests() ?
+                    new GZIPOutputStream(outStream, GZIP_BUFFER_SIZE) : null;
+            try (JsonGenerator jg = BULK_JSON_FACTORY.createGenerator(
+                    gzip != null ? gzip : outStream, JsonEncoding.UTF8)) {
+                for (BulkItem item : items) {
+                    metadataToJsonWriter.writeBulkAction(item.id, item.routing, jg);
+                    jg.writeRaw('\n');
+                    if (item.container) {
+                        metadataToJsonWriter.writeContainer(
+                                item.metadata, config.attachmentStrategy(), jg);
+                    } else {
+                        metadataToJsonWriter.writeEmbedded(
+                                item.metadata, config.attachmentStrategy(), item.emitKey,
+                                config.embeddedFileFieldName(), jg);
+                    }
+                    jg.writeRaw('\n');
+                }
+            }
+            if (gzip != null) {
+                gzip.finish();
+            }
+            outStream.flush();
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+
     // -----------------------------------------------------------------------
     // JSON writers for _bulk API
     // -----------------------------------------------------------------------
 
     private interface MetadataToJsonWriter {
-        String writeContainer(Metadata metadata,
-                              ESEmitterConfig.AttachmentStrategy strategy)
+        void writeContainer(Metadata metadata,
+                            ESEmitterConfig.AttachmentStrategy strategy,
+                            JsonGenerator jg)
                 throws IOException;
 
-        String writeEmbedded(Metadata metadata,
-                             ESEmitterConfig.AttachmentStrategy strategy,
-                             String emitKey, String embeddedFileFieldName)
+        void writeEmbedded(Metadata metadata,
+                           ESEmitterConfig.AttachmentStrategy strategy,
+                           String emitKey, String embeddedFileFieldName,
+                           JsonGenerator jg)
                 throws IOException;
 
-        String getBulkJson(String id, String routing) throws IOException;
+        void writeBulkAction(String id, String routing, JsonGenerator jg) throws IOException;
     }
 
     private static class InsertMetadataToJsonWriter implements MetadataToJsonWriter {
 
         @Override
-        public String writeContainer(Metadata metadata,
-                                     ESEmitterConfig.AttachmentStrategy strategy)
+        public void writeContainer(Metadata metadata,
+                                   ESEmitterConfig.AttachmentStrategy strategy,
+                                   JsonGenerator jg)
                 throws IOException {
-            StringWriter writer = new StringWriter();
-            try (JsonGenerator jg = new JsonFactory().createGenerator(writer)) {
-                jg.writeStartObject();
-                writeMetadata(metadata, jg);
-                if (strategy == ESEmitterConfig.AttachmentStrategy.PARENT_CHILD) {
-                    jg.writeStringField("relation_type", "container");
-                }
-                jg.writeEndObject();
+            jg.writeStartObject();
+            writeMetadata(metadata, jg);
+            if (strategy == ESEmitterConfig.AttachmentStrategy.PARENT_CHILD) {
+                jg.writeStringField("relation_type", "container");
             }
-            return writer.toString();
+            jg.writeEndObject();
         }
 
         @Override
-        public String writeEmbedded(Metadata metadata,
-                                    ESEmitterConfig.AttachmentStrategy strategy,
-                                    String emitKey, String embeddedFileFieldName)
+        public void writeEmbedded(Metadata metadata,
+                                  ESEmitterConfig.AttachmentStrategy strategy,
+                                  String emitKey, String embeddedFileFieldName,
+                                  JsonGenerator jg)
                 throws IOException {
-            StringWriter writer = new StringWriter();
-            try (JsonGenerator jg = new JsonFactory().createGenerator(writer)) {
-                jg.writeStartObject();
-                writeMetadata(metadata, jg);
-                if (strategy == ESEmitterConfig.AttachmentStrategy.PARENT_CHILD) {
-                    jg.writeObjectFieldStart("relation_type");
-                    jg.writeStringField("name", embeddedFileFieldName);
-                    jg.writeStringField("parent", emitKey);
-                    jg.writeEndObject();
-                } else if (strategy == ESEmitterConfig.AttachmentStrategy.SEPARATE_DOCUMENTS) {
-                    jg.writeStringField("parent", emitKey);
-                }
+            jg.writeStartObject();
+            writeMetadata(metadata, jg);
+            if (strategy == ESEmitterConfig.AttachmentStrategy.PARENT_CHILD) {
+                jg.writeObjectFieldStart("relation_type");
+                jg.writeStringField("name", embeddedFileFieldName);
+                jg.writeStringField("parent", emitKey);
                 jg.writeEndObject();
+            } else if (strategy == ESEmitterConfig.AttachmentStrategy.SEPARATE_DOCUMENTS) {
+                jg.writeStringField("parent", emitKey);
             }
-            return writer.toString();
+            jg.writeEndObject();
         }
 
         @Override
-        public String getBulkJson(String id, String routing) throws IOException {
-            StringWriter writer = new StringWriter();
-            try (JsonGenerator jg = new JsonFactory().createGenerator(writer)) {
-                jg.writeStartObject();
-                jg.writeObjectFieldStart("index");
-                jg.writeStringField("_id", id);
-                if (!StringUtils.isEmpty(routing)) {
-                    jg.writeStringField("routing", routing);
-                }
-                jg.writeEndObject();
-                jg.writeEndObject();
+        public void writeBulkAction(String id, String routing, JsonGenerator jg)
+                throws IOException {
+            jg.writeStartObject();
+            jg.writeObjectFieldStart("index");
+            jg.writeStringField("_id", id);
+            if (!StringUtils.isEmpty(routing)) {
+                jg.writeStringField("routing", routing);
             }
-            return writer.toString();
+            jg.writeEndObject();
+            jg.writeEndObject();
         }
     }
 
     private static class UpsertMetadataToJsonWriter implements MetadataToJsonWriter {
 
         @Override
-        public String writeContainer(Metadata metadata,
-                                     ESEmitterConfig.AttachmentStrategy strategy)
+        public void writeContainer(Metadata metadata,
+                                   ESEmitterConfig.AttachmentStrategy strategy,
+                                   JsonGenerator jg)
                 throws IOException {
-            StringWriter writer = new StringWriter();
-            try (JsonGenerator jg = new JsonFactory().createGenerator(writer)) {
-                jg.writeStartObject();
-                jg.writeObjectFieldStart("doc");
-                writeMetadata(metadata, jg);
-                if (strategy == ESEmitterConfig.AttachmentStrategy.PARENT_CHILD) {
-                    jg.writeStringField("relation_type", "container");
-                }
-                jg.writeEndObject();
-                jg.writeBooleanField("doc_as_upsert", true);
-                jg.writeEndObject();
+            jg.writeStartObject();
+            jg.writeObjectFieldStart("doc");
+            writeMetadata(metadata, jg);
+            if (strategy == ESEmitterConfig.AttachmentStrategy.PARENT_CHILD) {
+                jg.writeStringField("relation_type", "container");
             }
-            return writer.toString();
+            jg.writeEndObject();
+            jg.writeBooleanField("doc_as_upsert", true);
+            jg.writeEndObject();
         }
 
         @Override
-        public String writeEmbedded(Metadata metadata,
-                                    ESEmitterConfig.AttachmentStrategy strategy,
-                                    String emitKey, String embeddedFileFieldName)
+        public void writeEmbedded(Metadata metadata,
+                                  ESEmitterConfig.AttachmentStrategy strategy,
+                                  String emitKey, String embeddedFileFieldName,
+                                  JsonGenerator jg)
                 throws IOException {
-            StringWriter writer = new StringWriter();
-            try (JsonGenerator jg = new JsonFactory().createGenerator(writer)) {
-                jg.writeStartObject();
-                jg.writeObjectFieldStart("doc");
-                writeMetadata(metadata, jg);
-                if (strategy == ESEmitterConfig.AttachmentStrategy.PARENT_CHILD) {
-                    jg.writeObjectFieldStart("relation_type");
-                    jg.writeStringField("name", embeddedFileFieldName);
-                    jg.writeStringField("parent", emitKey);
-                    jg.writeEndObject();
-                } else if (strategy == ESEmitterConfig.AttachmentStrategy.SEPARATE_DOCUMENTS) {
-                    jg.writeStringField("parent", emitKey);
-                }
-                jg.writeEndObject();
-                jg.writeBooleanField("doc_as_upsert", true);
+            jg.writeStartObject();
+            jg.writeObjectFieldStart("doc");
+            writeMetadata(metadata, jg);
+            if (strategy == ESEmitterConfig.AttachmentStrategy.PARENT_CHILD) {
+                jg.writeObjectFieldStart("relation_type");
+                jg.writeStringField("name", embeddedFileFieldName);
+                jg.writeStringField("parent", emitKey);
                 jg.writeEndObject();
+            } else if (strategy == ESEmitterConfig.AttachmentStrategy.SEPARATE_DOCUMENTS) {
+                jg.writeStringField("parent", emitKey);
             }
-            return writer.toString();
+            jg.writeEndObject();
+            jg.writeBooleanField("doc_as_upsert", true);
+            jg.writeEndObject();
         }
 
         @Override
-        public String getBulkJson(String id, String routing) throws IOException {
-            StringWriter writer = new StringWriter();
-            try (JsonGenerator jg = new JsonFactory().createGenerator(writer)) {
-                jg.writeStartObject();
-                jg.writeObjectFieldStart("update");
-                jg.writeStringField("_id", id);
-                if (!StringUtils.isEmpty(routing)) {
-                    jg.writeStringField("routing", routing);
-                }
-                jg.writeNumberField("retry_on_conflict", 3);
-                jg.writeEndObject();
-                jg.writeEndObject();
+        public void writeBulkAction(String id, String routing, JsonGenerator jg)
+                throws IOException {
+            jg.writeStartObject();
+            jg.writeObjectFieldStart("update");
+            jg.writeStringField("_id", id);
+            if (!StringUtils.isEmpty(routing)) {
+                jg.writeStringField("routing", routing);
             }
-            return writer.toString();
+            jg.writeNumberField("retry_on_conflict", 3);
+            jg.writeEndObject();
+            jg.writeEndObject();
         }
     }
 
@@ -35,12 +35,22 @@ import org.apache.tika.exception.TikaConfigException;
  *                           If null/empty, falls back to httpClientConfig's userName/password
  *                           for basic auth.
  * @param httpClientConfig   HTTP connection settings (basic auth, timeouts, proxy)
+ * @param compressRequests   If true, {@code _bulk} request bodies are sent with
+ *                           {@code Content-Encoding: gzip}
+ * @param maxBulkBytes       Approximate upper bound on the size of one {@code _bulk}
+ *                           request body; larger batches are split across several
+ *                           requests. {@code 0} or less uses the default of 50MB.
+ * @param maxBulkRetries     How many times to re-send only the items of a {@code _bulk}
+ *                           request that were rejected with a retriable status
+ *                           (429, 502, 503, 504). {@code 0} disables retries.
  */
 public record ESEmitterConfig(String esUrl, String idField,
                               AttachmentStrategy attachmentStrategy,
                               UpdateStrategy updateStrategy, int commitWithin,
                               String embeddedFileFieldName, String apiKey,
-                              HttpClientConfig httpClientConfig) {
+                              HttpClientConfig httpClientConfig,
+                              boolean compressRequests, long maxBulkBytes,
+                              int maxBulkRetries) {
     public enum AttachmentStrategy {
         SEPARATE_DOCUMENTS, PARENT_CHILD,
     }
@@ -69,6 +79,9 @@ public record ESEmitterConfig(String esUrl, String idField,
                 ", attachmentStrategy=" + attachmentStrategy +
                 ", updateStrategy=" + updateStrategy +
                 ", apiKey=" + (apiKey != null ? "[REDACTED]" : "null") +
+                ", compressRequests=" + compressRequests +
+                ", maxBulkBytes=" + maxBulkBytes +
+                ", maxBulkRetries=" + maxBulkRetries +
                 '}';
     }
 }
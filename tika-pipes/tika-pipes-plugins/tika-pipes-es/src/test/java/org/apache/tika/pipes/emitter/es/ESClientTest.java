@@ -18,19 +18,164 @@ package org.apache.tika.pipes.emitter.es;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPInputStream;
+
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.apache.tika.TikaTest;
+import org.apache.tika.client.TikaClientException;
 import org.apache.tika.metadata.Metadata;
 
 public class ESClientTest extends TikaTest {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private static final String OK = "{\"took\":1,\"errors\":false,\"items\":[]}";
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    // request bodies (decompressed) and content-encoding headers, in arrival order
+    private final List<String> bodies = new ArrayList<>();
+    private final List<String> encodings = new ArrayList<>();
+    private final Queue<String> responses = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            InputStream in = exchange.getRequestBody();
+            if ("gzip".equals(encoding)) {
+                in = new GZIPInputStream(in);
+            }
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            synchronized (bodies) {
+                bodies.add(body);
+                encodings.add(encoding);
+            }
+            String response = responses.poll();
+            byte[] bytes = (response == null ? OK : response).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+        httpClient = HttpClients.createDefault();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    private ESClient newClient(boolean compress, long maxBulkBytes, int maxBulkRetries) {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/my-index";
+        return new ESClient(new ESEmitterConfig(url, "_id",
+                ESEmitterConfig.AttachmentStrategy.SEPARATE_DOCUMENTS,
+                ESEmitterConfig.UpdateStrategy.OVERWRITE, 10,
+                ESEmitter.DEFAULT_EMBEDDED_FILE_FIELD_NAME, null, null,
+                compress, maxBulkBytes, maxBulkRetries), httpClient);
+    }
+
+    private static List<Metadata> docWithAttachment(String title) {
+        Metadata container = new Metadata();
+        container.set("title", title);
+        Metadata embedded = new Metadata();
+        embedded.set("title", title + "-attachment");
+        return List.of(container, embedded);
+    }
+
+    private static String[] lines(String ndjson) {
+        assertTrue(ndjson.endsWith("\n"), "bulk body must end with a newline");
+        return ndjson.split("\n");
+    }
+
+    @Test
+    public void testBulkBodyIsNdjson() throws Exception {
+        newClient(false, 0, 0).emitDocument("key1", docWithAttachment("doc1"));
+
+        assertEquals(1, bodies.size());
+        assertNull(encodings.get(0));
+        String[] lines = lines(bodies.get(0));
+        assertEquals(4, lines.length);
+        assertEquals("key1", MAPPER.readTree(lines[0]).get("index").get("_id").asText());
+        assertEquals("doc1", MAPPER.readTree(lines[1]).get("title").asText());
+        assertTrue(MAPPER.readTree(lines[2]).get("index").get("_id").asText().startsWith("key1-"));
+        JsonNode embedded = MAPPER.readTree(lines[3]);
+        assertEquals("doc1-attachment", embedded.get("title").asText());
+        assertEquals("key1", embedded.get("parent").asText());
+    }
+
+    @Test
+    public void testBulkBodyGzipped() throws Exception {
+        newClient(true, 0, 0).emitDocument("key1", docWithAttachment("doc1"));
+
+        assertEquals("gzip", encodings.get(0));
+        assertEquals(4, lines(bodies.get(0)).length);
+    }
+
+    @Test
+    public void testBulkSplitByByteBudget() throws Exception {
+        // every item is over budget, so each is sent on its own
+        newClient(false, 1, 0).emitDocument("key1", docWithAttachment("doc1"));
+        assertEquals(2, bodies.size());
+        assertEquals(2, lines(bodies.get(0)).length);
+        assertEquals(2, lines(bodies.get(1)).length);
+
+        bodies.clear();
+        newClient(false, 0, 0).emitDocument("key2", docWithAttachment("doc2"));
+        assertEquals(1, bodies.size());
+    }
+
+    @Test
+    public void testRetriesOnlyRejectedItems() throws Exception {
+        responses.add("{\"errors\":true,\"items\":["
+                + "{\"index\":{\"_id\":\"key1\",\"status\":201}},"
+                + "{\"index\":{\"_id\":\"x\",\"status\":429,"
+                + "\"error\":{\"type\":\"es_rejected_execution_exception\"}}}]}");
+        newClient(false, 0, 2).emitDocument("key1", docWithAttachment("doc1"));
+
+        assertEquals(2, bodies.size());
+        String[] retried = lines(bodies.get(1));
+        assertEquals(2, retried.length);
+        assertEquals(MAPPER.readTree(lines(bodies.get(0))[2]), MAPPER.readTree(retried[0]));
+        assertEquals("doc1-attachment", MAPPER.readTree(retried[1]).get("title").asText());
+    }
+
+    @Test
+    public void testNonRetriableItemFailureThrows() throws Exception {
+        responses.add("{\"errors\":true,\"items\":["
+                + "{\"index\":{\"_id\":\"key1\",\"status\":400,"
+                + "\"error\":{\"type\":\"mapper_parsing_exception\"}}},"
+                + "{\"index\":{\"_id\":\"x\",\"status\":429}}]}");
+        ESClient client = newClient(false, 0, 2);
+        assertThrows(TikaClientException.class,
+                () -> client.emitDocument("key1", docWithAttachment("doc1")));
+        assertEquals(1, bodies.size());
+    }
+
     @Test
     public void testSerialization() throws Exception {
         Metadata metadata = new Metadata();
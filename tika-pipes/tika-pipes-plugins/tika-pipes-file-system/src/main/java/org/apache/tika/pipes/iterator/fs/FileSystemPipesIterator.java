@@ -18,11 +18,19 @@ package org.apache.tika.pipes.iterator.fs;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -41,6 +49,19 @@ import org.apache.tika.pipes.api.pipesiterator.TotalCounter;
 import org.apache.tika.pipes.pipesiterator.PipesIteratorBase;
 import org.apache.tika.plugins.ExtensionConfig;
 
+/**
+ * Iterates over the files under a basePath.
+ * <p>
+ * By default, the tree is walked by a single thread. With <code>numThreads</code> &gt; 1,
+ * subdirectories are listed concurrently by a fork/join pool, which helps a great deal
+ * on high latency file systems such as NFS. With <code>sorted</code>, files are enqueued
+ * in a stable order. With <code>shardCount</code> &gt; 1, only the files whose relative
+ * path hashes to <code>shardIndex</code> are enqueued, so that several processes can
+ * split one basePath between them.
+ * <p>
+ * The total count is gathered during the same walk that enqueues the files; it is
+ * COMPLETED once the walk has finished.
+ */
 public class FileSystemPipesIterator extends PipesIteratorBase implements TotalCounter, Closeable {
 
     public static FileSystemPipesIterator build(ExtensionConfig pluginConfig) throws TikaConfigException, IOException {
@@ -55,15 +76,13 @@ public class FileSystemPipesIterator extends PipesIteratorBase implements TotalC
     private void configure() throws IOException, TikaConfigException {
         config = FileSystemPipesIteratorConfig.load(pluginConfig.json());
         checkConfig(config);
-        if (config.isCountTotal()) {
-            fileCountWorker = new FileCountWorker(config.getBasePath());
-        }
-
     }
 
     private static final Logger LOG = LoggerFactory.getLogger(FileSystemPipesIterator.class);
 
-    private FileCountWorker fileCountWorker;
+    private final AtomicLong totalCount = new AtomicLong(0);
+    private volatile TotalCountResult.STATUS countStatus = TotalCountResult.STATUS.NOT_COMPLETED;
+    private volatile ForkJoinPool pool;
 
     private FileSystemPipesIterator(ExtensionConfig pluginConfig) {
         super(pluginConfig);
@@ -78,7 +97,23 @@ public class FileSystemPipesIterator extends PipesIteratorBase implements TotalC
                             .getBasePath().toAbsolutePath());
         }
         try {
-            Files.walkFileTree(config.getBasePath(), new FSFileVisitor(config.getFetcherId(), config.getEmitterId()));
+            if (config.isSorted()) {
+                walkSorted(config.getBasePath());
+            } else if (config.getNumThreads() > 1) {
+                walkParallel();
+            } else {
+                walk();
+            }
+            countStatus = TotalCountResult.STATUS.COMPLETED;
+        } catch (IOException | TimeoutException | InterruptedException | RuntimeException e) {
+            countStatus = TotalCountResult.STATUS.EXCEPTION;
+            throw e;
+        }
+    }
+
+    private void walk() throws IOException, TimeoutException {
+        try {
+            Files.walkFileTree(config.getBasePath(), new FSFileVisitor());
         } catch (IOException e) {
             Throwable cause = e.getCause();
             if (cause != null && cause instanceof TimeoutException) {
@@ -88,19 +123,82 @@ public class FileSystemPipesIterator extends PipesIteratorBase implements TotalC
         }
     }
 
+    private void walkSorted(Path dir) throws InterruptedException, TimeoutException {
+        List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path p : ds) {
+                children.add(p);
+            }
+        } catch (IOException e) {
+            LOG.warn("couldn't list directory {}", dir, e);
+            return;
+        }
+        children.sort(Comparator.comparing(p -> p.getFileName().toString()));
+        for (Path p : children) {
+            if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                walkSorted(p);
+            } else {
+                String relPath = getRelPath(p);
+                if (isInShard(relPath)) {
+                    totalCount.incrementAndGet();
+                    add(relPath);
+                }
+            }
+        }
+    }
+
+    private void walkParallel() throws InterruptedException, TimeoutException {
+        pool = new ForkJoinPool(config.getNumThreads());
+        try {
+            pool.invoke(new DirectoryTask(config.getBasePath()));
+        } catch (CancellationException e) {
+            throw new InterruptedException("directory walk was cancelled");
+        } catch (WalkException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+            throw (InterruptedException) e.getCause();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String getRelPath(Path file) {
+        return config.getBasePath().relativize(file).toString();
+    }
+
+    private boolean isInShard(String relPath) {
+        return config.getShardCount() <= 1 ||
+                Math.floorMod(relPath.hashCode(), config.getShardCount()) == config.getShardIndex();
+    }
+
+    private void add(String relPath) throws InterruptedException, TimeoutException {
+        ParseContext parseContext = new ParseContext();
+        // ContentHandlerFactory, ParseMode, and onParseException come from PipesConfig loaded via TikaLoader
+        tryToAdd(new FetchEmitTuple(relPath, new FetchKey(config.getFetcherId(), relPath),
+                new EmitKey(config.getEmitterId(), relPath), new Metadata(), parseContext,
+                FetchEmitTuple.ON_PARSE_EXCEPTION.EMIT));
+    }
+
     public void checkConfig(FileSystemPipesIteratorConfig config)
             throws TikaConfigException {
         //these should all be fatal
         ConfigValidator.mustNotBeEmpty("basePath", config.getBasePath());
+        if (config.getNumThreads() < 1) {
+            throw new TikaConfigException("numThreads must be >= 1");
+        }
+        if (config.getShardCount() < 1) {
+            throw new TikaConfigException("shardCount must be >= 1");
+        }
+        if (config.getShardIndex() < 0 || config.getShardIndex() >= config.getShardCount()) {
+            throw new TikaConfigException("shardIndex must be >= 0 and < shardCount");
+        }
     }
 
 
     @Override
     public void startTotalCount() {
-        if (!config.isCountTotal()) {
-            return;
-        }
-        fileCountWorker.startTotalCount();
+        //the count is gathered while enqueuing; there is no separate walk to start
     }
 
     @Override
@@ -108,26 +206,19 @@ public class FileSystemPipesIterator extends PipesIteratorBase implements TotalC
         if (!config.isCountTotal()) {
             return TotalCountResult.UNSUPPORTED;
         }
-        return fileCountWorker.getTotalCount();
+        return new TotalCountResult(totalCount.get(), countStatus);
     }
 
     @Override
     public void close() throws IOException {
-        if (fileCountWorker != null) {
-            fileCountWorker.close();
+        ForkJoinPool p = pool;
+        if (p != null) {
+            p.shutdownNow();
         }
     }
 
     private class FSFileVisitor implements FileVisitor<Path> {
 
-        private final String fetcherId;
-        private final String emitterId;
-
-        private FSFileVisitor(String fetcherId, String emitterId) {
-            this.fetcherId = fetcherId;
-            this.emitterId = emitterId;
-        }
-
         @Override
         public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
                 throws IOException {
@@ -136,14 +227,13 @@ public class FileSystemPipesIterator extends PipesIteratorBase implements TotalC
 
         @Override
         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            String relPath = FileSystemPipesIterator.this.config
-                    .getBasePath().relativize(file).toString();
+            String relPath = getRelPath(file);
+            if (!isInShard(relPath)) {
+                return FileVisitResult.CONTINUE;
+            }
+            totalCount.incrementAndGet();
             try {
-                ParseContext parseContext = new ParseContext();
-                // ContentHandlerFactory, ParseMode, and onParseException come from PipesConfig loaded via TikaLoader
-                tryToAdd(new FetchEmitTuple(relPath, new FetchKey(fetcherId, relPath),
-                        new EmitKey(emitterId, relPath), new Metadata(), parseContext,
-                        FetchEmitTuple.ON_PARSE_EXCEPTION.EMIT));
+                add(relPath);
             } catch (TimeoutException e) {
                 throw new IOException(e);
             } catch (InterruptedException e) {
@@ -163,79 +253,57 @@ public class FileSystemPipesIterator extends PipesIteratorBase implements TotalC
         }
     }
 
+    /**
+     * Lists one directory, counts its files, forks a task per subdirectory so that
+     * idle workers can steal them, and then enqueues its files.
+     */
+    private class DirectoryTask extends RecursiveAction {
 
-    private static class FileCountWorker implements TotalCounter, Closeable {
+        private final Path dir;
 
-        private Thread totalCounterThread;
-
-        private final AtomicLong totalCount = new AtomicLong(0);
-        private TotalCountResult.STATUS status;
-        private TotalCountResult finalResult;
-        private final Path basePath;
-
-        public FileCountWorker(Path basePath) {
-            this.basePath = basePath;
-            this.status = TotalCountResult.STATUS.NOT_COMPLETED;
+        private DirectoryTask(Path dir) {
+            this.dir = dir;
         }
 
         @Override
-        public void startTotalCount() {
-            totalCounterThread = new Thread(() -> {
-                try {
-                    Files.walkFileTree(basePath, new FSFileCounter(totalCount));
-                    status = TotalCountResult.STATUS.COMPLETED;
-                    finalResult = new TotalCountResult(totalCount.get(), status);
-                } catch (IOException e) {
-                    LOG.warn("problem counting files", e);
-                    status = TotalCountResult.STATUS.EXCEPTION;
-                    finalResult = new TotalCountResult(totalCount.get(), status);
+        protected void compute() {
+            List<String> files = new ArrayList<>();
+            List<DirectoryTask> subdirs = new ArrayList<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                        subdirs.add(new DirectoryTask(p));
+                    } else {
+                        String relPath = getRelPath(p);
+                        if (isInShard(relPath)) {
+                            files.add(relPath);
+                        }
+                    }
                 }
-            });
-            totalCounterThread.setDaemon(true);
-            totalCounterThread.start();
-        }
-
-        @Override
-        public TotalCountResult getTotalCount() {
-            if (finalResult != null) {
-                return finalResult;
-            }
-            return new TotalCountResult(totalCount.get(), status);
-        }
-
-        @Override
-        public void close() throws IOException {
-            totalCounterThread.interrupt();
-        }
-
-        private static class FSFileCounter implements FileVisitor<Path> {
-
-            private final AtomicLong count;
-            private FSFileCounter(AtomicLong count) {
-                this.count = count;
+            } catch (IOException e) {
+                LOG.warn("couldn't list directory {}", dir, e);
+                return;
             }
-
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
-                    throws IOException {
-                return FileVisitResult.CONTINUE;
+            totalCount.addAndGet(files.size());
+            for (DirectoryTask subdir : subdirs) {
+                subdir.fork();
             }
-
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                count.incrementAndGet();
-                return FileVisitResult.CONTINUE;
+            try {
+                for (String relPath : files) {
+                    add(relPath);
+                }
+            } catch (InterruptedException | TimeoutException e) {
+                throw new WalkException(e);
             }
-
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-                return FileVisitResult.CONTINUE;
+            for (DirectoryTask subdir : subdirs) {
+                subdir.join();
             }
+        }
+    }
 
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                return FileVisitResult.CONTINUE;
-            }
+    private static class WalkException extends RuntimeException {
+        WalkException(Exception cause) {
+            super(cause);
         }
     }
 }
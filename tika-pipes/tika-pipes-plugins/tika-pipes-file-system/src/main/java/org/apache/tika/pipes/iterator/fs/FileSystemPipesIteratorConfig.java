@@ -44,6 +44,26 @@ public class FileSystemPipesIteratorConfig extends PipesIteratorConfig {
     private Path basePath = null;
     private boolean countTotal = true;
 
+    /**
+     * Number of threads walking the directory tree. With more than one thread,
+     * subdirectories are listed concurrently and files are enqueued in no particular order.
+     */
+    private int numThreads = 1;
+
+    /**
+     * If true, the tree is walked by a single thread in lexicographic order of the
+     * file names within each directory. This takes precedence over numThreads.
+     */
+    private boolean sorted = false;
+
+    /**
+     * Splits the files into shardCount disjoint slices by a hash of their relative
+     * path; this iterator only emits the slice with index shardIndex. This allows
+     * several processes to share one basePath without coordination.
+     */
+    private int shardCount = 1;
+    private int shardIndex = 0;
+
     public Path getBasePath() {
         return basePath;
     }
@@ -52,6 +72,22 @@ public class FileSystemPipesIteratorConfig extends PipesIteratorConfig {
         return countTotal;
     }
 
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof FileSystemPipesIteratorConfig that)) {
@@ -60,7 +96,9 @@ public class FileSystemPipesIteratorConfig extends PipesIteratorConfig {
         if (!super.equals(o)) {
             return false;
         }
-        return countTotal == that.countTotal && Objects.equals(basePath, that.basePath);
+        return countTotal == that.countTotal && numThreads == that.numThreads && sorted == that.sorted &&
+                shardCount == that.shardCount && shardIndex == that.shardIndex &&
+                Objects.equals(basePath, that.basePath);
     }
 
     @Override
@@ -68,6 +106,10 @@ public class FileSystemPipesIteratorConfig extends PipesIteratorConfig {
         int result = super.hashCode();
         result = 31 * result + Objects.hashCode(basePath);
         result = 31 * result + Boolean.hashCode(countTotal);
+        result = 31 * result + numThreads;
+        result = 31 * result + Boolean.hashCode(sorted);
+        result = 31 * result + shardCount;
+        result = 31 * result + shardIndex;
         return result;
     }
 }
@@ -17,17 +17,26 @@
 package org.apache.tika.pipes.iterator.fs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.apache.tika.pipes.api.FetchEmitTuple;
+import org.apache.tika.pipes.api.pipesiterator.TotalCountResult;
+import org.apache.tika.plugins.ExtensionConfig;
 
 
 public class FileSystemPipesIteratorTest {
@@ -53,6 +62,77 @@ public class FileSystemPipesIteratorTest {
         FileSystemPipesIteratorConfig deserialized = objectMapper.readValue(sw.toString(), FileSystemPipesIteratorConfig.class);
         assertEquals(c, deserialized);
     }
+
+    @Test
+    public void testParallel(@TempDir Path tmp) throws Exception {
+        Set<String> truth = createTree(tmp);
+        FileSystemPipesIterator it = build(tmp, "\"numThreads\": 4");
+        List<String> keys = iterate(it);
+        assertEquals(truth.size(), keys.size());
+        assertEquals(truth, new HashSet<>(keys));
+        assertEquals(truth.size(), it.getTotalCount().getTotalCount());
+        assertEquals(TotalCountResult.STATUS.COMPLETED, it.getTotalCount().getStatus());
+    }
+
+    @Test
+    public void testSorted(@TempDir Path tmp) throws Exception {
+        Set<String> truth = createTree(tmp);
+        List<String> keys = iterate(build(tmp, "\"sorted\": true"));
+        assertEquals(truth, new HashSet<>(keys));
+        assertEquals(keys, iterate(build(tmp, "\"sorted\": true")));
+    }
+
+    @Test
+    public void testShards(@TempDir Path tmp) throws Exception {
+        Set<String> truth = createTree(tmp);
+        Set<String> union = new HashSet<>();
+        int total = 0;
+        for (int i = 0; i < 3; i++) {
+            FileSystemPipesIterator it = build(tmp, "\"numThreads\": 2, \"shardCount\": 3, \"shardIndex\": " + i);
+            List<String> keys = iterate(it);
+            assertTrue(keys.size() > 0);
+            assertEquals(keys.size(), it.getTotalCount().getTotalCount());
+            union.addAll(keys);
+            total += keys.size();
+        }
+        assertEquals(truth.size(), total);
+        assertEquals(truth, union);
+    }
+
+    private static FileSystemPipesIterator build(Path basePath, String extraJson) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String json = "{\"basePath\": " + objectMapper.writeValueAsString(basePath.toString()) +
+                ", \"fetcherId\": \"fsf\", \"emitterId\": \"fse\", " + extraJson + "}";
+        return FileSystemPipesIterator.build(new ExtensionConfig("fsi", "file-system-pipes-iterator", json));
+    }
+
+    private static List<String> iterate(FileSystemPipesIterator it) throws IOException {
+        List<String> keys = new ArrayList<>();
+        for (FetchEmitTuple t : it) {
+            keys.add(t.getFetchKey().getFetchKey());
+        }
+        it.close();
+        return keys;
+    }
+
+    private static Set<String> createTree(Path root) throws IOException {
+        Set<String> relPaths = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 4; j++) {
+                Path dir = root.resolve("d" + i).resolve("e" + j);
+                Files.createDirectories(dir);
+                for (int k = 0; k < 10; k++) {
+                    Path f = dir.resolve("f" + k + ".txt");
+                    Files.writeString(f, "file " + k);
+                    relPaths.add(root.relativize(f).toString());
+                }
+            }
+            Path f = root.resolve("top" + i + ".txt");
+            Files.writeString(f, "top " + i);
+            relPaths.add(root.relativize(f).toString());
+        }
+        return relPaths;
+    }
     /**
         TODO -- turn this back on
     @Test
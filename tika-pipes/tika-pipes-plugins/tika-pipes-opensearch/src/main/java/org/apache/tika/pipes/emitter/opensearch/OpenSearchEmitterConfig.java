@@ -21,9 +21,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.apache.tika.exception.TikaConfigException;
 
+/**
+ * Configuration for the OpenSearch emitter.
+ *
+ * @param compressRequests If true, {@code _bulk} request bodies are sent with
+ *                         {@code Content-Encoding: gzip}
+ * @param maxBulkBytes     Approximate upper bound on the size of one {@code _bulk}
+ *                         request body; larger batches are split across several
+ *                         requests. {@code 0} or less uses the default of 50MB.
+ * @param maxBulkRetries   How many times to re-send only the items of a {@code _bulk}
+ *                         request that were rejected with a retriable status
+ *                         (429, 502, 503, 504). {@code 0} disables retries.
+ */
 public record OpenSearchEmitterConfig(String openSearchUrl, String idField, AttachmentStrategy attachmentStrategy,
                                       UpdateStrategy updateStrategy, int commitWithin,
-                                      String embeddedFileFieldName, HttpClientConfig httpClientConfig) {
+                                      String embeddedFileFieldName, HttpClientConfig httpClientConfig,
+                                      boolean compressRequests, long maxBulkBytes, int maxBulkRetries) {
     public enum AttachmentStrategy {
         SEPARATE_DOCUMENTS, PARENT_CHILD,
     }
@@ -16,6 +16,20 @@
  */
 package org.apache.tika.pipes.emitter.opensearch;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
 import org.junit.jupiter.api.Test;
 
 import org.apache.tika.TikaTest;
@@ -49,4 +63,47 @@ public class OpenSearchClientTest extends TikaTest {
         }
 
     }
+
+    @Test
+    public void testGzippedBulkRetriesRejectedItems() throws Exception {
+        List<String> bodies = new ArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            InputStream in = exchange.getRequestBody();
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                in = new GZIPInputStream(in);
+            }
+            bodies.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            //reject the second item of the first request
+            String response = bodies.size() == 1 ?
+                    "{\"errors\":true,\"items\":[{\"index\":{\"status\":201}},{\"index\":{\"status\":429}}]}" :
+                    "{\"errors\":false,\"items\":[]}";
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+            OpenSearchEmitterConfig config = new OpenSearchEmitterConfig(
+                    "http://localhost:" + server.getAddress().getPort() + "/my-index", "_id",
+                    OpenSearchEmitterConfig.AttachmentStrategy.SEPARATE_DOCUMENTS,
+                    OpenSearchEmitterConfig.UpdateStrategy.OVERWRITE, 10,
+                    OpenSearchEmitter.DEFAULT_EMBEDDED_FILE_FIELD_NAME, null, true, 0, 1);
+            Metadata container = new Metadata();
+            container.set("title", "container");
+            Metadata embedded = new Metadata();
+            embedded.set("title", "embedded");
+            new OpenSearchClient(config, httpClient).emitDocument("key1", List.of(container, embedded));
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(2, bodies.size());
+        assertEquals(4, bodies.get(0).split("\n").length);
+        String[] retried = bodies.get(1).split("\n");
+        assertEquals(2, retried.length);
+        assertEquals("embedded", new ObjectMapper().readTree(retried[1]).get("title").asText());
+    }
 }
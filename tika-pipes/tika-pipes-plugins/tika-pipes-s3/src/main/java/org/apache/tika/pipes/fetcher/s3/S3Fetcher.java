@@ -16,6 +16,7 @@
  */
 package org.apache.tika.pipes.fetcher.s3;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -26,6 +27,10 @@ import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,12 +72,21 @@ import org.apache.tika.utils.StringUtils;
  * Fetches files from s3. Example file: s3://my_bucket/path/to/my_file.pdf
  * The bucket must be specified via the tika-config or before
  * initialization, and the fetch key is "path/to/my_file.pdf".
+ * <p>
+ * The threads of multipart downloads time out when idle, so a fetcher that
+ * is dropped without being closed does not keep them alive. Call
+ * {@link #close()} to stop them sooner.
  */
-public class S3Fetcher extends AbstractTikaExtension implements Fetcher, RangeFetcher {
+public class S3Fetcher extends AbstractTikaExtension implements Fetcher, RangeFetcher, Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(S3Fetcher.class);
     private static final String PREFIX = "s3";
 
+    private static final int PRECONDITION_FAILED = 412;
+
+    //idle part download threads exit after this long
+    private static final long PART_THREAD_KEEP_ALIVE_SECONDS = 60;
+
     //Do not retry if there's an AmazonS3Exception with this error code
     private static final Set<String> NO_RETRY_ERROR_CODES = new HashSet<>();
 
@@ -88,6 +102,8 @@ public class S3Fetcher extends AbstractTikaExtension implements Fetcher, RangeFe
     private final Object[] clientLock = new Object[0];
     private S3FetcherConfig config;
     private S3Client s3Client;
+    //shared by all multipart downloads; null if multipart downloads are disabled
+    private ThreadPoolExecutor partExecutor;
 
     private S3Fetcher(ExtensionConfig pluginConfig) {
         super(pluginConfig);
@@ -150,6 +166,26 @@ public class S3Fetcher extends AbstractTikaExtension implements Fetcher, RangeFe
         } catch (SdkClientException e) {
             throw new TikaConfigException("can't initialize s3 fetcher", e);
         }
+        if (config.getMultipartThreshold() > -1) {
+            if (!config.isSpoolToTemp()) {
+                throw new TikaConfigException("multipartThreshold requires spoolToTemp");
+            }
+            if (config.getMultipartPartSize() < 1) {
+                throw new TikaConfigException("multipartPartSize must be > 0");
+            }
+            if (config.getMultipartConcurrency() < 1) {
+                throw new TikaConfigException("multipartConcurrency must be > 0");
+            }
+            AtomicInteger threadCounter = new AtomicInteger();
+            partExecutor = new ThreadPoolExecutor(config.getMultipartConcurrency(),
+                    config.getMultipartConcurrency(), PART_THREAD_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "s3-part-download-" + threadCounter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            partExecutor.allowCoreThreadTimeOut(true);
+        }
     }
 
     @Override
@@ -220,8 +256,9 @@ public class S3Fetcher extends AbstractTikaExtension implements Fetcher, RangeFe
         try {
             long start = System.currentTimeMillis();
             GetObjectRequest.Builder builder = GetObjectRequest.builder().bucket(config.getBucket()).key(fetchKey);
-            if (startRange != null && endRange != null
-                    && startRange > -1 && endRange > -1) {
+            boolean isRange = startRange != null && endRange != null
+                    && startRange > -1 && endRange > -1;
+            if (isRange) {
                 String range = String.format(Locale.US, "bytes=%d-%d", startRange, endRange);
                 builder.range(range);
             }
@@ -246,6 +283,22 @@ public class S3Fetcher extends AbstractTikaExtension implements Fetcher, RangeFe
             }
             if (!config.isSpoolToTemp()) {
                 return TikaInputStream.get(s3Object);
+            } else if (!isRange && partExecutor != null && !partExecutor.isShutdown()
+                    && length >= config.getMultipartThreshold()) {
+                //the open response supplies the first part; the rest are fetched as ranges
+                //and the parse can start as soon as the first part is on disk
+                //the other parts must come from the same version of the object
+                GetObjectResponse response = s3Object.response();
+                tmp = new TemporaryResources();
+                Path tmpPath = tmp.createTempFile(FilenameUtils.getSuffixFromPath(fetchKey));
+                long[] throttleSeconds = config.getThrottleSeconds();
+                S3MultipartDownload download = new S3MultipartDownload(tmpPath, length,
+                        config.getMultipartPartSize(), s3Object,
+                        (partStart, partEnd) -> fetchPart(fetchKey, response.versionId(),
+                                response.eTag(), partStart, partEnd),
+                        throttleSeconds == null ? 0 : throttleSeconds.length, partExecutor);
+                LOGGER.debug("started multipart download of {} bytes", length);
+                return TikaInputStream.get(download, tmp, metadata);
             } else {
                 start = System.currentTimeMillis();
                 tmp = new TemporaryResources();
@@ -266,4 +319,69 @@ public class S3Fetcher extends AbstractTikaExtension implements Fetcher, RangeFe
             throw e;
         }
     }
+
+    /**
+     * Fetches a single range of a multipart download, retrying with the configured
+     * throttleSeconds. The request is pinned to the version of the object, or if the
+     * bucket is not versioned, to its ETag, that the first part came from. If the
+     * object has been replaced since, this fails without retrying.
+     */
+    private ResponseInputStream<GetObjectResponse> fetchPart(String fetchKey, String versionId,
+                                                             String eTag, long start, long end)
+            throws IOException {
+        GetObjectRequest.Builder builder = GetObjectRequest.builder().bucket(config.getBucket()).key(fetchKey)
+                .range(String.format(Locale.US, "bytes=%d-%d", start, end));
+        if (!StringUtils.isBlank(versionId)) {
+            builder.versionId(versionId);
+        } else if (!StringUtils.isBlank(eTag)) {
+            builder.ifMatch(eTag);
+        }
+        GetObjectRequest request = builder.build();
+        long[] throttleSeconds = config.getThrottleSeconds();
+        int tries = 0;
+        while (true) {
+            try {
+                synchronized (clientLock) {
+                    return s3Client.getObject(request);
+                }
+            } catch (AwsServiceException e) {
+                if (e.statusCode() == PRECONDITION_FAILED) {
+                    throw new IOException("s3 object " + fetchKey +
+                            " changed during a multipart download; expected ETag " + eTag, e);
+                }
+                if (e.awsErrorDetails() != null &&
+                        NO_RETRY_ERROR_CODES.contains(e.awsErrorDetails().errorCode())) {
+                    throw new IOException(e);
+                }
+                sleepBeforeRetry(e, start, end, throttleSeconds, tries++);
+            } catch (SdkClientException e) {
+                sleepBeforeRetry(e, start, end, throttleSeconds, tries++);
+            }
+        }
+    }
+
+    private static void sleepBeforeRetry(Exception e, long start, long end, long[] throttleSeconds,
+                                         int tries) throws IOException {
+        if (throttleSeconds == null || tries >= throttleSeconds.length) {
+            throw new IOException(e);
+        }
+        LOGGER.warn("exception fetching bytes {}-{} on retry={}", start, end, tries, e);
+        try {
+            Thread.sleep(throttleSeconds[tries] * 1000);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", ie);
+        }
+    }
+
+    /**
+     * Stops the threads of multipart downloads. Downloads that are in flight
+     * are left to finish; new fetches can no longer use multipart downloads.
+     */
+    @Override
+    public void close() throws IOException {
+        if (partExecutor != null) {
+            partExecutor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.fetcher.s3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.tika.io.FileBackedStream;
+
+/**
+ * Downloads an object as concurrent byte-range parts into a preallocated file
+ * and lets the caller read the file sequentially while the parts are still
+ * downloading. A read blocks only until the part that contains the requested
+ * bytes has been written.
+ * <p>
+ * If the consumer needs the whole file, {@link #getCompletedPath()} waits for
+ * all of the parts.
+ * <p>
+ * A part whose stream fails or ends early is fetched again from the first byte
+ * that was not written yet, up to {@code maxResumes} times per part.
+ */
+class S3MultipartDownload extends InputStream implements FileBackedStream {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(S3MultipartDownload.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Opens a stream of the bytes [start, end] of the object.
+     */
+    interface PartFetcher {
+        InputStream fetch(long start, long end) throws IOException;
+    }
+
+    private final Path path;
+    private final long length;
+    private final long partSize;
+    private final FileChannel readChannel;
+    private final CompletableFuture<?>[] parts;
+    private final InputStream firstPart;
+    private final PartFetcher partFetcher;
+    private final int maxResumes;
+    private volatile boolean closed = false;
+    private long position = 0;
+
+    /**
+     * @param firstPart an open stream positioned at the start of the object, used
+     *                  for the first part; the remaining parts are fetched by the partFetcher
+     * @param maxResumes how many times a part that failed partway is fetched again
+     *                   from where it stopped
+     */
+    S3MultipartDownload(Path path, long length, long partSize, InputStream firstPart,
+                        PartFetcher partFetcher, int maxResumes, ExecutorService executorService)
+            throws IOException {
+        this.path = path;
+        this.length = length;
+        this.partSize = partSize;
+        this.firstPart = firstPart;
+        this.partFetcher = partFetcher;
+        this.maxResumes = maxResumes;
+        int numParts = (int) ((length + partSize - 1) / partSize);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            //preallocate so that the parts can be written at their offsets
+            if (length > 0) {
+                channel.write(ByteBuffer.allocate(1), length - 1);
+            }
+        }
+        this.readChannel = FileChannel.open(path, StandardOpenOption.READ);
+        this.parts = new CompletableFuture<?>[numParts];
+        for (int i = 0; i < numParts; i++) {
+            long start = i * partSize;
+            long end = Math.min(length, start + partSize) - 1;
+            InputStream initial = i == 0 ? firstPart : null;
+            parts[i] = CompletableFuture.runAsync(() -> writePart(start, end, initial),
+                    executorService);
+        }
+    }
+
+    /**
+     * @param is an open stream of the part, or null to fetch it
+     */
+    private void writePart(long start, long end, InputStream is) {
+        long begin = System.currentTimeMillis();
+        long pos = start;
+        int resumes = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (pos <= end) {
+                if (closed) {
+                    throw new IllegalStateException("download was closed");
+                }
+                if (is == null) {
+                    is = partFetcher.fetch(pos, end);
+                }
+                IOException failure;
+                try {
+                    int n = is.read(buffer, 0, (int) Math.min(buffer.length, end - pos + 1));
+                    if (n >= 0) {
+                        ByteBuffer bb = ByteBuffer.wrap(buffer, 0, n);
+                        while (bb.hasRemaining()) {
+                            pos += channel.write(bb, pos);
+                        }
+                        continue;
+                    }
+                    failure = new IOException("premature end of part at " + pos + "; expected end at " + end);
+                } catch (IOException e) {
+                    failure = e;
+                }
+                closeQuietly(is);
+                is = null;
+                if (resumes++ >= maxResumes) {
+                    throw failure;
+                }
+                LOGGER.warn("resuming bytes {}-{} on retry={}", pos, end, resumes, failure);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            closeQuietly(is);
+        }
+        LOGGER.debug("downloaded bytes {}-{} in {} ms", start, end, System.currentTimeMillis() - begin);
+    }
+
+    private static void closeQuietly(InputStream is) {
+        if (is == null) {
+            return;
+        }
+        try {
+            is.close();
+        } catch (IOException e) {
+            LOGGER.debug("failed to close part stream", e);
+        }
+    }
+
+    private void awaitPart(int part) throws IOException {
+        try {
+            parts[part].get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("interrupted while waiting for part " + part);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException && cause.getCause() instanceof IOException) {
+                cause = cause.getCause();
+            }
+            throw new IOException("failed to download part " + part, cause);
+        }
+    }
+
+    @Override
+    public Path getCompletedPath() throws IOException {
+        for (int i = 0; i < parts.length; i++) {
+            awaitPart(i);
+        }
+        return path;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            return -1;
+        }
+        int part = (int) (position / partSize);
+        awaitPart(part);
+        long partEnd = Math.min(length, (part + 1) * partSize);
+        int toRead = (int) Math.min(len, partEnd - position);
+        int n = readChannel.read(ByteBuffer.wrap(b, off, toRead), position);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = Math.max(0, Math.min(n, length - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        if (position >= length) {
+            return 0;
+        }
+        int part = (int) (position / partSize);
+        if (!parts[part].isDone() || parts[part].isCompletedExceptionally()) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.min(length, (part + 1) * partSize) - position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (CompletableFuture<?> part : parts) {
+            part.cancel(false);
+        }
+        if (parts.length > 0 && parts[0].isCancelled()) {
+            //the first part never ran, so nobody else will close its stream
+            firstPart.close();
+        }
+        readChannel.close();
+    }
+}
@@ -49,6 +49,10 @@ public class S3FetcherConfig {
     private String endpointConfigurationService;
     private boolean pathStyleAccessEnabled;
     private long[] throttleSeconds;
+    //objects at least this large are downloaded in concurrent ranged parts; -1 disables this
+    private long multipartThreshold = -1;
+    private long multipartPartSize = 8 * 1024 * 1024;
+    private int multipartConcurrency = 4;
 
     public boolean isSpoolToTemp() {
         return spoolToTemp;
@@ -175,4 +179,31 @@ public class S3FetcherConfig {
         this.throttleSeconds = throttleSeconds;
         return this;
     }
+
+    public long getMultipartThreshold() {
+        return multipartThreshold;
+    }
+
+    public S3FetcherConfig setMultipartThreshold(long multipartThreshold) {
+        this.multipartThreshold = multipartThreshold;
+        return this;
+    }
+
+    public long getMultipartPartSize() {
+        return multipartPartSize;
+    }
+
+    public S3FetcherConfig setMultipartPartSize(long multipartPartSize) {
+        this.multipartPartSize = multipartPartSize;
+        return this;
+    }
+
+    public int getMultipartConcurrency() {
+        return multipartConcurrency;
+    }
+
+    public S3FetcherConfig setMultipartConcurrency(int multipartConcurrency) {
+        this.multipartConcurrency = multipartConcurrency;
+        return this;
+    }
 }
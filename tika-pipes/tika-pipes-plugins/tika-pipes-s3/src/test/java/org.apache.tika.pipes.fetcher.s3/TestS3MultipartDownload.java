@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.fetcher.s3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestS3MultipartDownload {
+
+    private static final int PART_SIZE = 1000;
+
+    private final byte[] object = new byte[10 * PART_SIZE + 123];
+
+    private final List<TrackingStream> streams = new CopyOnWriteArrayList<>();
+
+    private final List<Long> fetchedStarts = new CopyOnWriteArrayList<>();
+
+    private ExecutorService executorService;
+
+    @TempDir
+    private Path tempDir;
+
+    private Path path;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        new Random(42).nextBytes(object);
+        executorService = Executors.newFixedThreadPool(4);
+        path = Files.createFile(tempDir.resolve("download"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testPartsCompleteOutOfOrder() throws Exception {
+        //the earlier a part, the longer it takes
+        S3MultipartDownload.PartFetcher fetcher = (start, end) -> {
+            sleep((object.length - start) / PART_SIZE * 5);
+            return open(start, end);
+        };
+        try (S3MultipartDownload download = newDownload(fetcher, 0)) {
+            assertArrayEquals(object, download.readAllBytes());
+            assertArrayEquals(object, Files.readAllBytes(download.getCompletedPath()));
+        }
+        assertAllStreamsClosed();
+    }
+
+    @Test
+    public void testShortPartIsResumed() throws Exception {
+        S3MultipartDownload.PartFetcher fetcher = (start, end) -> {
+            fetchedStarts.add(start);
+            if (start == 3 * PART_SIZE) {
+                //ends early
+                return open(start, start + 99);
+            } else if (start == 5 * PART_SIZE) {
+                //fails partway
+                return new FailingStream(Arrays.copyOfRange(object, (int) start, (int) start + 10));
+            }
+            return open(start, end);
+        };
+        try (S3MultipartDownload download = newDownload(fetcher, 1)) {
+            assertArrayEquals(object, download.readAllBytes());
+        }
+        assertTrue(fetchedStarts.contains(3L * PART_SIZE + 100), fetchedStarts.toString());
+        assertTrue(fetchedStarts.contains(5L * PART_SIZE + 10), fetchedStarts.toString());
+        assertAllStreamsClosed();
+    }
+
+    @Test
+    public void testFailingPart() throws Exception {
+        S3MultipartDownload.PartFetcher fetcher = (start, end) -> {
+            if (start >= 5 * PART_SIZE && start < 6 * PART_SIZE) {
+                throw new IOException("no such part");
+            }
+            return open(start, end);
+        };
+        try (S3MultipartDownload download = newDownload(fetcher, 2)) {
+            //the parts before it can be read
+            byte[] head = download.readNBytes(5 * PART_SIZE);
+            assertArrayEquals(Arrays.copyOf(object, 5 * PART_SIZE), head);
+            IOException e = assertThrows(IOException.class, download::read);
+            assertEquals("no such part", e.getCause().getMessage());
+            assertThrows(IOException.class, download::getCompletedPath);
+        }
+    }
+
+    @Test
+    public void testCloseWhileInFlight() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        S3MultipartDownload.PartFetcher fetcher = (start, end) -> {
+            fetching.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return open(start, end);
+        };
+        S3MultipartDownload download = newDownload(fetcher, 0);
+        assertTrue(fetching.await(10, TimeUnit.SECONDS));
+        download.close();
+        release.countDown();
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        //the parts that were queued never ran, and the running ones stopped
+        assertTrue(streams.size() < 10, "fetched " + streams.size() + " parts");
+        assertAllStreamsClosed();
+    }
+
+    private S3MultipartDownload newDownload(S3MultipartDownload.PartFetcher fetcher,
+                                            int maxResumes) throws IOException {
+        return new S3MultipartDownload(path, object.length, PART_SIZE, open(0, PART_SIZE - 1),
+                fetcher, maxResumes, executorService);
+    }
+
+    private InputStream open(long start, long end) {
+        TrackingStream stream = new TrackingStream(
+                Arrays.copyOfRange(object, (int) start, (int) Math.min(object.length, end + 1)));
+        streams.add(stream);
+        return stream;
+    }
+
+    private void assertAllStreamsClosed() {
+        for (TrackingStream stream : streams) {
+            assertTrue(stream.closed);
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static class TrackingStream extends ByteArrayInputStream {
+        private volatile boolean closed = false;
+
+        TrackingStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    /**
+     * Returns its bytes, then fails like a connection that was reset
+     */
+    private static class FailingStream extends FilterInputStream {
+
+        FailingStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                throw new IOException("connection reset");
+            }
+            return n;
+        }
+    }
+}
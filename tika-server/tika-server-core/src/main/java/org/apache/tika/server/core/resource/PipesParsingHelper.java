@@ -18,8 +18,10 @@ package org.apache.tika.server.core.resource;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -52,6 +54,10 @@ import org.apache.tika.server.core.TikaServerParseException;
  * The helper manages a dedicated temp directory for input files. A file-system-fetcher
  * is configured with basePath pointing to this directory, ensuring child processes
  * can only access files within the designated temp directory (no absolute paths).
+ * <p>
+ * Documents no larger than {@link PipesConfig#getMaxInlineBytes()} are sent inline with
+ * the request and never touch the temp directory. Larger documents that are already
+ * spooled to a file are hard linked into the temp directory rather than copied.
  */
 public class PipesParsingHelper {
 
@@ -104,8 +110,8 @@ public class PipesParsingHelper {
     /**
      * Parses content using pipes-based parsing with process isolation.
      * <p>
-     * This method spools the input to the dedicated temp directory and uses a relative
-     * filename in the FetchKey. The file-system-fetcher is configured with basePath
+     * This method hands the input to the child process inline (small inputs) or through
+     * the dedicated temp directory and uses a relative filename in the FetchKey. The file-system-fetcher is configured with basePath
      * pointing to this directory, so the child process can only access files there.
      * <p>
      * The caller is responsible for closing the TikaInputStream.
@@ -124,19 +130,16 @@ public class PipesParsingHelper {
         Path tempFile = null;
 
         try {
-            // Spool input to our dedicated temp directory with proper suffix
-            String suffix = getSuffix(metadata);
-            tempFile = Files.createTempFile(inputTempDirectory, "tika-", suffix);
-            Files.copy(tis, tempFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-
-            String relativeName = tempFile.getFileName().toString();
-            LOG.debug("parse: spooled to {} ({} bytes)", relativeName, Files.size(tempFile));
+            // Hand the input over inline or through our dedicated temp directory
+            StagedInput input = stageInput(tis, "tika-", getSuffix(metadata));
+            tempFile = input.tempFile();
+            LOG.debug("parse: staged {} (inline={})", input.relativeName(), input.inlineBytes() != null);
 
             // Set parse mode in context
             parseContext.set(ParseMode.class, parseMode);
 
             // Create FetchEmitTuple with relative filename (basePath is configured in fetcher)
-            FetchKey fetchKey = new FetchKey(DEFAULT_FETCHER_ID, relativeName);
+            FetchKey fetchKey = new FetchKey(DEFAULT_FETCHER_ID, input.relativeName());
 
             FetchEmitTuple tuple = new FetchEmitTuple(
                     requestId,
@@ -145,6 +148,7 @@ public class PipesParsingHelper {
                     metadata,
                     parseContext
             );
+            tuple.setInlineBytes(input.inlineBytes());
 
             // Execute parse via pipes - results will be passed back through socket
             PipesResult result = pipesParser.parse(tuple);
@@ -169,6 +173,70 @@ public class PipesParsingHelper {
         }
     }
 
+    /**
+     * Makes the input available to the child process without copying it more than
+     * necessary.
+     * <p>
+     * Inputs no larger than maxInlineBytes are read into memory and sent with the
+     * request. If the TikaInputStream is already backed by a file, that file is hard
+     * linked into the input temp directory; a copy is made only if the link fails
+     * (e.g. the files are on different file systems). Otherwise the stream is spooled
+     * once into the input temp directory.
+     *
+     * @return the staged input; tempFile is null if the bytes are sent inline
+     */
+    StagedInput stageInput(TikaInputStream tis, String prefix, String suffix) throws IOException {
+        int maxInlineBytes = pipesConfig.getMaxInlineBytes();
+        String relativeName = prefix + UUID.randomUUID() + suffix;
+        Path target = inputTempDirectory.resolve(relativeName);
+        if (tis.hasFile()) {
+            Path source = tis.getPath();
+            if (maxInlineBytes > 0 && Files.size(source) <= maxInlineBytes) {
+                return new StagedInput(relativeName, null, Files.readAllBytes(source));
+            }
+            try {
+                Files.createLink(target, source);
+                return new StagedInput(relativeName, target, null);
+            } catch (IOException | UnsupportedOperationException e) {
+                LOG.debug("Couldn't link {} into {}; copying instead", source, inputTempDirectory, e);
+            }
+            try {
+                Files.copy(source, target);
+            } catch (IOException e) {
+                Files.deleteIfExists(target);
+                throw e;
+            }
+            return new StagedInput(relativeName, target, null);
+        }
+
+        byte[] head = new byte[0];
+        if (maxInlineBytes > 0) {
+            head = tis.readNBytes(maxInlineBytes == Integer.MAX_VALUE ? maxInlineBytes : maxInlineBytes + 1);
+            if (head.length <= maxInlineBytes) {
+                return new StagedInput(relativeName, null, head);
+            }
+        }
+        try (OutputStream os = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW)) {
+            os.write(head);
+            tis.transferTo(os);
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return new StagedInput(relativeName, target, null);
+    }
+
+    /**
+     * Input handed over to the child process.
+     *
+     * @param relativeName the fetch key, relative to the input temp directory
+     * @param tempFile the file in the input temp directory, or null if sent inline.
+     *                 The caller must delete it after parsing.
+     * @param inlineBytes the document bytes if sent inline, otherwise null
+     */
+    record StagedInput(String relativeName, Path tempFile, byte[] inlineBytes) {
+    }
+
     /**
      * Extracts file suffix from metadata (resource name or content-type).
      */
@@ -177,7 +245,11 @@ public class PipesParsingHelper {
         if (resourceName != null) {
             int lastDot = resourceName.lastIndexOf('.');
             if (lastDot > 0 && lastDot < resourceName.length() - 1) {
-                return resourceName.substring(lastDot);
+                String suffix = resourceName.substring(lastDot);
+                // the suffix becomes part of a file name in the input temp directory
+                if (suffix.indexOf('/') < 0 && suffix.indexOf('\\') < 0) {
+                    return suffix;
+                }
             }
         }
         // Default suffix
@@ -277,7 +349,7 @@ public class PipesParsingHelper {
      * extracted embedded documents.
      * <p>
      * This method:
-     * 1. Spools input to the dedicated temp directory
+     * 1. Hands the input over inline or through the dedicated temp directory
      * 2. Configures UnpackConfig with zipEmbeddedFiles=true
      * 3. The pipes child process extracts embedded files and creates a zip
      * 4. The zip is emitted to the configured file-system emitter
@@ -298,14 +370,11 @@ public class PipesParsingHelper {
         Path tempFile = null;
 
         try {
-            // Spool input to our dedicated temp directory with proper suffix
-            String suffix = getSuffix(metadata);
-            tempFile = Files.createTempFile(inputTempDirectory, "tika-unpack-", suffix);
-            Files.copy(tis, tempFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-
-            String relativeName = tempFile.getFileName().toString();
-            LOG.debug("parseUnpack: spooled to {} ({} bytes), requestId={}",
-                    relativeName, Files.size(tempFile), requestId);
+            // Hand the input over inline or through our dedicated temp directory
+            StagedInput input = stageInput(tis, "tika-unpack-", getSuffix(metadata));
+            tempFile = input.tempFile();
+            LOG.debug("parseUnpack: staged {} (inline={}), requestId={}",
+                    input.relativeName(), input.inlineBytes() != null, requestId);
 
             // Set parse mode to UNPACK
             parseContext.set(ParseMode.class, ParseMode.UNPACK);
@@ -334,7 +403,7 @@ public class PipesParsingHelper {
             parseContext.set(UnpackConfig.class, unpackConfig);
 
             // Create FetchEmitTuple with relative filename (basePath is configured in fetcher)
-            FetchKey fetchKey = new FetchKey(DEFAULT_FETCHER_ID, relativeName);
+            FetchKey fetchKey = new FetchKey(DEFAULT_FETCHER_ID, input.relativeName());
             EmitKey emitKey = new EmitKey(UNPACK_EMITTER_ID, requestId);
 
         FetchEmitTuple tuple = new FetchEmitTuple(
@@ -344,6 +413,7 @@ public class PipesParsingHelper {
                 metadata,
                 parseContext
         );
+            tuple.setInlineBytes(input.inlineBytes());
 
             // Execute parse via pipes
             PipesResult result;
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core.resource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.pipes.core.PipesConfig;
+
+public class PipesParsingHelperTest {
+
+    @TempDir
+    Path inputDir;
+
+    private PipesParsingHelper newHelper(int maxInlineBytes) {
+        PipesConfig pipesConfig = new PipesConfig();
+        pipesConfig.setMaxInlineBytes(maxInlineBytes);
+        return new PipesParsingHelper(null, pipesConfig, inputDir, null);
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testSmallStreamIsInlined() throws Exception {
+        byte[] bytes = bytes(100);
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(bytes))) {
+            PipesParsingHelper.StagedInput input = newHelper(100).stageInput(tis, "tika-", ".bin");
+            assertNull(input.tempFile());
+            assertArrayEquals(bytes, input.inlineBytes());
+            assertTrue(input.relativeName().startsWith("tika-"));
+            assertTrue(input.relativeName().endsWith(".bin"));
+        }
+        try (var files = Files.list(inputDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testSmallFileIsInlined() throws Exception {
+        byte[] bytes = bytes(100);
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(bytes))) {
+            tis.getPath();
+            PipesParsingHelper.StagedInput input = newHelper(1000).stageInput(tis, "tika-", ".bin");
+            assertNull(input.tempFile());
+            assertArrayEquals(bytes, input.inlineBytes());
+        }
+    }
+
+    @Test
+    public void testLargeStreamIsSpooled() throws Exception {
+        byte[] bytes = bytes(101);
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(bytes))) {
+            PipesParsingHelper.StagedInput input = newHelper(100).stageInput(tis, "tika-", ".bin");
+            assertNull(input.inlineBytes());
+            assertEquals(inputDir.resolve(input.relativeName()), input.tempFile());
+            assertArrayEquals(bytes, Files.readAllBytes(input.tempFile()));
+        }
+    }
+
+    @Test
+    public void testLargeFileIsHandedOver() throws Exception {
+        byte[] bytes = bytes(1000);
+        try (TikaInputStream tis = TikaInputStream.get(new ByteArrayInputStream(bytes))) {
+            Path spooled = tis.getPath();
+            PipesParsingHelper.StagedInput input = newHelper(0).stageInput(tis, "tika-", ".bin");
+            assertNull(input.inlineBytes());
+            assertEquals(inputDir.resolve(input.relativeName()), input.tempFile());
+            assertArrayEquals(bytes, Files.readAllBytes(input.tempFile()));
+            //deleting the handed over file must not affect the original
+            Files.delete(input.tempFile());
+            assertArrayEquals(bytes, Files.readAllBytes(spooled));
+        }
+    }
+}